@@ -0,0 +1,119 @@
+package com.alerts;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link AlertTrigger} decorator that remembers which patients have active alerts
+ * and how urgent they are, before passing every alert on unchanged.
+ * <p>
+ * A patient's active priority is the highest priority of the alerts raised for it
+ * within the last {@code activeMillis}; it is 0 when there are none. The
+ * {@link EvaluationScheduler} uses it to evaluate patients with urgent alerts
+ * first and more often.
+ */
+public class ActiveAlertTracker implements AlertTrigger {
+
+    /** Default time an alert keeps its patient active: 5 minutes. */
+    public static final long DEFAULT_ACTIVE_MILLIS = 5 * 60_000L;
+
+    private final AlertTrigger downstream;
+    private final long activeMillis;
+    private final LongSupplier clock;
+    private final Map<Integer, Active> active = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a tracker with the default active time.
+     *
+     * @param downstream receives every alert
+     */
+    public ActiveAlertTracker(AlertTrigger downstream) {
+        this(downstream, DEFAULT_ACTIVE_MILLIS);
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param downstream   receives every alert
+     * @param activeMillis how long an alert keeps its patient active
+     */
+    public ActiveAlertTracker(AlertTrigger downstream, long activeMillis) {
+        this(downstream, activeMillis, System::currentTimeMillis);
+    }
+
+    ActiveAlertTracker(AlertTrigger downstream, long activeMillis, LongSupplier clock) {
+        if (activeMillis < 0) throw new IllegalArgumentException("Active time must not be negative");
+        this.downstream = downstream;
+        this.activeMillis = activeMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public void trigger(Alert alert) {
+        record(alert);
+        downstream.trigger(alert);
+    }
+
+    @Override
+    public void triggerBatch(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            record(alert);
+        }
+        downstream.triggerBatch(alerts);
+    }
+
+    /**
+     * Returns the highest priority of a patient's active alerts.
+     *
+     * @param patientId the patient's ID
+     * @return the priority, or 0 if the patient has no active alert
+     */
+    public int priorityOf(int patientId) {
+        Active entry = active.get(patientId);
+        if (entry == null) return 0;
+        if (clock.getAsLong() >= entry.untilMillis) {
+            active.remove(patientId, entry);
+            return 0;
+        }
+        return entry.priority;
+    }
+
+    /**
+     * Returns the number of patients that had an alert recently; entries that
+     * have expired but were not looked up since are included.
+     *
+     * @return tracked patient count
+     */
+    public int getTrackedCount() {
+        return active.size();
+    }
+
+    private void record(Alert alert) {
+        int patientId;
+        try {
+            patientId = Integer.parseInt(alert.getPatientId());
+        } catch (NumberFormatException e) {
+            return; // Only numeric IDs are scheduled
+        }
+        long now = clock.getAsLong();
+        Active fresh = new Active(alert.getPriority(), now + activeMillis);
+        // A lower priority alert does not cut short the window of a higher one
+        active.merge(patientId, fresh, (old, neu) ->
+                now < old.untilMillis && old.priority > neu.priority ? old : neu);
+    }
+
+    /**
+     * The highest active priority of one patient and when it expires.
+     */
+    private static final class Active {
+        final int priority;
+        final long untilMillis;
+
+        Active(int priority, long untilMillis) {
+            this.priority = priority;
+            this.untilMillis = untilMillis;
+        }
+    }
+}
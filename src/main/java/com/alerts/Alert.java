@@ -2,12 +2,29 @@ package com.alerts;
 
 /**
  * Base class representing a general patient alert.
+ * <p>
+ * Besides the condition, an alert carries an optional priority boost, repeat
+ * count and the times it finished each {@link AlertStage} as plain fields, so
+ * raising the priority of an alert or marking it as repeated does not need a
+ * decorator object.
  */
 public class Alert {
+
+    /** Highest priority an alert can reach through boosting. */
+    public static final int MAX_PRIORITY = 5;
+
     private final String patientId;
+    private final AlertCondition conditionCode;
     private final String condition;
     private final long timestamp;
 
+    private int priorityBoost = 0;
+    private int repeatCount = -1;
+    private long ingestedAt;
+    private long queuedAt;
+    private long evaluatedAt;
+    private long dispatchedAt;
+
     /**
      * Constructs a new generic alert.
      *
@@ -17,16 +34,58 @@ public class Alert {
      */
     public Alert(String patientId, String condition, long timestamp) {
         this.patientId = patientId;
+        this.conditionCode = AlertCondition.fromLabel(condition);
         this.condition = condition;
         this.timestamp = timestamp;
     }
 
+    /**
+     * Constructs a new alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert was triggered
+     */
+    public Alert(String patientId, AlertCondition condition, long timestamp) {
+        this.patientId = patientId;
+        this.conditionCode = condition;
+        this.condition = condition.getLabel();
+        this.timestamp = timestamp;
+    }
+
     public String getPatientId() {
         return patientId;
     }
 
+    /**
+     * Returns the condition label, followed by the signal if the alert has one and
+     * the repeat count if the alert was marked as repeated.
+     *
+     * @return the condition description
+     */
     public String getCondition() {
-        return condition;
+        String signal = getSignal();
+        String text = signal == null ? condition : condition + ": " + signal;
+        return repeatCount < 0 ? text : text + " (repeated x" + repeatCount + ")";
+    }
+
+    /**
+     * Returns the condition code of this alert.
+     *
+     * @return the code, or null if the alert was created with a free-form condition
+     */
+    public AlertCondition getConditionCode() {
+        return conditionCode;
+    }
+
+    /**
+     * Returns the signal the alert is about, for conditions that apply to more than
+     * one signal (can be overridden).
+     *
+     * @return the signal, e.g. "HeartRate", or null if the condition identifies it
+     */
+    public String getSignal() {
+        return null;
     }
 
     public long getTimestamp() {
@@ -43,18 +102,103 @@ public class Alert {
     }
 
     /**
-     * Returns the priority of the alert (0 = normal).
+     * Returns the priority of the alert (0 = normal): the base priority of the
+     * alert type plus any boost, capped at {@link #MAX_PRIORITY}.
      * Can be overridden or decorated.
      *
      * @return an integer priority level
      */
     public int getPriority() {
+        int base = getBasePriority();
+        return priorityBoost == 0 ? base : Math.min(base + priorityBoost, MAX_PRIORITY);
+    }
+
+    /**
+     * Returns the priority of this kind of alert before any boost.
+     *
+     * @return the base priority (0 for generic alerts)
+     */
+    protected int getBasePriority() {
         return 0;
     }
 
+    /**
+     * Raises (or lowers) the priority of this alert in place.
+     *
+     * @param extraPriority amount added to the base priority
+     * @return this alert, for chaining
+     */
+    public Alert boostPriority(int extraPriority) {
+        this.priorityBoost += extraPriority;
+        return this;
+    }
+
+    /**
+     * Marks this alert as a repeat of an earlier one.
+     *
+     * @param count how many times the condition has occurred
+     * @return this alert, for chaining
+     */
+    public Alert markRepeated(int count) {
+        this.repeatCount = count;
+        return this;
+    }
+
+    /**
+     * Returns how many times the condition has occurred, if the alert was marked as repeated.
+     *
+     * @return the repeat count, or -1 if the alert is not a repeat
+     */
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    /**
+     * Records when this alert finished a stage of the alert pipeline.
+     *
+     * @param stage  the stage
+     * @param millis the time in milliseconds since epoch
+     * @return this alert, for chaining
+     */
+    public Alert markStage(AlertStage stage, long millis) {
+        switch (stage) {
+            case INGEST:
+                ingestedAt = millis;
+                break;
+            case QUEUED:
+                queuedAt = millis;
+                break;
+            case EVALUATED:
+                evaluatedAt = millis;
+                break;
+            default: // DISPATCHED
+                dispatchedAt = millis;
+        }
+        return this;
+    }
+
+    /**
+     * Returns when this alert finished a stage.
+     *
+     * @param stage the stage
+     * @return the time in milliseconds since epoch, or 0 if it was not recorded
+     */
+    public long getStageMillis(AlertStage stage) {
+        switch (stage) {
+            case INGEST:
+                return ingestedAt;
+            case QUEUED:
+                return queuedAt;
+            case EVALUATED:
+                return evaluatedAt;
+            default: // DISPATCHED
+                return dispatchedAt;
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("[%s Alert] %s - Patient: %s (Priority %d)",
-                getAlertType(), condition, patientId, getPriority());
+                getAlertType(), getCondition(), patientId, getPriority());
     }
 }
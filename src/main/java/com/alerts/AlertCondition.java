@@ -0,0 +1,90 @@
+package com.alerts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The known alert conditions, each with its fixed human readable label.
+ * <p>
+ * Strategies emit these codes instead of building condition Strings, so the
+ * label of every alert is a shared constant and alerts can be grouped or
+ * indexed by condition cheaply.
+ */
+public enum AlertCondition {
+    LOW_SATURATION("Low Saturation", "saturation"),
+    RAPID_SATURATION_DROP("Rapid Saturation Drop", "saturation"),
+    CRITICAL_BLOOD_PRESSURE("Critical Blood Pressure", "bloodpressure"),
+    RISING_SYSTOLIC_BP_TREND("Rising Systolic BP Trend", "bloodpressure"),
+    FALLING_SYSTOLIC_BP_TREND("Falling Systolic BP Trend", "bloodpressure"),
+    RISING_DIASTOLIC_BP_TREND("Rising Diastolic BP Trend", "bloodpressure"),
+    FALLING_DIASTOLIC_BP_TREND("Falling Diastolic BP Trend", "bloodpressure"),
+    HYPOTENSIVE_HYPOXEMIA("Hypotensive Hypoxemia", "bloodpressure"),
+    ABNORMAL_ECG_PEAK("Abnormal ECG Peak", "ecg"),
+    LOW_HEART_RATE("Low Heart Rate", "heartrate"),
+    HIGH_HEART_RATE("High Heart Rate", "heartrate"),
+    EARLY_WARNING_RED_PARAMETER("Early Warning Red Parameter", "earlywarning"),
+    EARLY_WARNING_MEDIUM("Early Warning Medium Risk", "earlywarning"),
+    EARLY_WARNING_HIGH("Early Warning High Risk", "earlywarning"),
+    ABOVE_BASELINE("Above Patient Baseline", "anomaly"),
+    BELOW_BASELINE("Below Patient Baseline", "anomaly"),
+    RISING_FROM_BASELINE("Rising From Patient Baseline", "anomaly"),
+    FALLING_FROM_BASELINE("Falling From Patient Baseline", "anomaly");
+
+    private static final Map<String, AlertCondition> BY_LABEL = new HashMap<>();
+
+    static {
+        for (AlertCondition condition : values()) {
+            BY_LABEL.put(condition.label, condition);
+        }
+    }
+
+    private final String label;
+    private final String alertType;
+
+    AlertCondition(String label, String alertType) {
+        this.label = label;
+        this.alertType = alertType;
+    }
+
+    /**
+     * Returns the label shown to users, e.g. "Low Saturation".
+     *
+     * @return the condition label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the alert type used to pick a factory, e.g. "saturation".
+     *
+     * @return the alert type key for {@link com.alerts.factories.AlertFactoryProvider}
+     */
+    public String getAlertType() {
+        return alertType;
+    }
+
+    /**
+     * Looks up the condition with the given label.
+     *
+     * @param label a condition label such as "Critical Blood Pressure"
+     * @return the matching condition, or null for free-form conditions
+     */
+    public static AlertCondition fromLabel(String label) {
+        return label == null ? null : BY_LABEL.get(label);
+    }
+
+    /**
+     * Returns the rising or falling trend condition for a blood pressure component.
+     *
+     * @param systolic true for systolic, false for diastolic
+     * @param rising   true for a rising trend, false for a falling one
+     * @return the matching trend condition
+     */
+    public static AlertCondition bloodPressureTrend(boolean systolic, boolean rising) {
+        if (systolic) {
+            return rising ? RISING_SYSTOLIC_BP_TREND : FALLING_SYSTOLIC_BP_TREND;
+        }
+        return rising ? RISING_DIASTOLIC_BP_TREND : FALLING_DIASTOLIC_BP_TREND;
+    }
+}
@@ -0,0 +1,222 @@
+package com.alerts;
+
+import com.data_management.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link AlertTrigger} decorator around a sink that measures how long alerts
+ * took from their sample to the sink, broken down by {@link AlertStage}.
+ * <p>
+ * After the sink has taken an alert, the alert is marked {@link AlertStage#DISPATCHED}
+ * and the latency of every stage with a known start and end is recorded, together
+ * with the total from the sample's timestamp, in milliseconds. Latencies are kept
+ * overall, per alert type and per condition (i.e. per rule that raised the alert), in
+ * lock-free {@link LatencyHistogram}s, so the cost per alert is a few array and map
+ * lookups; it can be switched off with {@link #setEnabled(boolean)}.
+ * <p>
+ * Alerts marked as repeats by the suppressor are kept in separate histograms: a
+ * "(repeated xN)" summary is held back until its suppression window closes, so its
+ * time from the sample includes the window rather than time spent in the pipeline.
+ */
+public class AlertLatencyTracker implements AlertTrigger {
+
+    private static final AlertStage[] STAGES = AlertStage.values();
+
+    /** Index of the sample-to-sink total in each histogram array. */
+    private static final int TOTAL = STAGES.length;
+
+    private final AlertTrigger sink;
+    private final LatencyHistogram[] overall = newHistograms();
+    private final LatencyHistogram[] repeats = newHistograms();
+    private final Map<String, LatencyHistogram[]> byType = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram[]> byCondition = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    /**
+     * Creates a tracker.
+     *
+     * @param sink receives every alert
+     */
+    public AlertLatencyTracker(AlertTrigger sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void trigger(Alert alert) {
+        sink.trigger(alert);
+        if (enabled) record(alert, System.currentTimeMillis());
+    }
+
+    @Override
+    public void triggerBatch(List<Alert> alerts) {
+        sink.triggerBatch(alerts);
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        for (Alert alert : alerts) {
+            record(alert, now);
+        }
+    }
+
+    /**
+     * Switches measuring on or off; alerts are passed on either way.
+     *
+     * @param enabled whether to record latencies
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the latency of one stage over all alerts.
+     *
+     * @param stage the stage
+     * @return the histogram, in milliseconds
+     */
+    public LatencyHistogram getLatency(AlertStage stage) {
+        return overall[stage.ordinal()];
+    }
+
+    /**
+     * Returns the latency from sample to sink over all alerts.
+     *
+     * @return the histogram, in milliseconds
+     */
+    public LatencyHistogram getTotalLatency() {
+        return overall[TOTAL];
+    }
+
+    /**
+     * Returns the latency of one stage over alerts marked as repeats, which
+     * includes the time they were held back by suppression.
+     *
+     * @param stage the stage, or null for the sample-to-sink total
+     * @return the histogram, in milliseconds
+     */
+    public LatencyHistogram getRepeatLatency(AlertStage stage) {
+        return select(repeats, stage);
+    }
+
+    /**
+     * Returns the latency of one stage for one alert type, e.g. "bloodpressure".
+     *
+     * @param alertType the alert type
+     * @param stage     the stage, or null for the sample-to-sink total
+     * @return the histogram in milliseconds, or null if no alert of the type was seen
+     */
+    public LatencyHistogram getLatencyByType(String alertType, AlertStage stage) {
+        return select(byType.get(alertType), stage);
+    }
+
+    /**
+     * Returns the latency of one stage for one condition.
+     *
+     * @param condition the condition label, e.g. "Critical Blood Pressure"
+     * @param stage     the stage, or null for the sample-to-sink total
+     * @return the histogram in milliseconds, or null if no alert for the condition was seen
+     */
+    public LatencyHistogram getLatencyByCondition(String condition, AlertStage stage) {
+        return select(byCondition.get(condition), stage);
+    }
+
+    /**
+     * Forgets all measurements.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : overall) {
+            histogram.reset();
+        }
+        for (LatencyHistogram histogram : repeats) {
+            histogram.reset();
+        }
+        byType.clear();
+        byCondition.clear();
+    }
+
+    /**
+     * Builds a summary with one line per stage, one line of totals for repeats and
+     * one line of totals per alert type and per condition.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("alert latency (ms):\n");
+        for (AlertStage stage : STAGES) {
+            sb.append(String.format("  %s: %s%n", stage.getLabel(), overall[stage.ordinal()]));
+        }
+        sb.append(String.format("  total: %s%n", overall[TOTAL]));
+        if (repeats[TOTAL].getCount() > 0) {
+            sb.append(String.format("  repeats: %s%n", repeats[TOTAL]));
+        }
+        for (Map.Entry<String, LatencyHistogram[]> e : new TreeMap<>(byType).entrySet()) {
+            sb.append(String.format("  type %s: %s%n", e.getKey(), e.getValue()[TOTAL]));
+        }
+        for (Map.Entry<String, LatencyHistogram[]> e : new TreeMap<>(byCondition).entrySet()) {
+            sb.append(String.format("  condition %s: %s%n", e.getKey(), e.getValue()[TOTAL]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prints {@link #report()} periodically.
+     *
+     * @param executor     runs the printing
+     * @param periodMillis time between summaries
+     * @param out          where to print
+     * @return the scheduled task, to cancel the summaries
+     */
+    public ScheduledFuture<?> startPeriodicSummary(ScheduledExecutorService executor, long periodMillis,
+                                                   PrintStream out) {
+        return executor.scheduleAtFixedRate(() -> {
+            if (overall[TOTAL].getCount() > 0 || repeats[TOTAL].getCount() > 0) out.print(report());
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void record(Alert alert, long now) {
+        alert.markStage(AlertStage.DISPATCHED, now);
+        if (alert.getRepeatCount() >= 0) {
+            record(alert, now, repeats);
+            return;
+        }
+        AlertCondition code = alert.getConditionCode();
+        String condition = code != null ? code.getLabel() : alert.getCondition();
+        LatencyHistogram[] type = byType.computeIfAbsent(alert.getAlertType(), k -> newHistograms());
+        LatencyHistogram[] rule = byCondition.computeIfAbsent(condition, k -> newHistograms());
+
+        record(alert, now, overall);
+        record(alert, now, type);
+        record(alert, now, rule);
+    }
+
+    private static void record(Alert alert, long now, LatencyHistogram[] histograms) {
+        long previous = alert.getTimestamp();
+        for (AlertStage stage : STAGES) {
+            long end = alert.getStageMillis(stage);
+            if (end != 0 && previous != 0) {
+                histograms[stage.ordinal()].record(Math.max(0, end - previous));
+            }
+            previous = end;
+        }
+        histograms[TOTAL].record(Math.max(0, now - alert.getTimestamp()));
+    }
+
+    private static LatencyHistogram select(LatencyHistogram[] histograms, AlertStage stage) {
+        if (histograms == null) return null;
+        return histograms[stage == null ? TOTAL : stage.ordinal()];
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[TOTAL + 1];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+}
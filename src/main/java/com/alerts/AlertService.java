@@ -1,58 +1,232 @@
 package com.alerts;
 
 import com.alerts.factories.AlertFactory;
+import com.alerts.rules.RuleSet;
 import com.alerts.strategies.AlertStrategy;
+import com.alerts.strategies.RuleStrategy;
+import com.alerts.strategies.TimeAlignedJoin;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 /**
  * Central service that applies different alert strategies based on patient data type.
+ * <p>
+ * Every strategy declares the signals (record types) it reads, see
+ * {@link AlertStrategy#getSignals()}. The service keeps, per patient and signal, how
+ * many records it has already handed out, and each evaluation queries only the new
+ * records of the declared signals from the patient's per-signal series. Record types
+ * no strategy reads are never fetched. A strategy receives the new records of all its
+ * signals merged in time order, restricted to its lookback window and, if it asks for
+ * it, to the newest few samples per signal.
+ * <p>
+ * Built with a {@link RuleSet} instead of a strategy map, the service applies all
+ * rules in one pass over the new records of the signals the rules read.
+ * <p>
+ * Lookback windows end at the time of the service's clock, the wall clock unless
+ * another one is set with {@link #setClock(LongSupplier)}; replaying recorded data
+ * uses a {@link VirtualClock} that follows the samples.
+ * <p>
+ * Strategies may be added while other threads evaluate: the signal and strategy
+ * lists are copied on write and published as a whole, and an evaluation works on the
+ * lists it read when it started.
  */
 public class AlertService {
 
-    private final AlertFactory alertFactory;
-    private final Map<String, AlertStrategy> strategies;
     private final AlertTrigger trigger;
 
+    /**
+     * Distinct signals read by any strategy, lower case; a signal's index is its cursor
+     * slot. Immutable, replaced when a strategy adds signals, and only ever grows.
+     */
+    private volatile List<String> signals = Collections.emptyList();
+
+    /** The strategies with the cursor slots of their signals; immutable, replaced on change. */
+    private volatile List<Subscription> subscriptions = Collections.emptyList();
+
+    /** Number of records already evaluated, per patient ID and signal slot. */
+    private final Map<Integer, int[]> cursors = new ConcurrentHashMap<>();
+
+    /** Current time in milliseconds, the end of every lookback window. */
+    private volatile LongSupplier clock = System::currentTimeMillis;
+
     /**
      * Constructs an AlertService with required components.
+     * <p>
+     * The factory is ignored: strategies create their own alerts. The parameter is
+     * kept so existing callers still compile.
      *
-     * @param alertFactory the factory to create alert objects
+     * @param alertFactory ignored
      * @param strategies a map connecting each record type to its corresponding alert strategy
      * @param trigger the alert trigger responsible for dispatching alerts
      */
     public AlertService(AlertFactory alertFactory, Map<String, AlertStrategy> strategies, AlertTrigger trigger) {
-        this.alertFactory = alertFactory;
-        this.strategies = strategies;
         this.trigger = trigger;
+        for (Map.Entry<String, AlertStrategy> entry : strategies.entrySet()) {
+            List<String> declared = entry.getValue().getSignals();
+            subscribe(entry.getValue(), declared.isEmpty() ? Collections.singletonList(entry.getKey()) : declared);
+        }
+    }
+
+    /**
+     * Constructs an AlertService that applies a rule set to all record types in a single pass.
+     *
+     * @param rules   the compiled alert rules, e.g. {@link RuleSet#builtIn()}
+     * @param trigger the alert trigger responsible for dispatching alerts
+     */
+    public AlertService(RuleSet rules, AlertTrigger trigger) {
+        this.trigger = trigger;
+        subscribe(new RuleStrategy(rules), rules.getRecordTypes());
     }
 
     /**
-     * Evaluates a patient's recent data and uses the right strategy to check for alerts.
+     * Sets the clock that decides which records still fall inside a strategy's
+     * lookback window.
+     *
+     * @param clock current time in milliseconds since UNIX epoch
+     * @return this service
+     */
+    public AlertService setClock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Adds a strategy next to those given to the constructor, e.g. an
+     * {@link EarlyWarningScorer} beside a rule set. Signals new to the service are
+     * read from their first record on.
+     *
+     * @param strategy the strategy; its signals must be declared
+     * @return this service
+     */
+    public synchronized AlertService addStrategy(AlertStrategy strategy) {
+        if (strategy.getSignals().isEmpty()) {
+            throw new IllegalArgumentException("Strategy must declare its signals");
+        }
+        subscribe(strategy, strategy.getSignals());
+        return this;
+    }
+
+    /**
+     * Adds a strategy. Called by the constructors and, holding the lock, by
+     * {@link #addStrategy}. The signals are published before the subscription that
+     * refers to them.
+     */
+    private void subscribe(AlertStrategy strategy, List<String> strategySignals) {
+        List<String> newSignals = new ArrayList<>(signals);
+        int[] slots = new int[strategySignals.size()];
+        for (int i = 0; i < slots.length; i++) {
+            String signal = strategySignals.get(i).toLowerCase(Locale.ROOT);
+            int slot = newSignals.indexOf(signal);
+            if (slot < 0) {
+                slot = newSignals.size();
+                newSignals.add(signal);
+            }
+            slots[i] = slot;
+        }
+        List<Subscription> newSubscriptions = new ArrayList<>(subscriptions);
+        newSubscriptions.add(new Subscription(strategy, slots));
+        signals = Collections.unmodifiableList(newSignals);
+        subscriptions = Collections.unmodifiableList(newSubscriptions);
+    }
+
+    /**
+     * Evaluates a patient's new data and uses the right strategy to check for alerts.
+     * Records older than a strategy's lookback window are skipped.
      *
      * @param patient the patient whose data should be evaluated
      */
     public void evaluate(Patient patient) {
-        long now = System.currentTimeMillis();
-        long tenMinutesAgo = now - 10 * 60 * 1000;
-        String id = String.valueOf(patient.getPatientId());
+        int patientId = patient.getPatientId();
+        String id = String.valueOf(patientId);
+        // Subscriptions first: the signals read after them cover every slot they use
+        List<Subscription> subscriptions = this.subscriptions;
+        List<String> signals = this.signals;
 
-        List<PatientRecord> records = patient.getRecords(tenMinutesAgo, now);
-        Map<String, List<PatientRecord>> grouped = records.stream()
-                .collect(Collectors.groupingBy(PatientRecord::getRecordType));
+        int[] cursor = cursors.computeIfAbsent(patientId, k -> new int[signals.size()]);
+        if (cursor.length < signals.size()) {
+            cursor = Arrays.copyOf(cursor, signals.size()); // a strategy was added since
+            cursors.put(patientId, cursor);
+        }
+        for (int slot = 0; slot < signals.size(); slot++) {
+            if (cursor[slot] > patient.getRecordCount(signals.get(slot))) {
+                // The patient was re-created (e.g. storage cleared), start over
+                reset(patientId);
+                cursor = cursors.computeIfAbsent(patientId, k -> new int[signals.size()]);
+                break;
+            }
+        }
 
-        for (Map.Entry<String, List<PatientRecord>> entry : grouped.entrySet()) {
-            String type = entry.getKey();
-            List<PatientRecord> typeRecords = entry.getValue();
+        List<List<PatientRecord>> fresh = new ArrayList<>(signals.size());
+        boolean any = false;
+        for (int slot = 0; slot < signals.size(); slot++) {
+            List<PatientRecord> records = patient.getRecordsFrom(signals.get(slot), cursor[slot]);
+            cursor[slot] += records.size();
+            fresh.add(records);
+            any |= !records.isEmpty();
+        }
+        if (!any) return;
+
+        long now = clock.getAsLong();
+        for (Subscription subscription : subscriptions) {
+            AlertStrategy strategy = subscription.strategy;
+            long windowStart = now - strategy.getLookbackMillis();
+            int maxSamples = strategy.getMaxSamples();
 
-            AlertStrategy strategy = strategies.get(type);
-            if (strategy != null) {
-                strategy.checkAlert(id, typeRecords, trigger);
+            List<List<PatientRecord>> streams = new ArrayList<>(subscription.slots.length);
+            for (int slot : subscription.slots) {
+                List<PatientRecord> stream = select(fresh.get(slot), windowStart, maxSamples);
+                if (!stream.isEmpty()) streams.add(stream);
             }
+            if (streams.isEmpty()) continue;
+            strategy.onSamples(id, streams.size() == 1 ? streams.get(0) : TimeAlignedJoin.mergeByTime(streams),
+                    trigger);
+        }
+    }
+
+    /**
+     * Returns the newest samples no older than the window start, at most {@code maxSamples}.
+     */
+    private static List<PatientRecord> select(List<PatientRecord> records, long windowStart, int maxSamples) {
+        List<PatientRecord> selected = new ArrayList<>(Math.min(records.size(), maxSamples));
+        for (int i = records.size() - 1; i >= 0 && selected.size() < maxSamples; i--) {
+            PatientRecord record = records.get(i);
+            if (record.getTimestamp() >= windowStart) selected.add(record);
+        }
+        Collections.reverse(selected);
+        return selected;
+    }
+
+    /**
+     * Forgets the evaluation progress and strategy state of a patient.
+     *
+     * @param patientId the patient to reset
+     */
+    public void reset(int patientId) {
+        cursors.remove(patientId);
+        for (Subscription subscription : subscriptions) {
+            subscription.strategy.resetPatient(String.valueOf(patientId));
+        }
+    }
+
+    /**
+     * A strategy and the cursor slots of the signals it reads.
+     */
+    private static final class Subscription {
+        final AlertStrategy strategy;
+        final int[] slots;
+
+        Subscription(AlertStrategy strategy, int[] slots) {
+            this.strategy = strategy;
+            this.slots = slots;
         }
     }
 }
@@ -0,0 +1,33 @@
+package com.alerts;
+
+/**
+ * The stages an alert passes through between the sample that raised it and its
+ * delivery. Each stage ends at a point in time recorded on the alert with
+ * {@link Alert#markStage(AlertStage, long)}; the latency of a stage is the time from
+ * the end of the previous stage (or, for the first, from the sample's timestamp).
+ */
+public enum AlertStage {
+    /** Ends when the sample has been stored. */
+    INGEST("ingest"),
+    /** Ends when evaluation of the patient's new samples starts, e.g. at the next tick. */
+    QUEUED("queued"),
+    /** Ends when a rule raises the alert. */
+    EVALUATED("evaluated"),
+    /** Ends when the sink has taken the alert, including suppression and dispatch queueing. */
+    DISPATCHED("dispatched");
+
+    private final String label;
+
+    AlertStage(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the short name used in reports.
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,538 @@
+package com.alerts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History of delivered alerts that can be queried by patient, condition and time,
+ * e.g. "all alerts for patient 42 in the last shift" or "Low Saturation alerts per hour".
+ * <p>
+ * Register it as an {@link AlertTrigger} sink. Alerts are kept in a compact columnar
+ * layout: for each alert only the patient (as an index into a dictionary of patient
+ * IDs), the condition (as an index into a dictionary whose first entries are the
+ * {@link AlertCondition}s), the signal of conditions shared by several signals (as an
+ * index into a dictionary of signals), the timestamp and the priority are stored, in chunks of
+ * {@link #CHUNK_ROWS} parallel primitive arrays. Rows are kept in time order within a
+ * chunk; alerts arrive nearly in time order, so a late alert only moves a few rows.
+ * <p>
+ * When a chunk is full it is sealed and gets two indexes: its rows sorted by patient
+ * and by condition, each in time order per key. A query binary-searches every chunk
+ * whose time span overlaps the range for the first matching row and reads the rows
+ * up to the end of the range, so it touches only rows it returns.
+ * <p>
+ * Retention is bounded: once more than {@code maxAlerts} alerts are stored, whole
+ * chunks are evicted oldest first. With a journal file, every alert is also appended
+ * to it and the journal is read back when the store is created, so history survives a
+ * restart; the journal itself is append-only and is not trimmed by retention.
+ * <p>
+ * All methods are thread-safe.
+ */
+public class AlertStore implements AlertTrigger, Closeable {
+
+    /** Number of alerts per chunk. */
+    public static final int CHUNK_ROWS = 4096;
+
+    /** Default number of alerts kept in memory. */
+    public static final int DEFAULT_MAX_ALERTS = 1_000_000;
+
+    private static final AlertCondition[] CONDITIONS = AlertCondition.values();
+
+    /** Separates the condition from the signal in a condition text. */
+    private static final String SIGNAL_SEPARATOR = ": ";
+
+    private final int maxAlerts;
+    private final Map<String, Integer> patientCodes = new HashMap<>();
+    private final List<String> patientIds = new ArrayList<>();
+    private final Map<String, Integer> conditionCodes = new HashMap<>();
+    private final List<String> conditionLabels = new ArrayList<>();
+    private final Map<String, Integer> signalCodes = new HashMap<>();
+    private final List<String> signalNames = new ArrayList<>(List.of(""));
+    private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+    private Chunk active = new Chunk();
+    private int size = 0;
+    private long evicted = 0;
+    private final DataOutputStream journal;
+
+    /**
+     * Creates an in-memory store with the default retention.
+     */
+    public AlertStore() {
+        this(DEFAULT_MAX_ALERTS);
+    }
+
+    /**
+     * Creates an in-memory store.
+     *
+     * @param maxAlerts number of most recent alerts that are always kept
+     */
+    public AlertStore(int maxAlerts) {
+        if (maxAlerts < 1) throw new IllegalArgumentException("Retention must be positive");
+        this.maxAlerts = maxAlerts;
+        for (AlertCondition condition : CONDITIONS) {
+            conditionCode(condition.getLabel());
+        }
+        this.journal = null;
+    }
+
+    /**
+     * Creates a store backed by an append-only journal. Alerts already in the journal
+     * are loaded first (subject to retention); a truncated last record is ignored.
+     *
+     * @param maxAlerts number of most recent alerts that are always kept in memory
+     * @param journal   the journal file, created if missing
+     * @throws IOException if the journal cannot be read or opened for appending
+     */
+    public AlertStore(int maxAlerts, Path journal) throws IOException {
+        if (maxAlerts < 1) throw new IllegalArgumentException("Retention must be positive");
+        this.maxAlerts = maxAlerts;
+        for (AlertCondition condition : CONDITIONS) {
+            conditionCode(condition.getLabel());
+        }
+        if (Files.exists(journal)) {
+            replay(journal);
+        }
+        this.journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journal,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Stores an alert.
+     *
+     * @param alert the delivered alert
+     */
+    @Override
+    public synchronized void trigger(Alert alert) {
+        append(alert);
+        flush();
+    }
+
+    /**
+     * Stores a batch of alerts with a single journal flush.
+     *
+     * @param alerts the delivered alerts
+     */
+    @Override
+    public synchronized void triggerBatch(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            append(alert);
+        }
+        flush();
+    }
+
+    /**
+     * Returns the alerts of a patient within a time range.
+     *
+     * @param patientId the patient's ID
+     * @param from      start of the range in milliseconds, inclusive
+     * @param to        end of the range in milliseconds, exclusive
+     * @return the alerts, oldest first
+     */
+    public synchronized List<Entry> findByPatient(String patientId, long from, long to) {
+        Integer code = patientCodes.get(patientId);
+        List<Entry> result = new ArrayList<>();
+        if (code != null) scan(Chunk.BY_PATIENT, code, from, to, (chunk, row) -> result.add(entry(chunk, row)));
+        return sorted(result);
+    }
+
+    /**
+     * Returns the alerts for a condition within a time range.
+     *
+     * @param condition the condition
+     * @param from      start of the range in milliseconds, inclusive
+     * @param to        end of the range in milliseconds, exclusive
+     * @return the alerts, oldest first
+     */
+    public synchronized List<Entry> findByCondition(AlertCondition condition, long from, long to) {
+        List<Entry> result = new ArrayList<>();
+        scan(Chunk.BY_CONDITION, condition.ordinal(), from, to, (chunk, row) -> result.add(entry(chunk, row)));
+        return sorted(result);
+    }
+
+    /**
+     * Returns all alerts within a time range.
+     *
+     * @param from start of the range in milliseconds, inclusive
+     * @param to   end of the range in milliseconds, exclusive
+     * @return the alerts, oldest first
+     */
+    public synchronized List<Entry> findInRange(long from, long to) {
+        List<Entry> result = new ArrayList<>();
+        scan(Chunk.BY_TIME, 0, from, to, (chunk, row) -> result.add(entry(chunk, row)));
+        return sorted(result);
+    }
+
+    /**
+     * Counts the alerts for a condition in consecutive buckets, e.g. per hour.
+     *
+     * @param condition    the condition
+     * @param from         start of the first bucket in milliseconds
+     * @param to           end of the range in milliseconds, exclusive
+     * @param bucketMillis bucket length in milliseconds
+     * @return the count per bucket; the last bucket may be shorter
+     */
+    public synchronized long[] countByCondition(AlertCondition condition, long from, long to, long bucketMillis) {
+        if (bucketMillis < 1) throw new IllegalArgumentException("Bucket length must be positive");
+        long[] counts = new long[(int) Math.max(0, (to - from + bucketMillis - 1) / bucketMillis)];
+        scan(Chunk.BY_CONDITION, condition.ordinal(), from, to,
+                (chunk, row) -> counts[(int) ((chunk.times[row] - from) / bucketMillis)]++);
+        return counts;
+    }
+
+    /**
+     * Returns the number of alerts held in memory.
+     *
+     * @return stored alert count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of alerts evicted by retention.
+     *
+     * @return evicted alert count
+     */
+    public synchronized long getEvictedCount() {
+        return evicted;
+    }
+
+    /**
+     * Closes the journal, if any.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    private void append(Alert alert) {
+        AlertCondition code = alert.getConditionCode();
+        String label = code != null ? code.getLabel() : alert.getCondition();
+        String signal = code != null ? alert.getSignal() : null;
+        insert(alert.getPatientId(), label, signal, alert.getTimestamp(), alert.getPriority());
+        if (journal != null) {
+            try {
+                journal.writeUTF(alert.getPatientId());
+                // "<label>: <signal>" keeps the record layout of journals written without signals
+                journal.writeUTF(signal == null ? label : label + SIGNAL_SEPARATOR + signal);
+                journal.writeLong(alert.getTimestamp());
+                journal.writeByte(alert.getPriority());
+            } catch (IOException e) {
+                System.err.println("Failed to write alert journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flush() {
+        if (journal == null) return;
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to flush alert journal: " + e.getMessage());
+        }
+    }
+
+    private void replay(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                String patientId;
+                String label;
+                long timestamp;
+                int priority;
+                try {
+                    patientId = in.readUTF();
+                    label = in.readUTF();
+                    timestamp = in.readLong();
+                    priority = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                String signal = null;
+                int separator = label.lastIndexOf(SIGNAL_SEPARATOR);
+                if (separator > 0 && AlertCondition.fromLabel(label.substring(0, separator)) != null) {
+                    signal = label.substring(separator + SIGNAL_SEPARATOR.length());
+                    label = label.substring(0, separator);
+                }
+                insert(patientId, label, signal, timestamp, priority);
+            }
+        }
+    }
+
+    private void insert(String patientId, String label, String signal, long timestamp, int priority) {
+        Integer patient = patientCodes.get(patientId);
+        if (patient == null) {
+            patient = patientIds.size();
+            patientCodes.put(patientId, patient);
+            patientIds.add(patientId);
+        }
+        active.add(timestamp, patient, conditionCode(label), signalCode(signal), (byte) priority);
+        size++;
+        if (active.size == CHUNK_ROWS) {
+            active.seal();
+            chunks.addLast(active);
+            active = new Chunk();
+            while (size - chunks.peekFirst().size >= maxAlerts) {
+                Chunk oldest = chunks.pollFirst();
+                size -= oldest.size;
+                evicted += oldest.size;
+            }
+        }
+    }
+
+    private short conditionCode(String label) {
+        Integer code = conditionCodes.get(label);
+        if (code == null) {
+            if (conditionLabels.size() == Short.MAX_VALUE) throw new IllegalStateException("Too many conditions");
+            code = conditionLabels.size();
+            conditionCodes.put(label, code);
+            conditionLabels.add(label);
+        }
+        return code.shortValue();
+    }
+
+    private short signalCode(String signal) {
+        if (signal == null) return 0;
+        Integer code = signalCodes.get(signal);
+        if (code == null) {
+            if (signalNames.size() == Short.MAX_VALUE) throw new IllegalStateException("Too many signals");
+            code = signalNames.size();
+            signalCodes.put(signal, code);
+            signalNames.add(signal);
+        }
+        return code.shortValue();
+    }
+
+    private void scan(int index, int key, long from, long to, RowVisitor visitor) {
+        for (Chunk chunk : chunks) {
+            chunk.scan(index, key, from, to, visitor);
+        }
+        active.scan(index, key, from, to, visitor);
+    }
+
+    private Entry entry(Chunk chunk, int row) {
+        int condition = chunk.conditions[row];
+        int signal = chunk.signals[row];
+        return new Entry(patientIds.get(chunk.patients[row]), conditionLabels.get(condition),
+                condition < CONDITIONS.length ? CONDITIONS[condition] : null,
+                signal == 0 ? null : signalNames.get(signal), chunk.times[row], chunk.priorities[row]);
+    }
+
+    private static List<Entry> sorted(List<Entry> entries) {
+        // Each chunk yields its rows in time order; chunks only overlap around late alerts
+        entries.sort(Comparator.comparingLong(Entry::getTimestamp));
+        return entries;
+    }
+
+    /**
+     * Receives the rows matched by a scan.
+     */
+    @FunctionalInterface
+    private interface RowVisitor {
+        void visit(Chunk chunk, int row);
+    }
+
+    /**
+     * Up to {@link #CHUNK_ROWS} alerts as parallel columns in time order, plus the
+     * patient and condition indexes once the chunk is full.
+     */
+    private static final class Chunk {
+        static final int BY_TIME = 0;
+        static final int BY_PATIENT = 1;
+        static final int BY_CONDITION = 2;
+
+        final long[] times = new long[CHUNK_ROWS];
+        final int[] patients = new int[CHUNK_ROWS];
+        final short[] conditions = new short[CHUNK_ROWS];
+        final short[] signals = new short[CHUNK_ROWS];
+        final byte[] priorities = new byte[CHUNK_ROWS];
+        int size = 0;
+        int[] byPatient;
+        int[] byCondition;
+
+        void add(long time, int patient, short condition, short signal, byte priority) {
+            int row = size;
+            while (row > 0 && times[row - 1] > time) {
+                row--;
+            }
+            if (row < size) {
+                System.arraycopy(times, row, times, row + 1, size - row);
+                System.arraycopy(patients, row, patients, row + 1, size - row);
+                System.arraycopy(conditions, row, conditions, row + 1, size - row);
+                System.arraycopy(signals, row, signals, row + 1, size - row);
+                System.arraycopy(priorities, row, priorities, row + 1, size - row);
+            }
+            times[row] = time;
+            patients[row] = patient;
+            conditions[row] = condition;
+            signals[row] = signal;
+            priorities[row] = priority;
+            size++;
+        }
+
+        void seal() {
+            byPatient = sortRowsByKey(BY_PATIENT);
+            byCondition = sortRowsByKey(BY_CONDITION);
+        }
+
+        void scan(int index, int key, long from, long to, RowVisitor visitor) {
+            if (size == 0 || from >= to || times[0] >= to || times[size - 1] < from) return;
+            int[] order = index == BY_PATIENT ? byPatient : index == BY_CONDITION ? byCondition : null;
+            if (order == null) {
+                // Time index, or an unsealed chunk: walk the time range and filter
+                for (int row = lowerBound(from); row < size && times[row] < to; row++) {
+                    if (index == BY_TIME || keyOf(index, row) == key) visitor.visit(this, row);
+                }
+                return;
+            }
+            // First position whose (key, time) is not before (key, from)
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int row = order[mid];
+                int k = keyOf(index, row);
+                if (k < key || (k == key && times[row] < from)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo; i < size; i++) {
+                int row = order[i];
+                if (keyOf(index, row) != key || times[row] >= to) break;
+                visitor.visit(this, row);
+            }
+        }
+
+        private int keyOf(int index, int row) {
+            return index == BY_PATIENT ? patients[row] : conditions[row];
+        }
+
+        private int lowerBound(long time) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Stable merge sort of the row numbers by key. Rows are in time order, so
+         * rows with the same key stay in time order.
+         */
+        private int[] sortRowsByKey(int index) {
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = i;
+            }
+            int[] buffer = new int[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int lo = 0; lo < size; lo += 2 * width) {
+                    int mid = Math.min(lo + width, size);
+                    int hi = Math.min(lo + 2 * width, size);
+                    int i = lo;
+                    int j = mid;
+                    for (int k = lo; k < hi; k++) {
+                        if (i < mid && (j >= hi || keyOf(index, rows[i]) <= keyOf(index, rows[j]))) {
+                            buffer[k] = rows[i++];
+                        } else {
+                            buffer[k] = rows[j++];
+                        }
+                    }
+                }
+                int[] swap = rows;
+                rows = buffer;
+                buffer = swap;
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * One stored alert as returned by a query.
+     */
+    public static final class Entry {
+        private final String patientId;
+        private final String condition;
+        private final AlertCondition conditionCode;
+        private final String signal;
+        private final long timestamp;
+        private final int priority;
+
+        Entry(String patientId, String condition, AlertCondition conditionCode, String signal, long timestamp,
+              int priority) {
+            this.patientId = patientId;
+            this.condition = condition;
+            this.conditionCode = conditionCode;
+            this.signal = signal;
+            this.timestamp = timestamp;
+            this.priority = priority;
+        }
+
+        public String getPatientId() {
+            return patientId;
+        }
+
+        /**
+         * Returns the condition label with the signal it applies to, if any, but
+         * without any repeat count.
+         *
+         * @return the condition description, e.g. "Above Patient Baseline: HeartRate"
+         */
+        public String getCondition() {
+            return signal == null ? condition : condition + SIGNAL_SEPARATOR + signal;
+        }
+
+        /**
+         * Returns the condition code.
+         *
+         * @return the code, or null for a free-form condition
+         */
+        public AlertCondition getConditionCode() {
+            return conditionCode;
+        }
+
+        /**
+         * Returns the signal of a condition shared by several signals.
+         *
+         * @return the signal, or null if the condition identifies it
+         */
+        public String getSignal() {
+            return signal;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s - Patient: %s at %d (Priority %d)", getCondition(), patientId, timestamp, priority);
+        }
+    }
+}
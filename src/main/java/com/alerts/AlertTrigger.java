@@ -1,5 +1,7 @@
 package com.alerts;
 
+import java.util.List;
+
 /**
  * Functional interface for triggering an alert.
  * This allows strategies to send alerts without knowing how they're handled.
@@ -13,4 +15,17 @@ public interface AlertTrigger {
      * @param alert The alert to be triggered.
      */
     void trigger(Alert alert);
+
+    /**
+     * Called with several alerts at once, e.g. by an asynchronous dispatcher.
+     * Sinks with a per-call cost (a flush, a network write) can override this
+     * to handle the whole batch in one go.
+     *
+     * @param alerts the alerts to be triggered, in order
+     */
+    default void triggerBatch(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            trigger(alert);
+        }
+    }
 }
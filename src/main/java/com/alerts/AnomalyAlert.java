@@ -0,0 +1,69 @@
+package com.alerts;
+
+/**
+ * An alert raised when a signal deviates from the patient's own baseline,
+ * see {@link com.alerts.strategies.AnomalyDetectionStrategy}.
+ * <p>
+ * The condition says how the signal deviates; the signal itself is appended to the
+ * condition text, e.g. "Above Patient Baseline: HeartRate".
+ */
+public class AnomalyAlert extends Alert {
+
+    private final String signal;
+
+    /**
+     * Constructs a new anomaly alert.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the alert condition description
+     * @param timestamp the time the alert occurred
+     */
+    public AnomalyAlert(String patientId, String condition, long timestamp) {
+        super(patientId, condition, timestamp);
+        this.signal = null;
+    }
+
+    /**
+     * Constructs a new anomaly alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public AnomalyAlert(String patientId, AlertCondition condition, long timestamp) {
+        this(patientId, condition, timestamp, null);
+    }
+
+    /**
+     * Constructs a new anomaly alert for a known condition and signal.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     * @param signal    the deviating signal, e.g. "HeartRate", or null
+     */
+    public AnomalyAlert(String patientId, AlertCondition condition, long timestamp, String signal) {
+        super(patientId, condition, timestamp);
+        this.signal = signal;
+    }
+
+    /**
+     * Returns the signal that deviated.
+     *
+     * @return the signal, or null if unknown
+     */
+    @Override
+    public String getSignal() {
+        return signal;
+    }
+
+    @Override
+    public String getAlertType() {
+        return "anomaly";
+    }
+
+    @Override
+    protected int getBasePriority() {
+        return 1; // Relative to the patient's norm, worth a look
+    }
+}
@@ -2,6 +2,10 @@ package com.alerts;
 
 /**
  * An alert related to abnormal blood pressure values.
+ * <p>
+ * Critical blood pressure and hypotensive hypoxemia are critical (priority 3), so
+ * they are never dropped by the dispatcher and make their patient urgent; trends are
+ * of moderate urgency.
  */
 public class BloodPressureAlert extends Alert {
 
@@ -16,13 +20,28 @@ public class BloodPressureAlert extends Alert {
         super(patientId, condition, timestamp);
     }
 
+    /**
+     * Constructs a new blood pressure alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public BloodPressureAlert(String patientId, AlertCondition condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
     @Override
     public String getAlertType() {
         return "bloodpressure";
     }
 
     @Override
-    public int getPriority() {
+    protected int getBasePriority() {
+        AlertCondition code = getConditionCode();
+        if (code == AlertCondition.CRITICAL_BLOOD_PRESSURE || code == AlertCondition.HYPOTENSIVE_HYPOXEMIA) {
+            return 3; // Critical
+        }
         return 2; // Moderate urgency
     }
 }
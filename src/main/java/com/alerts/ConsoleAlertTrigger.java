@@ -1,5 +1,7 @@
 package com.alerts;
 
+import java.util.List;
+
 /**
  * A simple implementation of AlertTrigger that prints alerts to the console.
  * This is mainly useful for debugging or testing because it just shows the alert
@@ -14,7 +16,27 @@ public class ConsoleAlertTrigger implements AlertTrigger {
      */
     @Override
     public void trigger(Alert alert) {
-        System.out.println("ALERT for Patient " + alert.getPatientId()
-                + ": " + alert.getCondition() + " at " + alert.getTimestamp());
+        System.out.println(format(new StringBuilder(), alert));
+    }
+
+    /**
+     * Displays a batch of alerts with a single write to the console.
+     *
+     * @param alerts the alerts to display
+     */
+    @Override
+    public void triggerBatch(List<Alert> alerts) {
+        if (alerts.isEmpty()) return;
+        StringBuilder out = new StringBuilder(alerts.size() * 64);
+        for (Alert alert : alerts) {
+            format(out, alert).append(System.lineSeparator());
+        }
+        System.out.print(out);
+    }
+
+    private static StringBuilder format(StringBuilder out, Alert alert) {
+        return out.append("ALERT for Patient ").append(alert.getPatientId())
+                .append(": ").append(alert.getCondition())
+                .append(" at ").append(alert.getTimestamp());
     }
 }
@@ -16,13 +16,24 @@ public class ECGAlert extends Alert {
         super(patientId, condition, timestamp);
     }
 
+    /**
+     * Constructs a new ECG alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public ECGAlert(String patientId, AlertCondition condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
     @Override
     public String getAlertType() {
         return "ecg";
     }
 
     @Override
-    public int getPriority() {
+    protected int getBasePriority() {
         return 3; // High urgency
     }
 }
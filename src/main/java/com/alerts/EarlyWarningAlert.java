@@ -0,0 +1,43 @@
+package com.alerts;
+
+/**
+ * An alert raised when a patient's aggregate early warning score escalates,
+ * see {@link EarlyWarningScorer}.
+ */
+public class EarlyWarningAlert extends Alert {
+
+    /**
+     * Constructs a new early warning alert.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the alert condition description
+     * @param timestamp the time the alert occurred
+     */
+    public EarlyWarningAlert(String patientId, String condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
+    /**
+     * Constructs a new early warning alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public EarlyWarningAlert(String patientId, AlertCondition condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
+    @Override
+    public String getAlertType() {
+        return "earlywarning";
+    }
+
+    @Override
+    protected int getBasePriority() {
+        AlertCondition condition = getConditionCode();
+        if (condition == AlertCondition.EARLY_WARNING_HIGH) return 4; // Emergency response
+        if (condition == AlertCondition.EARLY_WARNING_MEDIUM) return 3; // Urgent response
+        return 2; // Urgent ward-based review
+    }
+}
@@ -0,0 +1,270 @@
+package com.alerts;
+
+import com.alerts.factories.AlertFactory;
+import com.alerts.factories.AlertFactoryProvider;
+import com.alerts.strategies.AlertStrategy;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an aggregate early warning score per patient in the style of NEWS2 and
+ * raises an alert whenever a patient's risk level escalates.
+ * <p>
+ * Each vital sign gets a sub-score from 0 to 3 by the NEWS2 bands: heart rate,
+ * oxygen saturation (scale 1), systolic blood pressure and, when recorded,
+ * respiratory rate and temperature. The score is the sum of the latest sub-score of
+ * every sign, so each new sample updates it in constant time from a few bytes of
+ * state per patient; signs never measured count 0. The risk level is
+ * {@link RiskLevel#HIGH} from 7, {@link RiskLevel#MEDIUM} from 5,
+ * {@link RiskLevel#RED_PARAMETER} when a single sign scores 3, and low otherwise.
+ * <p>
+ * A ward-wide ranking of the patients by score is kept in a sorted set and updated
+ * in O(log n) whenever a score changes, so the highest-risk patients can be listed
+ * at any time with {@link #getHighestRisk(int)}.
+ * <p>
+ * Use it as an {@link AlertStrategy}, e.g. with
+ * {@link AlertService#addStrategy(AlertStrategy)}.
+ */
+public class EarlyWarningScorer implements AlertStrategy {
+
+    /** Risk levels in increasing order of urgency. */
+    public enum RiskLevel {
+        LOW(null),
+        RED_PARAMETER(AlertCondition.EARLY_WARNING_RED_PARAMETER),
+        MEDIUM(AlertCondition.EARLY_WARNING_MEDIUM),
+        HIGH(AlertCondition.EARLY_WARNING_HIGH);
+
+        private final AlertCondition condition;
+
+        RiskLevel(AlertCondition condition) {
+            this.condition = condition;
+        }
+
+        /**
+         * Returns the condition raised when a patient escalates to this level.
+         *
+         * @return the condition, or null for {@link #LOW}
+         */
+        public AlertCondition getCondition() {
+            return condition;
+        }
+    }
+
+    private static final int HEART_RATE = 0;
+    private static final int SATURATION = 1;
+    private static final int SYSTOLIC = 2;
+    private static final int RESPIRATORY_RATE = 3;
+    private static final int TEMPERATURE = 4;
+    private static final int PARAMETERS = 5;
+
+    /** Record types read, indexed like the parameters above. */
+    private static final List<String> SIGNALS = Collections.unmodifiableList(Arrays.asList(
+            "HeartRate", "Saturation", "BloodPressure", "RespiratoryRate", "Temperature"));
+
+    private static final Comparator<PatientScore> BY_RISK = Comparator
+            .comparingInt(PatientScore::getScore).reversed()
+            .thenComparing(PatientScore::getPatientId);
+
+    private final AlertFactory factory = AlertFactoryProvider.getFactory("earlywarning");
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final TreeSet<PatientScore> ranking = new TreeSet<>(BY_RISK);
+
+    @Override
+    public List<String> getSignals() {
+        return SIGNALS;
+    }
+
+    @Override
+    public void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger) {
+        State state = states.computeIfAbsent(patientId, k -> new State());
+        double[] values = new double[2];
+        for (PatientRecord sample : newSamples) {
+            int parameter = parameterOf(sample.getRecordType());
+            if (parameter < 0) continue;
+            double value = valueOf(sample, values);
+            if (Double.isNaN(value)) continue;
+
+            int subScore = score(parameter, value);
+            if (subScore == state.subScores[parameter] && state.ranked != null) continue;
+            state.subScores[parameter] = (byte) subScore;
+
+            int total = 0;
+            boolean red = false;
+            for (byte s : state.subScores) {
+                total += s;
+                red |= s == 3;
+            }
+            RiskLevel level = total >= 7 ? RiskLevel.HIGH
+                    : total >= 5 ? RiskLevel.MEDIUM
+                    : red ? RiskLevel.RED_PARAMETER : RiskLevel.LOW;
+            rerank(patientId, state, total, level);
+
+            if (level.compareTo(state.alertedLevel) > 0) {
+                trigger.trigger(factory.createAlert(patientId, level.getCondition(), sample.getTimestamp()));
+            }
+            state.alertedLevel = level; // a drop re-arms the alert for the next escalation
+        }
+    }
+
+    @Override
+    public void resetPatient(String patientId) {
+        State state = states.remove(patientId);
+        if (state != null && state.ranked != null) {
+            synchronized (ranking) {
+                ranking.remove(state.ranked);
+            }
+        }
+    }
+
+    /**
+     * Returns the current score of a patient.
+     *
+     * @param patientId the patient's ID
+     * @return the score, or null if no vital sign of the patient was seen yet
+     */
+    public PatientScore getScore(String patientId) {
+        State state = states.get(patientId);
+        return state != null ? state.ranked : null;
+    }
+
+    /**
+     * Returns the patients with the highest scores, highest first; equal scores are
+     * ordered by patient ID.
+     *
+     * @param limit maximum number of patients
+     * @return the highest-risk patients
+     */
+    public List<PatientScore> getHighestRisk(int limit) {
+        List<PatientScore> top = new ArrayList<>(Math.min(limit, 64));
+        synchronized (ranking) {
+            for (PatientScore score : ranking) {
+                if (top.size() >= limit) break;
+                top.add(score);
+            }
+        }
+        return top;
+    }
+
+    private void rerank(String patientId, State state, int total, RiskLevel level) {
+        PatientScore fresh = new PatientScore(patientId, total, level);
+        synchronized (ranking) {
+            if (state.ranked != null) ranking.remove(state.ranked);
+            ranking.add(fresh);
+        }
+        state.ranked = fresh;
+    }
+
+    private static int parameterOf(String recordType) {
+        switch (recordType.toLowerCase(Locale.ROOT)) {
+            case "heartrate":
+                return HEART_RATE;
+            case "saturation":
+                return SATURATION;
+            case "bloodpressure":
+                return SYSTOLIC;
+            case "respiratoryrate":
+                return RESPIRATORY_RATE;
+            case "temperature":
+                return TEMPERATURE;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the sample's value, the systolic component for blood pressure.
+     */
+    private static double valueOf(PatientRecord sample, double[] values) {
+        if (sample.getComponents(values) > 0) return values[0];
+        String raw = sample.getMeasurementValue().trim();
+        int end = raw.indexOf('/');
+        if (end < 0) end = raw.endsWith("%") ? raw.length() - 1 : raw.length();
+        try {
+            return Double.parseDouble(raw.substring(0, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Scores one vital sign by the NEWS2 bands.
+     *
+     * @param parameter the vital sign
+     * @param v         its value
+     * @return the sub-score from 0 to 3
+     */
+    static int score(int parameter, double v) {
+        switch (parameter) {
+            case HEART_RATE:
+                return v <= 40 ? 3 : v <= 50 ? 1 : v <= 90 ? 0 : v <= 110 ? 1 : v <= 130 ? 2 : 3;
+            case SATURATION:
+                return v <= 91 ? 3 : v <= 93 ? 2 : v <= 95 ? 1 : 0;
+            case SYSTOLIC:
+                return v <= 90 ? 3 : v <= 100 ? 2 : v <= 110 ? 1 : v < 220 ? 0 : 3;
+            case RESPIRATORY_RATE:
+                return v <= 8 ? 3 : v <= 11 ? 1 : v <= 20 ? 0 : v <= 24 ? 2 : 3;
+            default: // Temperature
+                return v <= 35.0 ? 3 : v <= 36.0 ? 1 : v <= 38.0 ? 0 : v <= 39.0 ? 1 : 2;
+        }
+    }
+
+    /**
+     * The latest sub-scores of one patient.
+     */
+    private static final class State {
+        final byte[] subScores = new byte[PARAMETERS];
+        RiskLevel alertedLevel = RiskLevel.LOW;
+        PatientScore ranked;
+    }
+
+    /**
+     * A patient's score at one point in time; immutable.
+     */
+    public static final class PatientScore {
+        private final String patientId;
+        private final int score;
+        private final RiskLevel level;
+
+        PatientScore(String patientId, int score, RiskLevel level) {
+            this.patientId = patientId;
+            this.score = score;
+            this.level = level;
+        }
+
+        public String getPatientId() {
+            return patientId;
+        }
+
+        /**
+         * Returns the aggregate score, the sum of the sub-scores.
+         *
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the risk level of the score.
+         *
+         * @return the level
+         */
+        public RiskLevel getLevel() {
+            return level;
+        }
+
+        @Override
+        public String toString() {
+            return patientId + ": " + score + " (" + level + ")";
+        }
+    }
+}
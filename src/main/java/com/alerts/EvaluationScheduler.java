@@ -0,0 +1,304 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Runs alert evaluation for every patient in the storage from one periodic tick.
+ * <p>
+ * The evaluation period is split into a number of slots and each patient belongs
+ * to one slot ({@code patientId mod slots}). Every {@code period / slots} the
+ * scheduler evaluates the patients of the next slot, so each patient is still
+ * evaluated once per period but the work is spread evenly over it instead of
+ * arriving in one burst. The patients of a slot are split into chunks that run
+ * on a work-stealing {@link ForkJoinPool} sized to the number of cores.
+ * <p>
+ * Patients with urgent active alerts (see {@link #setPatientPriorities}) are
+ * evaluated at every tick rather than once per period, and before the patients of
+ * the slot, highest priority first, so their new samples reach the rules with the
+ * least delay.
+ * <p>
+ * The duration of each slot run is recorded, and a run that takes longer than
+ * the slot interval is counted as an overrun.
+ */
+public class EvaluationScheduler {
+
+    /** Default evaluation period: every patient is evaluated every 20 seconds. */
+    public static final long DEFAULT_PERIOD_MILLIS = 20_000;
+
+    /** Default number of slots the period is split into. */
+    public static final int DEFAULT_SLOTS = 20;
+
+    /** Default minimum active alert priority for a patient to be evaluated at every tick. */
+    public static final int DEFAULT_URGENT_PRIORITY = 3;
+
+    /** Patients evaluated sequentially by one fork/join task. */
+    static final int CHUNK_SIZE = 32;
+
+    private final DataStorage storage;
+    private final Consumer<Patient> evaluator;
+    private final long periodMillis;
+    private final int slots;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService ticker;
+
+    private volatile IntUnaryOperator priorities = id -> 0;
+    private volatile int urgentPriority = DEFAULT_URGENT_PRIORITY;
+    private int nextSlot = 0;
+    private volatile long lastTickMillis = 0;
+    private final LatencyHistogram tickMillis = new LatencyHistogram();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong evaluated = new AtomicLong();
+    private final AtomicLong urgentEvaluated = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a scheduler with the default period and slots and one worker per core.
+     *
+     * @param storage   the storage whose patients are evaluated
+     * @param evaluator evaluates one patient, e.g. {@code alertService::evaluate}
+     */
+    public EvaluationScheduler(DataStorage storage, Consumer<Patient> evaluator) {
+        this(storage, evaluator, DEFAULT_PERIOD_MILLIS, DEFAULT_SLOTS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param storage      the storage whose patients are evaluated
+     * @param evaluator    evaluates one patient; must be safe to call for different patients in parallel
+     * @param periodMillis how often each patient is evaluated
+     * @param slots        number of slots the period is split into
+     * @param parallelism  number of evaluation worker threads
+     */
+    public EvaluationScheduler(DataStorage storage, Consumer<Patient> evaluator,
+                               long periodMillis, int slots, int parallelism) {
+        if (periodMillis < 1 || slots < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Period, slots and parallelism must be positive");
+        }
+        this.storage = storage;
+        this.evaluator = evaluator;
+        this.periodMillis = periodMillis;
+        this.slots = slots;
+        this.pool = new ForkJoinPool(parallelism);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "evaluation-tick");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sets where the scheduler looks up the active alert priority of a patient,
+     * e.g. {@code tracker::priorityOf} of an {@link ActiveAlertTracker}.
+     *
+     * @param priorities     maps a patient ID to its active priority, 0 if none
+     * @param urgentPriority minimum priority for a patient to be evaluated at every tick
+     */
+    public void setPatientPriorities(IntUnaryOperator priorities, int urgentPriority) {
+        this.priorities = priorities;
+        this.urgentPriority = urgentPriority;
+    }
+
+    /**
+     * Starts the periodic tick.
+     */
+    public void start() {
+        long interval = Math.max(1, periodMillis / slots);
+        ticker.scheduleAtFixedRate(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the tick and the worker pool. A slot run in progress is allowed to finish.
+     */
+    public void stop() {
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(periodMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+    }
+
+    private void tick() {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % slots;
+        try {
+            runSlot(slot);
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            System.err.println("Evaluation tick failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates the urgent patients and then the other patients of one slot, and
+     * waits until all of them are done.
+     *
+     * @param slot the slot, between 0 and {@code slots - 1}
+     */
+    public void runSlot(int slot) {
+        long start = System.nanoTime();
+
+        IntUnaryOperator priorityOf = priorities;
+        int urgentLimit = urgentPriority;
+        List<Patient> urgent = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>();
+        for (Patient patient : storage.getAllPatients()) {
+            if (priorityOf.applyAsInt(patient.getPatientId()) >= urgentLimit) {
+                urgent.add(patient);
+            } else if (slotOf(patient.getPatientId()) == slot) {
+                patients.add(patient);
+            }
+        }
+        if (!urgent.isEmpty()) {
+            urgent.sort(Comparator.comparingInt((Patient p) -> priorityOf.applyAsInt(p.getPatientId())).reversed());
+            pool.invoke(new EvaluateChunk(urgent, 0, urgent.size()));
+            urgentEvaluated.addAndGet(urgent.size());
+        }
+        if (!patients.isEmpty()) {
+            pool.invoke(new EvaluateChunk(patients, 0, patients.size()));
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastTickMillis = elapsed;
+        tickMillis.record(elapsed);
+        ticks.incrementAndGet();
+        if (elapsed > periodMillis / slots) {
+            overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * Evaluates every patient once, slot by slot.
+     */
+    public void runAll() {
+        for (int slot = 0; slot < slots; slot++) {
+            runSlot(slot);
+        }
+    }
+
+    /**
+     * Returns the slot a patient is evaluated in.
+     *
+     * @param patientId the patient's ID
+     * @return the slot index
+     */
+    public int slotOf(int patientId) {
+        return Math.floorMod(patientId, slots);
+    }
+
+    /**
+     * Returns the duration of the most recent slot run.
+     *
+     * @return duration in milliseconds
+     */
+    public long getLastTickMillis() {
+        return lastTickMillis;
+    }
+
+    /**
+     * Returns the durations of all slot runs so far, in milliseconds.
+     *
+     * @return the tick duration histogram
+     */
+    public LatencyHistogram getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Returns the number of slot runs that took longer than the slot interval.
+     *
+     * @return overrun count
+     */
+    public long getOverrunCount() {
+        return overruns.get();
+    }
+
+    /**
+     * Returns the number of patient evaluations performed.
+     *
+     * @return evaluation count
+     */
+    public long getEvaluatedCount() {
+        return evaluated.get();
+    }
+
+    /**
+     * Returns the number of evaluations of patients that were urgent at the time.
+     * They are included in {@link #getEvaluatedCount()}.
+     *
+     * @return urgent evaluation count
+     */
+    public long getUrgentEvaluatedCount() {
+        return urgentEvaluated.get();
+    }
+
+    /**
+     * Returns the number of patient evaluations that threw an exception.
+     *
+     * @return failure count
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Builds a one-line summary of tick durations and overruns.
+     *
+     * @return the report
+     */
+    public String report() {
+        return String.format("evaluation: ticks=%d overruns=%d evaluated=%d urgent=%d failures=%d tick(ms) %s",
+                ticks.get(), overruns.get(), evaluated.get(), urgentEvaluated.get(), failures.get(), tickMillis);
+    }
+
+    /**
+     * Evaluates a range of patients, splitting it in half until it is small enough.
+     */
+    private final class EvaluateChunk extends RecursiveAction {
+        private final List<Patient> patients;
+        private final int from;
+        private final int to;
+
+        EvaluateChunk(List<Patient> patients, int from, int to) {
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        evaluator.accept(patients.get(i));
+                        evaluated.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        System.err.println("Evaluation failed for patient "
+                                + patients.get(i).getPatientId() + ": " + e.getMessage());
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new EvaluateChunk(patients, from, mid), new EvaluateChunk(patients, mid, to));
+        }
+    }
+}
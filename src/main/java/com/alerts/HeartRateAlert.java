@@ -16,13 +16,24 @@ public class HeartRateAlert extends Alert {
         super(patientId, condition, timestamp);
     }
 
+    /**
+     * Constructs a new heart rate alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public HeartRateAlert(String patientId, AlertCondition condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
     @Override
     public String getAlertType() {
         return "heartrate";
     }
 
     @Override
-    public int getPriority() {
+    protected int getBasePriority() {
         return 1; // Lower urgency
     }
 }
@@ -0,0 +1,316 @@
+package com.alerts;
+
+import com.alerts.rules.RuleSet;
+import com.alerts.rules.Signal;
+import com.alerts.strategies.ThresholdKernels;
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Replays recorded patient data through storage and alert rules on a virtual clock,
+ * for back-testing rule changes against historical data.
+ * <p>
+ * Each patient's records are streamed in timestamp order into a fresh
+ * {@link DataStorage}, and the patient is evaluated by an {@link AlertService} whose
+ * {@link VirtualClock} follows the samples, once per evaluation interval of
+ * recorded time, just as the {@link EvaluationScheduler} would have done live.
+ * Nothing waits for the wall clock, so a replay runs as fast as the CPU allows.
+ * <p>
+ * Patients are independent, so they are replayed in parallel: each worker thread
+ * has its own rule set and service, and takes the next patient when it is done with
+ * one. The alerts of all patients are then ordered by timestamp, patient ID and the
+ * order in which the rules raised them, so the same input and rules always give the
+ * same output, whatever the number of threads; two runs can be compared with
+ * {@link Result#writeAlerts(Appendable)}.
+ * <p>
+ * Before a full replay, {@link #screen(DataStorage, String, double, double)} answers
+ * the simpler question of how often a signal left a band, e.g. to try out a new
+ * threshold, by checking each patient's recorded column with {@link ThresholdKernels}.
+ */
+public class ReplayEngine {
+
+    /** Default time between evaluations of a patient, in recorded time. */
+    public static final long DEFAULT_EVALUATION_INTERVAL_MILLIS = EvaluationScheduler.DEFAULT_PERIOD_MILLIS;
+
+    private static final Comparator<Alert> ALERT_ORDER = Comparator.comparingLong(Alert::getTimestamp)
+            .thenComparingInt(alert -> Integer.parseInt(alert.getPatientId()));
+
+    private final Supplier<RuleSet> rules;
+    private final int threads;
+    private final long evaluationIntervalMillis;
+
+    /**
+     * Creates an engine with one thread per core and the default evaluation interval.
+     *
+     * @param rules creates the rule set of each worker, e.g. {@code RuleSet::builtIn}
+     */
+    public ReplayEngine(Supplier<RuleSet> rules) {
+        this(rules, Runtime.getRuntime().availableProcessors(), DEFAULT_EVALUATION_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param rules                    creates the rule set of each worker; every call
+     *                                 must return a new set, as rule sets keep state
+     * @param threads                  number of worker threads
+     * @param evaluationIntervalMillis recorded time between evaluations of a patient;
+     *                                 0 evaluates after every sample
+     */
+    public ReplayEngine(Supplier<RuleSet> rules, int threads, long evaluationIntervalMillis) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive");
+        if (evaluationIntervalMillis < 0) throw new IllegalArgumentException("Interval must not be negative");
+        this.rules = rules;
+        this.threads = threads;
+        this.evaluationIntervalMillis = evaluationIntervalMillis;
+    }
+
+    /**
+     * Loads the recorded files of a directory, see {@link FileDataReader}, and
+     * replays them.
+     *
+     * @param directoryPath folder with the recorded .txt files
+     * @return the alerts and statistics of the replay
+     */
+    public Result replay(String directoryPath) {
+        DataStorage recorded = new DataStorage();
+        new FileDataReader(directoryPath).readData(recorded);
+        return replay(recorded);
+    }
+
+    /**
+     * Replays all records of a storage. The storage itself is not changed.
+     *
+     * @param recorded the recorded data
+     * @return the alerts and statistics of the replay
+     */
+    public Result replay(DataStorage recorded) {
+        List<Patient> patients = recorded.getAllPatients();
+        patients.sort(Comparator.comparingInt(Patient::getPatientId));
+        DataStorage target = new DataStorage();
+        List<List<Alert>> alertsPerPatient = new ArrayList<>(Collections.nCopies(patients.size(), null));
+        AtomicInteger next = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, patients.size())));
+        long samples = 0;
+        try {
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int i = 0; i < threads && i < patients.size(); i++) {
+                workers.add(pool.submit(() -> {
+                    Worker worker = new Worker(rules.get(), target);
+                    long replayed = 0;
+                    for (int p = next.getAndIncrement(); p < patients.size(); p = next.getAndIncrement()) {
+                        List<Alert> alerts = new ArrayList<>();
+                        replayed += worker.replay(patients.get(p), alerts);
+                        alertsPerPatient.set(p, alerts);
+                    }
+                    return replayed;
+                }));
+            }
+            for (Future<Long> worker : workers) {
+                samples += worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Alert> alerts = new ArrayList<>();
+        for (List<Alert> patientAlerts : alertsPerPatient) {
+            alerts.addAll(patientAlerts);
+        }
+        alerts.sort(ALERT_ORDER); // stable, keeps the rules' order within a patient and time
+        return new Result(target, alerts, patients.size(), samples, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts, per patient, the recorded values of a signal outside a band, without
+     * running the rules. Each patient's values are read into one primitive column
+     * and checked by {@link ThresholdKernels}, which uses the Vector API when it is
+     * available. Values that are not numeric are never outside.
+     *
+     * @param recorded the recorded data
+     * @param signal   the signal, e.g. "HeartRate" or "BloodPressure.systolic"
+     * @param low      values below this are outside
+     * @param high     values above this are outside
+     * @return the number of values outside the band per patient ID, only for
+     *         patients with at least one, in ID order
+     */
+    public static Map<Integer, Integer> screen(DataStorage recorded, String signal, double low, double high) {
+        Signal parsed = Signal.parse(signal);
+        Map<Integer, Integer> result = new TreeMap<>();
+        double[] scratch = new double[2];
+        double[] column = new double[0];
+        for (Patient patient : recorded.getAllPatients()) {
+            List<PatientRecord> records = patient.getRecordsFrom(parsed.getRecordType(), 0);
+            if (column.length < records.size()) column = new double[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                column[i] = parsed.read(records.get(i), scratch);
+            }
+            int outside = ThresholdKernels.countOutside(column, 0, records.size(), low, high);
+            if (outside > 0) result.put(patient.getPatientId(), outside);
+        }
+        return result;
+    }
+
+    /**
+     * Replays patients one after another with its own rule set and service.
+     */
+    private final class Worker implements AlertTrigger {
+        private final AlertService service;
+        private final DataStorage target;
+        private List<Alert> alerts;
+
+        Worker(RuleSet ruleSet, DataStorage target) {
+            this.service = new AlertService(ruleSet, this);
+            this.target = target;
+        }
+
+        long replay(Patient recorded, List<Alert> patientAlerts) {
+            List<PatientRecord> records = recorded.getRecordsFrom(0);
+            records.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+            if (records.isEmpty()) return 0;
+
+            alerts = patientAlerts;
+            VirtualClock clock = new VirtualClock(records.get(0).getTimestamp());
+            service.setClock(clock);
+            target.addRecord(records.get(0));
+            Patient live = target.getPatient(recorded.getPatientId());
+
+            long nextEvaluation = records.get(0).getTimestamp() + evaluationIntervalMillis;
+            for (int i = 1; i < records.size(); i++) {
+                PatientRecord record = records.get(i);
+                if (record.getTimestamp() >= nextEvaluation) {
+                    service.evaluate(live);
+                    nextEvaluation = record.getTimestamp() + evaluationIntervalMillis;
+                }
+                clock.advanceTo(record.getTimestamp());
+                live.addRecord(record);
+            }
+            service.evaluate(live);
+            service.reset(recorded.getPatientId()); // frees the rule state of a finished patient
+            return records.size();
+        }
+
+        @Override
+        public void trigger(Alert alert) {
+            alerts.add(alert);
+        }
+    }
+
+    /**
+     * The outcome of a replay.
+     */
+    public static final class Result {
+        private final DataStorage storage;
+        private final List<Alert> alerts;
+        private final int patientCount;
+        private final long sampleCount;
+        private final long elapsedNanos;
+
+        Result(DataStorage storage, List<Alert> alerts, int patientCount, long sampleCount, long elapsedNanos) {
+            this.storage = storage;
+            this.alerts = Collections.unmodifiableList(alerts);
+            this.patientCount = patientCount;
+            this.sampleCount = sampleCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the storage the records were streamed into.
+         *
+         * @return the replayed storage
+         */
+        public DataStorage getStorage() {
+            return storage;
+        }
+
+        /**
+         * Returns the alerts in deterministic order: by timestamp, then patient ID.
+         *
+         * @return the alerts
+         */
+        public List<Alert> getAlerts() {
+            return alerts;
+        }
+
+        /**
+         * Returns the number of patients replayed.
+         *
+         * @return patient count
+         */
+        public int getPatientCount() {
+            return patientCount;
+        }
+
+        /**
+         * Returns the number of samples replayed.
+         *
+         * @return sample count
+         */
+        public long getSampleCount() {
+            return sampleCount;
+        }
+
+        /**
+         * Returns how long the replay took, without loading the files.
+         *
+         * @return elapsed wall time in milliseconds
+         */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * Returns the replay throughput.
+         *
+         * @return samples per second of wall time
+         */
+        public double getSamplesPerSecond() {
+            return elapsedNanos == 0 ? 0 : sampleCount * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Writes one line per alert, "timestamp,patientId,condition", in the order
+         * of {@link #getAlerts()}, for comparing two replays with a plain diff.
+         *
+         * @param out where to write
+         * @throws IOException if writing fails
+         */
+        public void writeAlerts(Appendable out) throws IOException {
+            for (Alert alert : alerts) {
+                out.append(Long.toString(alert.getTimestamp())).append(',')
+                        .append(alert.getPatientId()).append(',')
+                        .append(alert.getCondition()).append('\n');
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("replayed %d samples of %d patients in %d ms (%.0f samples/s), %d alerts",
+                    sampleCount, patientCount, getElapsedMillis(), getSamplesPerSecond(), alerts.size());
+        }
+    }
+}
@@ -16,13 +16,24 @@ public class SaturationAlert extends Alert {
         super(patientId, condition, timestamp);
     }
 
+    /**
+     * Constructs a new saturation alert for a known condition.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     */
+    public SaturationAlert(String patientId, AlertCondition condition, long timestamp) {
+        super(patientId, condition, timestamp);
+    }
+
     @Override
     public String getAlertType() {
         return "saturation";
     }
 
     @Override
-    public int getPriority() {
-        return 2; // Moderate urgency
+    protected int getBasePriority() {
+        return getConditionCode() == AlertCondition.LOW_SATURATION ? 3 : 2; // Low saturation is critical
     }
 }
@@ -0,0 +1,44 @@
+package com.alerts;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A clock that only moves when told to, for evaluating recorded data as if it
+ * were arriving live.
+ * <p>
+ * Pass it to {@link AlertService#setClock(LongSupplier)} and advance it to the
+ * timestamp of each replayed sample; lookback windows then end at the sample's
+ * time instead of today. The clock never goes backwards.
+ */
+public final class VirtualClock implements LongSupplier {
+
+    private volatile long now;
+
+    /**
+     * Creates a clock at the given time.
+     *
+     * @param startMillis initial time in milliseconds since UNIX epoch
+     */
+    public VirtualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    /**
+     * Moves the clock forward; earlier times are ignored.
+     *
+     * @param millis the new time in milliseconds since UNIX epoch
+     */
+    public void advanceTo(long millis) {
+        if (millis > now) now = millis;
+    }
+
+    /**
+     * Returns the current virtual time.
+     *
+     * @return time in milliseconds since UNIX epoch
+     */
+    @Override
+    public long getAsLong() {
+        return now;
+    }
+}
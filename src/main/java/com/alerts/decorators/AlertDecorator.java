@@ -1,6 +1,8 @@
 package com.alerts.decorators;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertStage;
 
 /**
  * Abstract decorator class for the Alert interface.
@@ -32,6 +34,44 @@ public abstract class AlertDecorator extends Alert {
         return decoratedAlert.getCondition();
     }
 
+    @Override
+    public AlertCondition getConditionCode() {
+        return decoratedAlert.getConditionCode();
+    }
+
+    @Override
+    public String getSignal() {
+        return decoratedAlert.getSignal();
+    }
+
+    @Override
+    public int getRepeatCount() {
+        return decoratedAlert.getRepeatCount();
+    }
+
+    @Override
+    public Alert boostPriority(int extraPriority) {
+        decoratedAlert.boostPriority(extraPriority);
+        return this;
+    }
+
+    @Override
+    public Alert markRepeated(int count) {
+        decoratedAlert.markRepeated(count);
+        return this;
+    }
+
+    @Override
+    public Alert markStage(AlertStage stage, long millis) {
+        decoratedAlert.markStage(stage, millis);
+        return this;
+    }
+
+    @Override
+    public long getStageMillis(AlertStage stage) {
+        return decoratedAlert.getStageMillis(stage);
+    }
+
     @Override
     public long getTimestamp() {
         return decoratedAlert.getTimestamp();
@@ -5,6 +5,8 @@ import com.alerts.Alert;
 /**
  * Decorator that increases the priority of an alert dynamically.
  * This is useful if certain alerts need to be treated with more urgency based on context.
+ * <p>On the alert hot path prefer {@link Alert#boostPriority(int)}, which stores the
+ * boost on the alert itself instead of allocating a wrapper.</p>
  */
 public class PriorityAlertDecorator extends AlertDecorator {
 
@@ -24,7 +26,7 @@ public class PriorityAlertDecorator extends AlertDecorator {
 
     @Override
     public int getPriority() {
-        // Ensure priority doesn't exceed a max value (e.g., 5)
-        return Math.min(super.getPriority() + extraPriority, 5);
+        // Ensure priority doesn't exceed the max value
+        return Math.min(super.getPriority() + extraPriority, Alert.MAX_PRIORITY);
     }
 }
@@ -4,7 +4,9 @@ import com.alerts.Alert;
 
 /**
  * Decorator that adds metadata about how many times an alert has occurred.
- * <p>This can be used for repeated alerts to provide context or trigger special behaviors.</p>
+ * <p>This can be used for repeated alerts to provide context or trigger special behaviors.
+ * On the alert hot path prefer {@link Alert#markRepeated(int)}, which stores the count
+ * on the alert itself instead of allocating a wrapper.</p>
  */
 public class RepeatedAlertDecorator extends AlertDecorator {
 
@@ -31,6 +33,11 @@ public class RepeatedAlertDecorator extends AlertDecorator {
         return repetitionCount;
     }
 
+    @Override
+    public int getRepeatCount() {
+        return repetitionCount;
+    }
+
     @Override
     public String getCondition() {
         // Append repetition count info to the condition string
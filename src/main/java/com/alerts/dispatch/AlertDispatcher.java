@@ -0,0 +1,509 @@
+package com.alerts.dispatch;
+
+import com.alerts.Alert;
+import com.alerts.AlertTrigger;
+import com.data_management.metrics.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link AlertTrigger} that hands alerts to one or more sinks asynchronously.
+ * <p>
+ * {@link #trigger(Alert)} only enqueues the alert, so evaluating threads never
+ * wait for console or network output. Every sink has its own queue and delivery
+ * thread, which takes whatever is queued (up to the batch size) and passes it to
+ * {@link AlertTrigger#triggerBatch(List)}; a slow sink only fills its own queue.
+ * <p>
+ * Each sink queue has one FIFO lane per priority. Every priority has a latency
+ * budget (see {@link #DEFAULT_BUDGETS_MILLIS}), and an alert's deadline is the time
+ * it was enqueued plus the budget of its priority. The delivery thread always takes
+ * the lane head with the earliest deadline, so a "Critical Blood Pressure" alert
+ * overtakes routine alerts queued before it, while a routine alert that has waited
+ * past its own budget is not starved. Alerts delivered after their deadline are
+ * counted as budget misses per priority.
+ * <p>
+ * Non-critical alerts share a bounded capacity. When it is used up the sink's
+ * {@link OverflowPolicy} applies, and {@link OverflowPolicy#DROP_OLDEST} drops the
+ * oldest alert of the lowest priority first. Critical alerts (priority
+ * {@link #CRITICAL_PRIORITY} or higher) are never dropped while the dispatcher
+ * accepts alerts; once it has been stopped every alert is counted as dropped.
+ * <p>
+ * For each sink the dispatcher counts delivered and dropped alerts, records the
+ * queueing lag in microseconds, and records per priority the sample-to-delivery
+ * latency: from the alert's timestamp (the time of the sample that raised it) to
+ * the moment the sink has taken it, in milliseconds.
+ */
+public class AlertDispatcher implements AlertTrigger {
+
+    /** Alerts with at least this priority are never dropped. */
+    public static final int CRITICAL_PRIORITY = 3;
+
+    /** Number of priority classes, 0 to {@link Alert#MAX_PRIORITY}. */
+    public static final int PRIORITY_LEVELS = Alert.MAX_PRIORITY + 1;
+
+    /** Default queueing budget per priority, in milliseconds, indexed by priority. */
+    public static final long[] DEFAULT_BUDGETS_MILLIS = {10_000, 5_000, 2_000, 500, 200, 100};
+
+    /** Default capacity of each sink queue. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Default maximum number of alerts handed to a sink at once. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long IDLE_POLL_MILLIS = 5;
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final Map<String, SinkWorker> sinks = new LinkedHashMap<>();
+    private final int capacity;
+    private final int batchSize;
+    private final long[] budgetNanos = new long[PRIORITY_LEVELS];
+    private volatile boolean running = false;
+    private volatile boolean stopped = false;
+
+    /**
+     * Creates a dispatcher with the default queue capacity and batch size.
+     */
+    public AlertDispatcher() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a dispatcher with the default latency budgets.
+     *
+     * @param capacity  capacity of each sink queue (non-critical alerts)
+     * @param batchSize maximum number of alerts handed to a sink at once
+     */
+    public AlertDispatcher(int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        for (int p = 0; p < PRIORITY_LEVELS; p++) {
+            budgetNanos[p] = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BUDGETS_MILLIS[p]);
+        }
+    }
+
+    /**
+     * Sets the queueing budget of a priority. Budgets must be set before {@link #start()}.
+     *
+     * @param priority     the priority, 0 to {@link Alert#MAX_PRIORITY}
+     * @param budgetMillis how long an alert of this priority may wait for its sink
+     * @return this dispatcher, for chaining
+     */
+    public synchronized AlertDispatcher setLatencyBudget(int priority, long budgetMillis) {
+        if (running) throw new IllegalStateException("Budgets must be set before start()");
+        if (budgetMillis < 0) throw new IllegalArgumentException("Budget must not be negative");
+        budgetNanos[checkPriority(priority)] = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        return this;
+    }
+
+    /**
+     * Returns the queueing budget of a priority.
+     *
+     * @param priority the priority, 0 to {@link Alert#MAX_PRIORITY}
+     * @return the budget in milliseconds
+     */
+    public long getLatencyBudgetMillis(int priority) {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos[checkPriority(priority)]);
+    }
+
+    /**
+     * Registers a sink. Sinks must be added before {@link #start()}.
+     *
+     * @param name   unique name of the sink, used for its thread and metrics
+     * @param sink   the trigger that receives the alerts
+     * @param policy what to do with non-critical alerts when the sink's queue is full
+     * @return this dispatcher, for chaining
+     */
+    public synchronized AlertDispatcher addSink(String name, AlertTrigger sink, OverflowPolicy policy) {
+        if (running) throw new IllegalStateException("Sinks must be added before start()");
+        if (sinks.containsKey(name)) throw new IllegalArgumentException("Duplicate sink: " + name);
+        sinks.put(name, new SinkWorker(name, sink, policy, capacity));
+        return this;
+    }
+
+    /**
+     * Starts one delivery thread per sink.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (SinkWorker worker : sinks.values()) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the delivery threads after they have delivered everything already queued.
+     * Alerts triggered from then on are dropped, and producers waiting on a full
+     * {@link OverflowPolicy#BLOCK} sink are released and drop their alert.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        boolean wasRunning = running;
+        running = false;
+        for (SinkWorker worker : sinks.values()) {
+            worker.wakeUp();
+            if (!wasRunning) continue;
+            try {
+                worker.thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Enqueues the alert for every sink and returns immediately
+     * (unless a sink uses {@link OverflowPolicy#BLOCK} and is full). After
+     * {@link #stop()} the alert is dropped.
+     *
+     * @param alert the alert to deliver
+     */
+    @Override
+    public void trigger(Alert alert) {
+        int priority = Math.max(0, Math.min(Alert.MAX_PRIORITY, alert.getPriority()));
+        long now = System.nanoTime();
+        Envelope envelope = new Envelope(alert, priority, now, now + budgetNanos[priority]);
+        for (SinkWorker worker : sinks.values()) {
+            worker.enqueue(envelope);
+        }
+    }
+
+    /**
+     * Returns the number of alerts waiting for a sink.
+     *
+     * @param name the sink name
+     * @return queued alerts, critical ones included
+     */
+    public int getQueueDepth(String name) {
+        return worker(name).depth.get();
+    }
+
+    /**
+     * Returns how long the oldest waiting alert of a sink has been queued.
+     *
+     * @param name the sink name
+     * @return age in milliseconds, or 0 if the queue is empty
+     */
+    public long getOldestAgeMillis(String name) {
+        long oldest = worker(name).oldestEnqueuedNanos();
+        return oldest == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+    }
+
+    /**
+     * Returns the number of alerts handed to a sink.
+     *
+     * @param name the sink name
+     * @return delivered alert count
+     */
+    public long getDeliveredCount(String name) {
+        return worker(name).delivered.get();
+    }
+
+    /**
+     * Returns the number of alerts a sink lost to its overflow policy.
+     *
+     * @param name the sink name
+     * @return dropped alert count
+     */
+    public long getDroppedCount(String name) {
+        return worker(name).dropped.get();
+    }
+
+    /**
+     * Returns the queueing lag of a sink, in microseconds.
+     *
+     * @param name the sink name
+     * @return the lag histogram
+     */
+    public LatencyHistogram getLagMicros(String name) {
+        return worker(name).lagMicros;
+    }
+
+    /**
+     * Returns the sample-to-delivery latency of one priority class at a sink.
+     *
+     * @param name     the sink name
+     * @param priority the priority, 0 to {@link Alert#MAX_PRIORITY}
+     * @return the latency histogram, in milliseconds
+     */
+    public LatencyHistogram getDeliveryLatencyMillis(String name, int priority) {
+        return worker(name).deliveryMillis[checkPriority(priority)];
+    }
+
+    /**
+     * Returns how many alerts of one priority class a sink took after their deadline.
+     *
+     * @param name     the sink name
+     * @param priority the priority, 0 to {@link Alert#MAX_PRIORITY}
+     * @return budget miss count
+     */
+    public long getBudgetMissCount(String name, int priority) {
+        return worker(name).budgetMisses.get(checkPriority(priority));
+    }
+
+    /**
+     * Builds a summary per sink of queue depth, throughput, drops and lag, followed by
+     * one line per priority class that has delivered alerts.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (SinkWorker worker : sinks.values()) {
+            sb.append(String.format("sink %s: depth=%d delivered=%d dropped=%d lag(us) %s%n",
+                    worker.name, worker.depth.get(), worker.delivered.get(), worker.dropped.get(),
+                    worker.lagMicros));
+            for (int p = PRIORITY_LEVELS - 1; p >= 0; p--) {
+                if (worker.deliveryMillis[p].getCount() == 0) continue;
+                sb.append(String.format("  priority %d: budget=%dms misses=%d sample-to-delivery(ms) %s%n",
+                        p, getLatencyBudgetMillis(p), worker.budgetMisses.get(p), worker.deliveryMillis[p]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private SinkWorker worker(String name) {
+        SinkWorker worker = sinks.get(name);
+        if (worker == null) throw new IllegalArgumentException("Unknown sink: " + name);
+        return worker;
+    }
+
+    private static int checkPriority(int priority) {
+        if (priority < 0 || priority >= PRIORITY_LEVELS) {
+            throw new IllegalArgumentException("Priority must be between 0 and " + Alert.MAX_PRIORITY);
+        }
+        return priority;
+    }
+
+    /**
+     * A queued alert with its priority, enqueue time and deadline.
+     */
+    private static final class Envelope {
+        final Alert alert;
+        final int priority;
+        final long enqueuedNanos;
+        final long deadlineNanos;
+
+        Envelope(Alert alert, int priority, long enqueuedNanos, long deadlineNanos) {
+            this.alert = alert;
+            this.priority = priority;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    /**
+     * The priority lanes, delivery thread and metrics of one sink.
+     */
+    private final class SinkWorker implements Runnable {
+        final String name;
+        final AlertTrigger sink;
+        final OverflowPolicy policy;
+        final int capacity;
+        final ArrayDeque<Envelope>[] lanes;
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition notEmpty = lock.newCondition();
+        final Condition notFull = lock.newCondition();
+        int bounded = 0; // queued non-critical alerts, guarded by lock
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLongArray budgetMisses = new AtomicLongArray(PRIORITY_LEVELS);
+        final LatencyHistogram lagMicros = new LatencyHistogram();
+        final LatencyHistogram[] deliveryMillis = new LatencyHistogram[PRIORITY_LEVELS];
+        final Thread thread;
+
+        @SuppressWarnings("unchecked")
+        SinkWorker(String name, AlertTrigger sink, OverflowPolicy policy, int capacity) {
+            this.name = name;
+            this.sink = sink;
+            this.policy = policy;
+            this.capacity = capacity;
+            this.lanes = new ArrayDeque[PRIORITY_LEVELS];
+            for (int p = 0; p < PRIORITY_LEVELS; p++) {
+                lanes[p] = new ArrayDeque<>();
+                deliveryMillis[p] = new LatencyHistogram();
+            }
+            this.thread = new Thread(this, "alert-sink-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void wakeUp() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void enqueue(Envelope envelope) {
+            lock.lock();
+            try {
+                if (stopped) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (envelope.priority < CRITICAL_PRIORITY && bounded >= capacity && !makeRoom(envelope)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (envelope.priority < CRITICAL_PRIORITY) bounded++;
+                lanes[envelope.priority].addLast(envelope);
+                depth.incrementAndGet();
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Applies the overflow policy to a full queue. Called with the lock held.
+         *
+         * @return true if the new alert may be queued
+         */
+        private boolean makeRoom(Envelope envelope) {
+            switch (policy) {
+                case DROP_OLDEST:
+                    // Evict from the lowest priority lane, but never a higher priority than the newcomer
+                    for (int p = 0; p <= envelope.priority; p++) {
+                        if (!lanes[p].isEmpty()) {
+                            lanes[p].pollFirst();
+                            bounded--;
+                            depth.decrementAndGet();
+                            dropped.incrementAndGet();
+                            return true;
+                        }
+                    }
+                    return false;
+                case BLOCK:
+                    try {
+                        while (bounded >= capacity && !stopped) {
+                            notFull.await();
+                        }
+                        return !stopped;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                case DROP_NEWEST:
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Moves up to one batch of alerts into {@code out}, earliest deadline first,
+         * waiting until an alert of any priority is queued.
+         *
+         * @return false once the dispatcher is stopped and the queue is empty
+         */
+        private boolean takeBatch(List<Envelope> out) throws InterruptedException {
+            lock.lock();
+            try {
+                // Look at the lanes themselves: depth lags behind while a batch is delivered
+                while (!hasQueued()) {
+                    if (!running) return false;
+                    notEmpty.await(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                while (out.size() < batchSize) {
+                    int next = -1;
+                    long nextDeadline = 0;
+                    for (int p = PRIORITY_LEVELS - 1; p >= 0; p--) { // ties go to the higher priority
+                        Envelope head = lanes[p].peekFirst();
+                        if (head != null && (next < 0 || head.deadlineNanos - nextDeadline < 0)) {
+                            next = p;
+                            nextDeadline = head.deadlineNanos;
+                        }
+                    }
+                    if (next < 0) break;
+                    Envelope envelope = lanes[next].pollFirst();
+                    if (envelope.priority < CRITICAL_PRIORITY) bounded--;
+                    out.add(envelope);
+                }
+                if (!out.isEmpty()) notFull.signalAll();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns whether any lane, critical ones included, holds an alert. Called
+         * with the lock held.
+         */
+        private boolean hasQueued() {
+            for (ArrayDeque<Envelope> lane : lanes) {
+                if (!lane.isEmpty()) return true;
+            }
+            return false;
+        }
+
+        long oldestEnqueuedNanos() {
+            lock.lock();
+            try {
+                long oldest = Long.MAX_VALUE;
+                for (ArrayDeque<Envelope> lane : lanes) {
+                    Envelope head = lane.peekFirst();
+                    if (head != null && head.enqueuedNanos < oldest) oldest = head.enqueuedNanos;
+                }
+                return oldest;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Envelope> envelopes = new ArrayList<>(batchSize);
+            List<Alert> batch = new ArrayList<>(batchSize);
+            while (true) {
+                try {
+                    if (!takeBatch(envelopes)) return;
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                if (envelopes.isEmpty()) continue;
+
+                long now = System.nanoTime();
+                for (Envelope envelope : envelopes) {
+                    lagMicros.record(TimeUnit.NANOSECONDS.toMicros(now - envelope.enqueuedNanos));
+                    if (now - envelope.deadlineNanos > 0) budgetMisses.incrementAndGet(envelope.priority);
+                    batch.add(envelope.alert);
+                }
+                depth.addAndGet(-envelopes.size());
+                try {
+                    sink.triggerBatch(batch);
+                } catch (RuntimeException ex) {
+                    System.err.println("Alert sink " + name + " failed: " + ex.getMessage());
+                }
+                long deliveredAt = System.currentTimeMillis();
+                for (Envelope envelope : envelopes) {
+                    deliveryMillis[envelope.priority].record(Math.max(0, deliveredAt - envelope.alert.getTimestamp()));
+                }
+                delivered.addAndGet(batch.size());
+                envelopes.clear();
+                batch.clear();
+            }
+        }
+    }
+}
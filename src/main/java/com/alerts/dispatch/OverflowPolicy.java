@@ -0,0 +1,29 @@
+package com.alerts.dispatch;
+
+/**
+ * What a sink queue of the {@link AlertDispatcher} does with a new alert when it is full.
+ * <p>
+ * The policy only applies to non-critical alerts; critical alerts are never dropped.
+ */
+public enum OverflowPolicy {
+
+    /** Discard the new alert and keep the queued ones. */
+    DROP_NEWEST,
+
+    /** Discard the oldest queued non-critical alert to make room for the new one. */
+    DROP_OLDEST,
+
+    /** Wait until the sink has made room. Slows down the evaluating thread. */
+    BLOCK;
+
+    /**
+     * Parses a policy name such as "drop-oldest" (case-insensitive, '-' or '_').
+     *
+     * @param name the policy name
+     * @return the matching policy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static OverflowPolicy fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
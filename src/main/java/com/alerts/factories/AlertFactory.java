@@ -1,6 +1,7 @@
 package com.alerts.factories;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 /**
  * A factory interface for creating Alert objects based on patient data.
@@ -16,4 +17,17 @@ public interface AlertFactory {
      * @return a new Alert object
      */
     Alert createAlert(String patientId, String condition, long timestamp);
+
+    /**
+     * Creates an Alert instance for a known condition. The condition label is a
+     * shared constant, so the alert is the only object allocated.
+     *
+     * @param patientId the ID of the patient the alert is related to
+     * @param condition the condition code
+     * @param timestamp the time when the alert was triggered
+     * @return a new Alert object
+     */
+    default Alert createAlert(String patientId, AlertCondition condition, long timestamp) {
+        return createAlert(patientId, condition.getLabel(), timestamp);
+    }
 }
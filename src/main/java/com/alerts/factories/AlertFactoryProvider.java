@@ -1,34 +1,55 @@
 package com.alerts.factories;
 
+import com.alerts.AlertCondition;
+
 /**
  * Provides the appropriate AlertFactory implementation based on condition type.
+ * <p>
+ * Factories are stateless, so one shared instance of each is handed out.
  */
 public class AlertFactoryProvider {
 
+    private static final AlertFactory BLOOD_PRESSURE = new BloodPressureAlertFactory();
+    private static final AlertFactory SATURATION = new SaturationAlertFactory();
+    private static final AlertFactory ECG = new ECGAlertFactory();
+    private static final AlertFactory HEART_RATE = new HeartRateAlertFactory();
+    private static final AlertFactory EARLY_WARNING = new EarlyWarningAlertFactory();
+    private static final AlertFactory ANOMALY = new AnomalyAlertFactory();
+
     /**
      * Returns an appropriate AlertFactory based on the condition type.
      *
-     * @param type the type of condition (e.g. "bloodpressure", "saturation", "ecg", "heartrate")
-     * @return an instance of AlertFactory corresponding to the type
+     * @param type the type of condition (e.g. "bloodpressure", "saturation", "ecg", "heartrate", "earlywarning", "anomaly")
+     * @return the shared AlertFactory corresponding to the type
      */
     public static AlertFactory getFactory(String type) {
         String key = type.trim().toLowerCase(); // Normalize
 
         switch (key) {
             case "bloodpressure":
-                System.out.println("DEBUG: Using BloodPressureAlertFactory");
-                return new BloodPressureAlertFactory();
+                return BLOOD_PRESSURE;
             case "saturation":
-                System.out.println("DEBUG: Using SaturationAlertFactory");
-                return new SaturationAlertFactory();
+                return SATURATION;
             case "ecg":
-                System.out.println("DEBUG: Using ECGAlertFactory");
-                return new ECGAlertFactory();
+                return ECG;
             case "heartrate":
-                System.out.println("DEBUG: Using HeartRateAlertFactory");
-                return new HeartRateAlertFactory();
+                return HEART_RATE;
+            case "earlywarning":
+                return EARLY_WARNING;
+            case "anomaly":
+                return ANOMALY;
             default:
                 throw new IllegalArgumentException("Unknown alert type: '" + type + "'");
         }
     }
+
+    /**
+     * Returns the factory for the alert type of a known condition.
+     *
+     * @param condition the condition code
+     * @return the shared AlertFactory for the condition
+     */
+    public static AlertFactory getFactory(AlertCondition condition) {
+        return getFactory(condition.getAlertType());
+    }
 }
@@ -0,0 +1,34 @@
+package com.alerts.factories;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AnomalyAlert;
+
+/**
+ * Factory class for creating baseline anomaly alerts.
+ */
+public class AnomalyAlertFactory implements AlertFactory {
+
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        return new AnomalyAlert(patientId, condition, timestamp);
+    }
+
+    @Override
+    public Alert createAlert(String patientId, AlertCondition condition, long timestamp) {
+        return new AnomalyAlert(patientId, condition, timestamp);
+    }
+
+    /**
+     * Creates an alert that names the deviating signal.
+     *
+     * @param patientId the ID of the patient
+     * @param condition the condition code
+     * @param timestamp the time the alert occurred
+     * @param signal    the deviating signal, e.g. "HeartRate"
+     * @return the alert
+     */
+    public Alert createAlert(String patientId, AlertCondition condition, long timestamp, String signal) {
+        return new AnomalyAlert(patientId, condition, timestamp, signal);
+    }
+}
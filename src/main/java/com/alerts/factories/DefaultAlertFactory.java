@@ -1,10 +1,16 @@
 package com.alerts.factories;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 public class DefaultAlertFactory implements AlertFactory {
     @Override
     public Alert createAlert(String patientId, String condition, long timestamp) {
         return new Alert(patientId, condition, timestamp);
     }
+
+    @Override
+    public Alert createAlert(String patientId, AlertCondition condition, long timestamp) {
+        return new Alert(patientId, condition, timestamp);
+    }
 }
@@ -0,0 +1,21 @@
+package com.alerts.factories;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.EarlyWarningAlert;
+
+/**
+ * Factory class for creating early warning score alerts.
+ */
+public class EarlyWarningAlertFactory implements AlertFactory {
+
+    @Override
+    public Alert createAlert(String patientId, String condition, long timestamp) {
+        return new EarlyWarningAlert(patientId, condition, timestamp);
+    }
+
+    @Override
+    public Alert createAlert(String patientId, AlertCondition condition, long timestamp) {
+        return new EarlyWarningAlert(patientId, condition, timestamp);
+    }
+}
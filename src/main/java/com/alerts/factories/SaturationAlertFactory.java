@@ -1,6 +1,7 @@
 package com.alerts.factories;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 import com.alerts.factories.AlertFactory;
 import com.alerts.SaturationAlert;
 
@@ -13,4 +14,9 @@ public class SaturationAlertFactory implements AlertFactory {
     public Alert createAlert(String patientId, String condition, long timestamp) {
         return new SaturationAlert(patientId, condition, timestamp);
     }
+
+    @Override
+    public Alert createAlert(String patientId, AlertCondition condition, long timestamp) {
+        return new SaturationAlert(patientId, condition, timestamp);
+    }
 }
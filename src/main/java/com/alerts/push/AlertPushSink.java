@@ -0,0 +1,299 @@
+package com.alerts.push;
+
+import com.alerts.Alert;
+import com.alerts.AlertTrigger;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Base class of the {@link AlertTrigger}s that push alerts to connected clients,
+ * such as nurse-station dashboards, instead of having them poll.
+ * <p>
+ * {@link #trigger(Alert)} only appends the alert to a queue, so evaluation never
+ * waits for the network. Every {@code coalesceMillis} a flusher thread drains the
+ * queue, formats each alert once and adds it to the pending lines of every
+ * subscriber whose {@link SubscriberFilter} accepts it; each subscriber then gets
+ * its pending lines as one frame. A subscriber that is still busy sending an
+ * earlier frame keeps collecting lines instead, and when more than
+ * {@code maxPending} lines are waiting for it the oldest are dropped, so one slow
+ * client neither blocks the others nor grows memory without bound.
+ * <p>
+ * A frame holds one line per alert: {@code patientId,timestamp,priority,condition}.
+ * Subclasses provide the transport.
+ * <p>
+ * Subscribing to a ward needs a mapping from patient to ward. A sink created
+ * without one rejects {@code ward=} subscriptions instead of silently sending
+ * nothing to them.
+ */
+public abstract class AlertPushSink implements AlertTrigger, Closeable {
+
+    /** Default time alerts are collected into one frame. */
+    public static final long DEFAULT_COALESCE_MILLIS = 5;
+
+    /** Default number of lines that may wait for a busy subscriber. */
+    public static final int DEFAULT_MAX_PENDING = 1024;
+
+    /** Alerts waiting for the flusher beyond which new ones are dropped. */
+    static final int MAX_QUEUED = 65_536;
+
+    private final IntFunction<String> wardOf;
+    private final int maxPending;
+    private final Queue<Alert> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong droppedQueued = new AtomicLong();
+    private volatile long framesSent = 0;
+    private volatile long linesSent = 0;
+
+    /**
+     * Creates a sink and starts its flusher.
+     *
+     * @param wardOf         maps a patient ID to its ward, or returns null if unknown;
+     *                       null if there is no ward mapping
+     * @param coalesceMillis time alerts are collected into one frame
+     * @param maxPending     lines that may wait for a busy subscriber
+     */
+    protected AlertPushSink(IntFunction<String> wardOf, long coalesceMillis, int maxPending) {
+        if (coalesceMillis < 1) throw new IllegalArgumentException("Coalesce time must be positive");
+        if (maxPending < 1) throw new IllegalArgumentException("Pending limit must be positive");
+        this.wardOf = wardOf;
+        this.maxPending = maxPending;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "alert-push-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, coalesceMillis, coalesceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void trigger(Alert alert) {
+        if (subscribers.isEmpty()) return;
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            queued.decrementAndGet();
+            droppedQueued.incrementAndGet();
+            return;
+        }
+        queue.add(alert);
+    }
+
+    /**
+     * Returns the number of connected subscribers.
+     *
+     * @return subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Returns the number of frames sent to all subscribers.
+     *
+     * @return frame count
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * Returns the number of alert lines sent to all subscribers.
+     *
+     * @return line count
+     */
+    public long getLinesSent() {
+        return linesSent;
+    }
+
+    /**
+     * Returns the number of alert lines dropped because the sink or a subscriber
+     * fell too far behind.
+     *
+     * @return dropped count
+     */
+    public long getDroppedCount() {
+        long dropped = droppedQueued.get();
+        for (Subscriber subscriber : subscribers) {
+            dropped += subscriber.dropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Stops the flusher; subclasses also close their connections.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+    }
+
+    /**
+     * Registers a connected client.
+     *
+     * @param subscriber the client
+     */
+    protected void addSubscriber(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Returns the connected clients.
+     *
+     * @return a snapshot of the subscribers
+     */
+    protected List<Subscriber> getSubscribers() {
+        return new ArrayList<>(subscribers);
+    }
+
+    /**
+     * Forgets a disconnected client.
+     *
+     * @param subscriber the client
+     */
+    protected void removeSubscriber(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns whether subscribers may filter by ward.
+     *
+     * @return true if the sink has a ward mapping
+     */
+    public boolean hasWardMapping() {
+        return wardOf != null;
+    }
+
+    /**
+     * Applies a command received from a client; invalid commands, and ward
+     * subscriptions on a sink without a ward mapping, are reported and leave the
+     * filter unchanged.
+     *
+     * @param subscriber the client
+     * @param command    the command, e.g. "subscribe priority=3"
+     */
+    protected void onCommand(Subscriber subscriber, String command) {
+        if (command.trim().isEmpty()) return;
+        try {
+            SubscriberFilter filter = SubscriberFilter.parse(command);
+            if (filter.hasWard() && wardOf == null) {
+                throw new IllegalArgumentException("ward filtering needs a patient to ward mapping");
+            }
+            subscriber.setFilter(filter);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid alert subscription '" + command + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the alerts queued since the last run; runs on the flusher thread.
+     */
+    void flush() {
+        try {
+            Alert alert;
+            while ((alert = queue.poll()) != null) {
+                queued.decrementAndGet();
+                route(alert);
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.pending.isEmpty() || subscriber.isBusy()) continue;
+                StringBuilder frame = new StringBuilder(subscriber.pending.size() * 48);
+                int lines = subscriber.pending.size();
+                String line;
+                while ((line = subscriber.pending.poll()) != null) {
+                    frame.append(line).append('\n');
+                }
+                subscriber.send(frame.toString());
+                framesSent++;
+                linesSent += lines;
+            }
+        } catch (RuntimeException e) {
+            // Keep the flusher alive; one bad client must not stop the others
+            System.err.println("Alert push failed: " + e.getMessage());
+        }
+    }
+
+    private void route(Alert alert) {
+        int patientId;
+        try {
+            patientId = Integer.parseInt(alert.getPatientId());
+        } catch (NumberFormatException e) {
+            patientId = -1;
+        }
+        String ward = null;
+        boolean wardResolved = false;
+        String line = null;
+        for (Subscriber subscriber : subscribers) {
+            SubscriberFilter filter = subscriber.filter;
+            if (filter.hasWard() && !wardResolved) {
+                ward = patientId >= 0 ? wardOf.apply(patientId) : null;
+                wardResolved = true;
+            }
+            if (!filter.accepts(alert, patientId, ward)) continue;
+            if (line == null) line = format(alert);
+            if (subscriber.pending.size() >= maxPending) {
+                subscriber.pending.poll();
+                subscriber.dropped++;
+            }
+            subscriber.pending.add(line);
+        }
+    }
+
+    private static String format(Alert alert) {
+        return alert.getPatientId() + ',' + alert.getTimestamp() + ',' + alert.getPriority() + ','
+                + alert.getCondition();
+    }
+
+    /**
+     * One connected client. Its pending lines are only touched by the flusher thread.
+     */
+    protected abstract static class Subscriber {
+        private final ArrayDeque<String> pending = new ArrayDeque<>();
+        private volatile SubscriberFilter filter = SubscriberFilter.ALL;
+        private volatile long dropped = 0;
+
+        /**
+         * Replaces the filter, e.g. after the client sent a subscribe command.
+         *
+         * @param filter the new filter
+         */
+        protected void setFilter(SubscriberFilter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * Returns the current filter.
+         *
+         * @return the filter
+         */
+        protected SubscriberFilter getFilter() {
+            return filter;
+        }
+
+        /**
+         * Returns whether an earlier frame is still being sent.
+         *
+         * @return true if the next frame should wait
+         */
+        protected abstract boolean isBusy();
+
+        /**
+         * Starts sending a frame without blocking.
+         *
+         * @param frame the alert lines
+         */
+        protected abstract void send(String frame);
+    }
+}
@@ -0,0 +1,114 @@
+package com.alerts.push;
+
+import com.alerts.Alert;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Decides which alerts one push subscriber receives: optionally only one ward,
+ * only a set of patients and only alerts of at least a minimum priority.
+ * <p>
+ * A subscriber chooses its filter by sending a line such as
+ * <pre>
+ * subscribe ward=ICU patients=3,7,12 priority=3
+ * </pre>
+ * Every part is optional; {@code subscribe} alone receives everything. Filters are
+ * immutable and evaluated on the server for each alert, so clients only get what
+ * they display.
+ */
+public final class SubscriberFilter {
+
+    /** A filter that accepts every alert. */
+    public static final SubscriberFilter ALL = new SubscriberFilter(null, null, 0);
+
+    private final String ward;
+    private final int[] patients; // sorted, null for all patients
+    private final int minPriority;
+
+    /**
+     * Creates a filter.
+     *
+     * @param ward        the ward to receive, or null for all wards
+     * @param patients    the patient IDs to receive, or null for all patients
+     * @param minPriority the lowest alert priority to receive
+     */
+    public SubscriberFilter(String ward, int[] patients, int minPriority) {
+        this.ward = ward;
+        this.patients = patients != null ? sorted(patients) : null;
+        this.minPriority = minPriority;
+    }
+
+    /**
+     * Parses a subscribe command.
+     *
+     * @param command e.g. "subscribe ward=ICU patients=1,2 priority=3"
+     * @return the filter
+     * @throws IllegalArgumentException if the command is not a valid subscription
+     */
+    public static SubscriberFilter parse(String command) {
+        String[] tokens = command.trim().split("\\s+");
+        if (!tokens[0].equalsIgnoreCase("subscribe")) {
+            throw new IllegalArgumentException("Expected 'subscribe', got '" + tokens[0] + "'");
+        }
+        String ward = null;
+        int[] patients = null;
+        int minPriority = 0;
+        for (int i = 1; i < tokens.length; i++) {
+            int eq = tokens[i].indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got '" + tokens[i] + "'");
+            String key = tokens[i].substring(0, eq).toLowerCase(Locale.ROOT);
+            String value = tokens[i].substring(eq + 1);
+            switch (key) {
+                case "ward":
+                    ward = value;
+                    break;
+                case "patients":
+                    patients = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "priority":
+                    minPriority = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter: '" + key + "'");
+            }
+        }
+        return new SubscriberFilter(ward, patients, minPriority);
+    }
+
+    /**
+     * Returns whether an alert passes the filter.
+     *
+     * @param alert     the alert
+     * @param patientId the alert's patient ID as a number
+     * @param ward      the patient's ward, or null if unknown
+     * @return true if the subscriber should receive the alert
+     */
+    public boolean accepts(Alert alert, int patientId, String ward) {
+        if (alert.getPriority() < minPriority) return false;
+        if (this.ward != null && !this.ward.equalsIgnoreCase(ward)) return false;
+        return patients == null || Arrays.binarySearch(patients, patientId) >= 0;
+    }
+
+    /**
+     * Returns whether the filter depends on the patient's ward.
+     *
+     * @return true if a ward was chosen
+     */
+    public boolean hasWard() {
+        return ward != null;
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "subscribe" + (ward != null ? " ward=" + ward : "")
+                + (patients != null ? " patients=" + Arrays.toString(patients).replaceAll("[\\[\\] ]", "") : "")
+                + (minPriority > 0 ? " priority=" + minPriority : "");
+    }
+}
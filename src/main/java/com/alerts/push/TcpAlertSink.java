@@ -0,0 +1,163 @@
+package com.alerts.push;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Pushes alerts to plain TCP clients as newline separated text.
+ * <p>
+ * Any number of clients may connect. Each one may send subscribe commands as lines
+ * (see {@link SubscriberFilter}) and receives every coalesced frame as a block of
+ * alert lines. Frames are written by a thread of the client's own, so a client that
+ * reads slowly only delays itself; while its previous frame is being written, its
+ * alerts are collected for the next one.
+ */
+public class TcpAlertSink extends AlertPushSink {
+
+    private static final ThreadFactory DAEMON = r -> {
+        Thread thread = new Thread(r, "alert-push-tcp");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    private final ServerSocket serverSocket;
+
+    /**
+     * Starts a server with the default coalescing and pending limit and no ward
+     * mapping, so clients cannot subscribe to a ward.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public TcpAlertSink(int port) throws IOException {
+        this(port, null, DEFAULT_COALESCE_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param port           the port to listen on, or 0 for any free port
+     * @param wardOf         maps a patient ID to its ward, or returns null if unknown;
+     *                       null if there is no ward mapping
+     * @param coalesceMillis time alerts are collected into one frame
+     * @param maxPending     lines that may wait for a busy client
+     * @throws IOException if the port cannot be opened
+     */
+    public TcpAlertSink(int port, IntFunction<String> wardOf, long coalesceMillis, int maxPending)
+            throws IOException {
+        super(wardOf, coalesceMillis, maxPending);
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        DAEMON.newThread(this::acceptClients).start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing alert server: " + e.getMessage());
+        }
+        for (Subscriber subscriber : getSubscribers()) {
+            disconnect((ClientSubscriber) subscriber);
+        }
+    }
+
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ClientSubscriber subscriber = new ClientSubscriber(socket);
+                addSubscriber(subscriber);
+                DAEMON.newThread(() -> readCommands(subscriber)).start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) System.err.println("Error accepting alert client: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readCommands(ClientSubscriber subscriber) {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(subscriber.socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                onCommand(subscriber, line);
+            }
+        } catch (IOException e) {
+            // Connection closed by the client
+        }
+        disconnect(subscriber);
+    }
+
+    private void disconnect(ClientSubscriber subscriber) {
+        removeSubscriber(subscriber);
+        subscriber.writer.shutdownNow();
+        try {
+            subscriber.socket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+
+    /**
+     * One TCP client with its own writer thread.
+     */
+    private final class ClientSubscriber extends Subscriber {
+        private final Socket socket;
+        private final OutputStream out;
+        private final ExecutorService writer = Executors.newSingleThreadExecutor(DAEMON);
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        ClientSubscriber(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        @Override
+        protected boolean isBusy() {
+            return writing.get();
+        }
+
+        @Override
+        protected void send(String frame) {
+            writing.set(true);
+            try {
+                writer.execute(() -> {
+                    try {
+                        out.write(frame.getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        writing.set(false);
+                    } catch (IOException e) {
+                        disconnect(this);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Disconnected while the frame was being built
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.alerts.push;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.function.IntFunction;
+
+/**
+ * Pushes alerts to WebSocket clients, e.g. nurse-station dashboards.
+ * <p>
+ * Clients connect to {@code ws://host:port}, optionally send a subscribe command
+ * (see {@link SubscriberFilter}) and then receive one text message per coalesced
+ * frame. Sending is asynchronous; while a client still has buffered data, its alerts
+ * are collected for the next frame.
+ */
+public class WebSocketAlertSink extends AlertPushSink {
+
+    private final AlertServer server;
+
+    /**
+     * Starts a server with the default coalescing and pending limit and no ward
+     * mapping, so clients cannot subscribe to a ward.
+     *
+     * @param port the port to listen on
+     */
+    public WebSocketAlertSink(int port) {
+        this(port, null, DEFAULT_COALESCE_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param port           the port to listen on
+     * @param wardOf         maps a patient ID to its ward, or returns null if unknown;
+     *                       null if there is no ward mapping
+     * @param coalesceMillis time alerts are collected into one frame
+     * @param maxPending     lines that may wait for a busy client
+     */
+    public WebSocketAlertSink(int port, IntFunction<String> wardOf, long coalesceMillis, int maxPending) {
+        super(wardOf, coalesceMillis, maxPending);
+        server = new AlertServer(new InetSocketAddress(port));
+        server.setReuseAddr(true);
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        try {
+            server.stop(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One WebSocket client.
+     */
+    private static final class ClientSubscriber extends Subscriber {
+        private final WebSocket conn;
+
+        ClientSubscriber(WebSocket conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        protected boolean isBusy() {
+            return conn.hasBufferedData();
+        }
+
+        @Override
+        protected void send(String frame) {
+            if (conn.isOpen()) conn.send(frame);
+        }
+    }
+
+    private final class AlertServer extends WebSocketServer {
+
+        AlertServer(InetSocketAddress address) {
+            super(address);
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            ClientSubscriber subscriber = new ClientSubscriber(conn);
+            conn.setAttachment(subscriber);
+            addSubscriber(subscriber);
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            ClientSubscriber subscriber = conn.getAttachment();
+            if (subscriber != null) removeSubscriber(subscriber);
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            ClientSubscriber subscriber = conn.getAttachment();
+            if (subscriber != null) onCommand(subscriber, message);
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+            System.err.println("Alert WebSocket error: " + ex.getMessage());
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Alert WebSocket server started on port " + getPort());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.alerts.rules;
+
+/**
+ * The comparison operators a rule can apply to a value and a limit.
+ */
+enum Comparison {
+    LESS("<"),
+    LESS_OR_EQUAL("<="),
+    GREATER(">"),
+    GREATER_OR_EQUAL(">=");
+
+    private final String symbol;
+
+    Comparison(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Applies the comparison. Always false for NaN values.
+     *
+     * @param value the value
+     * @param limit the limit
+     * @return true if {@code value <op> limit}
+     */
+    boolean test(double value, double limit) {
+        switch (this) {
+            case LESS:
+                return value < limit;
+            case LESS_OR_EQUAL:
+                return value <= limit;
+            case GREATER:
+                return value > limit;
+            default:
+                return value >= limit;
+        }
+    }
+
+    static Comparison fromSymbol(String symbol) {
+        for (Comparison comparison : values()) {
+            if (comparison.symbol.equals(symbol)) return comparison;
+        }
+        throw new IllegalArgumentException("Unknown comparison: '" + symbol + "'");
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
@@ -0,0 +1,64 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+import com.alerts.strategies.TimeAlignedJoin;
+
+/**
+ * Raises its condition when two signals are both beyond their limits at the same
+ * time, within a tolerance, e.g. low systolic pressure and low saturation measured
+ * within 60 seconds of each other.
+ * <p>
+ * The signals are combined by a per-patient {@link TimeAlignedJoin}, so each
+ * sample costs O(1). The alert is raised when the combined condition starts to
+ * hold and again only after it has stopped holding in between.
+ */
+final class CrossSignalRule extends Rule {
+
+    private final Comparison[] comparisons;
+    private final double[] limits;
+    private final long toleranceMillis;
+
+    CrossSignalRule(AlertCondition condition, Signal first, Comparison firstComparison, double firstLimit,
+                    Signal second, Comparison secondComparison, double secondLimit, long toleranceMillis) {
+        super(condition, first, second);
+        this.comparisons = new Comparison[]{firstComparison, secondComparison};
+        this.limits = new double[]{firstLimit, secondLimit};
+        this.toleranceMillis = toleranceMillis;
+    }
+
+    @Override
+    Object newState() {
+        return new State(toleranceMillis);
+    }
+
+    @Override
+    long onValue(Object state, int signalIndex, long timestamp, double value) {
+        State s = (State) state;
+        if (Double.isNaN(value) || timestamp < s.join.timeOf(signalIndex)) return NO_ALERT;
+
+        boolean holds = s.join.offer(signalIndex, timestamp, value)
+                && comparisons[0].test(s.join.valueOf(0), limits[0])
+                && comparisons[1].test(s.join.valueOf(1), limits[1]);
+        boolean starts = holds && !s.active;
+        s.active = holds;
+        return starts ? timestamp : NO_ALERT;
+    }
+
+    @Override
+    public String toString() {
+        return "cross " + getCondition() + " " + getSignals().get(0) + " " + comparisons[0] + " " + limits[0]
+                + " " + getSignals().get(1) + " " + comparisons[1] + " " + limits[1] + " " + toleranceMillis + "ms";
+    }
+
+    /**
+     * The join of one patient and whether the condition held at the previous event.
+     */
+    private static final class State {
+        final TimeAlignedJoin join;
+        boolean active = false;
+
+        State(long toleranceMillis) {
+            this.join = new TimeAlignedJoin(2, toleranceMillis);
+        }
+    }
+}
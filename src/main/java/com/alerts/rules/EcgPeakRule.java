@@ -0,0 +1,31 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+import com.alerts.strategies.EcgStreamProcessor;
+
+/**
+ * Raises its condition for abnormal peaks found by a per-patient
+ * {@link EcgStreamProcessor}. Unparsable samples count as 0.
+ */
+final class EcgPeakRule extends Rule {
+
+    EcgPeakRule(AlertCondition condition, Signal signal) {
+        super(condition, signal);
+    }
+
+    @Override
+    Object newState() {
+        return new EcgStreamProcessor();
+    }
+
+    @Override
+    long onValue(Object state, int signalIndex, long timestamp, double value) {
+        EcgStreamProcessor processor = (EcgStreamProcessor) state;
+        return processor.onSample(timestamp, Double.isNaN(value) ? 0.0 : value) ? timestamp : NO_ALERT;
+    }
+
+    @Override
+    public String toString() {
+        return "ecgpeak " + getCondition() + " " + getSignals().get(0);
+    }
+}
@@ -0,0 +1,48 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+import com.alerts.strategies.SlidingWindowMax;
+
+/**
+ * Raises its condition when a value is at least a given amount below the highest
+ * (falling) or above the lowest (rising) value of a time window before it, e.g. a
+ * saturation drop of 5 points within 10 minutes.
+ * <p>
+ * The window extreme is kept in a {@link SlidingWindowMax} (of the negated
+ * values for a rising rule), so each value costs O(1) amortized.
+ */
+final class RateOfChangeRule extends Rule {
+
+    private final boolean rising;
+    private final double amount;
+    private final long windowMillis;
+
+    RateOfChangeRule(AlertCondition condition, Signal signal, boolean rising, double amount, long windowMillis) {
+        super(condition, signal);
+        this.rising = rising;
+        this.amount = amount;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    Object newState() {
+        return new SlidingWindowMax();
+    }
+
+    @Override
+    long onValue(Object state, int signalIndex, long timestamp, double value) {
+        if (Double.isNaN(value)) return NO_ALERT;
+        SlidingWindowMax window = (SlidingWindowMax) state;
+
+        window.evictBefore(timestamp - windowMillis);
+        double change = rising ? value + window.max() : window.max() - value;
+        window.add(timestamp, rising ? -value : value);
+        return change >= amount ? timestamp : NO_ALERT;
+    }
+
+    @Override
+    public String toString() {
+        return "rate " + getCondition() + " " + getSignals().get(0) + " " + (rising ? "rising " : "falling ")
+                + amount + " " + windowMillis + "ms";
+    }
+}
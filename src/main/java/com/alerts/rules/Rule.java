@@ -0,0 +1,71 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One alert rule: raises an {@link AlertCondition} based on the values of one or
+ * more {@link Signal}s.
+ * <p>
+ * Rules are stateless objects shared by all patients. Whatever a rule needs to
+ * remember about a patient (previous readings, a window maximum, ...) lives in a
+ * state object created by {@link #newState()} and handed back on every call.
+ */
+public abstract class Rule {
+
+    /** Returned by {@link #onValue} when the value does not raise an alert. */
+    static final long NO_ALERT = Long.MIN_VALUE;
+
+    private final AlertCondition condition;
+    private final List<Signal> signals;
+
+    /**
+     * @param condition the condition raised by this rule
+     * @param signals   the signals the rule reads, in the order of their index
+     */
+    protected Rule(AlertCondition condition, Signal... signals) {
+        this.condition = condition;
+        this.signals = Collections.unmodifiableList(Arrays.asList(signals));
+    }
+
+    /**
+     * Returns the condition raised by this rule.
+     *
+     * @return the condition code
+     */
+    public AlertCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Returns the signals this rule reads.
+     *
+     * @return the signals, indexed as passed to {@link #onValue}
+     */
+    public List<Signal> getSignals() {
+        return signals;
+    }
+
+    /**
+     * Creates the per-patient state of this rule.
+     *
+     * @return a new state object, or null if the rule is stateless
+     */
+    Object newState() {
+        return null;
+    }
+
+    /**
+     * Processes one value of one of the rule's signals.
+     *
+     * @param state       the patient's state, as created by {@link #newState()}
+     * @param signalIndex which of the rule's signals the value belongs to
+     * @param timestamp   the time of the sample
+     * @param value       the value, NaN if the sample could not be parsed
+     * @return the timestamp of the alert to raise, or {@link #NO_ALERT}
+     */
+    abstract long onValue(Object state, int signalIndex, long timestamp, double value);
+}
@@ -0,0 +1,166 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads alert rules from a plain text file with one rule per line:
+ * <pre>
+ * threshold &lt;CONDITION&gt; &lt;signal&gt; &lt;op&gt; &lt;limit&gt;
+ * trend     &lt;CONDITION&gt; &lt;signal&gt; rising|falling &lt;step&gt; &lt;readings&gt;
+ * rate      &lt;CONDITION&gt; &lt;signal&gt; rising|falling &lt;amount&gt; &lt;window&gt;
+ * cross     &lt;CONDITION&gt; &lt;signal&gt; &lt;op&gt; &lt;limit&gt; &lt;signal&gt; &lt;op&gt; &lt;limit&gt; &lt;tolerance&gt;
+ * ecgpeak   &lt;CONDITION&gt; &lt;signal&gt;
+ * </pre>
+ * {@code CONDITION} is an {@link AlertCondition} name, a signal is written as
+ * described in {@link Signal}, {@code op} is one of {@code < <= > >=} and a window
+ * or tolerance is a number of milliseconds with an optional {@code ms}, {@code s},
+ * {@code m} or {@code h} suffix. Blank lines and lines starting with '#' are ignored.
+ */
+public final class RuleParser {
+
+    /** Classpath location of the built-in rules. */
+    public static final String BUILT_IN_RESOURCE = "/com/alerts/rules/builtin.rules";
+
+    private RuleParser() {
+    }
+
+    /**
+     * Loads rules from a file.
+     *
+     * @param path the rule file
+     * @return the rules in file order
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a valid rule
+     */
+    public static List<Rule> load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Loads the built-in rules, which reproduce the original alert strategies.
+     *
+     * @return the built-in rules
+     */
+    public static List<Rule> loadBuiltIn() {
+        try (InputStream in = RuleParser.class.getResourceAsStream(BUILT_IN_RESOURCE)) {
+            if (in == null) throw new IllegalStateException("Missing resource " + BUILT_IN_RESOURCE);
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + BUILT_IN_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Parses rules from a reader.
+     *
+     * @param reader the rule text
+     * @return the rules in order
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a line is not a valid rule
+     */
+    public static List<Rule> parse(Reader reader) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                rules.add(parseRule(line.split("\\s+")));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static Rule parseRule(String[] t) {
+        String kind = t[0].toLowerCase(Locale.ROOT);
+        switch (kind) {
+            case "threshold":
+                expect(t, 5);
+                return new ThresholdRule(condition(t[1]), Signal.parse(t[2]), Comparison.fromSymbol(t[3]),
+                        number(t[4]));
+            case "trend":
+                expect(t, 6);
+                return new TrendRule(condition(t[1]), Signal.parse(t[2]), direction(t[3]), number(t[4]),
+                        Integer.parseInt(t[5]));
+            case "rate":
+                expect(t, 6);
+                return new RateOfChangeRule(condition(t[1]), Signal.parse(t[2]), direction(t[3]), number(t[4]),
+                        duration(t[5]));
+            case "cross":
+                expect(t, 9);
+                return new CrossSignalRule(condition(t[1]),
+                        Signal.parse(t[2]), Comparison.fromSymbol(t[3]), number(t[4]),
+                        Signal.parse(t[5]), Comparison.fromSymbol(t[6]), number(t[7]),
+                        duration(t[8]));
+            case "ecgpeak":
+                expect(t, 3);
+                return new EcgPeakRule(condition(t[1]), Signal.parse(t[2]));
+            default:
+                throw new IllegalArgumentException("Unknown rule kind: '" + t[0] + "'");
+        }
+    }
+
+    private static void expect(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException("'" + tokens[0] + "' expects " + (count - 1)
+                    + " arguments, got " + (tokens.length - 1));
+        }
+    }
+
+    private static AlertCondition condition(String name) {
+        try {
+            return AlertCondition.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown condition: '" + name + "'");
+        }
+    }
+
+    private static boolean direction(String word) {
+        switch (word.toLowerCase(Locale.ROOT)) {
+            case "rising":
+                return true;
+            case "falling":
+                return false;
+            default:
+                throw new IllegalArgumentException("Expected 'rising' or 'falling', got '" + word + "'");
+        }
+    }
+
+    private static double number(String text) {
+        return Double.parseDouble(text);
+    }
+
+    /**
+     * Parses a duration such as "600000", "30s", "10m" or "1h".
+     *
+     * @param text the duration
+     * @return the duration in milliseconds
+     */
+    static long duration(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ms")) return Long.parseLong(lower.substring(0, lower.length() - 2));
+        if (lower.endsWith("s")) return Long.parseLong(lower.substring(0, lower.length() - 1)) * 1000;
+        if (lower.endsWith("m")) return Long.parseLong(lower.substring(0, lower.length() - 1)) * 60_000;
+        if (lower.endsWith("h")) return Long.parseLong(lower.substring(0, lower.length() - 1)) * 3_600_000;
+        return Long.parseLong(lower);
+    }
+}
@@ -0,0 +1,278 @@
+package com.alerts.rules;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertStage;
+import com.alerts.AlertTrigger;
+import com.alerts.factories.AlertFactory;
+import com.alerts.factories.AlertFactoryProvider;
+import com.alerts.strategies.EcgStreamProcessor;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled set of alert {@link Rule}s.
+ * <p>
+ * The rules are compiled into a dispatch table from record type to the rules
+ * reading that type. Evaluating a batch of samples is a single pass: for each
+ * sample the table entry is looked up once, the value is parsed once (or read
+ * directly from records with primitive components), and every
+ * rule interested in it is applied. A condition is raised at most once per sample
+ * even if several rules for it match (e.g. systolic and diastolic limits of
+ * "Critical Blood Pressure"). Every alert is marked with the stage times known
+ * here: when its sample was stored, when evaluation started and when it was raised.
+ * <p>
+ * Per-patient rule state is kept here. Different patients may be evaluated in
+ * parallel, but the samples of one patient must not be evaluated concurrently.
+ */
+public final class RuleSet {
+
+    private static final Binding[] NONE = new Binding[0];
+
+    static {
+        // evaluate() tracks the conditions raised for a sample as bits of one long
+        if (AlertCondition.values().length > Long.SIZE) {
+            throw new IllegalStateException("RuleSet supports at most " + Long.SIZE + " alert conditions");
+        }
+    }
+
+    private final List<Rule> rules;
+
+    /** Bindings per lower-case record type. */
+    private final Map<String, Binding[]> table;
+
+    /** Bindings per record type exactly as it appears in records, filled on first use. */
+    private final Map<String, Binding[]> byRecordType = new ConcurrentHashMap<>();
+
+    /** Rule states per patient, indexed like {@link #rules}. */
+    private final Map<String, Object[]> states = new ConcurrentHashMap<>();
+
+    private RuleSet(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+
+        Map<String, List<Binding>> bindings = new LinkedHashMap<>();
+        for (int r = 0; r < this.rules.size(); r++) {
+            Rule rule = this.rules.get(r);
+            AlertFactory factory = AlertFactoryProvider.getFactory(rule.getCondition());
+            for (int s = 0; s < rule.getSignals().size(); s++) {
+                Signal signal = rule.getSignals().get(s);
+                bindings.computeIfAbsent(signal.key(), k -> new ArrayList<>())
+                        .add(new Binding(rule, r, s, signal, factory));
+            }
+        }
+        Map<String, Binding[]> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Binding>> entry : bindings.entrySet()) {
+            compiled.put(entry.getKey(), entry.getValue().toArray(new Binding[0]));
+        }
+        this.table = compiled;
+    }
+
+    /**
+     * Compiles a list of rules.
+     *
+     * @param rules the rules, in the order their alerts should be raised for one sample
+     * @return the rule set
+     */
+    public static RuleSet of(List<Rule> rules) {
+        return new RuleSet(rules);
+    }
+
+    /**
+     * Compiles the built-in rules, which reproduce the original alert strategies.
+     *
+     * @return a new rule set with its own patient state
+     */
+    public static RuleSet builtIn() {
+        return new RuleSet(RuleParser.loadBuiltIn());
+    }
+
+    /**
+     * Returns a new rule set with only the rules that read nothing but the given
+     * record types, e.g. the blood pressure rules of the built-in set.
+     *
+     * @param recordTypes the record types, case-insensitive
+     * @return a new rule set with its own patient state
+     */
+    public RuleSet forRecordTypes(String... recordTypes) {
+        Set<String> keys = new HashSet<>();
+        for (String type : recordTypes) {
+            keys.add(type.toLowerCase(Locale.ROOT));
+        }
+        List<Rule> selected = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (rule.getSignals().stream().allMatch(s -> keys.contains(s.key()))) {
+                selected.add(rule);
+            }
+        }
+        return new RuleSet(selected);
+    }
+
+    /**
+     * Returns a new rule set with only the rules for the given conditions.
+     *
+     * @param conditions the conditions to keep
+     * @return a new rule set with its own patient state
+     */
+    public RuleSet forConditions(AlertCondition... conditions) {
+        Set<AlertCondition> keep = new HashSet<>(Arrays.asList(conditions));
+        List<Rule> selected = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (keep.contains(rule.getCondition())) {
+                selected.add(rule);
+            }
+        }
+        return new RuleSet(selected);
+    }
+
+    /**
+     * Returns the record types read by the rules of this set.
+     *
+     * @return the record types as written in the rules, without duplicates
+     */
+    public List<String> getRecordTypes() {
+        Map<String, String> types = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            for (Signal signal : rule.getSignals()) {
+                types.putIfAbsent(signal.key(), signal.getRecordType());
+            }
+        }
+        return new ArrayList<>(types.values());
+    }
+
+    /**
+     * Returns the rules of this set.
+     *
+     * @return the rules in order
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Applies all rules to new samples of a patient and triggers the resulting alerts.
+     * Samples of types no rule reads are skipped.
+     *
+     * @param patientId the patient's ID
+     * @param samples   the new samples, of any record types
+     * @param trigger   receives the alerts
+     */
+    public void evaluate(String patientId, List<PatientRecord> samples, AlertTrigger trigger) {
+        if (samples.isEmpty()) return;
+        long evaluationStart = System.currentTimeMillis();
+        Object[] patientStates = states.computeIfAbsent(patientId, k -> newStates());
+        double[] values = new double[Signal.MAX_COMPONENTS];
+
+        for (PatientRecord sample : inTimeOrder(samples)) {
+            Binding[] bindings = bindingsFor(sample.getRecordType());
+            if (bindings == null) continue;
+
+            int count = sample.getComponents(values);
+            if (count < 0) count = Signal.parseComponents(sample.getMeasurementValue(), values);
+            long raised = 0; // bit per AlertCondition ordinal
+            for (Binding binding : bindings) {
+                double value = binding.signal.select(values, count);
+                long alertTime = binding.rule.onValue(patientStates[binding.ruleIndex], binding.signalIndex,
+                        sample.getTimestamp(), value);
+                if (alertTime == Rule.NO_ALERT) continue;
+
+                AlertCondition condition = binding.rule.getCondition();
+                long bit = 1L << condition.ordinal();
+                if ((raised & bit) != 0) continue;
+                raised |= bit;
+                Alert alert = binding.factory.createAlert(patientId, condition, alertTime);
+                alert.markStage(AlertStage.INGEST, sample.getIngestedAt())
+                        .markStage(AlertStage.QUEUED, evaluationStart)
+                        .markStage(AlertStage.EVALUATED, System.currentTimeMillis());
+                trigger.trigger(alert);
+            }
+        }
+    }
+
+    /**
+     * Returns the stream processor of a patient kept by the first "ecgpeak" rule,
+     * e.g. to read heart rate and HRV.
+     *
+     * @param patientId the patient's ID
+     * @return the patient's processor, created on first use, or null if the set has no ecgpeak rule
+     */
+    public EcgStreamProcessor getEcgProcessor(String patientId) {
+        for (int r = 0; r < rules.size(); r++) {
+            if (rules.get(r) instanceof EcgPeakRule) {
+                return (EcgStreamProcessor) states.computeIfAbsent(patientId, k -> newStates())[r];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets all rule state of a patient.
+     *
+     * @param patientId the patient's ID
+     */
+    public void resetPatient(String patientId) {
+        states.remove(patientId);
+    }
+
+    private Binding[] bindingsFor(String recordType) {
+        Binding[] bindings = byRecordType.get(recordType);
+        if (bindings == null) {
+            bindings = table.getOrDefault(recordType.toLowerCase(Locale.ROOT), NONE);
+            byRecordType.put(recordType, bindings);
+        }
+        return bindings.length == 0 ? null : bindings;
+    }
+
+    private Object[] newStates() {
+        Object[] result = new Object[rules.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = rules.get(i).newState();
+        }
+        return result;
+    }
+
+    private static List<PatientRecord> inTimeOrder(List<PatientRecord> samples) {
+        for (int i = 1; i < samples.size(); i++) {
+            if (samples.get(i).getTimestamp() < samples.get(i - 1).getTimestamp()) {
+                List<PatientRecord> sorted = new ArrayList<>(samples);
+                sorted.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+                return sorted;
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSet" + Arrays.toString(rules.toArray());
+    }
+
+    /**
+     * One entry of the dispatch table: a rule reading one of its signals.
+     */
+    private static final class Binding {
+        final Rule rule;
+        final int ruleIndex;
+        final int signalIndex;
+        final Signal signal;
+        final AlertFactory factory;
+
+        Binding(Rule rule, int ruleIndex, int signalIndex, Signal signal, AlertFactory factory) {
+            this.rule = rule;
+            this.ruleIndex = ruleIndex;
+            this.signalIndex = signalIndex;
+            this.signal = signal;
+            this.factory = factory;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.alerts.rules;
+
+import com.data_management.PatientRecord;
+
+import java.util.Locale;
+
+/**
+ * A numeric signal a rule is evaluated on: a record type, optionally narrowed to
+ * one component of a compound value such as the systolic part of "120/80".
+ * <p>
+ * Written as {@code RecordType} or {@code RecordType.component}, where the
+ * component is {@code systolic}, {@code diastolic} or a zero-based index.
+ * A plain signal only reads single values and a component only reads compound
+ * values, so a blood pressure record of "120" is skipped rather than taken as a
+ * systolic reading. Components may have decimals, e.g. "120.5/80".
+ */
+public final class Signal {
+
+    /** Maximum number of components in one measurement value. */
+    static final int MAX_COMPONENTS = 2;
+
+    private final String recordType;
+    private final String key;
+    private final int component;
+
+    private Signal(String recordType, int component) {
+        this.recordType = recordType;
+        this.key = recordType.toLowerCase(Locale.ROOT);
+        this.component = component;
+    }
+
+    /**
+     * Parses a signal such as "Saturation" or "BloodPressure.systolic".
+     *
+     * @param spec the signal specification
+     * @return the signal
+     * @throws IllegalArgumentException if the component is unknown
+     */
+    public static Signal parse(String spec) {
+        int dot = spec.indexOf('.');
+        if (dot < 0) return new Signal(spec, -1);
+
+        String type = spec.substring(0, dot);
+        String part = spec.substring(dot + 1).toLowerCase(Locale.ROOT);
+        switch (part) {
+            case "systolic":
+                return new Signal(type, 0);
+            case "diastolic":
+                return new Signal(type, 1);
+            default:
+                try {
+                    int index = Integer.parseInt(part);
+                    if (index >= 0 && index < MAX_COMPONENTS) return new Signal(type, index);
+                } catch (NumberFormatException ignored) {
+                    // Reported below
+                }
+                throw new IllegalArgumentException("Unknown signal component: '" + spec + "'");
+        }
+    }
+
+    /**
+     * Returns the record type as written in the rule, e.g. "BloodPressure".
+     *
+     * @return the record type
+     */
+    public String getRecordType() {
+        return recordType;
+    }
+
+    /**
+     * Returns the record type in lower case, used to match records case-insensitively.
+     *
+     * @return the lookup key
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Picks this signal's value out of a parsed measurement.
+     *
+     * @param values the parsed components
+     * @param count  number of valid components
+     * @return the value, or NaN if the measurement has no such component
+     */
+    double select(double[] values, int count) {
+        if (component < 0) return count == 1 ? values[0] : Double.NaN;
+        return count > 1 && component < count ? values[component] : Double.NaN;
+    }
+
+    /**
+     * Reads this signal's value from a record, using the record's primitive
+     * components when it has them.
+     *
+     * @param record  a record of this signal's type
+     * @param scratch receives the components, at least 2 long
+     * @return the value, or NaN if the record has no such numeric component
+     */
+    public double read(PatientRecord record, double[] scratch) {
+        int count = record.getComponents(scratch);
+        if (count < 0) count = parseComponents(record.getMeasurementValue(), scratch);
+        return select(scratch, count);
+    }
+
+    /**
+     * Parses a measurement value such as "98%", "0.61" or "120/80" into its
+     * numeric components.
+     *
+     * @param raw the measurement value
+     * @param out receives the components, at least {@link #MAX_COMPONENTS} long
+     * @return the number of components, or 0 if the value is not numeric
+     */
+    static int parseComponents(String raw, double[] out) {
+        int count = 0;
+        int start = 0;
+        int length = raw.length();
+        while (start <= length && count < MAX_COMPONENTS) {
+            int end = raw.indexOf('/', start);
+            if (end < 0) end = length;
+
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(raw.charAt(from))) from++;
+            while (to > from && (Character.isWhitespace(raw.charAt(to - 1)) || raw.charAt(to - 1) == '%')) to--;
+            if (from == to) return 0;
+            try {
+                out[count++] = Double.parseDouble(raw.substring(from, to));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+            start = end + 1;
+        }
+        return start > length ? count : 0;
+    }
+
+    @Override
+    public String toString() {
+        switch (component) {
+            case -1:
+                return recordType;
+            case 0:
+                return recordType + ".systolic";
+            case 1:
+                return recordType + ".diastolic";
+            default:
+                return recordType + "." + component;
+        }
+    }
+}
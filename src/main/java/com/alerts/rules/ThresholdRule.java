@@ -0,0 +1,28 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+
+/**
+ * Raises its condition for every value beyond a fixed limit, e.g. {@code HeartRate > 120}.
+ */
+final class ThresholdRule extends Rule {
+
+    private final Comparison comparison;
+    private final double limit;
+
+    ThresholdRule(AlertCondition condition, Signal signal, Comparison comparison, double limit) {
+        super(condition, signal);
+        this.comparison = comparison;
+        this.limit = limit;
+    }
+
+    @Override
+    long onValue(Object state, int signalIndex, long timestamp, double value) {
+        return comparison.test(value, limit) ? timestamp : NO_ALERT;
+    }
+
+    @Override
+    public String toString() {
+        return "threshold " + getCondition() + " " + getSignals().get(0) + " " + comparison + " " + limit;
+    }
+}
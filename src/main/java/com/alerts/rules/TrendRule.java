@@ -0,0 +1,67 @@
+package com.alerts.rules;
+
+import com.alerts.AlertCondition;
+
+/**
+ * Raises its condition when a number of consecutive readings each rise (or fall)
+ * by more than a step, e.g. three systolic readings each more than 10 above the previous.
+ * Every qualifying run is reported, including overlapping ones.
+ */
+final class TrendRule extends Rule {
+
+    private final boolean rising;
+    private final double step;
+    private final int readings;
+
+    TrendRule(AlertCondition condition, Signal signal, boolean rising, double step, int readings) {
+        super(condition, signal);
+        if (readings < 2) throw new IllegalArgumentException("A trend needs at least 2 readings");
+        this.rising = rising;
+        this.step = step;
+        this.readings = readings;
+    }
+
+    @Override
+    Object newState() {
+        return new History(readings - 1);
+    }
+
+    @Override
+    long onValue(Object state, int signalIndex, long timestamp, double value) {
+        if (Double.isNaN(value)) return NO_ALERT;
+        History history = (History) state;
+
+        boolean trend = history.count == history.values.length;
+        for (int i = 0; trend && i < history.values.length; i++) {
+            double next = i + 1 < history.values.length ? history.values[i + 1] : value;
+            double change = rising ? next - history.values[i] : history.values[i] - next;
+            trend = change > step;
+        }
+        history.push(value);
+        return trend ? timestamp : NO_ALERT;
+    }
+
+    @Override
+    public String toString() {
+        return "trend " + getCondition() + " " + getSignals().get(0) + " " + (rising ? "rising " : "falling ")
+                + step + " " + readings;
+    }
+
+    /**
+     * The previous readings of one patient, oldest first.
+     */
+    private static final class History {
+        final double[] values;
+        int count = 0;
+
+        History(int size) {
+            this.values = new double[size];
+        }
+
+        void push(double value) {
+            System.arraycopy(values, 1, values, 0, values.length - 1);
+            values[values.length - 1] = value;
+            count = Math.min(count + 1, values.length);
+        }
+    }
+}
@@ -3,20 +3,86 @@ package com.alerts.strategies;
 import com.alerts.AlertTrigger;
 import com.data_management.PatientRecord;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Interface for alert strategies based on different health data types.
+ * <p>
+ * Strategies are incremental: they keep a small amount of state per patient
+ * (e.g. the last readings needed for a trend) and are only handed samples they
+ * have not seen before. Each sample is therefore judged exactly once, and the
+ * cost of an evaluation depends only on how much new data has arrived.
+ * <p>
+ * A strategy also declares what it consumes: its signals (record types), how far
+ * back a sample may lie and still be worth judging, and optionally how many of the
+ * newest unseen samples per signal it needs. The {@code AlertService} queries
+ * exactly those signals, so record types no strategy reads are never touched.
  */
 public interface AlertStrategy {
 
+    /** Length of the evaluation window in milliseconds (10 minutes). */
+    long WINDOW_MILLIS = 10 * 60 * 1000;
+
+    /** Value of {@link #getMaxSamples()} for strategies that need every sample. */
+    int ALL_SAMPLES = Integer.MAX_VALUE;
+
     /**
-     * Evaluates records and triggers alerts based on health conditions.
+     * Returns the record types this strategy reads, matched case-insensitively.
+     * An empty list means the single record type the strategy is registered for.
+     *
+     * @return the record types
+     */
+    default List<String> getSignals() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns how old a sample may be and still be judged; older new samples are skipped.
+     *
+     * @return the lookback window in milliseconds
+     */
+    default long getLookbackMillis() {
+        return WINDOW_MILLIS;
+    }
+
+    /**
+     * Returns how many of the newest unseen samples per signal this strategy needs,
+     * e.g. 1 for a strategy that only looks at the latest reading.
+     *
+     * @return the sample count, or {@link #ALL_SAMPLES}
+     */
+    default int getMaxSamples() {
+        return ALL_SAMPLES;
+    }
+
+    /**
+     * Processes samples that arrived since the last call for this patient and
+     * triggers alerts for any condition they complete.
      * Each strategy internally determines the appropriate AlertFactory.
      *
+     * @param patientId  the patient's ID
+     * @param newSamples new records of a specific type (e.g., BloodPressure, ECG), oldest first
+     * @param trigger    the alert trigger used to dispatch alerts
+     */
+    void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger);
+
+    /**
+     * Forgets all state kept for a patient, e.g. when the patient is discharged.
+     *
+     * @param patientId the patient's ID
+     */
+    void resetPatient(String patientId);
+
+    /**
+     * Evaluates records and triggers alerts based on health conditions.
+     * The records are treated as new samples, see {@link #onSamples}.
+     *
      * @param patientId the patient's ID
      * @param records   the records of a specific type (e.g., BloodPressure, ECG)
      * @param trigger   the alert trigger used to dispatch alerts
      */
-    void checkAlert(String patientId, List<PatientRecord> records, AlertTrigger trigger);
+    default void checkAlert(String patientId, List<PatientRecord> records, AlertTrigger trigger) {
+        onSamples(patientId, records, trigger);
+    }
 }
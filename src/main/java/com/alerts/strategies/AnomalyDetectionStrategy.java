@@ -0,0 +1,163 @@
+package com.alerts.strategies;
+
+import com.alerts.AlertCondition;
+import com.alerts.AlertTrigger;
+import com.alerts.factories.AnomalyAlertFactory;
+import com.alerts.rules.Signal;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Strategy that flags values deviating from each patient's own norm rather than
+ * from fixed limits.
+ * <p>
+ * Every patient has one {@link PatientBaseline} per signal: EWMA mean and variance,
+ * a two-sided CUSUM and time-of-day offsets. A new sample is scored against and
+ * then added to its baseline in O(1), without looking at earlier samples; a
+ * sudden deviation raises {@link AlertCondition#ABOVE_BASELINE} or
+ * {@link AlertCondition#BELOW_BASELINE}, a lasting small shift
+ * {@link AlertCondition#RISING_FROM_BASELINE} or {@link AlertCondition#FALLING_FROM_BASELINE}.
+ * <p>
+ * Signals are written as in the rules, see {@link Signal}; by default heart rate,
+ * saturation, both blood pressure components and the blood levels are watched.
+ */
+public class AnomalyDetectionStrategy implements AlertStrategy {
+
+    /** Signals watched by default. */
+    public static final List<String> DEFAULT_SIGNALS = Collections.unmodifiableList(Arrays.asList(
+            "HeartRate", "Saturation", "BloodPressure.systolic", "BloodPressure.diastolic",
+            "Cholesterol", "WhiteBloodCells", "RedBloodCells"));
+
+    /** Default weight of each new sample; the baseline reflects roughly the last 100 samples. */
+    public static final double DEFAULT_ALPHA = 0.01;
+
+    /** Default number of standard deviations that make a spike. */
+    public static final double DEFAULT_SPIKE_LIMIT = 5.0;
+
+    /** Default drift tolerated per sample, in standard deviations. */
+    public static final double DEFAULT_CUSUM_SLACK = 0.5;
+
+    /** Default accumulated drift that raises an alert, in standard deviations. */
+    public static final double DEFAULT_CUSUM_LIMIT = 10.0;
+
+    /** Default number of time-of-day buckets: one per hour. */
+    public static final int DEFAULT_BUCKETS = 24;
+
+    private static final AlertCondition[] CONDITIONS = {null, AlertCondition.ABOVE_BASELINE,
+            AlertCondition.BELOW_BASELINE, AlertCondition.RISING_FROM_BASELINE, AlertCondition.FALLING_FROM_BASELINE};
+
+    private final AnomalyAlertFactory factory = new AnomalyAlertFactory();
+    private final Signal[] signals;
+    private final List<String> recordTypes;
+    /** Signal indexes per lower case record type. */
+    private final Map<String, int[]> channels = new HashMap<>();
+    private final double alpha;
+    private final double spikeLimit;
+    private final double cusumSlack;
+    private final double cusumLimit;
+    private final int buckets;
+
+    /** Baselines per patient, indexed like {@link #signals}; created on the first sample. */
+    private final Map<String, PatientBaseline[]> baselines = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a strategy for the default signals and settings.
+     */
+    public AnomalyDetectionStrategy() {
+        this(DEFAULT_SIGNALS, DEFAULT_ALPHA, DEFAULT_SPIKE_LIMIT, DEFAULT_CUSUM_SLACK, DEFAULT_CUSUM_LIMIT,
+                DEFAULT_BUCKETS);
+    }
+
+    /**
+     * Creates a strategy.
+     *
+     * @param signals    the signals to watch, e.g. "HeartRate" or "BloodPressure.systolic"
+     * @param alpha      weight of each new sample in a baseline
+     * @param spikeLimit standard deviations beyond which a sample is a spike
+     * @param cusumSlack drift tolerated per sample, in standard deviations
+     * @param cusumLimit accumulated drift that raises an alert, in standard deviations
+     * @param buckets    number of time-of-day buckets, 1 for no seasonality
+     */
+    public AnomalyDetectionStrategy(List<String> signals, double alpha, double spikeLimit, double cusumSlack,
+                                    double cusumLimit, int buckets) {
+        if (alpha <= 0 || alpha > 1) throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        if (buckets < 1) throw new IllegalArgumentException("Buckets must be positive");
+        this.signals = new Signal[signals.size()];
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < this.signals.length; i++) {
+            Signal signal = Signal.parse(signals.get(i));
+            this.signals[i] = signal;
+            String key = signal.getRecordType().toLowerCase(Locale.ROOT);
+            int[] indexes = channels.get(key);
+            if (indexes == null) {
+                types.add(signal.getRecordType());
+                indexes = new int[0];
+            }
+            indexes = Arrays.copyOf(indexes, indexes.length + 1);
+            indexes[indexes.length - 1] = i;
+            channels.put(key, indexes);
+        }
+        this.recordTypes = Collections.unmodifiableList(types);
+        this.alpha = alpha;
+        this.spikeLimit = spikeLimit;
+        this.cusumSlack = cusumSlack;
+        this.cusumLimit = cusumLimit;
+        this.buckets = buckets;
+    }
+
+    @Override
+    public List<String> getSignals() {
+        return recordTypes;
+    }
+
+    @Override
+    public void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger) {
+        PatientBaseline[] patient = baselines.computeIfAbsent(patientId, k -> new PatientBaseline[signals.length]);
+        double[] scratch = new double[2];
+        for (PatientRecord sample : newSamples) {
+            int[] indexes = channels.get(sample.getRecordType().toLowerCase(Locale.ROOT));
+            if (indexes == null) continue;
+            for (int i : indexes) {
+                double value = signals[i].read(sample, scratch);
+                if (Double.isNaN(value)) continue;
+                if (patient[i] == null) {
+                    patient[i] = new PatientBaseline(alpha, spikeLimit, cusumSlack, cusumLimit, buckets);
+                }
+                int result = patient[i].update(sample.getTimestamp(), value);
+                if (result != PatientBaseline.NORMAL) {
+                    trigger.trigger(factory.createAlert(patientId, CONDITIONS[result], sample.getTimestamp(),
+                            signals[i].toString()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void resetPatient(String patientId) {
+        baselines.remove(patientId);
+    }
+
+    /**
+     * Returns the learned baseline of one signal of a patient.
+     *
+     * @param patientId the patient's ID
+     * @param signal    the signal as given to the constructor, e.g. "HeartRate"
+     * @return the baseline, or null if no sample of the signal was seen
+     */
+    public PatientBaseline getBaseline(String patientId, String signal) {
+        PatientBaseline[] patient = baselines.get(patientId);
+        if (patient == null) return null;
+        for (int i = 0; i < signals.length; i++) {
+            if (signals[i].toString().equalsIgnoreCase(signal)) return patient[i];
+        }
+        return null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.alerts.strategies;
+
+/**
+ * Streaming ECG analytics for one patient, with constant work per sample.
+ * <p>
+ * For every sample the processor
+ * <ul>
+ *     <li>updates an EWMA baseline (mean and variance) of the signal,</li>
+ *     <li>detects beats online: a beat is the highest sample of an excursion
+ *     above {@code mean + BEAT_SIGMAS * sd}, at least {@link #REFRACTORY_MILLIS} after
+ *     the previous beat,</li>
+ *     <li>derives the R-R interval between beats, a smoothed heart rate and
+ *     the heart-rate variability as an RMSSD (root mean square of successive R-R
+ *     differences), all updated incrementally,</li>
+ *     <li>flags abnormal peaks: the start of an excursion above an adaptive
+ *     threshold of {@code mean + max(ABNORMAL_SIGMAS * sd, 0.3 * |mean|)}, raised to
+ *     1.3 times the typical beat height once beats have been seen, so that normal
+ *     R waves are not reported.</li>
+ * </ul>
+ * Only primitives are used, so the processor can keep up with real waveform rates
+ * of 250-500 Hz. Samples must arrive in time order. Not thread-safe.
+ */
+public final class EcgStreamProcessor {
+
+    /** Minimum number of earlier samples before any sample can be judged abnormal. */
+    public static final int MIN_SAMPLES = 4;
+
+    /** No two beats can be closer than this (physiological refractory period). */
+    public static final long REFRACTORY_MILLIS = 200;
+
+    private static final double BASELINE_ALPHA = 0.01;
+    private static final double RR_ALPHA = 0.1;
+    private static final double BEAT_SIGMAS = 1.5;
+    private static final double ABNORMAL_SIGMAS = 3.0;
+    private static final double ABNORMAL_RELATIVE = 0.3;
+    private static final double ABNORMAL_BEAT_RATIO = 1.3;
+
+    private final EwmaStats baseline = new EwmaStats(BASELINE_ALPHA);
+
+    // Beat detection
+    private boolean inBeatExcursion = false;
+    private double excursionPeak;
+    private long excursionPeakTime;
+    private long lastBeatTime = Long.MIN_VALUE;
+    private double meanBeatHeight = 0.0;
+
+    // R-R statistics
+    private long lastRrMillis = -1;
+    private double meanRrMillis = 0.0;
+    private double meanSquaredSuccessiveDiff = 0.0;
+    private long beatCount = 0;
+    private long rrCount = 0;
+
+    // Abnormal peak detection
+    private boolean inAbnormalExcursion = false;
+
+    /**
+     * Processes one sample.
+     *
+     * @param timestamp sample time in milliseconds
+     * @param value     the ECG amplitude
+     * @return true if this sample starts an abnormal peak
+     */
+    public boolean onSample(long timestamp, double value) {
+        boolean abnormal = false;
+
+        if (baseline.getCount() >= MIN_SAMPLES) {
+            double mean = baseline.getMean();
+            double sd = baseline.getStdDev();
+
+            double abnormalThreshold = mean + Math.max(ABNORMAL_SIGMAS * sd, ABNORMAL_RELATIVE * Math.abs(mean));
+            if (beatCount > 0) {
+                abnormalThreshold = Math.max(abnormalThreshold, mean + ABNORMAL_BEAT_RATIO * meanBeatHeight);
+            }
+            if (value > abnormalThreshold) {
+                abnormal = !inAbnormalExcursion;
+                inAbnormalExcursion = true;
+            } else {
+                inAbnormalExcursion = false;
+            }
+
+            detectBeat(timestamp, value, mean, mean + BEAT_SIGMAS * sd);
+        }
+
+        baseline.update(value);
+        return abnormal;
+    }
+
+    private void detectBeat(long timestamp, double value, double mean, double beatThreshold) {
+        if (value > beatThreshold) {
+            if (!inBeatExcursion || value > excursionPeak) {
+                excursionPeak = value;
+                excursionPeakTime = timestamp;
+            }
+            inBeatExcursion = true;
+            return;
+        }
+        if (!inBeatExcursion) return;
+
+        // The excursion just ended: its highest sample is the beat
+        inBeatExcursion = false;
+        if (lastBeatTime != Long.MIN_VALUE) {
+            long rr = excursionPeakTime - lastBeatTime;
+            if (rr < REFRACTORY_MILLIS) return;
+            onRrInterval(rr);
+        }
+        double height = excursionPeak - mean;
+        meanBeatHeight = beatCount == 0 ? height : meanBeatHeight + RR_ALPHA * (height - meanBeatHeight);
+        lastBeatTime = excursionPeakTime;
+        beatCount++;
+    }
+
+    private void onRrInterval(long rr) {
+        rrCount++;
+        if (rrCount == 1) {
+            meanRrMillis = rr;
+        } else {
+            meanRrMillis += RR_ALPHA * (rr - meanRrMillis);
+            double diff = rr - lastRrMillis;
+            if (rrCount == 2) {
+                meanSquaredSuccessiveDiff = diff * diff;
+            } else {
+                meanSquaredSuccessiveDiff += RR_ALPHA * (diff * diff - meanSquaredSuccessiveDiff);
+            }
+        }
+        lastRrMillis = rr;
+    }
+
+    /**
+     * Returns the number of beats detected so far.
+     *
+     * @return beat count
+     */
+    public long getBeatCount() {
+        return beatCount;
+    }
+
+    /**
+     * Returns the most recent R-R interval.
+     *
+     * @return interval in milliseconds, or -1 before two beats were seen
+     */
+    public long getLastRrMillis() {
+        return lastRrMillis;
+    }
+
+    /**
+     * Returns the heart rate derived from the smoothed R-R interval.
+     *
+     * @return beats per minute, or 0 before two beats were seen
+     */
+    public double getHeartRateBpm() {
+        return meanRrMillis > 0 ? 60_000.0 / meanRrMillis : 0.0;
+    }
+
+    /**
+     * Returns the heart-rate variability as a smoothed RMSSD.
+     *
+     * @return RMSSD in milliseconds, or 0 before three beats were seen
+     */
+    public double getRmssdMillis() {
+        return Math.sqrt(meanSquaredSuccessiveDiff);
+    }
+
+    /**
+     * Returns the EWMA baseline of the signal.
+     *
+     * @return the baseline statistics
+     */
+    public EwmaStats getBaseline() {
+        return baseline;
+    }
+}
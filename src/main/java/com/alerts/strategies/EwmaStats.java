@@ -0,0 +1,92 @@
+package com.alerts.strategies;
+
+/**
+ * Running mean and variance with exponential forgetting (EWMA).
+ * <p>
+ * Until {@code 1 / alpha} values have been seen the plain running mean and
+ * variance are used (Welford's algorithm), so the first readings are not
+ * dominated by the initial value. After that, every update moves the statistics
+ * towards the new value by a factor {@code alpha}. Each update is O(1) and uses
+ * no extra memory. Not thread-safe.
+ */
+public final class EwmaStats {
+
+    private final double alpha;
+    private final long warmup;
+
+    private long count = 0;
+    private double mean = 0.0;
+    private double variance = 0.0;
+
+    /**
+     * Creates statistics with the given smoothing factor.
+     *
+     * @param alpha weight of each new value, between 0 (exclusive) and 1
+     */
+    public EwmaStats(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+        this.warmup = Math.round(1.0 / alpha);
+    }
+
+    /**
+     * Adds a value to the statistics.
+     *
+     * @param value the new value
+     */
+    public void update(double value) {
+        count++;
+        double delta = value - mean;
+        if (count <= warmup) {
+            // Welford: exact running mean and (population) variance
+            mean += delta / count;
+            variance += (delta * (value - mean) - variance) / count;
+        } else {
+            mean += alpha * delta;
+            variance = (1 - alpha) * (variance + alpha * delta * delta);
+        }
+    }
+
+    /**
+     * Returns how many values have been added.
+     *
+     * @return the number of updates
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Returns how many standard deviations a value is away from the mean.
+     *
+     * @param value the value to compare
+     * @return the z-score, or 0 while the variance is still zero
+     */
+    public double zScore(double value) {
+        double sd = getStdDev();
+        return sd > 0 ? (value - mean) / sd : 0.0;
+    }
+
+    /**
+     * Forgets all values.
+     */
+    public void reset() {
+        count = 0;
+        mean = 0.0;
+        variance = 0.0;
+    }
+}
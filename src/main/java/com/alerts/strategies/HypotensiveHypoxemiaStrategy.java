@@ -0,0 +1,25 @@
+package com.alerts.strategies;
+
+import com.alerts.AlertCondition;
+import com.alerts.rules.RuleSet;
+
+import java.util.List;
+
+/**
+ * Strategy for detecting hypotensive hypoxemia: a systolic pressure below 90
+ * together with a saturation below 92%, measured within 60 seconds of each other.
+ * <p>
+ * Backed by the built-in cross-signal rule, which aligns the two signals with a
+ * {@link TimeAlignedJoin} in a single linear pass.
+ */
+public class HypotensiveHypoxemiaStrategy extends RuleStrategy implements MultiSignalStrategy {
+
+    public HypotensiveHypoxemiaStrategy() {
+        super(RuleSet.builtIn().forConditions(AlertCondition.HYPOTENSIVE_HYPOXEMIA));
+    }
+
+    @Override
+    public List<String> getRecordTypes() {
+        return getRules().getRecordTypes();
+    }
+}
@@ -0,0 +1,25 @@
+package com.alerts.strategies;
+
+import java.util.List;
+
+/**
+ * A strategy whose condition depends on several record types at once.
+ * <p>
+ * Instead of the records of a single type, {@link #onSamples} receives the new
+ * records of all types returned by {@link #getRecordTypes()}, merged in time order.
+ */
+public interface MultiSignalStrategy extends AlertStrategy {
+
+    /**
+     * Returns the record types this strategy reads, e.g. "BloodPressure" and "Saturation".
+     * Types are matched case-insensitively.
+     *
+     * @return the record types
+     */
+    List<String> getRecordTypes();
+
+    @Override
+    default List<String> getSignals() {
+        return getRecordTypes();
+    }
+}
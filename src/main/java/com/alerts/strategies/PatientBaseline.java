@@ -0,0 +1,155 @@
+package com.alerts.strategies;
+
+/**
+ * The learned norm of one signal of one patient, and how far a new value is from it.
+ * <p>
+ * The baseline is an exponentially weighted level plus a seasonal offset for the
+ * time of day (UTC): the day is split into buckets, and each bucket learns, also by
+ * EWMA, how far its values usually lie from the level, while the level learns the
+ * values less their offset. A regular daily rhythm
+ * is not mistaken for a deviation once learned. The residuals of new values from
+ * the baseline feed {@link EwmaStats} for their spread, and each residual is
+ * scored in standard deviations:
+ * <ul>
+ *   <li>a score beyond the spike limit is a sudden deviation, {@link #ABOVE} or {@link #BELOW};</li>
+ *   <li>the scores also accumulate in a two-sided CUSUM, so a small shift that lasts
+ *       is reported as {@link #RISING} or {@link #FALLING} when a sum passes its limit.</li>
+ * </ul>
+ * Values are clipped to the spike limit before they are learned, so a few outliers
+ * do not widen the norm, while a lasting change is still adopted gradually.
+ * Nothing is reported until {@code 1 / alpha} values were seen.
+ * <p>
+ * Each update is O(1) and the memory is fixed by the number of buckets. Not thread-safe.
+ */
+public final class PatientBaseline {
+
+    /** The value is within the norm. */
+    public static final int NORMAL = 0;
+
+    /** The value is far above the norm. */
+    public static final int ABOVE = 1;
+
+    /** The value is far below the norm. */
+    public static final int BELOW = 2;
+
+    /** Recent values have been slightly above the norm for a while. */
+    public static final int RISING = 3;
+
+    /** Recent values have been slightly below the norm for a while. */
+    public static final int FALLING = 4;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final double alpha;
+    private final long warmup;
+    private final double spikeLimit;
+    private final double cusumSlack;
+    private final double cusumLimit;
+    private final long bucketMillis;
+
+    private final EwmaStats level;
+    private final EwmaStats residuals;
+    private final double[] seasonalOffsets;
+    private final boolean[] seasonalSeen;
+    private double cusumHigh = 0.0;
+    private double cusumLow = 0.0;
+
+    /**
+     * Creates an empty baseline.
+     *
+     * @param alpha      weight of each new value in the level, offsets and spread
+     * @param spikeLimit standard deviations beyond which a value is a spike
+     * @param cusumSlack standard deviations of drift tolerated per value
+     * @param cusumLimit accumulated standard deviations that report a drift
+     * @param buckets    number of time-of-day buckets, 1 for no seasonality
+     */
+    public PatientBaseline(double alpha, double spikeLimit, double cusumSlack, double cusumLimit, int buckets) {
+        if (buckets < 1) throw new IllegalArgumentException("Buckets must be positive");
+        this.alpha = alpha;
+        this.warmup = Math.round(1.0 / alpha);
+        this.spikeLimit = spikeLimit;
+        this.cusumSlack = cusumSlack;
+        this.cusumLimit = cusumLimit;
+        this.bucketMillis = DAY_MILLIS / buckets;
+        this.level = new EwmaStats(alpha);
+        this.residuals = new EwmaStats(alpha);
+        this.seasonalOffsets = new double[buckets];
+        this.seasonalSeen = new boolean[buckets];
+    }
+
+    /**
+     * Scores a value against the baseline, then learns it.
+     *
+     * @param timestamp the time of the value
+     * @param value     the value
+     * @return {@link #NORMAL}, {@link #ABOVE}, {@link #BELOW}, {@link #RISING} or {@link #FALLING}
+     */
+    public int update(long timestamp, double value) {
+        int bucket = (int) (Math.floorMod(timestamp, DAY_MILLIS) / bucketMillis) % seasonalOffsets.length;
+        double baseline = level.getCount() == 0 ? value : level.getMean() + seasonalOffsets[bucket];
+        double residual = value - baseline;
+
+        int result = NORMAL;
+        double sd = residuals.getStdDev();
+        if (residuals.getCount() >= warmup && sd > 0) {
+            double z = (residual - residuals.getMean()) / sd;
+            if (z > spikeLimit) {
+                result = ABOVE;
+            } else if (z < -spikeLimit) {
+                result = BELOW;
+            }
+            cusumHigh = Math.max(0.0, cusumHigh + z - cusumSlack);
+            cusumLow = Math.max(0.0, cusumLow - z - cusumSlack);
+            if (cusumHigh > cusumLimit) {
+                if (result == NORMAL) result = RISING;
+                cusumHigh = 0.0;
+            } else if (cusumLow > cusumLimit) {
+                if (result == NORMAL) result = FALLING;
+                cusumLow = 0.0;
+            }
+            // Learn outliers only up to the spike limit
+            double bound = spikeLimit * sd;
+            residual = residuals.getMean() + Math.max(-bound, Math.min(bound, residual - residuals.getMean()));
+            value = baseline + residual;
+        }
+
+        residuals.update(residual);
+        if (!seasonalSeen[bucket]) {
+            seasonalOffsets[bucket] = level.getCount() == 0 ? 0.0 : value - level.getMean();
+            seasonalSeen[bucket] = true;
+        }
+        // Holt-Winters style: the level learns deseasonalised values, the offset what is left
+        level.update(value - seasonalOffsets[bucket]);
+        seasonalOffsets[bucket] += alpha * (value - level.getMean() - seasonalOffsets[bucket]);
+        return result;
+    }
+
+    /**
+     * Returns the expected value at a time of day.
+     *
+     * @param timestamp the time
+     * @return the level plus the time of day's offset
+     */
+    public double getBaseline(long timestamp) {
+        int bucket = (int) (Math.floorMod(timestamp, DAY_MILLIS) / bucketMillis) % seasonalOffsets.length;
+        return level.getMean() + seasonalOffsets[bucket];
+    }
+
+    /**
+     * Returns the usual spread of values around the baseline.
+     *
+     * @return the standard deviation of the residuals
+     */
+    public double getStdDev() {
+        return residuals.getStdDev();
+    }
+
+    /**
+     * Returns how many values were learned.
+     *
+     * @return the number of updates
+     */
+    public long getCount() {
+        return level.getCount();
+    }
+}
@@ -0,0 +1,61 @@
+package com.alerts.strategies;
+
+import com.alerts.AlertTrigger;
+import com.alerts.rules.RuleSet;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+
+/**
+ * Strategy that applies a {@link RuleSet} to the samples it is given.
+ * The built-in strategies are rule strategies over the built-in rules of their record type.
+ */
+public class RuleStrategy implements AlertStrategy {
+
+    private final RuleSet rules;
+
+    /**
+     * Creates a strategy for a set of rules.
+     *
+     * @param rules the rules to apply; their patient state is owned by this strategy
+     */
+    public RuleStrategy(RuleSet rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Applies all rules to the new samples in one pass and triggers the resulting alerts.
+     *
+     * @param patientId  the patient's ID
+     * @param newSamples the new records
+     * @param trigger    the alert trigger used to dispatch alerts
+     */
+    @Override
+    public void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger) {
+        rules.evaluate(patientId, newSamples, trigger);
+    }
+
+    /**
+     * Returns the record types read by the rules.
+     *
+     * @return the record types
+     */
+    @Override
+    public List<String> getSignals() {
+        return rules.getRecordTypes();
+    }
+
+    @Override
+    public void resetPatient(String patientId) {
+        rules.resetPatient(patientId);
+    }
+
+    /**
+     * Returns the rules applied by this strategy.
+     *
+     * @return the rule set
+     */
+    public RuleSet getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,34 @@
+package com.alerts.strategies;
+
+/**
+ * Plain loop versions of the {@link ThresholdKernels}, used on every JDK that
+ * cannot run the vector versions and for the short tails of vector loops.
+ */
+final class ScalarThresholdKernels {
+
+    private ScalarThresholdKernels() {
+    }
+
+    static void checkRange(double[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + values.length);
+        }
+    }
+
+    static int countOutside(double[] values, int from, int to, double low, double high) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (value < low || value > high) count++;
+        }
+        return count;
+    }
+
+    static int firstOutside(double[] values, int from, int to, double low, double high) {
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (value < low || value > high) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,116 @@
+package com.alerts.strategies;
+
+/**
+ * Tracks the maximum of a time window of readings using a monotonic deque.
+ * <p>
+ * The deque holds readings in time order with strictly decreasing values: a new
+ * reading removes every older reading that is not larger, since those can never
+ * be the maximum again. The front is therefore always the window maximum, and
+ * each reading is added and removed at most once, giving O(1) amortized cost per
+ * reading. Timestamps and values are kept in primitive ring arrays.
+ * <p>
+ * Readings must be added in non-decreasing timestamp order. Not thread-safe.
+ */
+public final class SlidingWindowMax {
+
+    private long[] timestamps;
+    private double[] values;
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty window.
+     */
+    public SlidingWindowMax() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty window with room for a given number of readings before growing.
+     *
+     * @param initialCapacity initial capacity, rounded up to a power of two
+     */
+    public SlidingWindowMax(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Removes readings older than the given time.
+     *
+     * @param minTimestamp readings with a smaller timestamp leave the window
+     */
+    public void evictBefore(long minTimestamp) {
+        int mask = timestamps.length - 1;
+        while (size > 0 && timestamps[head] < minTimestamp) {
+            head = (head + 1) & mask;
+            size--;
+        }
+    }
+
+    /**
+     * Returns the largest value in the window.
+     *
+     * @return the maximum, or {@code Double.NEGATIVE_INFINITY} if the window is empty
+     */
+    public double max() {
+        return size == 0 ? Double.NEGATIVE_INFINITY : values[head];
+    }
+
+    /**
+     * Adds a reading to the window.
+     *
+     * @param timestamp time of the reading, not older than the previous one
+     * @param value     the reading
+     */
+    public void add(long timestamp, double value) {
+        int mask = timestamps.length - 1;
+        while (size > 0 && values[(head + size - 1) & mask] <= value) {
+            size--;
+        }
+        if (size == timestamps.length) {
+            grow();
+            mask = timestamps.length - 1;
+        }
+        int tail = (head + size) & mask;
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    /**
+     * Returns whether the window holds no readings.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all readings.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (timestamps.length - 1);
+            newTimestamps[i] = timestamps[index];
+            newValues[i] = values[index];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SlidingWindowMax[size=" + size + ", max=" + max() + "]";
+    }
+}
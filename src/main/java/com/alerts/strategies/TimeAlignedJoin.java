@@ -0,0 +1,138 @@
+package com.alerts.strategies;
+
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Time-aligned join of two or more signal streams, e.g. blood pressure and saturation.
+ * <p>
+ * Events are offered in time order (see {@link #mergeByTime(List)} to merge sorted
+ * streams in linear time). For every stream the join keeps only its latest value,
+ * so at any event it knows the current value of each signal. The streams are
+ * <em>aligned</em> at an event if every stream has a value no older than the
+ * tolerance, i.e. the signals were measured close enough together to be compared.
+ * Each event costs O(number of streams), so joining n and m samples is O(n + m)
+ * instead of pairing every sample of one stream with every sample of the other.
+ * <p>
+ * Not thread-safe; keep one join per patient.
+ */
+public final class TimeAlignedJoin {
+
+    private final long toleranceMillis;
+    private final long[] times;
+    private final double[] values;
+
+    /**
+     * Creates a join.
+     *
+     * @param streamCount     number of streams, at least 2
+     * @param toleranceMillis maximum age of the other streams' values at an aligned event
+     */
+    public TimeAlignedJoin(int streamCount, long toleranceMillis) {
+        if (streamCount < 2) throw new IllegalArgumentException("A join needs at least 2 streams");
+        if (toleranceMillis < 0) throw new IllegalArgumentException("Tolerance must not be negative");
+        this.toleranceMillis = toleranceMillis;
+        this.times = new long[streamCount];
+        this.values = new double[streamCount];
+        reset();
+    }
+
+    /**
+     * Offers the next event of one stream. NaN values and events older than the
+     * stream's latest value are ignored.
+     *
+     * @param stream    the stream index
+     * @param timestamp the event time in milliseconds
+     * @param value     the value
+     * @return true if all streams are aligned at this event
+     */
+    public boolean offer(int stream, long timestamp, double value) {
+        if (Double.isNaN(value) || timestamp < times[stream]) return false;
+        times[stream] = timestamp;
+        values[stream] = value;
+
+        for (long time : times) {
+            if (time == Long.MIN_VALUE || timestamp - time > toleranceMillis) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the latest value of a stream.
+     *
+     * @param stream the stream index
+     * @return the value, or NaN if the stream has no value yet
+     */
+    public double valueOf(int stream) {
+        return times[stream] == Long.MIN_VALUE ? Double.NaN : values[stream];
+    }
+
+    /**
+     * Returns the time of the latest value of a stream.
+     *
+     * @param stream the stream index
+     * @return the time in milliseconds, or Long.MIN_VALUE if the stream has no value yet
+     */
+    public long timeOf(int stream) {
+        return times[stream];
+    }
+
+    /**
+     * Forgets all stream values.
+     */
+    public void reset() {
+        Arrays.fill(times, Long.MIN_VALUE);
+        Arrays.fill(values, Double.NaN);
+    }
+
+    /**
+     * Merges streams into one list in time order. Each stream that is already
+     * sorted (the usual case) is merged in a single linear pass; an unsorted
+     * stream is sorted first.
+     *
+     * @param streams the streams
+     * @return all records of all streams, oldest first; ties keep stream order
+     */
+    public static List<PatientRecord> mergeByTime(List<List<PatientRecord>> streams) {
+        int k = streams.size();
+        List<List<PatientRecord>> sorted = new ArrayList<>(k);
+        int total = 0;
+        for (List<PatientRecord> stream : streams) {
+            sorted.add(isSorted(stream) ? stream : sortedCopy(stream));
+            total += stream.size();
+        }
+
+        List<PatientRecord> merged = new ArrayList<>(total);
+        int[] heads = new int[k];
+        while (merged.size() < total) {
+            int next = -1;
+            long nextTime = Long.MAX_VALUE;
+            for (int s = 0; s < k; s++) {
+                List<PatientRecord> stream = sorted.get(s);
+                if (heads[s] < stream.size() && stream.get(heads[s]).getTimestamp() < nextTime) {
+                    next = s;
+                    nextTime = stream.get(heads[s]).getTimestamp();
+                }
+            }
+            merged.add(sorted.get(next).get(heads[next]++));
+        }
+        return merged;
+    }
+
+    private static boolean isSorted(List<PatientRecord> stream) {
+        for (int i = 1; i < stream.size(); i++) {
+            if (stream.get(i).getTimestamp() < stream.get(i - 1).getTimestamp()) return false;
+        }
+        return true;
+    }
+
+    private static List<PatientRecord> sortedCopy(List<PatientRecord> stream) {
+        List<PatientRecord> copy = new ArrayList<>(stream);
+        copy.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+        return copy;
+    }
+}
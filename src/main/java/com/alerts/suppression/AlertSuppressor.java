@@ -0,0 +1,216 @@
+package com.alerts.suppression;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertTrigger;
+import com.alerts.strategies.AlertStrategy;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An {@link AlertTrigger} placed between the strategies and the real trigger that
+ * collapses repeated alerts for the same patient and condition.
+ * <p>
+ * The first alert for a (patient, condition, signal) triple is forwarded and opens a
+ * hold-down window. Repeats inside the window are counted but not forwarded, and
+ * each one extends the window. If the condition keeps repeating for longer than
+ * the escalation window, the latest repeat is forwarded once more, marked as
+ * repeated (the same "(repeated xN)" text as the
+ * {@link com.alerts.decorators.RepeatedAlertDecorator}) and with its priority
+ * raised by one. The signal only matters for conditions shared by several signals,
+ * such as the anomaly conditions: a heart rate anomaly does not hold back a
+ * saturation anomaly, and each is counted on its own. When a window closes with repeats that were never reported, the
+ * last of them is forwarded with its count as a summary.
+ * <p>
+ * Windows are measured in event time, i.e. the timestamps of the alerts, and are
+ * kept in an {@link ExpiringMap}, so memory is bounded by the number of active
+ * conditions and no timer thread is needed. {@link #advanceTo(long)} can be
+ * called periodically to close windows when no new alerts arrive.
+ */
+public class AlertSuppressor implements AlertTrigger {
+
+    /** Default hold-down window: the evaluation window of the strategies. */
+    public static final long DEFAULT_HOLD_DOWN_MILLIS = AlertStrategy.WINDOW_MILLIS;
+
+    /** Default escalation window. */
+    public static final long DEFAULT_ESCALATION_MILLIS = 30 * 60 * 1000;
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 1024;
+
+    private final AlertTrigger downstream;
+    private final long[] defaultWindows;
+    private final Map<AlertCondition, long[]> windowsByCondition = new EnumMap<>(AlertCondition.class);
+
+    private final ExpiringMap<Key, Episode> episodes = new ExpiringMap<>(WHEEL_SLOTS, TICK_MILLIS);
+    private long watermark = Long.MIN_VALUE;
+
+    private long forwarded = 0;
+    private long suppressed = 0;
+
+    /**
+     * Creates a suppressor with the default windows.
+     *
+     * @param downstream the trigger that receives the alerts that pass
+     */
+    public AlertSuppressor(AlertTrigger downstream) {
+        this(downstream, DEFAULT_HOLD_DOWN_MILLIS, DEFAULT_ESCALATION_MILLIS);
+    }
+
+    /**
+     * Creates a suppressor.
+     *
+     * @param downstream       the trigger that receives the alerts that pass
+     * @param holdDownMillis   how long after the latest repeat a condition stays suppressed
+     * @param escalationMillis how long a condition may repeat before it is reported again
+     */
+    public AlertSuppressor(AlertTrigger downstream, long holdDownMillis, long escalationMillis) {
+        if (holdDownMillis < 0 || escalationMillis < 0) {
+            throw new IllegalArgumentException("Windows must not be negative");
+        }
+        this.downstream = downstream;
+        this.defaultWindows = new long[]{holdDownMillis, escalationMillis};
+    }
+
+    /**
+     * Overrides the windows for one condition, e.g. to report critical blood
+     * pressure more often than a heart rate trend.
+     *
+     * @param condition        the condition
+     * @param holdDownMillis   hold-down window for that condition
+     * @param escalationMillis escalation window for that condition
+     */
+    public synchronized void configure(AlertCondition condition, long holdDownMillis, long escalationMillis) {
+        windowsByCondition.put(condition, new long[]{holdDownMillis, escalationMillis});
+    }
+
+    @Override
+    public synchronized void trigger(Alert alert) {
+        long now = alert.getTimestamp();
+        advanceTo(now);
+
+        Key key = new Key(alert);
+        long[] windows = windowsFor(alert.getConditionCode());
+        Episode episode = episodes.get(key);
+
+        if (episode == null || now > episodes.getDeadline(key)) {
+            // New episode; a stale one that was not swept yet is closed first
+            if (episode != null) closeEpisode(episode);
+            episodes.put(key, new Episode(now), now + windows[0]);
+            forward(alert);
+            return;
+        }
+
+        episode.occurrences++;
+        if (now - episode.lastReportedAt >= windows[1]) {
+            episode.lastReportedAt = now;
+            episode.pending = null;
+            forward(alert.markRepeated(episode.occurrences).boostPriority(1));
+        } else {
+            episode.pending = alert;
+            suppressed++;
+        }
+        episodes.reschedule(key, Math.max(episodes.getDeadline(key), now + windows[0]));
+    }
+
+    /**
+     * Closes every window that ended at or before the given time, forwarding
+     * summaries for unreported repeats. Time never moves backwards.
+     *
+     * @param now the current event time in milliseconds
+     */
+    public synchronized void advanceTo(long now) {
+        if (now <= watermark) return;
+        watermark = now;
+        episodes.advance(now, (key, episode) -> closeEpisode(episode));
+    }
+
+    /**
+     * Returns the number of alerts passed on to the downstream trigger.
+     *
+     * @return forwarded alert count
+     */
+    public synchronized long getForwardedCount() {
+        return forwarded;
+    }
+
+    /**
+     * Returns the number of alerts held back as repeats.
+     *
+     * @return suppressed alert count
+     */
+    public synchronized long getSuppressedCount() {
+        return suppressed;
+    }
+
+    /**
+     * Returns the number of (patient, condition, signal) triples with an open window.
+     *
+     * @return active episode count
+     */
+    public synchronized int getActiveCount() {
+        return episodes.size();
+    }
+
+    private void closeEpisode(Episode episode) {
+        if (episode.pending != null) {
+            forward(episode.pending.markRepeated(episode.occurrences));
+            episode.pending = null;
+        }
+    }
+
+    private void forward(Alert alert) {
+        forwarded++;
+        downstream.trigger(alert);
+    }
+
+    private long[] windowsFor(AlertCondition condition) {
+        long[] windows = condition == null ? null : windowsByCondition.get(condition);
+        return windows != null ? windows : defaultWindows;
+    }
+
+    /**
+     * Identifies a condition of a patient on one signal. Known conditions are
+     * compared by code, free-form ones by their text.
+     */
+    private static final class Key {
+        final String patientId;
+        final Object condition;
+        final String signal;
+
+        Key(Alert alert) {
+            this.patientId = alert.getPatientId();
+            this.condition = alert.getConditionCode() != null ? alert.getConditionCode() : alert.getCondition();
+            this.signal = alert.getSignal();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(patientId, other.patientId) && condition.equals(other.condition)
+                    && Objects.equals(signal, other.signal);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * Objects.hashCode(patientId) + condition.hashCode()) * 31 + Objects.hashCode(signal);
+        }
+    }
+
+    /**
+     * The state of one open window.
+     */
+    private static final class Episode {
+        long lastReportedAt;
+        int occurrences = 1;
+        Alert pending;
+
+        Episode(long firstAt) {
+            this.lastReportedAt = firstAt;
+        }
+    }
+}
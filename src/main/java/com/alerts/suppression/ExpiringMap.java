@@ -0,0 +1,203 @@
+package com.alerts.suppression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A map whose entries expire at a deadline, backed by a hashed timer wheel.
+ * <p>
+ * Every entry sits in the wheel slot of its deadline. Advancing the clock only
+ * visits the slots between the previous and the new time, so expiring entries
+ * costs O(1) amortized per entry no matter how many entries are live, and no
+ * background thread is needed: time is whatever the caller passes to
+ * {@link #advance(long, BiConsumer)}, typically the event time of the data.
+ * <p>
+ * Entries whose deadline lies more than one wheel revolution ahead simply stay
+ * in their slot until a later pass finds them due. Not thread-safe.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class ExpiringMap<K, V> {
+
+    private final Map<K, Node<K, V>> index = new HashMap<>();
+    private final Node<K, V>[] slots;
+    private final int mask;
+    private final long tickMillis;
+
+    /** Tick up to which all due entries have been expired, or MIN_VALUE before the first advance. */
+    private long currentTick = Long.MIN_VALUE;
+
+    /**
+     * Creates a map with the given wheel geometry.
+     *
+     * @param slotCount  number of wheel slots, rounded up to a power of two
+     * @param tickMillis time covered by one slot, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiringMap(int slotCount, long tickMillis) {
+        if (slotCount < 1) throw new IllegalArgumentException("slotCount must be positive");
+        if (tickMillis < 1) throw new IllegalArgumentException("tickMillis must be positive");
+        int size = Integer.highestOneBit(slotCount);
+        if (size < slotCount) size <<= 1;
+        this.slots = (Node<K, V>[]) new Node[size];
+        this.mask = size - 1;
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Returns the value for a key, even if its deadline has passed but the
+     * clock has not been advanced beyond it yet.
+     *
+     * @param key the key
+     * @return the value, or null if absent
+     */
+    public V get(K key) {
+        Node<K, V> node = index.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the deadline of a key.
+     *
+     * @param key the key
+     * @return the deadline in milliseconds, or Long.MIN_VALUE if absent
+     */
+    public long getDeadline(K key) {
+        Node<K, V> node = index.get(key);
+        return node == null ? Long.MIN_VALUE : node.deadline;
+    }
+
+    /**
+     * Inserts or replaces an entry and (re)schedules its expiry.
+     *
+     * @param key      the key
+     * @param value    the value
+     * @param deadline time at which the entry expires, in milliseconds
+     */
+    public void put(K key, V value, long deadline) {
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            index.put(key, node);
+        } else {
+            unlink(node);
+        }
+        node.value = value;
+        node.deadline = deadline;
+        link(node);
+    }
+
+    /**
+     * Moves the deadline of an existing entry.
+     *
+     * @param key      the key
+     * @param deadline the new deadline in milliseconds
+     * @return true if the key was present
+     */
+    public boolean reschedule(K key, long deadline) {
+        Node<K, V> node = index.get(key);
+        if (node == null) return false;
+        unlink(node);
+        node.deadline = deadline;
+        link(node);
+        return true;
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param key the key
+     * @return the removed value, or null if absent
+     */
+    public V remove(K key) {
+        Node<K, V> node = index.remove(key);
+        if (node == null) return null;
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Advances the clock and removes every entry whose deadline is at or before {@code now}.
+     * Moving the clock backwards has no effect.
+     *
+     * @param now      the new time in milliseconds
+     * @param onExpiry called with each expired entry, may be null
+     */
+    public void advance(long now, BiConsumer<K, V> onExpiry) {
+        long nowTick = Math.floorDiv(now, tickMillis);
+        if (currentTick != Long.MIN_VALUE && nowTick < currentTick) return;
+
+        // Visit every slot at most once; a full revolution (and the first advance) covers all of them
+        long steps = currentTick == Long.MIN_VALUE ? slots.length : Math.min(nowTick - currentTick + 1, slots.length);
+        for (long i = 0; i < steps; i++) {
+            int slot = (int) ((nowTick - i) & mask);
+            Node<K, V> node = slots[slot];
+            while (node != null) {
+                Node<K, V> next = node.next;
+                if (node.deadline <= now) {
+                    unlink(node);
+                    index.remove(node.key);
+                    if (onExpiry != null) onExpiry.accept(node.key, node.value);
+                }
+                node = next;
+            }
+        }
+        currentTick = nowTick;
+    }
+
+    /**
+     * Returns the number of live entries.
+     *
+     * @return entry count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        index.clear();
+        Arrays.fill(slots, null);
+    }
+
+    private void link(Node<K, V> node) {
+        int slot = (int) (Math.floorDiv(node.deadline, tickMillis) & mask);
+        node.slot = slot;
+        node.prev = null;
+        node.next = slots[slot];
+        if (node.next != null) node.next.prev = node;
+        slots[slot] = node;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.slot] = node.next;
+        }
+        if (node.next != null) node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * An entry of the map, linked into the list of its wheel slot.
+     */
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long deadline;
+        int slot;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.cardio_generator;
 
 import com.alerts.*;
-import com.alerts.factories.*;
-import com.alerts.strategies.*;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.OverflowPolicy;
+import com.alerts.push.AlertPushSink;
+import com.alerts.push.TcpAlertSink;
+import com.alerts.push.WebSocketAlertSink;
+import com.alerts.rules.RuleParser;
+import com.alerts.rules.RuleSet;
+import com.alerts.strategies.AnomalyDetectionStrategy;
+import com.alerts.suppression.AlertSuppressor;
 import com.cardio_generator.generators.*;
 import com.cardio_generator.outputs.*;
 import com.data_management.DataStorage;
-import com.data_management.Patient;
 
 import java.io.IOException;
 import java.nio.file.*;
@@ -21,12 +27,27 @@ public class HealthDataSimulator {
     /** Singleton instance of the simulator. */
     private static final HealthDataSimulator INSTANCE = new HealthDataSimulator();
 
+    /** Time between alert latency and sample rate summaries. */
+    private static final long LATENCY_SUMMARY_MILLIS = 60_000;
+
+    /** Time between closing expired suppression windows when no new alerts arrive. */
+    private static final long SUPPRESSION_SWEEP_MILLIS = 1000;
+
     /** Default number of patients. */
     private int patientCount = 50;
 
     private OutputStrategy outputStrategy = new ConsoleOutputStrategy();
+    private Path rulesPath = null;
+    private FsyncPolicy fileSync = FsyncPolicy.NONE;
+    private SegmentRotation fileRotation = SegmentRotation.NONE;
+    private AlertPushSink alertPush = null;
     private ScheduledExecutorService scheduler;
-    private final Random random = new Random();
+    private SimulationScheduler simulation;
+    /** Seed of all simulated data; the same seed and patient count reproduce the same values. */
+    private long seed = new SplittableRandom().nextLong();
+    private Random random;
+    private final AlertStore alertStore = new AlertStore();
+    private final EarlyWarningScorer earlyWarning = new EarlyWarningScorer();
 
     /**
      * Private constructor to prevent external instantiation.
@@ -40,35 +61,103 @@ public class HealthDataSimulator {
         return INSTANCE;
     }
 
+    /**
+     * Returns the history of alerts delivered during the simulation.
+     *
+     * @return the alert store, queryable by patient, condition and time
+     */
+    public AlertStore getAlertStore() {
+        return alertStore;
+    }
+
+    /**
+     * Returns the early warning scores of the simulated patients.
+     *
+     * @return the scorer that keeps the patients' scores
+     */
+    public EarlyWarningScorer getEarlyWarningScorer() {
+        return earlyWarning;
+    }
+
+    /**
+     * Returns the scheduler of the data generators.
+     *
+     * @return the timer wheel scheduler, or null before the simulation started
+     */
+    public SimulationScheduler getSimulationScheduler() {
+        return simulation;
+    }
+
     /**
      * Starts the simulation system with command-line arguments.
      */
     public void start(String[] args) throws IOException {
         parseArguments(args);
-        scheduler = Executors.newScheduledThreadPool(patientCount * 4);
+        // Data generation runs from one timer wheel; this executor only serves periodic reports
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulator-reports");
+            t.setDaemon(true);
+            return t;
+        });
 
+        // Patient order and phases come from the seed as well as the generated values
+        random = new Random(seed);
         List<Integer> patientIds = initializePatientIds(patientCount);
-        Collections.shuffle(patientIds);
+        Collections.shuffle(patientIds, random);
 
         DataStorage storage = DataStorage.getInstance();
-        AlertFactory factory = new DefaultAlertFactory();
-        AlertTrigger trigger = new ConsoleAlertTrigger();
+        // Alerts are printed and recorded by dispatcher threads so sinks never stall evaluation;
+        // the console sink also measures how long each alert took from its sample, stage by stage
+        AlertLatencyTracker latency = new AlertLatencyTracker(new ConsoleAlertTrigger());
+        AlertDispatcher dispatcher = new AlertDispatcher()
+                .addSink("console", latency, OverflowPolicy.DROP_OLDEST)
+                .addSink("history", alertStore, OverflowPolicy.DROP_OLDEST);
+        if (alertPush != null) {
+            // Dashboards get alerts pushed in coalesced frames instead of polling
+            dispatcher.addSink("push", alertPush, OverflowPolicy.DROP_OLDEST);
+            Runtime.getRuntime().addShutdownHook(new Thread(alertPush::close));
+        }
+        dispatcher.start();
+        latency.startPeriodicSummary(scheduler, LATENCY_SUMMARY_MILLIS, System.out);
+        Runtime.getRuntime().addShutdownHook(new Thread(dispatcher::stop));
+
+        // Repeats of the same condition are collapsed before they are dispatched,
+        // and every alert marks its patient active so evaluation can favour urgent patients
+        AlertSuppressor suppressor = new AlertSuppressor(dispatcher);
+        ActiveAlertTracker tracker = new ActiveAlertTracker(suppressor);
+        // Without a later alert a window would never close, so its "(repeated xN)" summary
+        // is sent when the window ends rather than with the next alert
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                suppressor.advanceTo(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                // Never let an exception cancel the periodic task
+                System.err.println("Closing suppression windows failed: " + e.getMessage());
+            }
+        }, SUPPRESSION_SWEEP_MILLIS, SUPPRESSION_SWEEP_MILLIS, TimeUnit.MILLISECONDS);
 
-        Map<String, AlertStrategy> strategies = new HashMap<>();
-        strategies.put("BloodPressure", new BloodPressureStrategy());
-        strategies.put("Saturation", new OxygenSaturationStrategy());
-        strategies.put("ECG", new ECGStrategy());
-        strategies.put("HeartRate", new HeartRateStrategy());
+        // All alert rules are evaluated in one pass over each patient's new records
+        RuleSet rules = rulesPath != null ? RuleSet.of(RuleParser.load(rulesPath)) : RuleSet.builtIn();
+        // Besides the per-signal rules, vital signs are combined into an early warning score
+        // and compared with each patient's own learned baseline
+        AlertService alertService = new AlertService(rules, tracker)
+                .addStrategy(earlyWarning)
+                .addStrategy(new AnomalyDetectionStrategy());
 
-        AlertService alertService = new AlertService(factory, strategies, trigger);
+        scheduleTasksForPatients(patientIds);
 
-        scheduleTasksForPatients(patientIds, storage, alertService);
+        // One ward-wide evaluation tick instead of a scheduled task per patient
+        EvaluationScheduler evaluation = new EvaluationScheduler(storage, alertService::evaluate);
+        evaluation.setPatientPriorities(tracker::priorityOf, EvaluationScheduler.DEFAULT_URGENT_PRIORITY);
+        evaluation.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(evaluation::stop));
     }
 
     /**
      * Parses CLI arguments like patient count or output target.
      */
     private void parseArguments(String[] args) throws IOException {
+        Path fileOutputPath = null;
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
                 case "--patient-count":
@@ -80,15 +169,58 @@ public class HealthDataSimulator {
                         }
                     }
                     break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid seed. Using a random one.");
+                        }
+                    }
+                    break;
+                case "--file-sync":
+                    if (i + 1 < args.length) {
+                        try {
+                            fileSync = FsyncPolicy.fromName(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Unknown file sync policy. Using: " + fileSync);
+                        }
+                    }
+                    break;
+                case "--file-rotate":
+                    if (i + 1 < args.length) {
+                        try {
+                            fileRotation = SegmentRotation.parse(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println(e.getMessage() + ". Using: " + fileRotation);
+                        }
+                    }
+                    break;
+                case "--rules":
+                    if (i + 1 < args.length) {
+                        rulesPath = Paths.get(args[++i]);
+                    }
+                    break;
+                case "--alert-push":
+                    if (i + 1 < args.length) {
+                        String target = args[++i];
+                        if (target.startsWith("websocket:")) {
+                            alertPush = new WebSocketAlertSink(Integer.parseInt(target.substring(10)));
+                        } else if (target.startsWith("tcp:")) {
+                            alertPush = new TcpAlertSink(Integer.parseInt(target.substring(4)));
+                        } else {
+                            System.err.println("Unknown alert push target: " + target);
+                        }
+                    }
+                    break;
                 case "--output":
                     if (i + 1 < args.length) {
                         String output = args[++i];
+                        fileOutputPath = null;
                         if (output.equals("console")) {
                             outputStrategy = new ConsoleOutputStrategy();
                         } else if (output.startsWith("file:")) {
-                            Path path = Paths.get(output.substring(5));
-                            if (!Files.exists(path)) Files.createDirectories(path);
-                            outputStrategy = new FileOutputStrategy(path.toString());
+                            fileOutputPath = Paths.get(output.substring(5));
                         } else if (output.startsWith("websocket:")) {
                             outputStrategy = new WebSocketOutputStrategy(Integer.parseInt(output.substring(10)));
                         } else if (output.startsWith("tcp:")) {
@@ -100,6 +232,15 @@ public class HealthDataSimulator {
                     System.err.println("Unknown argument: " + args[i]);
             }
         }
+        if (fileOutputPath != null) {
+            // Created last so the sync and rotation options apply wherever they appear in the arguments
+            FileOutputStrategy files = new FileOutputStrategy(fileOutputPath.toString(),
+                    FileOutputStrategy.DEFAULT_FLUSH_INTERVAL_MILLIS, FileOutputStrategy.DEFAULT_FLUSH_THRESHOLD,
+                    fileSync, fileRotation);
+            // Queued samples are written out and the files closed on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(files::close));
+            outputStrategy = files;
+        }
     }
 
     /**
@@ -114,32 +255,35 @@ public class HealthDataSimulator {
     }
 
     /**
-     * Schedules the periodic tasks that simulate health data and evaluate alerts.
+     * Schedules the periodic tasks that simulate health data on one timer wheel,
+     * each with a random phase within its period, and reports the achieved sample rate.
      */
-    private void scheduleTasksForPatients(List<Integer> patientIds, DataStorage storage, AlertService alertService) {
-        ECGDataGenerator ecgGen = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator satGen = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bpGen = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator blGen = new BloodLevelsDataGenerator(patientCount);
-        HeartRateDataGenerator hrGen = new HeartRateDataGenerator();
+    private void scheduleTasksForPatients(List<Integer> patientIds) {
+        simulation = new SimulationScheduler(outputStrategy);
+        ECGDataGenerator ecgGen = new ECGDataGenerator(patientCount, seed);
+        BloodSaturationDataGenerator satGen = new BloodSaturationDataGenerator(patientCount, seed);
+        BloodPressureDataGenerator bpGen = new BloodPressureDataGenerator(patientCount, seed);
+        BloodLevelsDataGenerator blGen = new BloodLevelsDataGenerator(patientCount, seed);
+        HeartRateDataGenerator hrGen = new HeartRateDataGenerator(patientCount, seed);
 
         for (int id : patientIds) {
-            scheduleTask(() -> ecgGen.generate(id, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> satGen.generate(id, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bpGen.generate(id, outputStrategy), 1, TimeUnit.MINUTES);
-            scheduleTask(() -> blGen.generate(id, outputStrategy), 2, TimeUnit.MINUTES);
-            scheduleTask(() -> hrGen.generate(id, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> {
-                Patient p = storage.getPatient(id);
-                if (p != null) alertService.evaluate(p);
-            }, 20, TimeUnit.SECONDS);
+            scheduleTask(id, ecgGen, 1, TimeUnit.SECONDS);
+            scheduleTask(id, satGen, 1, TimeUnit.SECONDS);
+            scheduleTask(id, bpGen, 1, TimeUnit.MINUTES);
+            scheduleTask(id, blGen, 2, TimeUnit.MINUTES);
+            scheduleTask(id, hrGen, 1, TimeUnit.SECONDS);
         }
+        simulation.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(simulation::stop));
+        scheduler.scheduleAtFixedRate(() -> System.out.println(simulation.report()),
+                LATENCY_SUMMARY_MILLIS, LATENCY_SUMMARY_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Schedules a recurring task with a slight initial delay.
+     * Schedules a recurring generator with a random phase within its period.
      */
-    private void scheduleTask(Runnable task, long period, TimeUnit unit) {
-        scheduler.scheduleAtFixedRate(task, random.nextInt(5), period, unit);
+    private void scheduleTask(int patientId, PatientDataGenerator generator, long period, TimeUnit unit) {
+        long periodMillis = unit.toMillis(period);
+        simulation.schedule(patientId, generator, periodMillis, (long) (random.nextDouble() * periodMillis));
     }
 }
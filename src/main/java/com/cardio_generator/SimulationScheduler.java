@@ -0,0 +1,369 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.data_management.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the periodic data generators of all simulated patients from one hashed
+ * timer wheel instead of a scheduled task per patient and signal.
+ * <p>
+ * Every generator task has its own period and a random phase within it, and is
+ * filed in the wheel bucket of its next deadline ({@code deadline / tick mod
+ * wheel size}); deadlines further away than one turn of the wheel simply stay in
+ * their bucket until they are due. A single ticker thread visits the bucket of each
+ * tick, collects every due task and runs them as one batch, split into chunks on a
+ * work-stealing {@link ForkJoinPool} sized to the number of cores. Filing a task and
+ * finding it due are O(1), so the cost of a tick depends on the samples due, not on
+ * the number of patients.
+ * <p>
+ * Tasks run at a fixed rate and keep their phase. When the simulation falls behind
+ * by more than a whole period, the missed runs are skipped and counted rather than
+ * run back to back, so {@link #getAchievedRate()} can be compared with
+ * {@link #getTargetRate()}.
+ */
+public class SimulationScheduler {
+
+    /** Default time between ticks. */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    /** Default number of buckets in the wheel; one turn covers about 10 seconds. */
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    /** Tasks run sequentially by one fork/join task. */
+    static final int CHUNK_SIZE = 256;
+
+    private final OutputStrategy output;
+    private final long tickMillis;
+    private final List<Task>[] wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startMillis;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService ticker;
+
+    /** The last tick whose bucket was visited; guarded by the wheel. */
+    private long processedTick;
+    private int taskCount = 0;
+    private double targetRate = 0.0;
+    private final LatencyHistogram tickDurations = new LatencyHistogram();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a scheduler with the default tick and wheel size and one worker per core.
+     *
+     * @param output where the generators send their data
+     */
+    public SimulationScheduler(OutputStrategy output) {
+        this(output, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, Runtime.getRuntime().availableProcessors(),
+                () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param output      where the generators send their data; must be thread-safe
+     * @param tickMillis  time between ticks
+     * @param wheelSize   number of buckets, a power of two
+     * @param parallelism number of generator worker threads
+     * @param clock       the time in milliseconds; only differences are used
+     */
+    @SuppressWarnings("unchecked")
+    public SimulationScheduler(OutputStrategy output, long tickMillis, int wheelSize, int parallelism,
+                               LongSupplier clock) {
+        if (tickMillis < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Tick and parallelism must be positive");
+        }
+        if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.output = output;
+        this.tickMillis = tickMillis;
+        this.wheel = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.processedTick = startMillis / tickMillis - 1;
+        this.pool = new ForkJoinPool(parallelism);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulation-tick");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Adds a generator that produces data for one patient at a fixed rate.
+     *
+     * @param patientId          the patient's ID
+     * @param generator          the generator
+     * @param periodMillis       time between samples
+     * @param initialDelayMillis time until the first sample, which sets the task's phase
+     */
+    public void schedule(int patientId, PatientDataGenerator generator, long periodMillis, long initialDelayMillis) {
+        if (periodMillis < 1 || initialDelayMillis < 0) {
+            throw new IllegalArgumentException("Period must be positive and delay non-negative");
+        }
+        Task task = new Task(patientId, generator, periodMillis, clock.getAsLong() + initialDelayMillis);
+        synchronized (wheel) {
+            file(task);
+            taskCount++;
+            targetRate += 1000.0 / periodMillis;
+        }
+    }
+
+    /**
+     * Starts the periodic tick.
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the tick and the worker pool. A batch in progress is allowed to finish.
+     */
+    public void stop() {
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+    }
+
+    private void tick() {
+        try {
+            runDue(clock.getAsLong());
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            System.err.println("Simulation tick failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs every task that is due by the end of the current tick as one batch and
+     * waits until all of them are done. Buckets of ticks skipped since the previous
+     * call are visited too.
+     *
+     * @param nowMillis the current time of the clock
+     */
+    public void runDue(long nowMillis) {
+        long start = System.nanoTime();
+
+        List<Task> due = new ArrayList<>();
+        synchronized (wheel) {
+            long currentTick = nowMillis / tickMillis;
+            // After a long pause one turn visits every bucket
+            long from = Math.max(processedTick + 1, currentTick - mask);
+            for (long t = from; t <= currentTick; t++) {
+                List<Task> bucket = wheel[(int) (t & mask)];
+                int kept = 0;
+                for (int i = 0; i < bucket.size(); i++) {
+                    Task task = bucket.get(i);
+                    if (task.deadline / tickMillis <= currentTick) {
+                        due.add(task);
+                    } else {
+                        bucket.set(kept++, task); // due in a later turn
+                    }
+                }
+                bucket.subList(kept, bucket.size()).clear();
+            }
+            processedTick = Math.max(processedTick, currentTick);
+        }
+        if (!due.isEmpty()) {
+            pool.invoke(new GenerateChunk(due, 0, due.size()));
+            samples.addAndGet(due.size());
+        }
+
+        long skipped = 0;
+        synchronized (wheel) {
+            for (Task task : due) {
+                long next = task.deadline + task.periodMillis;
+                if (next <= nowMillis) {
+                    // Behind by more than a period: keep the phase but skip the missed runs
+                    long behind = (nowMillis - next) / task.periodMillis + 1;
+                    skipped += behind;
+                    next += behind * task.periodMillis;
+                }
+                task.deadline = next;
+                file(task);
+            }
+        }
+        missed.addAndGet(skipped);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        tickDurations.record(elapsed);
+        ticks.incrementAndGet();
+        if (elapsed > tickMillis) {
+            overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * Puts a task into the bucket of its deadline, or of the next tick if that
+     * bucket was already visited. The caller holds the wheel's lock.
+     */
+    private void file(Task task) {
+        long tick = Math.max(task.deadline / tickMillis, processedTick + 1);
+        wheel[(int) (tick & mask)].add(task);
+    }
+
+    /**
+     * Returns the number of scheduled generator tasks.
+     *
+     * @return task count
+     */
+    public int getTaskCount() {
+        synchronized (wheel) {
+            return taskCount;
+        }
+    }
+
+    /**
+     * Returns the number of samples all tasks together should produce per second.
+     *
+     * @return target samples per second
+     */
+    public double getTargetRate() {
+        synchronized (wheel) {
+            return targetRate;
+        }
+    }
+
+    /**
+     * Returns the number of samples produced per second since the scheduler was created.
+     *
+     * @return achieved samples per second
+     */
+    public double getAchievedRate() {
+        long elapsed = clock.getAsLong() - startMillis;
+        return elapsed > 0 ? samples.get() * 1000.0 / elapsed : 0.0;
+    }
+
+    /**
+     * Returns the number of generator runs performed.
+     *
+     * @return sample count
+     */
+    public long getSampleCount() {
+        return samples.get();
+    }
+
+    /**
+     * Returns the number of runs skipped because the simulation fell behind.
+     *
+     * @return missed run count
+     */
+    public long getMissedCount() {
+        return missed.get();
+    }
+
+    /**
+     * Returns the number of generator runs that threw an exception.
+     *
+     * @return failure count
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the number of ticks that took longer than the tick interval.
+     *
+     * @return overrun count
+     */
+    public long getOverrunCount() {
+        return overruns.get();
+    }
+
+    /**
+     * Returns the durations of all ticks so far, in milliseconds.
+     *
+     * @return the tick duration histogram
+     */
+    public LatencyHistogram getTickMillis() {
+        return tickDurations;
+    }
+
+    /**
+     * Builds a one-line summary of the achieved and target sample rates and the ticks.
+     *
+     * @return the report
+     */
+    public String report() {
+        return String.format("simulation: tasks=%d target=%.0f/s achieved=%.0f/s samples=%d missed=%d "
+                        + "failures=%d ticks=%d overruns=%d tick(ms) %s",
+                getTaskCount(), getTargetRate(), getAchievedRate(), samples.get(), missed.get(),
+                failures.get(), ticks.get(), overruns.get(), tickDurations);
+    }
+
+    /**
+     * One generator of one patient and its next deadline.
+     */
+    private static final class Task {
+        final int patientId;
+        final PatientDataGenerator generator;
+        final long periodMillis;
+        /** Guarded by the wheel while filed; only the batch reads it while running. */
+        long deadline;
+
+        Task(int patientId, PatientDataGenerator generator, long periodMillis, long deadline) {
+            this.patientId = patientId;
+            this.generator = generator;
+            this.periodMillis = periodMillis;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Runs a range of due tasks, splitting it in half until it is small enough.
+     */
+    private final class GenerateChunk extends RecursiveAction {
+        private final List<Task> tasks;
+        private final int from;
+        private final int to;
+
+        GenerateChunk(List<Task> tasks, int from, int to) {
+            this.tasks = tasks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    Task task = tasks.get(i);
+                    try {
+                        task.generator.generate(task.patientId, output);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        System.err.println("Data generation failed for patient "
+                                + task.patientId + ": " + e.getMessage());
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GenerateChunk(tasks, from, mid), new GenerateChunk(tasks, mid, to));
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import com.cardio_generator.outputs.OutputStrategy;
 
@@ -10,7 +10,7 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class AlertGenerator implements PatientDataGenerator {
 
-    public static final Random randomGenerator = new Random();
+    private final SplittableRandom[] randoms;
     private boolean[] AlertStates; // false = resolved, true = pressed
 
     /**
@@ -20,6 +20,17 @@ public class AlertGenerator implements PatientDataGenerator {
      * @param patientCount total number of patients
      */
     public AlertGenerator(int patientCount) {
+        this(patientCount, PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates an alert tracker whose alerts are reproduced by the same seed.
+     *
+     * @param patientCount total number of patients
+     * @param seed         the simulation seed
+     */
+    public AlertGenerator(int patientCount, long seed) {
+        randoms = PatientRandoms.split(seed, "Alert", patientCount);
         AlertStates = new boolean[patientCount + 1];
     }
 
@@ -34,6 +45,7 @@ public class AlertGenerator implements PatientDataGenerator {
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
+            SplittableRandom randomGenerator = randoms[patientId];
             if (AlertStates[patientId]) {
                 if (randomGenerator.nextDouble() < 0.9) { // 90% chance to resolve
                     AlertStates[patientId] = false;
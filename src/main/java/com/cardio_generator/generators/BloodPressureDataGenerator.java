@@ -1,29 +1,41 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class BloodPressureDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms;
 
     private int[] lastSystolicValues;
     private int[] lastDiastolicValues;
 
     public BloodPressureDataGenerator(int patientCount) {
+        this(patientCount, PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator whose readings are reproduced by the same seed.
+     *
+     * @param patientCount how many patients we need to track
+     * @param seed         the simulation seed
+     */
+    public BloodPressureDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandoms.split(seed, "BloodPressure", patientCount);
         lastSystolicValues = new int[patientCount + 1];
         lastDiastolicValues = new int[patientCount + 1];
 
         // Initialize with baseline values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSystolicValues[i] = 110 + random.nextInt(20); // Random baseline between 110 and 130
-            lastDiastolicValues[i] = 70 + random.nextInt(15); // Random baseline between 70 and 85
+            lastSystolicValues[i] = 110 + randoms[i].nextInt(20); // Random baseline between 110 and 130
+            lastDiastolicValues[i] = 70 + randoms[i].nextInt(15); // Random baseline between 70 and 85
         }
     }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
+            SplittableRandom random = randoms[patientId];
             int systolicVariation = random.nextInt(5) - 2; // -2, -1, 0, 1, or 2
             int diastolicVariation = random.nextInt(5) - 2;
             int newSystolicValue = lastSystolicValues[patientId] + systolicVariation;
@@ -1,6 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import com.cardio_generator.outputs.OutputStrategy;
 
@@ -9,7 +9,7 @@ import com.cardio_generator.outputs.OutputStrategy;
  * Adds small random changes to simulate real-life variations.
  */
 public class BloodSaturationDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms;
     private int[] lastSaturationValues;
 
     /**
@@ -19,11 +19,22 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount how many patients we need to track
      */
     public BloodSaturationDataGenerator(int patientCount) {
+        this(patientCount, PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Sets up the generator so that the same seed gives every patient the same values.
+     *
+     * @param patientCount how many patients we need to track
+     * @param seed         the simulation seed
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandoms.split(seed, "Saturation", patientCount);
         lastSaturationValues = new int[patientCount + 1];
 
         // Initialize with baseline saturation values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+            lastSaturationValues[i] = 95 + randoms[i].nextInt(6); // Initializes with a value between 95 and 100
         }
     }
 
@@ -38,7 +49,7 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int variation = randoms[patientId].nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
             int newSaturationValue = lastSaturationValues[patientId] + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
@@ -1,16 +1,32 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    /** Time between samples as scheduled by the simulator, which advances each waveform. */
+    private static final double SAMPLE_INTERVAL_SECONDS = 1.0;
+
+    private final SplittableRandom[] randoms;
     private double[] lastEcgValues;
+    private final double[] waveformSeconds;
     private static final double PI = Math.PI;
 
     public ECGDataGenerator(int patientCount) {
+        this(patientCount, PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator whose waveforms are reproduced by the same seed.
+     *
+     * @param patientCount how many patients we need to track
+     * @param seed         the simulation seed
+     */
+    public ECGDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandoms.split(seed, "ECG", patientCount);
         lastEcgValues = new double[patientCount + 1];
+        waveformSeconds = new double[patientCount + 1];
         // Initialize the last ECG value for each patient
         for (int i = 1; i <= patientCount; i++) {
             lastEcgValues[i] = 0; // Initial ECG value can be set to 0
@@ -21,6 +37,7 @@ public class ECGDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         // TODO Check how realistic this data is and make it more realistic if necessary
         try {
+            waveformSeconds[patientId] += SAMPLE_INTERVAL_SECONDS;
             double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
             outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
             lastEcgValues[patientId] = ecgValue;
@@ -32,8 +49,9 @@ public class ECGDataGenerator implements PatientDataGenerator {
 
     private double simulateEcgWaveform(int patientId, double lastEcgValue) {
         // Simplified ECG waveform generation based on sinusoids
+        SplittableRandom random = randoms[patientId];
         double hr = 60.0 + random.nextDouble() * 20.0; // Simulate heart rate variability between 60 and 80 bpm
-        double t = System.currentTimeMillis() / 1000.0; // Use system time to simulate continuous time
+        double t = waveformSeconds[patientId]; // The patient's own time keeps the waveform reproducible
         double ecgFrequency = hr / 60.0; // Convert heart rate to Hz
 
         // Simulate different components of the ECG signal
@@ -1,6 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -9,12 +9,31 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class HeartRateDataGenerator implements PatientDataGenerator {
 
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms;
+
+    /**
+     * Creates a generator with an unpredictable seed.
+     *
+     * @param patientCount how many patients we generate for
+     */
+    public HeartRateDataGenerator(int patientCount) {
+        this(patientCount, PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator whose heart rates are reproduced by the same seed.
+     *
+     * @param patientCount how many patients we generate for
+     * @param seed         the simulation seed
+     */
+    public HeartRateDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandoms.split(seed, "HeartRate", patientCount);
+    }
 
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         // Generate a random heart rate between 45 and 135 for testing edge cases
-        int heartRate = 45 + random.nextInt(91);  // Range: 45–135 bpm
+        int heartRate = 45 + randoms[patientId].nextInt(91);  // Range: 45–135 bpm
         outputStrategy.output(patientId, System.currentTimeMillis(), "HeartRate", String.valueOf(heartRate));
     }
 }
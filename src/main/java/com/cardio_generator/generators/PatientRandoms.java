@@ -0,0 +1,41 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates the random number streams of the generators: one {@link SplittableRandom}
+ * per patient, so generators running on many threads never contend for a shared
+ * seed, and the values of each patient depend only on the seed, the generator and
+ * how many samples were drawn, not on which thread drew them.
+ */
+final class PatientRandoms {
+
+    private PatientRandoms() {}
+
+    /**
+     * Splits one stream per patient from a root determined by the seed and the generator.
+     *
+     * @param seed         the simulation seed
+     * @param generator    name that separates the streams of different generators
+     * @param patientCount number of patients; streams are indexed by patient ID from 1
+     * @return the streams, index 0 unused
+     */
+    static SplittableRandom[] split(long seed, String generator, int patientCount) {
+        // Mix the name first so roots of different generators are unrelated
+        SplittableRandom root = new SplittableRandom(seed ^ new SplittableRandom(generator.hashCode()).nextLong());
+        SplittableRandom[] randoms = new SplittableRandom[patientCount + 1];
+        for (int i = 1; i <= patientCount; i++) {
+            randoms[i] = root.split();
+        }
+        return randoms;
+    }
+
+    /**
+     * Returns a seed for generators that need not be reproducible.
+     *
+     * @return an unpredictable seed
+     */
+    static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+}
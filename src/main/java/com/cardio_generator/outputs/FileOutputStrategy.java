@@ -1,19 +1,68 @@
 package com.cardio_generator.outputs;
 
+import com.data_management.SegmentManifest;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This class is used to save patient data into text files.
  * Each signal type (like HeartRate or ECG) gets its own file.
  * The files are saved in a folder defined by the user.
+ * <p>
+ * Every file is opened once and kept open. Samples are formatted into lines and
+ * appended to a lock-free queue of the file, so threads writing samples never wait
+ * for each other or for the disk. The queued lines are written to the file in one
+ * go (a group flush) by a background thread every flush interval, or by the writer
+ * whose line brings the queue over the size threshold. Whether and when the data
+ * is forced to the storage device is set by a {@link FsyncPolicy}.
+ * <p>
+ * With a {@link SegmentRotation} each label is written to a series of segments
+ * named after the time of their first sample, e.g. {@code ECG-2026-10-17T10.txt}.
+ * A closed segment is listed in the folder's {@link SegmentManifest} with the range
+ * of its timestamps and gzip compressed by a background thread, so readers can skip
+ * segments outside the time they need.
+ * <p>
+ * {@link #close()} writes the remaining lines and closes the files; samples output
+ * after that are discarded.
  */
 
-public class FileOutputStrategy implements OutputStrategy {
+public class FileOutputStrategy implements OutputStrategy, Closeable {
+
+    /** Default time between group flushes. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+
+    /** Default number of queued characters of one file that trigger a flush right away. */
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
+    private static final DateTimeFormatter SEGMENT_HOUR =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter SEGMENT_MINUTE =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HHmm").withZone(ZoneOffset.UTC);
 
     /**
      * The folder where output files will be stored.
@@ -23,22 +72,94 @@ public class FileOutputStrategy implements OutputStrategy {
     /**
      * Stores which file path corresponds to which signal label.
      * This avoids recalculating the file path every time.
+     * With rotation it holds the label's current segment.
      */
     public final ConcurrentHashMap<String, String> fileMap = new ConcurrentHashMap<>();// Renamed file_map to fileMap to follow camelCase
 
+    private final Map<String, LabelFile> files = new ConcurrentHashMap<>();
+    private final int flushThreshold;
+    private final FsyncPolicy fsyncPolicy;
+    private final SegmentRotation rotation;
+    private final SegmentManifest manifest;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService compressor;
+    private volatile boolean closed = false;
+
     /**
      * Creates a new FileOutputStrategy that writes data to the given folder.
      *
      * @param baseDirectory the directory where files should be saved
      */
     public FileOutputStrategy(String baseDirectory) {
+        this(baseDirectory, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_THRESHOLD, FsyncPolicy.NONE);
+    }
 
+    /**
+     * Creates a new FileOutputStrategy that writes data to the given folder.
+     *
+     * @param baseDirectory       the directory where files should be saved
+     * @param flushIntervalMillis time between group flushes
+     * @param flushThreshold      queued characters of one file that trigger a flush right away
+     * @param fsyncPolicy         when written data is forced to the storage device
+     */
+    public FileOutputStrategy(String baseDirectory, long flushIntervalMillis, int flushThreshold,
+                              FsyncPolicy fsyncPolicy) {
+        this(baseDirectory, flushIntervalMillis, flushThreshold, fsyncPolicy, SegmentRotation.NONE);
+    }
+
+    /**
+     * Creates a new FileOutputStrategy that writes data to the given folder in rotated segments.
+     *
+     * @param baseDirectory       the directory where files should be saved
+     * @param flushIntervalMillis time between group flushes
+     * @param flushThreshold      queued characters of one file that trigger a flush right away
+     * @param fsyncPolicy         when written data is forced to the storage device
+     * @param rotation            when a new segment is started
+     * @throws UncheckedIOException if an existing manifest cannot be read
+     */
+    public FileOutputStrategy(String baseDirectory, long flushIntervalMillis, int flushThreshold,
+                              FsyncPolicy fsyncPolicy, SegmentRotation rotation) {
+        if (flushIntervalMillis < 1 || flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush interval and threshold must be positive");
+        }
         this.baseDirectory = baseDirectory;
+        this.flushThreshold = flushThreshold;
+        this.fsyncPolicy = fsyncPolicy;
+        this.rotation = rotation;
+        try {
+            // Create the directory once instead of for every sample
+            Files.createDirectories(Paths.get(baseDirectory));
+        } catch (IOException e) {
+            System.err.println("Error creating base directory: " + e.getMessage());
+        }
+        if (rotation.isEnabled()) {
+            try {
+                // Segments of earlier runs stay listed
+                this.manifest = SegmentManifest.load(Paths.get(baseDirectory));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.compressor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "file-output-compress");
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.manifest = null;
+            this.compressor = null;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "file-output-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Writes patient data to a file. The file depends on the signal label (like "ECG").
-     * If the folder or file doesn't exist yet, it's created automatically.
+     * Queues patient data for its file. The file depends on the signal label (like "ECG").
+     * If the file doesn't exist yet, it's created automatically.
      *
      * @param patientId the ID of the patient
      * @param timestamp the time the measurement was taken
@@ -47,25 +168,249 @@ public class FileOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
+        if (closed) return;
+        LabelFile file = files.computeIfAbsent(label, LabelFile::new);
+        // close() may have started since the check above. If it has, it may also have
+        // passed this file, which nobody would finish, so don't queue for it or open it.
+        if (closed) return;
+        String line = "Patient ID: " + patientId + ", Timestamp: " + timestamp + ", Label: " + label
+                + ", Data: " + data + System.lineSeparator();
+        file.lines.add(new Line(timestamp, line));
+        if (file.pendingChars.addAndGet(line.length()) >= flushThreshold && file.lock.tryLock()) {
+            // Only one writer flushes; the others keep queueing
+            try {
+                file.flush(false);
+            } finally {
+                file.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes every queued line to its file and then closes the files. With rotation,
+     * the open segments are closed like any other and this waits for their compression.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        flusher.shutdown();
         try {
-            // Create the directory and ensure it exists
-            Files.createDirectories(Paths.get(baseDirectory));
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LabelFile file : files.values()) {
+            file.lock.lock();
+            try {
+                file.flush(fsyncPolicy != FsyncPolicy.NONE);
+                file.finish();
+            } finally {
+                file.lock.unlock();
+            }
+        }
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                if (!compressor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    System.err.println("Segment compression did not finish; segments are left uncompressed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Group flushes every file; run by the background thread.
+     */
+    private void flushAll() {
+        for (LabelFile file : files.values()) {
+            file.lock.lock();
+            try {
+                file.flush(fsyncPolicy == FsyncPolicy.EVERY_FLUSH);
+            } finally {
+                file.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses a closed segment next to it and then deletes it. The compressed file
+     * is moved into place complete, so readers see either the segment or its archive
+     * whole; while both exist, readers prefer the archive.
+     */
+    private void compress(Path segment) {
+        Path target = segment.resolveSibling(segment.getFileName() + SegmentManifest.COMPRESSED_SUFFIX);
+        Path temp = segment.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 GZIPOutputStream out = new GZIPOutputStream(file, 64 * 1024)) {
+                Files.copy(segment, out);
+                out.finish();
+                if (fsyncPolicy != FsyncPolicy.NONE) file.getFD().sync();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
         } catch (IOException e) {
-            System.err.println("Error creating base directory: " + e.getMessage());
-            return;
+            System.err.println("Error compressing segment " + segment + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A formatted line and the timestamp of its sample.
+     */
+    private static final class Line {
+        final long timestamp;
+        final String text;
+
+        Line(long timestamp, String text) {
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The open channel of one label's file or current segment, and the lines queued for it.
+     */
+    private final class LabelFile {
+        final String label;
+        final ConcurrentLinkedQueue<Line> lines = new ConcurrentLinkedQueue<>();
+        final AtomicLong pendingChars = new AtomicLong();
+        /** Held while flushing, so lines are written in queue order; guards the fields below. */
+        final ReentrantLock lock = new ReentrantLock();
+        final StringBuilder batch = new StringBuilder();
+
+        Path path;
+        FileChannel channel;
+        boolean finished = false;
+        long segmentEnd;
+        long segmentBytes;
+        long segmentLines;
+        long firstTimestamp;
+        long lastTimestamp;
+
+        LabelFile(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Writes the queued lines with as few writes as possible, starting new segments
+         * where the rotation says so. The caller holds the lock.
+         *
+         * @param sync whether to force the data to the storage device afterwards
+         */
+        void flush(boolean sync) {
+            if (finished) return; // closed; later lines are discarded
+            batch.setLength(0);
+            try {
+                Line line;
+                while ((line = lines.poll()) != null) {
+                    pendingChars.addAndGet(-line.text.length());
+                    if (channel == null || isRotationDue(line.timestamp)) {
+                        write();
+                        if (channel != null) closeSegment();
+                        openSegment(line.timestamp);
+                    }
+                    batch.append(line.text);
+                    segmentBytes += line.text.length();
+                    if (segmentLines++ == 0) {
+                        firstTimestamp = line.timestamp;
+                        lastTimestamp = line.timestamp;
+                    } else {
+                        // Samples may arrive slightly out of order
+                        firstTimestamp = Math.min(firstTimestamp, line.timestamp);
+                        lastTimestamp = Math.max(lastTimestamp, line.timestamp);
+                    }
+                }
+                write();
+                if (sync && channel != null) channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + path + ": " + e.getMessage());
+            }
+            if (batch.capacity() > 4 * DEFAULT_FLUSH_THRESHOLD) {
+                // Don't keep a huge buffer around after a burst
+                batch.setLength(0);
+                batch.trimToSize();
+            }
+        }
+
+        /**
+         * Closes the file for good; with rotation its segment is recorded and compressed.
+         * The caller holds the lock.
+         */
+        void finish() {
+            finished = true;
+            if (channel == null) return;
+            try {
+                if (rotation.isEnabled()) {
+                    closeSegment();
+                } else {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error closing file " + path + ": " + e.getMessage());
+            }
+        }
+
+        private boolean isRotationDue(long timestamp) {
+            if (!rotation.isEnabled()) return false;
+            return (rotation.getMaxBytes() > 0 && segmentBytes >= rotation.getMaxBytes())
+                    || timestamp >= segmentEnd;
+        }
+
+        private void write() throws IOException {
+            if (batch.length() == 0) return;
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            batch.setLength(0);
+        }
+
+        private void openSegment(long timestamp) throws IOException {
+            String name;
+            if (rotation.isEnabled()) {
+                long period = rotation.getPeriodMillis();
+                long start = period > 0 ? Math.floorDiv(timestamp, period) * period : timestamp;
+                segmentEnd = period > 0 ? start + period : Long.MAX_VALUE;
+                DateTimeFormatter format = period > 0 && period % 3_600_000L != 0 ? SEGMENT_MINUTE : SEGMENT_HOUR;
+                name = uniqueName(label + "-" + format.format(Instant.ofEpochMilli(start)));
+            } else {
+                name = label + ".txt";
+            }
+            // Set the filePath variable
+            String filePath = Paths.get(baseDirectory, name).toString(); // Renamed FilePath to filePath to follow camelCase
+            fileMap.put(label, filePath);
+            path = Paths.get(filePath);
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentBytes = 0;
+            segmentLines = 0;
+        }
+
+        /**
+         * Returns the first free segment name for a base name: {@code base.txt},
+         * then {@code base-1.txt} and so on.
+         */
+        private String uniqueName(String base) {
+            String name = base + ".txt";
+            for (int n = 1; manifest.contains(name) || Files.exists(Paths.get(baseDirectory, name))
+                    || Files.exists(Paths.get(baseDirectory, name + SegmentManifest.COMPRESSED_SUFFIX)); n++) {
+                name = base + "-" + n + ".txt";
+            }
+            return name;
         }
-        // Set the filePath variable
-        String filePath = fileMap.computeIfAbsent(label, k -> Paths.get(baseDirectory, label + ".txt").toString()); // Renamed FilePath to filePath to follow camelCase
 
-        // Write the data to the file
-        try (PrintWriter out = new PrintWriter(
-                Files.newBufferedWriter(
-                        Paths.get(filePath),
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND))) {
-            out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
-        } catch (Exception e) {
-            System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
+        private void closeSegment() throws IOException {
+            if (fsyncPolicy != FsyncPolicy.NONE) channel.force(false);
+            channel.close();
+            channel = null;
+            manifest.put(new SegmentManifest.Segment(path.getFileName().toString(), label,
+                    firstTimestamp, lastTimestamp, segmentLines));
+            manifest.save();
+            Path closedSegment = path;
+            compressor.execute(() -> compress(closedSegment));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.cardio_generator.outputs;
+
+/**
+ * When a {@link FileOutputStrategy} forces written data to the storage device.
+ * <p>
+ * Data written without a sync survives a crash of the simulator, since it is
+ * already in the operating system's page cache, but not a crash of the machine.
+ */
+public enum FsyncPolicy {
+
+    /** Never sync; the operating system writes the data back in its own time. */
+    NONE,
+
+    /** Sync each file once when the strategy is closed. */
+    ON_CLOSE,
+
+    /** Sync after every group flush. Bounds the loss to one flush interval, at a cost per flush. */
+    EVERY_FLUSH;
+
+    /**
+     * Parses a policy name such as "every-flush" (case-insensitive, '-' or '_').
+     *
+     * @param name the policy name
+     * @return the matching policy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static FsyncPolicy fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
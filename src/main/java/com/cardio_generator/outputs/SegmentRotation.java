@@ -0,0 +1,108 @@
+package com.cardio_generator.outputs;
+
+import java.util.Locale;
+
+/**
+ * When a {@link FileOutputStrategy} starts a new segment of a label's file.
+ * <p>
+ * A segment is closed when it reaches a size, when the first sample of a new time
+ * period arrives, or both, whichever comes first. Periods are aligned to UTC
+ * midnight, so hourly segments hold the samples of one clock hour.
+ */
+public final class SegmentRotation {
+
+    /** Never rotate: each label is appended to one {@code <label>.txt}. */
+    public static final SegmentRotation NONE = new SegmentRotation(0, 0);
+
+    private final long maxBytes;
+    private final long periodMillis;
+
+    private SegmentRotation(long maxBytes, long periodMillis) {
+        if (maxBytes < 0 || periodMillis < 0) {
+            throw new IllegalArgumentException("Segment size and period must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * Creates a rotation by size, by time or both.
+     *
+     * @param maxBytes     size at which a segment is closed, 0 for no limit
+     * @param periodMillis length of the period of a segment, 0 for no limit
+     * @return the rotation
+     */
+    public static SegmentRotation of(long maxBytes, long periodMillis) {
+        return maxBytes == 0 && periodMillis == 0 ? NONE : new SegmentRotation(maxBytes, periodMillis);
+    }
+
+    /**
+     * Parses a comma separated list of a period and/or a size, such as "1h",
+     * "15m,256MB" or "1GB". Periods take s, m, h or d, sizes KB, MB or GB.
+     *
+     * @param spec the rotation
+     * @return the rotation
+     * @throws IllegalArgumentException if the list cannot be parsed
+     */
+    public static SegmentRotation parse(String spec) {
+        long maxBytes = 0;
+        long periodMillis = 0;
+        for (String part : spec.split(",")) {
+            String value = part.trim().toLowerCase(Locale.ROOT);
+            try {
+                if (value.endsWith("kb")) {
+                    maxBytes = Long.parseLong(value.substring(0, value.length() - 2)) << 10;
+                } else if (value.endsWith("mb")) {
+                    maxBytes = Long.parseLong(value.substring(0, value.length() - 2)) << 20;
+                } else if (value.endsWith("gb")) {
+                    maxBytes = Long.parseLong(value.substring(0, value.length() - 2)) << 30;
+                } else if (value.endsWith("s")) {
+                    periodMillis = Long.parseLong(value.substring(0, value.length() - 1)) * 1000L;
+                } else if (value.endsWith("m")) {
+                    periodMillis = Long.parseLong(value.substring(0, value.length() - 1)) * 60_000L;
+                } else if (value.endsWith("h")) {
+                    periodMillis = Long.parseLong(value.substring(0, value.length() - 1)) * 3_600_000L;
+                } else if (value.endsWith("d")) {
+                    periodMillis = Long.parseLong(value.substring(0, value.length() - 1)) * 86_400_000L;
+                } else {
+                    throw new IllegalArgumentException("Unknown segment rotation: " + part);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unknown segment rotation: " + part);
+            }
+        }
+        return of(maxBytes, periodMillis);
+    }
+
+    /**
+     * Returns whether segments are rotated at all.
+     *
+     * @return false for {@link #NONE}
+     */
+    public boolean isEnabled() {
+        return maxBytes > 0 || periodMillis > 0;
+    }
+
+    /**
+     * Returns the size at which a segment is closed.
+     *
+     * @return bytes, 0 for no limit
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the length of the period of a segment.
+     *
+     * @return milliseconds, 0 for no limit
+     */
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    @Override
+    public String toString() {
+        return isEnabled() ? "rotate(bytes=" + maxBytes + ", periodMillis=" + periodMillis + ")" : "no rotation";
+    }
+}
@@ -0,0 +1,63 @@
+package com.data_management;
+
+/**
+ * A blood pressure record holding systolic and diastolic pressure as primitives,
+ * e.g. one paired at ingest from separate systolic and diastolic samples.
+ * <p>
+ * Consumers that understand numeric components read them with
+ * {@link #getComponents(double[])} without any String parsing; the text form
+ * "systolic/diastolic" is only built if {@link #getMeasurementValue()} is called.
+ */
+public class BloodPressureRecord extends PatientRecord {
+
+    /** Record type of paired blood pressure records. */
+    public static final String RECORD_TYPE = "BloodPressure";
+
+    private final double systolic;
+    private final double diastolic;
+
+    /**
+     * Constructs a blood pressure record.
+     *
+     * @param patientId  the unique identifier for the patient
+     * @param systolic   the systolic pressure in mmHg
+     * @param diastolic  the diastolic pressure in mmHg
+     * @param timestamp  the time of the measurement, in milliseconds since epoch
+     * @param ingestedAt the time the record was stored, in milliseconds since epoch
+     */
+    public BloodPressureRecord(int patientId, double systolic, double diastolic, long timestamp, long ingestedAt) {
+        super(patientId, null, RECORD_TYPE, timestamp, ingestedAt);
+        this.systolic = systolic;
+        this.diastolic = diastolic;
+    }
+
+    public double getSystolic() {
+        return systolic;
+    }
+
+    public double getDiastolic() {
+        return diastolic;
+    }
+
+    /**
+     * Returns the pressure as "systolic/diastolic", built on each call.
+     *
+     * @return the measurement value
+     */
+    @Override
+    public String getMeasurementValue() {
+        return format(systolic) + "/" + format(diastolic);
+    }
+
+    @Override
+    public int getComponents(double[] out) {
+        if (out.length < 2) return -1;
+        out[0] = systolic;
+        out[1] = diastolic;
+        return 2;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -1,6 +1,7 @@
 package com.data_management;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import com.alerts.AlertEvaluator;
 import com.alerts.AlertTrigger;
 import com.alerts.ConsoleAlertTrigger;
@@ -14,14 +15,17 @@ public class DataStorage {
     /** The single shared instance of DataStorage (Singleton). */
     private static final DataStorage INSTANCE = new DataStorage();
 
-    /** Stores patient objects indexed by their unique patient ID. */
+    /**
+     * Stores patient objects indexed by their unique patient ID.
+     * Concurrent because the ingestion pipeline stores from several partition threads.
+     */
     private final Map<Integer, Patient> patientMap;
 
     /**
      * Public constructor creates a new instance of DataStorage.
      */
     public DataStorage() {
-        this.patientMap = new HashMap<>();
+        this.patientMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -44,12 +48,68 @@ public class DataStorage {
     public void addPatientData(int patientId, String measurementValue, String recordType, long timestamp) {
         Patient patient = patientMap.get(patientId);
         if (patient == null) {
-            patient = new Patient(patientId);
-            patientMap.put(patientId, patient);
+            patient = patientMap.computeIfAbsent(patientId, Patient::new);
         }
         patient.addRecord(measurementValue, recordType, timestamp);
     }
 
+    /**
+     * Adds a single-valued measurement that is already numeric, without formatting it as text.
+     *
+     * @param patientId  patient identifier
+     * @param value      the measurement value
+     * @param recordType the type of data (e.g., HeartRate)
+     * @param timestamp  the time of measurement
+     */
+    public void addPatientValue(int patientId, double value, String recordType, long timestamp) {
+        Patient patient = patientMap.get(patientId);
+        if (patient == null) {
+            patient = patientMap.computeIfAbsent(patientId, Patient::new);
+        }
+        patient.addValue(value, recordType, timestamp);
+    }
+
+    /**
+     * Adds a blood pressure reading with primitive systolic and diastolic values.
+     *
+     * @param patientId patient identifier
+     * @param systolic  the systolic pressure in mmHg
+     * @param diastolic the diastolic pressure in mmHg
+     * @param timestamp the time of measurement
+     */
+    public void addBloodPressure(int patientId, double systolic, double diastolic, long timestamp) {
+        Patient patient = patientMap.get(patientId);
+        if (patient == null) {
+            patient = patientMap.computeIfAbsent(patientId, Patient::new);
+        }
+        patient.addBloodPressure(systolic, diastolic, timestamp);
+    }
+
+    /**
+     * Adds an existing record unchanged, e.g. when replaying recorded data.
+     *
+     * @param record the record; its patient ID decides where it is stored
+     */
+    public void addRecord(PatientRecord record) {
+        Patient patient = patientMap.get(record.getPatientId());
+        if (patient == null) {
+            patient = patientMap.computeIfAbsent(record.getPatientId(), Patient::new);
+        }
+        patient.addRecord(record);
+    }
+
+    /**
+     * Returns the newest timestamp stored for a patient and record type.
+     *
+     * @param patientId  patient identifier
+     * @param recordType the type of data (e.g., HeartRate, ECG)
+     * @return the newest timestamp, or {@code Long.MIN_VALUE} if nothing is stored yet
+     */
+    public long getLatestTimestamp(int patientId, String recordType) {
+        Patient patient = patientMap.get(patientId);
+        return patient != null ? patient.getLatestTimestamp(recordType) : Long.MIN_VALUE;
+    }
+
     /**
      * Retrieves records from a specific time window.
      */
@@ -58,6 +118,21 @@ public class DataStorage {
         return patient != null ? patient.getRecords(startTime, endTime) : new ArrayList<>();
     }
 
+    /**
+     * Retrieves the records of one type from a specific time window, without
+     * touching the patient's other record types.
+     *
+     * @param patientId  patient identifier
+     * @param recordType the type of data (e.g., HeartRate, ECG), case-insensitive
+     * @param startTime  start of the window in milliseconds
+     * @param endTime    end of the window (inclusive) in milliseconds
+     * @return the matching records
+     */
+    public List<PatientRecord> getRecords(int patientId, String recordType, long startTime, long endTime) {
+        Patient patient = patientMap.get(patientId);
+        return patient != null ? patient.getRecords(recordType, startTime, endTime) : new ArrayList<>();
+    }
+
     /**
      * Gets the patient object by ID.
      */
@@ -1,25 +1,52 @@
 package com.data_management;
 
+import com.data_management.ingest.BloodPressurePairer;
+import com.data_management.metrics.IngestMetrics;
+import com.data_management.metrics.SourceMetrics;
+
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 
 /**
  * A reader that loads patient data from text files in a specified folder.
  * This is used to simulate reading previously saved data into the system.
+ * Systolic and diastolic samples are also paired into blood pressure readings.
+ * <p>
+ * Rotated, gzip compressed segments ({@code .txt.gz}) are read as well. When only a
+ * time window is wanted, the folder's {@link SegmentManifest} tells which closed
+ * segments overlap it, and the others are not opened at all.
  */
 public class FileDataReader implements DataReader {
 
     private final String directoryPath;
 
+    /** Counters, latency histograms and rate limited logging for this reader. */
+    private final SourceMetrics metrics;
+
     /**
      * Constructs a new FileDataReader for the specified directory.
      *
-     * @param directoryPath path to the folder where .txt data files are stored
+     * @param directoryPath path to the folder where .txt or .txt.gz data files are stored
      */
     public FileDataReader(String directoryPath) {
+        this(directoryPath, IngestMetrics.getInstance());
+    }
+
+    /**
+     * Constructs a new FileDataReader that reports to the given metrics registry.
+     *
+     * @param directoryPath path to the folder where .txt or .txt.gz data files are stored
+     * @param metrics       the registry that receives this reader's "file" metrics
+     */
+    public FileDataReader(String directoryPath, IngestMetrics metrics) {
         this.directoryPath = directoryPath;
+        this.metrics = metrics.source("file");
     }
 
     /**
@@ -30,18 +57,53 @@ public class FileDataReader implements DataReader {
      */
     @Override
     public void readData(DataStorage storage) {
+        readData(storage, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the patient data of a time window from the files in the given directory
+     * and loads the records into the DataStorage system. Segments the manifest
+     * places entirely outside the window are skipped; files it does not list,
+     * such as the segments still being written, are always read.
+     *
+     * @param storage   the object where parsed records will be added
+     * @param startTime start of the window in milliseconds since UNIX epoch, inclusive
+     * @param endTime   end of the window in milliseconds since UNIX epoch, inclusive
+     */
+    public void readData(DataStorage storage, long startTime, long endTime) {
         File folder = new File(directoryPath);
+        BloodPressurePairer pairer = new BloodPressurePairer(storage::addBloodPressure);
 
-        // Only look at .txt files in the directory
-        File[] files = folder.listFiles((dir, name) -> name.endsWith(".txt"));
+        // Only look at .txt files and compressed segments in the directory
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".txt")
+                || name.endsWith(".txt" + SegmentManifest.COMPRESSED_SUFFIX));
 
         if (files == null) {
             System.err.println("No files found in: " + directoryPath);
             return;
         }
 
+        SegmentManifest manifest = null;
+        try {
+            manifest = SegmentManifest.load(folder.toPath());
+        } catch (IOException e) {
+            System.err.println("Error reading segment manifest, reading all files: " + e.getMessage());
+        }
+
         for (File file : files) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String name = file.getName();
+            boolean compressed = name.endsWith(SegmentManifest.COMPRESSED_SUFFIX);
+            if (!compressed && new File(folder, name + SegmentManifest.COMPRESSED_SUFFIX).exists()) {
+                continue; // Being compressed; the archive is already complete
+            }
+            SegmentManifest.Segment segment = manifest != null ? manifest.get(name) : null;
+            if (segment != null && !segment.overlaps(startTime, endTime)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file, compressed),
+                    StandardCharsets.UTF_8))) {
                 String line;
 
                 while ((line = reader.readLine()) != null) {
@@ -53,19 +115,41 @@ public class FileDataReader implements DataReader {
                         long timestamp = Long.parseLong(parts[1].split(": ")[1]);
                         String recordType = parts[2].split(": ")[1];
                         String dataString = parts[3].split(": ")[1].replace("%", "").trim();
+                        if (timestamp < startTime || timestamp > endTime) continue;
+
+                        // Blood pressure halves are parsed before anything is stored, so a bad
+                        // value is rejected once instead of being stored and then rejected
+                        boolean component = BloodPressurePairer.isComponent(recordType);
+                        double componentValue = component ? Double.parseDouble(dataString) : 0;
 
                         // Store the record in memory
+                        long previous = storage.getLatestTimestamp(patientId, recordType);
                         storage.addPatientData(patientId, dataString, recordType, timestamp);
+                        metrics.accepted(recordType, timestamp, previous);
+                        if (component) {
+                            pairer.offer(patientId, recordType, componentValue, timestamp);
+                        }
 
                     } catch (Exception e) {
                         // Skip lines that don't follow the expected format
-                        System.err.println("Skipping line due to parsing error: " + line);
+                        metrics.rejected(SourceMetrics.UNPARSED, line);
                     }
                 }
 
             } catch (IOException e) {
                 System.err.println("Error reading file: " + file.getName());
             }
+            metrics.batchProcessed(System.nanoTime() - start);
+        }
+    }
+
+    private static InputStream open(File file, boolean compressed) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return compressed ? new GZIPInputStream(in, 64 * 1024) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
         }
     }
 
@@ -0,0 +1,49 @@
+package com.data_management;
+
+/**
+ * A single-valued record holding its measurement as a primitive, e.g. one stored
+ * by the ingest pipeline from an already decoded sample.
+ * <p>
+ * Consumers that understand numeric components read the value with
+ * {@link #getComponents(double[])} without any String parsing; the text form is
+ * only built if {@link #getMeasurementValue()} is called.
+ */
+public class NumericRecord extends PatientRecord {
+
+    private final double value;
+
+    /**
+     * Constructs a numeric record.
+     *
+     * @param patientId  the unique identifier for the patient
+     * @param value      the measurement value
+     * @param recordType the type of measurement, e.g. "HeartRate"
+     * @param timestamp  the time of the measurement, in milliseconds since epoch
+     * @param ingestedAt the time the record was stored, in milliseconds since epoch
+     */
+    public NumericRecord(int patientId, double value, String recordType, long timestamp, long ingestedAt) {
+        super(patientId, null, recordType, timestamp, ingestedAt);
+        this.value = value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the value as text, built on each call.
+     *
+     * @return the measurement value
+     */
+    @Override
+    public String getMeasurementValue() {
+        return Double.toString(value);
+    }
+
+    @Override
+    public int getComponents(double[] out) {
+        if (out.length < 1) return -1;
+        out[0] = value;
+        return 1;
+    }
+}
@@ -1,18 +1,30 @@
 package com.data_management;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Represents a patient and manages their medical records.
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Records may be added by an ingestion thread while alert evaluation reads them,
+ * so access to the record list is synchronized.
+ * <p>
+ * Besides the list of all records, the patient keeps one series per record type
+ * (signal), so a consumer interested in a few signals can query just those and
+ * never touch the others.
  */
 public class Patient {
     private int patientId;
     private List<PatientRecord> patientRecords;
 
+    /** Records per lower-case record type, in the order they were added. */
+    private final Map<String, Series> series = new HashMap<>();
+
     /**
      * Constructs a new Patient with a specified ID.
      * Initializes an empty list of patient records.
@@ -44,9 +56,158 @@ public class Patient {
      * @param timestamp        the time at which the measurement was taken, in
      *                         milliseconds since UNIX epoch
      */
-    public void addRecord(String measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
+    public synchronized void addRecord(String measurementValue, String recordType, long timestamp) {
+        add(new PatientRecord(this.patientId, measurementValue, recordType, timestamp, System.currentTimeMillis()));
+    }
+
+    /**
+     * Adds a single-valued record whose value is kept as a primitive, see
+     * {@link NumericRecord}.
+     *
+     * @param value      the measurement value
+     * @param recordType the type of record, e.g. "HeartRate"
+     * @param timestamp  the time of the measurement, in milliseconds since UNIX epoch
+     */
+    public synchronized void addValue(double value, String recordType, long timestamp) {
+        add(new NumericRecord(this.patientId, value, recordType, timestamp, System.currentTimeMillis()));
+    }
+
+    /**
+     * Adds a blood pressure record whose systolic and diastolic values are kept as
+     * primitives, see {@link BloodPressureRecord}.
+     *
+     * @param systolic  the systolic pressure in mmHg
+     * @param diastolic the diastolic pressure in mmHg
+     * @param timestamp the time of the measurement, in milliseconds since UNIX epoch
+     */
+    public synchronized void addBloodPressure(double systolic, double diastolic, long timestamp) {
+        add(new BloodPressureRecord(this.patientId, systolic, diastolic, timestamp, System.currentTimeMillis()));
+    }
+
+    /**
+     * Adds an existing record unchanged, e.g. when replaying recorded data.
+     *
+     * @param record the record, which must belong to this patient
+     */
+    public synchronized void addRecord(PatientRecord record) {
+        if (record.getPatientId() != patientId) {
+            throw new IllegalArgumentException("Record of patient " + record.getPatientId()
+                    + " added to patient " + patientId);
+        }
+        add(record);
+    }
+
+    private void add(PatientRecord record) {
         this.patientRecords.add(record);
+        series.computeIfAbsent(record.getRecordType().toLowerCase(Locale.ROOT), k -> new Series()).add(record);
+    }
+
+    /**
+     * Returns how many records have been added to this patient so far.
+     * Together with {@link #getRecordsFrom(int)} this lets a consumer fetch only
+     * the records it has not seen yet.
+     *
+     * @return the number of stored records
+     */
+    public synchronized int getRecordCount() {
+        return patientRecords.size();
+    }
+
+    /**
+     * Returns the records added after the first {@code fromIndex} records, in the
+     * order they were added.
+     *
+     * @param fromIndex number of records the caller has already consumed
+     * @return a copy of the newer records, empty if there are none
+     */
+    public synchronized List<PatientRecord> getRecordsFrom(int fromIndex) {
+        if (fromIndex >= patientRecords.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(patientRecords.subList(Math.max(0, fromIndex), patientRecords.size()));
+    }
+
+    /**
+     * Returns the newest timestamp stored so far for a record type. Record types
+     * are matched case-insensitively.
+     *
+     * @param recordType the type of record, e.g. "HeartRate"
+     * @return the newest timestamp, or {@code Long.MIN_VALUE} if there is none
+     */
+    public synchronized long getLatestTimestamp(String recordType) {
+        Series signal = seriesOf(recordType);
+        return signal != null ? signal.latest : Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns how many records of one type have been added so far. Record types
+     * are matched case-insensitively.
+     *
+     * @param recordType the type of record, e.g. "HeartRate"
+     * @return the number of stored records of that type
+     */
+    public synchronized int getRecordCount(String recordType) {
+        Series signal = seriesOf(recordType);
+        return signal != null ? signal.records.size() : 0;
+    }
+
+    /**
+     * Returns the records of one type added after the first {@code fromIndex} of
+     * that type, in the order they were added. Record types are matched
+     * case-insensitively.
+     *
+     * @param recordType the type of record, e.g. "HeartRate"
+     * @param fromIndex  number of records of that type the caller has already consumed
+     * @return a copy of the newer records, empty if there are none
+     */
+    public synchronized List<PatientRecord> getRecordsFrom(String recordType, int fromIndex) {
+        Series signal = seriesOf(recordType);
+        if (signal == null || fromIndex >= signal.records.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(signal.records.subList(Math.max(0, fromIndex), signal.records.size()));
+    }
+
+    /**
+     * Returns the records of one type within a time range. While the samples of
+     * the type arrive in time order (the usual case), the start of the range is
+     * found by binary search. Record types are matched case-insensitively.
+     *
+     * @param recordType the type of record, e.g. "HeartRate"
+     * @param startTime  the start of the time range, in milliseconds since UNIX epoch
+     * @param endTime    the end of the time range (inclusive), in milliseconds since UNIX epoch
+     * @return the matching records
+     */
+    public synchronized List<PatientRecord> getRecords(String recordType, long startTime, long endTime) {
+        List<PatientRecord> result = new ArrayList<>();
+        Series signal = seriesOf(recordType);
+        if (signal == null) return result;
+
+        List<PatientRecord> records = signal.records;
+        if (!signal.sorted) {
+            for (PatientRecord record : records) {
+                if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) result.add(record);
+            }
+            return result;
+        }
+        int lo = 0;
+        int hi = records.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (records.get(mid).getTimestamp() < startTime) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < records.size() && records.get(i).getTimestamp() <= endTime; i++) {
+            result.add(records.get(i));
+        }
+        return result;
+    }
+
+    private Series seriesOf(String recordType) {
+        return series.get(recordType.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -60,7 +221,7 @@ public class Patient {
      * @return a list of PatientRecord objects that fall within the specified time
      *         range
      */
-    public List<PatientRecord> getRecords(long startTime, long endTime) {
+    public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
        // TO DO (but modified to run mvn clean package
         List<PatientRecord> filteredRecords = new ArrayList<>();
         for (PatientRecord record : patientRecords) {
@@ -71,4 +232,24 @@ public class Patient {
         }
         return filteredRecords;
     }
+
+    /**
+     * The records of one type, the newest timestamp among them (used to spot late
+     * and duplicate samples) and whether they arrived in time order.
+     */
+    private static final class Series {
+        final List<PatientRecord> records = new ArrayList<>();
+        long latest = Long.MIN_VALUE;
+        boolean sorted = true;
+
+        void add(PatientRecord record) {
+            long timestamp = record.getTimestamp();
+            if (timestamp < latest) {
+                sorted = false;
+            } else {
+                latest = timestamp;
+            }
+            records.add(record);
+        }
+    }
 }
@@ -14,6 +14,7 @@ public class PatientRecord {
     private String recordType; // Example: ECG, blood pressure, etc.
     private String measurementValue; // Changed from double to String to support complex formats like "120/80"
     private long timestamp;
+    private long ingestedAt;
 
     /**
      * Constructs a new patient record with specified details.
@@ -32,6 +33,23 @@ public class PatientRecord {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Constructs a new patient record that remembers when it was stored.
+     *
+     * @param patientId        the unique identifier for the patient
+     * @param measurementValue the measurement value
+     * @param recordType       the type of measurement
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since epoch
+     * @param ingestedAt       the time at which the record was stored, in
+     *                         milliseconds since epoch
+     */
+    public PatientRecord(int patientId, String measurementValue, String recordType, long timestamp,
+                         long ingestedAt) {
+        this(patientId, measurementValue, recordType, timestamp);
+        this.ingestedAt = ingestedAt;
+    }
+
     /**
      * Returns the patient ID associated with this record.
      * 
@@ -59,6 +77,26 @@ public class PatientRecord {
         return timestamp;
     }
 
+    /**
+     * Returns when this record was stored, for latency measurements.
+     *
+     * @return the time in milliseconds since epoch, or 0 if unknown
+     */
+    public long getIngestedAt() {
+        return ingestedAt;
+    }
+
+    /**
+     * Copies the numeric components of this record (e.g. systolic and diastolic
+     * pressure) into {@code out}, for records that hold them as primitives.
+     *
+     * @param out receives the components
+     * @return the number of components, or -1 if the record only has its text value
+     */
+    public int getComponents(double[] out) {
+        return -1;
+    }
+
     /**
      * Returns the type of record (e.g., "ECG", "Blood Pressure").
      * 
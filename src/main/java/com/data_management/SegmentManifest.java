@@ -0,0 +1,205 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The list of closed data file segments in a folder and the time range each covers.
+ * <p>
+ * Written by the file output when it rotates a label's file into segments, and read
+ * by {@link FileDataReader} to skip segments outside a requested time window. The
+ * manifest is a text file named {@value #FILE_NAME} with one line per segment:
+ * {@code file,label,firstTimestamp,lastTimestamp,lines}. It is rewritten as a whole
+ * and moved into place, so a reader never sees it half written.
+ * <p>
+ * Segments are known by their uncompressed name, so an entry stays valid when
+ * {@code ECG-2026-10-17T10.txt} is later compressed to {@code ECG-2026-10-17T10.txt.gz}.
+ * Thread-safe.
+ */
+public final class SegmentManifest {
+
+    /** Name of the manifest file in the data folder. */
+    public static final String FILE_NAME = "segments.manifest";
+
+    /** Suffix of compressed segments. */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final String HEADER = "# file,label,firstTimestamp,lastTimestamp,lines";
+
+    private final Path path;
+    private final Map<String, Segment> segments = new LinkedHashMap<>();
+
+    private SegmentManifest(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Loads the manifest of a folder. Lines that cannot be parsed are skipped.
+     *
+     * @param directory the data folder
+     * @return the manifest, empty if the folder has none
+     * @throws IOException if the manifest exists but cannot be read
+     */
+    public static SegmentManifest load(Path directory) throws IOException {
+        SegmentManifest manifest = new SegmentManifest(directory.resolve(FILE_NAME));
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(manifest.path, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return manifest;
+        }
+        for (String line : lines) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split(",");
+            try {
+                Segment segment = new Segment(fields[0], fields[1], Long.parseLong(fields[2]),
+                        Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+                manifest.segments.put(segment.getFile(), segment);
+            } catch (RuntimeException e) {
+                System.err.println("Skipping invalid manifest line: " + line);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the uncompressed name a segment file is known by.
+     *
+     * @param fileName a segment file name, compressed or not
+     * @return the name without {@value #COMPRESSED_SUFFIX}
+     */
+    public static String segmentName(String fileName) {
+        return fileName.endsWith(COMPRESSED_SUFFIX)
+                ? fileName.substring(0, fileName.length() - COMPRESSED_SUFFIX.length())
+                : fileName;
+    }
+
+    /**
+     * Adds or replaces a segment. Call {@link #save()} to write the change.
+     *
+     * @param segment the closed segment
+     */
+    public synchronized void put(Segment segment) {
+        segments.put(segment.getFile(), segment);
+    }
+
+    /**
+     * Looks up the segment stored in a file.
+     *
+     * @param fileName the file name, compressed or not
+     * @return the segment, or null if the file is not a closed segment
+     */
+    public synchronized Segment get(String fileName) {
+        return segments.get(segmentName(fileName));
+    }
+
+    /**
+     * Returns whether a segment name is already taken.
+     *
+     * @param fileName the uncompressed file name
+     * @return true if the manifest lists it
+     */
+    public synchronized boolean contains(String fileName) {
+        return segments.containsKey(fileName);
+    }
+
+    /**
+     * Returns all segments in the order they were added.
+     *
+     * @return a copy of the segments
+     */
+    public synchronized List<Segment> getSegments() {
+        return new ArrayList<>(segments.values());
+    }
+
+    /**
+     * Writes the manifest to a temporary file and moves it over the old one.
+     *
+     * @throws IOException if it cannot be written
+     */
+    public synchronized void save() throws IOException {
+        Path temp = path.resolveSibling(FILE_NAME + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (Segment segment : segments.values()) {
+                out.write(segment.toString());
+                out.write('\n');
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * One closed segment: its file, label and the range of timestamps in it; immutable.
+     */
+    public static final class Segment {
+        private final String file;
+        private final String label;
+        private final long firstTimestamp;
+        private final long lastTimestamp;
+        private final long lines;
+
+        /**
+         * Creates a segment entry.
+         *
+         * @param file           the uncompressed file name
+         * @param label          the signal label of its samples
+         * @param firstTimestamp the earliest timestamp in the segment
+         * @param lastTimestamp  the latest timestamp in the segment
+         * @param lines          the number of samples
+         */
+        public Segment(String file, String label, long firstTimestamp, long lastTimestamp, long lines) {
+            this.file = segmentName(file);
+            this.label = label;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+            this.lines = lines;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getFirstTimestamp() {
+            return firstTimestamp;
+        }
+
+        public long getLastTimestamp() {
+            return lastTimestamp;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * Returns whether any sample of the segment may fall into a time window.
+         *
+         * @param startTime start of the window, inclusive
+         * @param endTime   end of the window, inclusive
+         * @return true if the ranges overlap
+         */
+        public boolean overlaps(long startTime, long endTime) {
+            return firstTimestamp <= endTime && lastTimestamp >= startTime;
+        }
+
+        @Override
+        public String toString() {
+            return file + "," + label + "," + firstTimestamp + "," + lastTimestamp + "," + lines;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.data_management;
 
+import com.data_management.ingest.BloodPressurePairer;
+import com.data_management.ingest.IngestPipeline;
+import com.data_management.metrics.IngestMetrics;
+import com.data_management.metrics.SourceMetrics;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
@@ -9,14 +13,27 @@ import java.net.URI;
  * <p>
  * This class listens for incoming messages, parses them into patient data,
  * and stores the processed information in the provided {@link DataStorage} instance.
+ * Systolic and diastolic samples are also paired into blood pressure readings.
  * <p>
  * Expected message format: {@code patientId|type|value|timestamp}, for example:
  * {@code 123|heartRate|97.2|1716632543000}.
+ * <p>
+ * When constructed with an {@link IngestPipeline}, messages are only handed to the
+ * pipeline and all parsing and storage happens on the pipeline's own threads.
  */
 public class WebSocketClient extends org.java_websocket.client.WebSocketClient {
 
     private final DataStorage dataStorage;
 
+    /** Optional staged pipeline; when null, messages are processed inline. */
+    private final IngestPipeline pipeline;
+
+    /** Metrics for messages processed inline. */
+    private final SourceMetrics metrics = IngestMetrics.getInstance().source("websocket");
+
+    /** Pairs blood pressure halves of messages processed inline. */
+    private final BloodPressurePairer pairer;
+
     private volatile boolean connected = false;
 
     /**
@@ -28,6 +45,22 @@ public class WebSocketClient extends org.java_websocket.client.WebSocketClient {
     public WebSocketClient(URI serverUri, DataStorage dataStorage) {
         super(serverUri);
         this.dataStorage = dataStorage;
+        this.pipeline = null;
+        this.pairer = new BloodPressurePairer(dataStorage::addBloodPressure);
+    }
+
+    /**
+     * Constructs a WebSocketClient that forwards raw messages to an ingestion pipeline.
+     * The pipeline must be started by the caller.
+     *
+     * @param serverUri the URI of the WebSocket server to connect to
+     * @param pipeline  the pipeline that decodes and stores messages
+     */
+    public WebSocketClient(URI serverUri, IngestPipeline pipeline) {
+        super(serverUri);
+        this.dataStorage = null;
+        this.pipeline = pipeline;
+        this.pairer = null;
     }
 
     /**
@@ -58,13 +91,16 @@ public class WebSocketClient extends org.java_websocket.client.WebSocketClient {
      */
     @Override
     public void onMessage(String message) {
+        if (pipeline != null) {
+            pipeline.publish(message);
+            return;
+        }
+        String[] parts = message.split("\\|");
+        if (parts.length != 4) {
+            metrics.rejected(SourceMetrics.UNPARSED, message);
+            return;
+        }
         try {
-            String[] parts = message.split("\\|");
-            if (parts.length != 4) {
-                System.err.println("Incorrect format: " + message);
-                return;
-            }
-
             int patientIdInt = Integer.parseInt(parts[0]);
             String type = parts[1];
             double value = Double.parseDouble(parts[2]);
@@ -72,10 +108,13 @@ public class WebSocketClient extends org.java_websocket.client.WebSocketClient {
 
             String measurementValue = String.valueOf(value);
 
+            long previous = dataStorage.getLatestTimestamp(patientIdInt, type);
             dataStorage.addPatientData(patientIdInt, measurementValue, type, timestamp);
+            metrics.accepted(type, timestamp, previous);
+            pairer.offer(patientIdInt, type, value, timestamp);
 
         } catch (NumberFormatException e) {
-            System.err.println("Incorrect format in message: " + message);
+            metrics.rejected(parts[1], message);
         } catch (Exception e) {
             System.err.println("Failed processing message: " + message);
             e.printStackTrace();
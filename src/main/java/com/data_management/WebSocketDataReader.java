@@ -1,5 +1,8 @@
 package com.data_management;
 
+import com.data_management.ingest.IngestPipeline;
+import com.data_management.ingest.WaitStrategy;
+
 import java.net.URI;
 
 /**
@@ -8,11 +11,37 @@ import java.net.URI;
  * <p>
  * This class manages the lifecycle of the {@link WebSocketClient},
  * including starting and stopping the connection.
+ * <p>
+ * If created with a partition count, incoming messages go through an
+ * {@link IngestPipeline} instead of being parsed on the WebSocket I/O thread.
  */
 public class WebSocketDataReader implements DataReader {
 
     private WebSocketClient client;
 
+    /** Number of pipeline partitions, or 0 to process messages inline. */
+    private final int partitions;
+    private final WaitStrategy waitStrategy;
+    private IngestPipeline pipeline;
+
+    /**
+     * Creates a reader that parses and stores messages on the WebSocket thread.
+     */
+    public WebSocketDataReader() {
+        this(0, WaitStrategy.PARK);
+    }
+
+    /**
+     * Creates a reader that feeds messages through a staged ingestion pipeline.
+     *
+     * @param partitions   number of store partitions (0 disables the pipeline)
+     * @param waitStrategy how idle pipeline threads wait
+     */
+    public WebSocketDataReader(int partitions, WaitStrategy waitStrategy) {
+        this.partitions = partitions;
+        this.waitStrategy = waitStrategy;
+    }
+
     /**
      * Use {@link #startStreaming(DataStorage)} instead.
      *
@@ -34,7 +63,13 @@ public class WebSocketDataReader implements DataReader {
     public void startStreaming(DataStorage storage) {
         try {
             URI serverUri = new URI("ws://localhost:1234");  // Replace with your actual WebSocket server address
-            client = new WebSocketClient(serverUri, storage);
+            if (partitions > 0) {
+                pipeline = new IngestPipeline(storage, partitions, waitStrategy);
+                pipeline.start();
+                client = new WebSocketClient(serverUri, pipeline);
+            } else {
+                client = new WebSocketClient(serverUri, storage);
+            }
             client.connect();
 
             // Wait until the connection is actually established (max 5 seconds)
@@ -69,5 +104,16 @@ public class WebSocketDataReader implements DataReader {
             client.close();
             System.out.println("WebSocketDataReader stopped streaming.");
         }
+        if (pipeline != null) {
+            // The pipeline drains what was already published; wait for the
+            // I/O thread to finish so nothing is published while it stops.
+            try {
+                client.closeBlocking();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pipeline.stop();
+            pipeline = null;
+        }
     }
 }
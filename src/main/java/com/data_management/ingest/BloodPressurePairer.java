@@ -0,0 +1,217 @@
+package com.data_management.ingest;
+
+import com.data_management.BloodPressureRecord;
+
+import java.util.Arrays;
+
+/**
+ * Joins separate systolic and diastolic samples of a patient into one blood
+ * pressure reading at ingest.
+ * <p>
+ * The generators emit {@value #SYSTOLIC_LABEL} and {@value #DIASTOLIC_LABEL} as two
+ * samples, while the blood pressure rules read one {@value BloodPressureRecord#RECORD_TYPE}
+ * reading. When both halves of a patient arrive within the tolerance of each other,
+ * the pairer hands the two primitive values to its {@link PairListener}, e.g.
+ * {@code DataStorage::addBloodPressure}; no Strings are built or split.
+ * <p>
+ * Pending halves are kept in a fixed direct-mapped table indexed by patient ID, so
+ * memory is bounded no matter how many patients there are. A half is counted as
+ * unmatched when it is replaced by a newer half of the same kind, when the other
+ * half arrives too late, or when another patient's sample needs its table slot.
+ * <p>
+ * Not thread-safe; use one pairer per ingest thread.
+ */
+public final class BloodPressurePairer {
+
+    /** Label of systolic pressure samples. */
+    public static final String SYSTOLIC_LABEL = "SystolicPressure";
+
+    /** Label of diastolic pressure samples. */
+    public static final String DIASTOLIC_LABEL = "DiastolicPressure";
+
+    /** Default number of table slots. */
+    public static final int DEFAULT_SLOTS = 1024;
+
+    /** Default maximum time between the two halves of one reading. */
+    public static final long DEFAULT_TOLERANCE_MILLIS = 1000;
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int SYSTOLIC = 0;
+    private static final int DIASTOLIC = 1;
+
+    /**
+     * Receives each completed reading.
+     */
+    @FunctionalInterface
+    public interface PairListener {
+        /**
+         * Called for each systolic/diastolic pair.
+         *
+         * @param patientId the patient's ID
+         * @param systolic  the systolic pressure
+         * @param diastolic the diastolic pressure
+         * @param timestamp the time of the later half
+         */
+        void onPair(int patientId, double systolic, double diastolic, long timestamp);
+    }
+
+    private final PairListener listener;
+    private final long toleranceMillis;
+    private final int mask;
+    private final int[] owners;
+    private final long[][] times;
+    private final double[][] values;
+
+    private volatile long paired = 0;
+    private volatile long unmatchedSystolic = 0;
+    private volatile long unmatchedDiastolic = 0;
+
+    /**
+     * Creates a pairer with the default table size and tolerance.
+     *
+     * @param listener receives the completed readings
+     */
+    public BloodPressurePairer(PairListener listener) {
+        this(listener, DEFAULT_SLOTS, DEFAULT_TOLERANCE_MILLIS);
+    }
+
+    /**
+     * Creates a pairer.
+     *
+     * @param listener        receives the completed readings
+     * @param slots           table slots, a power of two; patients beyond this share slots
+     * @param toleranceMillis maximum time between the two halves of one reading
+     */
+    public BloodPressurePairer(PairListener listener, int slots, long toleranceMillis) {
+        if (slots < 1 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slots must be a power of two");
+        }
+        if (toleranceMillis < 0) throw new IllegalArgumentException("Tolerance must not be negative");
+        this.listener = listener;
+        this.toleranceMillis = toleranceMillis;
+        this.mask = slots - 1;
+        this.owners = new int[slots];
+        this.times = new long[2][slots];
+        this.values = new double[2][slots];
+        Arrays.fill(times[SYSTOLIC], NONE);
+        Arrays.fill(times[DIASTOLIC], NONE);
+    }
+
+    /**
+     * Returns whether a label is one of the two blood pressure halves.
+     *
+     * @param label the record type
+     * @return true for systolic and diastolic pressure
+     */
+    public static boolean isComponent(String label) {
+        return SYSTOLIC_LABEL.equals(label) || DIASTOLIC_LABEL.equals(label);
+    }
+
+    /**
+     * Offers a sample. Samples that are not blood pressure halves are ignored.
+     *
+     * @param patientId the patient's ID
+     * @param label     the record type
+     * @param value     the measured value
+     * @param timestamp the time of the measurement
+     * @return true if the sample was a blood pressure half
+     */
+    public boolean offer(int patientId, String label, double value, long timestamp) {
+        int kind;
+        if (SYSTOLIC_LABEL.equals(label)) {
+            kind = SYSTOLIC;
+        } else if (DIASTOLIC_LABEL.equals(label)) {
+            kind = DIASTOLIC;
+        } else {
+            return false;
+        }
+        int other = 1 - kind;
+        int slot = patientId & mask;
+
+        if (owners[slot] != patientId) {
+            evict(slot);
+            owners[slot] = patientId;
+        }
+
+        long otherTime = times[other][slot];
+        if (otherTime != NONE) {
+            if (Math.abs(timestamp - otherTime) <= toleranceMillis) {
+                double systolic = kind == SYSTOLIC ? value : values[other][slot];
+                double diastolic = kind == DIASTOLIC ? value : values[other][slot];
+                times[other][slot] = NONE;
+                paired++;
+                listener.onPair(patientId, systolic, diastolic, Math.max(timestamp, otherTime));
+                return true;
+            }
+            if (otherTime < timestamp) {
+                // The other half is too old to ever be matched
+                times[other][slot] = NONE;
+                countUnmatched(other);
+            }
+        }
+        if (times[kind][slot] != NONE) {
+            countUnmatched(kind);
+        }
+        times[kind][slot] = timestamp;
+        values[kind][slot] = value;
+        return true;
+    }
+
+    /**
+     * Returns the number of readings completed so far.
+     *
+     * @return paired count
+     */
+    public long getPairedCount() {
+        return paired;
+    }
+
+    /**
+     * Returns the number of systolic halves that were never matched.
+     *
+     * @return unmatched systolic count
+     */
+    public long getUnmatchedSystolicCount() {
+        return unmatchedSystolic;
+    }
+
+    /**
+     * Returns the number of diastolic halves that were never matched.
+     *
+     * @return unmatched diastolic count
+     */
+    public long getUnmatchedDiastolicCount() {
+        return unmatchedDiastolic;
+    }
+
+    /**
+     * Returns the number of halves still waiting for their partner.
+     *
+     * @return pending count
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (times[SYSTOLIC][slot] != NONE) pending++;
+            if (times[DIASTOLIC][slot] != NONE) pending++;
+        }
+        return pending;
+    }
+
+    private void evict(int slot) {
+        for (int kind = SYSTOLIC; kind <= DIASTOLIC; kind++) {
+            if (times[kind][slot] != NONE) {
+                times[kind][slot] = NONE;
+                countUnmatched(kind);
+            }
+        }
+    }
+
+    private void countUnmatched(int kind) {
+        if (kind == SYSTOLIC) {
+            unmatchedSystolic++;
+        } else {
+            unmatchedDiastolic++;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.data_management.ingest;
+
+/**
+ * Callback used by a pipeline stage to process events taken from a ring buffer.
+ *
+ * @param <E> the event type
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * Processes one event. The event object is a reused slot, so implementations
+     * must copy any values they want to keep after returning.
+     *
+     * @param event      the event in the current slot
+     * @param sequence   the sequence of the slot
+     * @param endOfBatch true if this is the last event currently available
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,231 @@
+package com.data_management.ingest;
+
+import com.data_management.DataStorage;
+import com.data_management.metrics.IngestMetrics;
+import com.data_management.metrics.SourceMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Staged ingestion pipeline that moves parsing and storage off the network I/O thread.
+ * <p>
+ * Samples flow through four stages connected by preallocated ring buffers:
+ * <ol>
+ *     <li><b>decode</b> - parses the raw message into a reusable slot,</li>
+ *     <li><b>partition</b> - routes the sample to a ring chosen by patient ID,</li>
+ *     <li><b>store</b> - adds the sample to {@link DataStorage} and pairs systolic and
+ *     diastolic samples into blood pressure readings (see {@link BloodPressurePairer}),</li>
+ *     <li><b>notify</b> - tells a {@link SampleListener} (e.g. the alert system).</li>
+ * </ol>
+ * Decode and partition run on one thread. Each partition has its own store and
+ * notify threads, so all samples for one patient are stored in order by a single
+ * thread. Apart from the record it stores (a {@link com.data_management.NumericRecord}
+ * that keeps the decoded value as a primitive, plus one record per paired blood
+ * pressure reading), the pipeline allocates nothing per sample in steady state.
+ * <p>
+ * {@link #publish(String)} must always be called from the same thread, such as
+ * the WebSocket client's read thread.
+ */
+public class IngestPipeline {
+
+    /** Default number of slots in each ring buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+
+    private final DataStorage storage;
+    private final SampleListener listener;
+    private final SourceMetrics metrics;
+
+    private final RingBuffer<SampleEvent> inbound;
+    private final List<RingBuffer<SampleEvent>> partitions = new ArrayList<>();
+
+    private final Stage<SampleEvent> decodeStage;
+    private final List<Stage<SampleEvent>> storeStages = new ArrayList<>();
+    private final List<Stage<SampleEvent>> notifyStages = new ArrayList<>();
+    private final List<StoreHandler> storeHandlers = new ArrayList<>();
+
+    private final SampleDecoder decoder = new SampleDecoder();
+
+    private volatile boolean started = false;
+
+    /**
+     * Creates a pipeline with the default buffer size and no listener.
+     *
+     * @param storage      where decoded samples are stored
+     * @param partitions   number of store partitions (threads)
+     * @param waitStrategy how idle stages wait
+     */
+    public IngestPipeline(DataStorage storage, int partitions, WaitStrategy waitStrategy) {
+        this(storage, partitions, DEFAULT_BUFFER_SIZE, waitStrategy, null);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param storage      where decoded samples are stored
+     * @param partitions   number of store partitions (threads)
+     * @param bufferSize   slots per ring buffer, must be a power of two
+     * @param waitStrategy how idle stages and a blocked producer wait
+     * @param listener     notified after each sample is stored, may be null
+     */
+    public IngestPipeline(DataStorage storage, int partitions, int bufferSize,
+                          WaitStrategy waitStrategy, SampleListener listener) {
+        this(storage, partitions, bufferSize, waitStrategy, listener, IngestMetrics.getInstance().source("pipeline"));
+    }
+
+    /**
+     * Creates a pipeline that reports to the given metrics.
+     *
+     * @param storage      where decoded samples are stored
+     * @param partitions   number of store partitions (threads)
+     * @param bufferSize   slots per ring buffer, must be a power of two
+     * @param waitStrategy how idle stages and a blocked producer wait
+     * @param listener     notified after each sample is stored, may be null
+     * @param metrics      receives accepted/rejected counts and latencies
+     */
+    public IngestPipeline(DataStorage storage, int partitions, int bufferSize,
+                          WaitStrategy waitStrategy, SampleListener listener, SourceMetrics metrics) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        this.storage = storage;
+        this.listener = listener;
+        this.metrics = metrics;
+
+        this.inbound = new RingBuffer<>(bufferSize, SampleEvent::new, waitStrategy);
+        this.decodeStage = new Stage<>("ingest-decode", inbound, inbound.getCursor(), this::decodeAndPartition, waitStrategy);
+
+        for (int i = 0; i < partitions; i++) {
+            RingBuffer<SampleEvent> ring = new RingBuffer<>(bufferSize, SampleEvent::new, waitStrategy);
+            StoreHandler handler = new StoreHandler();
+            Stage<SampleEvent> store = new Stage<>("ingest-store-" + i, ring, ring.getCursor(), handler, waitStrategy);
+            this.storeHandlers.add(handler);
+            this.partitions.add(ring);
+            this.storeStages.add(store);
+            if (listener != null) {
+                notifyStages.add(new Stage<>("ingest-notify-" + i, ring, store.getSequence(), this::notifyListener, waitStrategy));
+            }
+        }
+    }
+
+    /**
+     * Starts all stage threads.
+     */
+    public synchronized void start() {
+        if (started) return;
+        notifyStages.forEach(Stage::start);
+        storeStages.forEach(Stage::start);
+        decodeStage.start();
+        started = true;
+    }
+
+    /**
+     * Stops the pipeline after draining every sample already published.
+     * The caller must make sure nothing is published concurrently.
+     */
+    public synchronized void stop() {
+        if (!started) return;
+        decodeStage.halt();
+        storeStages.forEach(Stage::halt);
+        notifyStages.forEach(Stage::halt);
+        started = false;
+    }
+
+    /**
+     * Hands a raw message to the pipeline. Blocks (using the wait strategy) only
+     * when the inbound ring is full.
+     *
+     * @param message the raw message as received from the network
+     */
+    public void publish(String message) {
+        long sequence = inbound.next();
+        inbound.get(sequence).raw = message;
+        inbound.publish(sequence);
+    }
+
+    /**
+     * Returns whether the pipeline threads are running.
+     *
+     * @return true after {@link #start()} and before {@link #stop()}
+     */
+    public boolean isRunning() {
+        return started;
+    }
+
+    /**
+     * Returns the number of messages waiting in the inbound ring.
+     *
+     * @return the inbound backlog
+     */
+    public long getInboundBacklog() {
+        return inbound.getBacklog();
+    }
+
+    /**
+     * Returns the number of blood pressure readings paired from separate halves.
+     *
+     * @return paired count over all partitions
+     */
+    public long getPairedBloodPressureCount() {
+        long total = 0;
+        for (StoreHandler handler : storeHandlers) {
+            total += handler.pairer.getPairedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of systolic and diastolic halves that found no partner.
+     *
+     * @return unmatched count over all partitions
+     */
+    public long getUnmatchedBloodPressureCount() {
+        long total = 0;
+        for (StoreHandler handler : storeHandlers) {
+            total += handler.pairer.getUnmatchedSystolicCount() + handler.pairer.getUnmatchedDiastolicCount();
+        }
+        return total;
+    }
+
+    private void decodeAndPartition(SampleEvent event, long sequence, boolean endOfBatch) {
+        if (!decoder.decode(event.raw, event)) {
+            metrics.rejected(SourceMetrics.UNPARSED, event.raw);
+            event.raw = null;
+            return;
+        }
+        RingBuffer<SampleEvent> target = partitions.get(Math.floorMod(event.patientId, partitions.size()));
+        long next = target.next();
+        target.get(next).copyFrom(event);
+        target.publish(next);
+        event.raw = null;
+    }
+
+    /**
+     * Store stage of one partition. Also pairs blood pressure halves and times
+     * each batch of events it drains.
+     */
+    private class StoreHandler implements EventHandler<SampleEvent> {
+
+        final BloodPressurePairer pairer = new BloodPressurePairer(storage::addBloodPressure);
+        private long batchStart = -1;
+
+        @Override
+        public void onEvent(SampleEvent event, long sequence, boolean endOfBatch) {
+            if (batchStart < 0) batchStart = System.nanoTime();
+
+            long previous = storage.getLatestTimestamp(event.patientId, event.label);
+            storage.addPatientValue(event.patientId, event.value, event.label, event.timestamp);
+            metrics.accepted(event.label, event.timestamp, previous);
+            pairer.offer(event.patientId, event.label, event.value, event.timestamp);
+
+            if (endOfBatch) {
+                metrics.batchProcessed(System.nanoTime() - batchStart);
+                batchStart = -1;
+            }
+        }
+    }
+
+    private void notifyListener(SampleEvent event, long sequence, boolean endOfBatch) {
+        listener.onSample(event.patientId, event.label, event.value, event.timestamp);
+    }
+}
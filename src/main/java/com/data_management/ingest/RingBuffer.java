@@ -0,0 +1,147 @@
+package com.data_management.ingest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A preallocated, single-producer ring buffer with mutable event slots.
+ * <p>
+ * All slots are created up front by the given factory and reused forever, so
+ * publishing an event does not allocate. Any number of consumers can read the
+ * ring; each one owns a sequence that tells the producer how far it has got,
+ * and the producer never overwrites a slot that the slowest consumer has not
+ * processed yet.
+ * <p>
+ * Only one thread may call {@link #next()} and {@link #publish(long)}.
+ *
+ * @param <E> the type of event stored in each slot
+ */
+public final class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    /** Highest sequence that has been published and is visible to consumers. */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    /** Sequences of all consumers; the producer waits for the slowest. */
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+
+    /** Next sequence the producer will hand out (producer thread only). */
+    private long nextSequence = 0;
+
+    /** Last known minimum consumer sequence, to avoid re-reading all of them. */
+    private long cachedGatingSequence = -1;
+
+    /**
+     * Creates a ring buffer and fills every slot with a fresh event.
+     *
+     * @param capacity     number of slots, must be a power of two
+     * @param factory      creates the reusable event objects
+     * @param waitStrategy what the producer does while the ring is full
+     */
+    public RingBuffer(int capacity, Supplier<E> factory, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = factory.get();
+        }
+    }
+
+    /**
+     * Registers a new consumer. The returned sequence starts at the current
+     * cursor and must be advanced by the consumer as it processes events.
+     *
+     * @return the consumer's sequence
+     */
+    public synchronized AtomicLong addConsumer() {
+        AtomicLong sequence = new AtomicLong(cursor.get());
+        AtomicLong[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + 1);
+        updated[updated.length - 1] = sequence;
+        gatingSequences = updated;
+        return sequence;
+    }
+
+    /**
+     * Claims the next slot, waiting while the ring is full.
+     *
+     * @return the sequence of the claimed slot
+     */
+    public long next() {
+        long sequence = nextSequence;
+        long wrapPoint = sequence - entries.length;
+
+        if (cachedGatingSequence < wrapPoint) {
+            int attempt = 0;
+            long minimum;
+            while ((minimum = minimumGatingSequence()) < wrapPoint) {
+                waitStrategy.idle(attempt++);
+            }
+            cachedGatingSequence = minimum;
+        }
+
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Returns the event stored in the slot for the given sequence.
+     *
+     * @param sequence a claimed or published sequence
+     * @return the reusable event in that slot
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Makes the event in a claimed slot visible to consumers.
+     *
+     * @param sequence the sequence returned by {@link #next()}
+     */
+    public void publish(long sequence) {
+        cursor.lazySet(sequence);
+    }
+
+    /**
+     * Returns the producer cursor, used as the upstream of the first consumer stage.
+     *
+     * @return the highest published sequence
+     */
+    public AtomicLong getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns the number of slots in this ring.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Returns how many published events the slowest consumer has not processed yet.
+     *
+     * @return the current backlog
+     */
+    public long getBacklog() {
+        return cursor.get() - minimumGatingSequence();
+    }
+
+    private long minimumGatingSequence() {
+        long minimum = cursor.get();
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
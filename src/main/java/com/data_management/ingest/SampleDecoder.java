@@ -0,0 +1,137 @@
+package com.data_management.ingest;
+
+import java.util.Arrays;
+
+/**
+ * Decodes messages of the form {@code patientId|type|value|timestamp} directly
+ * into a {@link SampleEvent}, without {@code String.split} or boxing.
+ * <p>
+ * Record type labels are looked up in a small cache, so in steady state the
+ * same label String instances are reused for every sample. This class is not
+ * thread-safe; the pipeline owns one instance on its decode thread.
+ */
+public final class SampleDecoder {
+
+    /** Upper bound on distinct labels kept, protects against garbage input. */
+    private static final int MAX_LABELS = 64;
+
+    /** Powers of ten that are exactly representable as doubles. */
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    private String[] labels = new String[8];
+    private int labelCount = 0;
+
+    /**
+     * Decodes a raw message into the given event.
+     *
+     * @param message the raw message
+     * @param out     the slot to fill
+     * @return true if the message was well formed; {@code out.valid} is set to the same value
+     */
+    public boolean decode(String message, SampleEvent out) {
+        out.valid = false;
+        if (message == null) return false;
+
+        int end = message.length();
+        int p1 = message.indexOf('|');
+        if (p1 < 0) return false;
+        int p2 = message.indexOf('|', p1 + 1);
+        if (p2 < 0) return false;
+        int p3 = message.indexOf('|', p2 + 1);
+        if (p3 < 0 || message.indexOf('|', p3 + 1) >= 0) return false;
+
+        try {
+            long id = parseLong(message, 0, p1);
+            if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) return false;
+            out.patientId = (int) id;
+            out.label = label(message, p1 + 1, p2);
+            out.value = parseDouble(message, p2 + 1, p3);
+            out.timestamp = parseLong(message, p3 + 1, end);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        out.valid = true;
+        return true;
+    }
+
+    private String label(String s, int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < labelCount; i++) {
+            String candidate = labels[i];
+            if (candidate.length() == length && s.regionMatches(from, candidate, 0, length)) {
+                return candidate;
+            }
+        }
+        String label = s.substring(from, to);
+        if (labelCount < MAX_LABELS) {
+            if (labelCount == labels.length) {
+                labels = Arrays.copyOf(labels, labels.length * 2);
+            }
+            labels[labelCount++] = label;
+        }
+        return label;
+    }
+
+    static long parseLong(String s, int from, int to) {
+        if (from >= to) throw new NumberFormatException("Empty number");
+        boolean negative = false;
+        int i = from;
+        if (s.charAt(i) == '-' || s.charAt(i) == '+') {
+            negative = s.charAt(i) == '-';
+            i++;
+            if (i == to) throw new NumberFormatException("Sign without digits");
+        }
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("Not a digit");
+            if (result > (Long.MAX_VALUE - digit) / 10) throw new NumberFormatException("Overflow");
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses plain decimals like "98.6" exactly as {@link Double#parseDouble} would.
+     * A mantissa below 2^53 divided by an exact power of ten is correctly rounded,
+     * so the result is bit-identical. Anything else falls back to the JDK parser.
+     */
+    static double parseDouble(String s, int from, int to) {
+        if (from >= to) throw new NumberFormatException("Empty number");
+        boolean negative = false;
+        int i = from;
+        if (s.charAt(i) == '-' || s.charAt(i) == '+') {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9 || digits >= 15) {
+                return Double.parseDouble(s.substring(from, to));
+            }
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (fractionDigits >= 0) fractionDigits++;
+        }
+        if (digits == 0) throw new NumberFormatException("No digits");
+
+        double value = fractionDigits > 0 ? mantissa / POW10[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+}
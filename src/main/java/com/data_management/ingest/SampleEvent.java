@@ -0,0 +1,34 @@
+package com.data_management.ingest;
+
+/**
+ * A reusable ring buffer slot holding one sample as it moves through the
+ * ingestion pipeline. Fields are public and mutable on purpose: stages
+ * overwrite them in place instead of creating new objects.
+ */
+public final class SampleEvent {
+
+    /** The raw message as received from the network (decode stage input). */
+    public String raw;
+
+    /** Whether the raw message could be decoded. */
+    public boolean valid;
+
+    public int patientId;
+    public String label;
+    public double value;
+    public long timestamp;
+
+    /**
+     * Copies the decoded fields of another event into this slot. The raw
+     * message is not copied, it is only needed by the decode stage.
+     *
+     * @param other the event to copy from
+     */
+    public void copyFrom(SampleEvent other) {
+        this.valid = other.valid;
+        this.patientId = other.patientId;
+        this.label = other.label;
+        this.value = other.value;
+        this.timestamp = other.timestamp;
+    }
+}
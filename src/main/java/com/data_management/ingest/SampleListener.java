@@ -0,0 +1,20 @@
+package com.data_management.ingest;
+
+/**
+ * Receives a notification after a sample has been stored, e.g. to let the
+ * alert system know that a patient has new data.
+ */
+@FunctionalInterface
+public interface SampleListener {
+
+    /**
+     * Called once per stored sample, on the pipeline's notify thread for the
+     * patient's partition.
+     *
+     * @param patientId the patient the sample belongs to
+     * @param label     the record type, e.g. "HeartRate"
+     * @param value     the numeric measurement
+     * @param timestamp the sample time in milliseconds since epoch
+     */
+    void onSample(int patientId, String label, double value, long timestamp);
+}
@@ -0,0 +1,110 @@
+package com.data_management.ingest;
+
+import com.data_management.metrics.RateLimitedLogger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A consumer thread that reads events from a ring buffer and hands them to an
+ * {@link EventHandler}.
+ * <p>
+ * A stage only processes sequences its upstream has finished with. The upstream
+ * is either the ring's producer cursor or the sequence of another stage, which
+ * lets stages on the same ring run one after another (e.g. store, then notify).
+ * An event the handler fails on is skipped; failures are logged rate limited, so
+ * a stream of bad events cannot flood the console and stall the ring.
+ *
+ * @param <E> the event type
+ */
+public final class Stage<E> implements Runnable {
+
+    private final String name;
+    private final RingBuffer<E> ring;
+    private final AtomicLong upstream;
+    private final AtomicLong sequence;
+    private final EventHandler<E> handler;
+    private final WaitStrategy waitStrategy;
+    private final RateLimitedLogger failureLog;
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    /**
+     * Creates a stage and registers it as a consumer of the ring.
+     *
+     * @param name         thread name, useful when profiling
+     * @param ring         the ring to read from
+     * @param upstream     sequence this stage must not overtake
+     * @param handler      processes each event
+     * @param waitStrategy what to do while no events are available
+     */
+    public Stage(String name, RingBuffer<E> ring, AtomicLong upstream,
+                 EventHandler<E> handler, WaitStrategy waitStrategy) {
+        this.name = name;
+        this.ring = ring;
+        this.upstream = upstream;
+        this.handler = handler;
+        this.waitStrategy = waitStrategy;
+        this.failureLog = new RateLimitedLogger(name, 10, 10_000);
+        this.sequence = ring.addConsumer();
+    }
+
+    /**
+     * Returns this stage's progress, usable as the upstream of a later stage.
+     *
+     * @return the last sequence this stage has fully processed
+     */
+    public AtomicLong getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Starts the stage on its own daemon thread.
+     */
+    public void start() {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Asks the stage to stop once it has drained everything its upstream published,
+     * and waits for it to finish.
+     */
+    public void halt() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        int attempt = 0;
+
+        while (true) {
+            long available = upstream.get();
+            if (available >= next) {
+                for (long s = next; s <= available; s++) {
+                    try {
+                        handler.onEvent(ring.get(s), s, s == available);
+                    } catch (Exception e) {
+                        failureLog.log("Pipeline stage failed on an event: ", e);
+                    }
+                }
+                sequence.lazySet(available);
+                next = available + 1;
+                attempt = 0;
+            } else if (!running) {
+                return;
+            } else {
+                waitStrategy.idle(attempt++);
+            }
+        }
+    }
+}
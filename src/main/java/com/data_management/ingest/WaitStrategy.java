@@ -0,0 +1,80 @@
+package com.data_management.ingest;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides what a pipeline thread does while it waits for a ring buffer slot
+ * or for new events to arrive.
+ * <p>
+ * The choice trades latency against CPU: {@link #BUSY_SPIN} reacts fastest but
+ * burns a full core per stage, {@link #PARK} is the cheapest on an idle system.
+ */
+public enum WaitStrategy {
+
+    /** Spins on the CPU without ever giving it up. Lowest latency. */
+    BUSY_SPIN {
+        @Override
+        public void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /** Spins briefly, then yields the CPU to other runnable threads. */
+    YIELD {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /** Spins briefly, then parks the thread for a short time. Lowest CPU usage. */
+    PARK {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    /** Number of spins before YIELD and PARK back off. */
+    private static final int SPIN_TRIES = 100;
+
+    /** How long PARK sleeps per idle call (50 microseconds). */
+    private static final long PARK_NANOS = 50_000L;
+
+    /**
+     * Called repeatedly while a thread has nothing to do.
+     *
+     * @param attempt how many times in a row the caller has already idled
+     */
+    public abstract void idle(int attempt);
+
+    /**
+     * Parses a strategy name such as "busy-spin", "yield" or "park".
+     *
+     * @param name the name given on the command line or in configuration
+     * @return the matching wait strategy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static WaitStrategy fromName(String name) {
+        String key = name.trim().toLowerCase().replace('_', '-');
+        switch (key) {
+            case "busy-spin":
+            case "spin":
+                return BUSY_SPIN;
+            case "yield":
+                return YIELD;
+            case "park":
+                return PARK;
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy: '" + name + "'");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.data_management.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton registry of in-process ingestion metrics, one {@link SourceMetrics}
+ * per data source.
+ * <p>
+ * Comparing the accepted rates and the sample-to-stored latency of the readers
+ * shows when ingestion is falling behind the simulator.
+ */
+public class IngestMetrics {
+
+    /** The single shared instance used by the readers (Singleton). */
+    private static final IngestMetrics INSTANCE = new IngestMetrics();
+
+    private final Map<String, SourceMetrics> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Public constructor for isolated registries, e.g. in tests.
+     */
+    public IngestMetrics() {
+    }
+
+    /**
+     * Gets the shared instance of the metrics registry.
+     *
+     * @return the shared IngestMetrics instance
+     */
+    public static IngestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the metrics for a source, creating them on first use.
+     *
+     * @param name the source name, e.g. "file" or "websocket"
+     * @return the metrics of that source
+     */
+    public SourceMetrics source(String name) {
+        return sources.computeIfAbsent(name, SourceMetrics::new);
+    }
+
+    /**
+     * Builds a report of all sources, sorted by name.
+     *
+     * @return a multi-line human readable report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (SourceMetrics source : new TreeMap<>(sources).values()) {
+            sb.append(source);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes all sources (mainly for testing).
+     */
+    public void clear() {
+        sources.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package com.data_management.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram with HDR-style log-linear buckets.
+ * <p>
+ * Every power of two is split into 32 linear sub-buckets, so any recorded value
+ * is reported with at most ~3% error while the whole range of {@code long} fits
+ * in under two thousand counters. Recording is a couple of shifts and one atomic
+ * increment, cheap enough to call for every sample.
+ * <p>
+ * The unit is up to the caller (milliseconds, microseconds, ...). Negative values
+ * are recorded as zero.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int HALF_SUB_BUCKET_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKET_COUNT = 64 - SUB_BUCKET_BITS + 2;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT * HALF_SUB_BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records one value.
+     *
+     * @param value the value to record, e.g. a latency in milliseconds
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the total count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the arithmetic mean of all recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalSum.get() / count;
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile a percentage between 0 and 100, e.g. 99.9
+     * @return the upper bound of the bucket holding that percentile, or 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalSum.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * Returns a one-line summary with count, mean and the usual percentiles.
+     *
+     * @return a human readable summary
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                getCount(), getMean(), getPercentile(50), getPercentile(90),
+                getPercentile(99), getPercentile(99.9), getMax());
+    }
+
+    private static int indexOf(long value) {
+        int bucket = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        int subBucket = (int) (value >>> bucket);
+        return bucket * HALF_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucket = Math.max(0, index / HALF_SUB_BUCKET_COUNT - 1);
+        long subBucket = index - (long) bucket * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
@@ -0,0 +1,76 @@
+package com.data_management.metrics;
+
+/**
+ * Writes messages to {@code System.err}, but at most a fixed number per time
+ * interval. Messages over the limit are only counted, and the count is reported
+ * with the first message of the next interval.
+ * <p>
+ * This keeps a flood of malformed input from turning into a flood of synchronized
+ * console writes on the ingestion threads.
+ */
+public class RateLimitedLogger {
+
+    private final String name;
+    private final int maxPerInterval;
+    private final long intervalMillis;
+
+    private long intervalStart = 0;
+    private int loggedInInterval = 0;
+    private long suppressed = 0;
+    private long totalSuppressed = 0;
+
+    /**
+     * Creates a rate limited logger.
+     *
+     * @param name           prefix printed before every message
+     * @param maxPerInterval how many messages may be printed per interval
+     * @param intervalMillis length of an interval in milliseconds
+     */
+    public RateLimitedLogger(String name, int maxPerInterval, long intervalMillis) {
+        this.name = name;
+        this.maxPerInterval = maxPerInterval;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Logs a message unless the limit for the current interval is reached.
+     * The message is only built if it will actually be printed.
+     *
+     * @param prefix  fixed part of the message, e.g. "Skipping line due to parsing error: "
+     * @param detail  variable part, e.g. the offending input
+     * @return true if the message was printed
+     */
+    public boolean log(String prefix, Object detail) {
+        long reportSuppressed;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - intervalStart >= intervalMillis) {
+                intervalStart = now;
+                loggedInInterval = 0;
+            }
+            if (loggedInInterval >= maxPerInterval) {
+                suppressed++;
+                totalSuppressed++;
+                return false;
+            }
+            loggedInInterval++;
+            reportSuppressed = suppressed;
+            suppressed = 0;
+        }
+
+        if (reportSuppressed > 0) {
+            System.err.println("[" + name + "] " + reportSuppressed + " similar messages suppressed");
+        }
+        System.err.println("[" + name + "] " + prefix + detail);
+        return true;
+    }
+
+    /**
+     * Returns how many messages were dropped since this logger was created.
+     *
+     * @return the number of suppressed messages
+     */
+    public synchronized long getSuppressedCount() {
+        return totalSuppressed;
+    }
+}
@@ -0,0 +1,59 @@
+package com.data_management.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one signal (record type) coming from one ingestion source.
+ * {@link LongAdder} keeps increments cheap when several threads count at once.
+ */
+public class SignalCounters {
+
+    final LongAdder accepted = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder late = new LongAdder();
+    final LongAdder duplicate = new LongAdder();
+
+    /**
+     * Returns the number of samples that were parsed and stored.
+     *
+     * @return accepted sample count
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Returns the number of inputs that could not be parsed.
+     *
+     * @return rejected input count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of stored samples that were older than the newest sample
+     * already stored for the same patient and signal.
+     *
+     * @return late sample count
+     */
+    public long getLate() {
+        return late.sum();
+    }
+
+    /**
+     * Returns the number of stored samples with exactly the same timestamp as the
+     * newest sample already stored for the same patient and signal.
+     *
+     * @return duplicate sample count
+     */
+    public long getDuplicate() {
+        return duplicate.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("accepted=%d rejected=%d late=%d duplicate=%d",
+                getAccepted(), getRejected(), getLate(), getDuplicate());
+    }
+}
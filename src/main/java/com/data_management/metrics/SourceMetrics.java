@@ -0,0 +1,129 @@
+package com.data_management.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingestion metrics for one source, such as the file reader or the WebSocket client.
+ * <p>
+ * Holds per-signal counters, a histogram of sample-timestamp-to-stored latency in
+ * milliseconds, a histogram of batch processing time in microseconds and a rate
+ * limited logger for malformed input. Callers should keep a reference to this
+ * object instead of looking it up for every sample.
+ */
+public class SourceMetrics {
+
+    /** Signal name used for input that could not be parsed far enough to know its type. */
+    public static final String UNPARSED = "unparsed";
+
+    private final String name;
+    private final Map<String, SignalCounters> signals = new ConcurrentHashMap<>();
+    private final LatencyHistogram storeLatencyMillis = new LatencyHistogram();
+    private final LatencyHistogram batchMicros = new LatencyHistogram();
+    private final RateLimitedLogger malformedLog;
+
+    /**
+     * Creates metrics for a source.
+     *
+     * @param name the source name, e.g. "file" or "websocket"
+     */
+    public SourceMetrics(String name) {
+        this.name = name;
+        this.malformedLog = new RateLimitedLogger(name, 10, 10_000);
+    }
+
+    /**
+     * Records a sample that was stored.
+     *
+     * @param signal            the record type
+     * @param timestamp         the sample's own timestamp
+     * @param previousTimestamp newest timestamp already stored for this patient and
+     *                          signal before this sample, or {@code Long.MIN_VALUE}
+     */
+    public void accepted(String signal, long timestamp, long previousTimestamp) {
+        SignalCounters counters = counters(signal);
+        counters.accepted.increment();
+        if (timestamp < previousTimestamp) {
+            counters.late.increment();
+        } else if (timestamp == previousTimestamp) {
+            counters.duplicate.increment();
+        }
+        storeLatencyMillis.record(System.currentTimeMillis() - timestamp);
+    }
+
+    /**
+     * Records input that could not be parsed and logs it, rate limited.
+     *
+     * @param signal the record type if it is known, otherwise {@link #UNPARSED}
+     * @param input  the offending input, only printed if under the rate limit
+     */
+    public void rejected(String signal, String input) {
+        counters(signal == null ? UNPARSED : signal).rejected.increment();
+        malformedLog.log("Skipping malformed input: ", input);
+    }
+
+    /**
+     * Records how long one batch (a file, or a burst of messages) took to process.
+     *
+     * @param nanos processing time in nanoseconds
+     */
+    public void batchProcessed(long nanos) {
+        batchMicros.record(nanos / 1000);
+    }
+
+    /**
+     * Returns the counters for one signal, creating them on first use.
+     *
+     * @param signal the record type
+     * @return the counters for that signal
+     */
+    public SignalCounters counters(String signal) {
+        SignalCounters counters = signals.get(signal);
+        return counters != null ? counters : signals.computeIfAbsent(signal, k -> new SignalCounters());
+    }
+
+    /**
+     * Returns counters summed over all signals of this source.
+     *
+     * @return accepted, rejected, late and duplicate totals
+     */
+    public SignalCounters totals() {
+        SignalCounters totals = new SignalCounters();
+        for (SignalCounters c : signals.values()) {
+            totals.accepted.add(c.getAccepted());
+            totals.rejected.add(c.getRejected());
+            totals.late.add(c.getLate());
+            totals.duplicate.add(c.getDuplicate());
+        }
+        return totals;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getStoreLatencyMillis() {
+        return storeLatencyMillis;
+    }
+
+    public LatencyHistogram getBatchMicros() {
+        return batchMicros;
+    }
+
+    public long getSuppressedLogCount() {
+        return malformedLog.getSuppressedCount();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("source ").append(name).append(": ").append(totals()).append('\n');
+        for (Map.Entry<String, SignalCounters> e : new TreeMap<>(signals).entrySet()) {
+            sb.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        }
+        sb.append("  sample-to-stored latency (ms): ").append(storeLatencyMillis).append('\n');
+        sb.append("  batch time (us): ").append(batchMicros).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.alerts.strategies;
+
+/**
+ * Bulk threshold checks over primitive signal windows, e.g. a ward-wide scan for
+ * heart rates outside 50..120 or a replay of a recorded saturation column.
+ * <p>
+ * A value is outside the band when {@code value < low || value > high}; NaN is
+ * never outside, just like the rules' comparisons. One-sided checks pass an
+ * infinite bound, e.g. {@code countOutside(spo2, 0, n, 92, Double.POSITIVE_INFINITY)}
+ * counts saturations below 92.
+ * <p>
+ * This is the Java 17 version. When the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, windows of at least a few vector
+ * lengths are checked with the JDK Vector API; otherwise, and for short windows,
+ * the plain loops of the Java 11 version run.
+ */
+public final class ThresholdKernels {
+
+    /** Whether the incubating Vector API module was added to the JVM. */
+    private static final boolean VECTORIZED =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** Windows shorter than this are not worth the vector setup. */
+    private static final int MIN_VECTOR_LENGTH = 32;
+
+    private ThresholdKernels() {
+    }
+
+    /**
+     * Returns whether the kernels run on the Vector API.
+     *
+     * @return true if the Vector API module is available
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Counts the values outside a band.
+     *
+     * @param values the signal window
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @param low    values below this are outside
+     * @param high   values above this are outside
+     * @return the number of values outside the band
+     */
+    public static int countOutside(double[] values, int from, int to, double low, double high) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        if (VECTORIZED && to - from >= MIN_VECTOR_LENGTH) {
+            return VectorThresholdKernels.countOutside(values, from, to, low, high);
+        }
+        return ScalarThresholdKernels.countOutside(values, from, to, low, high);
+    }
+
+    /**
+     * Finds the first value outside a band.
+     *
+     * @param values the signal window
+     * @param from   first index, inclusive
+     * @param to     last index, exclusive
+     * @param low    values below this are outside
+     * @param high   values above this are outside
+     * @return the index of the first value outside the band, or -1 if there is none
+     */
+    public static int firstOutside(double[] values, int from, int to, double low, double high) {
+        ScalarThresholdKernels.checkRange(values, from, to);
+        if (VECTORIZED && to - from >= MIN_VECTOR_LENGTH) {
+            return VectorThresholdKernels.firstOutside(values, from, to, low, high);
+        }
+        return ScalarThresholdKernels.firstOutside(values, from, to, low, high);
+    }
+}
@@ -0,0 +1,43 @@
+package com.alerts.strategies;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the {@link ThresholdKernels}. Only loaded when the
+ * {@code jdk.incubator.vector} module is present.
+ */
+final class VectorThresholdKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorThresholdKernels() {
+    }
+
+    static int countOutside(double[] values, int from, int to, double low, double high) {
+        int count = 0;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            count += outside(values, i, low, high).trueCount();
+        }
+        return count + ScalarThresholdKernels.countOutside(values, i, to, low, high);
+    }
+
+    static int firstOutside(double[] values, int from, int to, double low, double high) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> mask = outside(values, i, low, high);
+            if (mask.anyTrue()) return i + mask.firstTrue();
+        }
+        return ScalarThresholdKernels.firstOutside(values, i, to, low, high);
+    }
+
+    private static VectorMask<Double> outside(double[] values, int offset, double low, double high) {
+        DoubleVector vector = DoubleVector.fromArray(SPECIES, values, offset);
+        return vector.compare(VectorOperators.LT, low).or(vector.compare(VectorOperators.GT, high));
+    }
+}
@@ -0,0 +1,44 @@
+package com.alerts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the tracker reports each patient's highest recent alert priority.
+ */
+class ActiveAlertTrackerTest {
+
+    @Test
+    void testHighestPriorityWithinActiveTime() {
+        AtomicLong now = new AtomicLong(0);
+        List<Alert> forwarded = new ArrayList<>();
+        ActiveAlertTracker tracker = new ActiveAlertTracker(forwarded::add, 1000, now::get);
+
+        assertEquals(0, tracker.priorityOf(1));
+        tracker.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, 0));
+        tracker.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, 0));
+        assertEquals(3, tracker.priorityOf(1), "A lower priority alert does not lower the patient's priority");
+        assertEquals(2, forwarded.size());
+
+        now.set(1000);
+        assertEquals(0, tracker.priorityOf(1), "Alerts expire after the active time");
+        assertEquals(0, tracker.getTrackedCount());
+
+        tracker.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, 1000));
+        assertEquals(1, tracker.priorityOf(1));
+    }
+
+    @Test
+    void testNonNumericPatientIdIsForwardedButNotTracked() {
+        List<Alert> forwarded = new ArrayList<>();
+        ActiveAlertTracker tracker = new ActiveAlertTracker(forwarded::add);
+        tracker.trigger(new ECGAlert("bed-4", AlertCondition.ABNORMAL_ECG_PEAK, 0));
+        assertEquals(1, forwarded.size());
+        assertEquals(0, tracker.getTrackedCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.alerts;
+
+import com.alerts.rules.RuleSet;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the per-stage latency breakdown of delivered alerts.
+ */
+class AlertLatencyTrackerTest {
+
+    @Test
+    void testRecordsEachStageFromMarks() {
+        List<Alert> delivered = new ArrayList<>();
+        AlertLatencyTracker tracker = new AlertLatencyTracker(delivered::add);
+        long now = System.currentTimeMillis();
+        Alert alert = new BloodPressureAlert("1", AlertCondition.CRITICAL_BLOOD_PRESSURE, now - 10_000)
+                .markStage(AlertStage.INGEST, now - 9_000)
+                .markStage(AlertStage.QUEUED, now - 4_000)
+                .markStage(AlertStage.EVALUATED, now - 3_000);
+
+        tracker.trigger(alert);
+
+        assertEquals(1, delivered.size());
+        assertEquals(1000, tracker.getLatency(AlertStage.INGEST).getMax());
+        assertEquals(5000, tracker.getLatency(AlertStage.QUEUED).getMax());
+        assertEquals(1000, tracker.getLatency(AlertStage.EVALUATED).getMax());
+        assertTrue(tracker.getLatency(AlertStage.DISPATCHED).getMax() >= 3000);
+        assertTrue(tracker.getTotalLatency().getMax() >= 10_000);
+        assertEquals(1, tracker.getLatencyByType("bloodpressure", null).getCount());
+        assertEquals(1, tracker.getLatencyByCondition("Critical Blood Pressure", AlertStage.QUEUED).getCount());
+        assertNull(tracker.getLatencyByType("ecg", null));
+        assertTrue(tracker.report().contains("condition Critical Blood Pressure"));
+    }
+
+    @Test
+    void testUnknownStagesAreSkipped() {
+        AlertLatencyTracker tracker = new AlertLatencyTracker(alert -> { });
+        tracker.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, System.currentTimeMillis()));
+        assertEquals(0, tracker.getLatency(AlertStage.INGEST).getCount());
+        assertEquals(0, tracker.getLatency(AlertStage.DISPATCHED).getCount());
+        assertEquals(1, tracker.getTotalLatency().getCount());
+
+        tracker.setEnabled(false);
+        tracker.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, System.currentTimeMillis()));
+        assertEquals(1, tracker.getTotalLatency().getCount());
+    }
+
+    @Test
+    void testRepeatSummariesAreRecordedSeparately() {
+        AlertLatencyTracker tracker = new AlertLatencyTracker(alert -> { });
+        long now = System.currentTimeMillis();
+        // A summary released when its 10 minute suppression window closed
+        Alert summary = new SaturationAlert("1", AlertCondition.LOW_SATURATION, now - 600_000)
+                .markStage(AlertStage.EVALUATED, now - 599_000)
+                .markRepeated(12);
+
+        tracker.trigger(summary);
+
+        assertEquals(0, tracker.getTotalLatency().getCount());
+        assertNull(tracker.getLatencyByCondition("Low Saturation", null));
+        assertEquals(1, tracker.getRepeatLatency(null).getCount());
+        assertTrue(tracker.getRepeatLatency(AlertStage.DISPATCHED).getMax() >= 599_000);
+        assertTrue(tracker.report().contains("repeats:"));
+    }
+
+    @Test
+    void testRuleSetMarksStages() {
+        AlertLatencyTracker tracker = new AlertLatencyTracker(alert -> { });
+        long now = System.currentTimeMillis();
+        PatientRecord sample = new PatientRecord(1, "200/80", "BloodPressure", now - 2000, now - 1500);
+
+        RuleSet.builtIn().evaluate("1", List.of(sample), tracker);
+
+        assertEquals(1, tracker.getLatency(AlertStage.INGEST).getCount());
+        assertEquals(500, tracker.getLatency(AlertStage.INGEST).getMax());
+        assertEquals(1, tracker.getLatency(AlertStage.EVALUATED).getCount());
+        assertEquals(1, tracker.getLatencyByCondition("Critical Blood Pressure", null).getCount());
+    }
+}
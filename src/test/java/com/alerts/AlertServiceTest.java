@@ -1,12 +1,14 @@
 package com.alerts;
 
 import com.alerts.factories.*;
+import com.alerts.rules.RuleSet;
 import com.alerts.strategies.*;
 import com.data_management.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,6 +107,154 @@ class AlertServiceTest {
         }
     }
 
+    @Test
+    void testEachSampleIsJudgedOnlyOnce() {
+        DataStorage freshStorage = new DataStorage();
+        long now = System.currentTimeMillis();
+        int patientId = 2;
+
+        freshStorage.addPatientData(patientId, "40", "heartrate", now - 2000);
+        Patient patient = freshStorage.getPatient(patientId);
+
+        alertService.evaluate(patient);
+        assertEquals(1, trigger.alerts.size(), "First evaluation should judge the new sample");
+
+        alertService.evaluate(patient);
+        assertEquals(1, trigger.alerts.size(), "A sample already judged must not alert again");
+
+        freshStorage.addPatientData(patientId, "130", "heartrate", now);
+        alertService.evaluate(patient);
+        assertEquals(2, trigger.alerts.size(), "Only the new sample should be judged");
+        assertEquals("High Heart Rate", trigger.alerts.get(1).getCondition());
+    }
+
+    @Test
+    void testMultiSignalStrategyAlignsSignals() {
+        DataStorage freshStorage = new DataStorage();
+        Map<String, AlertStrategy> strategies = new HashMap<>();
+        strategies.put("hypotensivehypoxemia", new HypotensiveHypoxemiaStrategy());
+        AlertService service = new AlertService(null, strategies, trigger);
+
+        long now = System.currentTimeMillis();
+        int patientId = 3;
+
+        // Low saturation two minutes after the low pressure: not at the same time
+        freshStorage.addPatientData(patientId, "85/60", "BloodPressure", now - 180_000);
+        freshStorage.addPatientData(patientId, "89%", "Saturation", now - 60_000);
+        service.evaluate(freshStorage.getPatient(patientId));
+        assertTrue(trigger.alerts.isEmpty(), "Readings further apart than the tolerance must not be paired");
+
+        // A new low pressure 30 seconds after the low saturation; stored out of order
+        freshStorage.addPatientData(patientId, "88%", "Saturation", now - 20_000);
+        freshStorage.addPatientData(patientId, "84/58", "BloodPressure", now - 30_000);
+        service.evaluate(freshStorage.getPatient(patientId));
+        assertEquals(1, trigger.alerts.size(), "One alert while the condition persists");
+        assertEquals("Hypotensive Hypoxemia", trigger.alerts.get(0).getCondition());
+        assertEquals(now - 30_000, trigger.alerts.get(0).getTimestamp());
+    }
+
+    @Test
+    void testOnlyDeclaredSignalsAreQueried() {
+        long now = System.currentTimeMillis();
+        List<String> queried = new ArrayList<>();
+        Patient patient = new Patient(4) {
+            @Override
+            public synchronized List<PatientRecord> getRecordsFrom(String recordType, int fromIndex) {
+                queried.add(recordType);
+                return super.getRecordsFrom(recordType, fromIndex);
+            }
+
+            @Override
+            public synchronized List<PatientRecord> getRecordsFrom(int fromIndex) {
+                throw new AssertionError("The service must not fetch all records");
+            }
+        };
+        patient.addRecord("5.2", "Cholesterol", now - 1000);
+        patient.addRecord("130", "HeartRate", now - 700_000);
+        patient.addRecord("40", "HeartRate", now - 2000);
+        patient.addRecord("45", "HeartRate", now - 1000);
+        patient.addRecord("140", "HeartRate", now);
+
+        List<List<PatientRecord>> received = new ArrayList<>();
+        AlertStrategy latestOnly = new AlertStrategy() {
+            @Override
+            public List<String> getSignals() {
+                return List.of("HeartRate");
+            }
+
+            @Override
+            public int getMaxSamples() {
+                return 2;
+            }
+
+            @Override
+            public void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger) {
+                received.add(newSamples);
+            }
+
+            @Override
+            public void resetPatient(String patientId) {
+            }
+        };
+        Map<String, AlertStrategy> strategies = new HashMap<>();
+        strategies.put("heartrate", new HeartRateStrategy());
+        strategies.put("latest", latestOnly);
+        new AlertService(null, strategies, trigger).evaluate(patient);
+
+        assertEquals(List.of("heartrate"), queried, "One narrow query for the one signal in use");
+        assertEquals(3, trigger.alerts.size(), "The sample older than the lookback window is skipped");
+        assertEquals(1, received.size());
+        assertEquals(List.of("45", "140"), received.get(0).stream()
+                .map(PatientRecord::getMeasurementValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testStrategiesAddedWhileEvaluating() throws Exception {
+        Patient patient = new Patient(42);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 50; i++) {
+            patient.addRecord("80", "Signal" + i, now);
+        }
+        AlertService service = new AlertService(RuleSet.builtIn(), alert -> { });
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Integer> seen = new ConcurrentHashMap<>();
+
+        Thread evaluator = new Thread(() -> {
+            try {
+                for (int round = 0; round < 2000; round++) {
+                    service.evaluate(patient);
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+        evaluator.start();
+        for (int i = 0; i < 50; i++) {
+            String signal = "Signal" + i;
+            service.addStrategy(new AlertStrategy() {
+                @Override
+                public List<String> getSignals() {
+                    return List.of(signal);
+                }
+
+                @Override
+                public void onSamples(String patientId, List<PatientRecord> newSamples, AlertTrigger trigger) {
+                    seen.merge(signal, newSamples.size(), Integer::sum);
+                }
+
+                @Override
+                public void resetPatient(String patientId) {
+                }
+            });
+        }
+        evaluator.join();
+        service.evaluate(patient);
+
+        assertTrue(failures.isEmpty(), "Evaluation failed: " + failures);
+        assertEquals(50, seen.size(), "Every added signal is read from its first record on");
+        assertTrue(seen.values().stream().allMatch(n -> n == 1));
+    }
+
     /**
      * A simple test implementation of AlertTrigger to store triggered alerts.
      */
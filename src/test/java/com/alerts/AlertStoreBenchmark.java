@@ -0,0 +1,48 @@
+package com.alerts;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many alerts per second the {@link AlertStore} can record when fed in
+ * dispatcher-sized batches; the target is at least 100k alerts per second.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile && java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main AlertStoreBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertStoreBenchmark {
+
+    private static final int BATCH = 256;
+
+    private static final AlertCondition[] CONDITIONS = AlertCondition.values();
+
+    private AlertStore store;
+    private final List<Alert> batch = new ArrayList<>(BATCH);
+    private long time = 0;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = new AlertStore();
+    }
+
+    /** One operation builds and stores {@value #BATCH} alerts with increasing timestamps. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void recordBatch() {
+        batch.clear();
+        for (int i = 0; i < BATCH; i++) {
+            long t = time++;
+            batch.add(new Alert(String.valueOf(t % 500), CONDITIONS[(int) (t % CONDITIONS.length)], t));
+        }
+        store.triggerBatch(batch);
+    }
+}
@@ -0,0 +1,116 @@
+package com.alerts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests indexed queries, retention and persistence of the alert history.
+ */
+class AlertStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void testQueriesByPatientConditionAndTimeAcrossChunks() {
+        AlertStore store = new AlertStore();
+        int count = 3 * AlertStore.CHUNK_ROWS + 100;
+        for (int i = 0; i < count; i++) {
+            // One alert per second, patients 0..9, saturation alerts for even patients
+            AlertCondition condition = i % 2 == 0 ? AlertCondition.LOW_SATURATION : AlertCondition.HIGH_HEART_RATE;
+            store.trigger(new Alert(String.valueOf(i % 10), condition, i * 1000L));
+        }
+        assertEquals(count, store.size());
+
+        List<AlertStore.Entry> patient = store.findByPatient("3", 4000_000L, 8000_000L);
+        assertEquals(400, patient.size(), "Patient 3 has every tenth alert of 4000 seconds");
+        assertTrue(patient.stream().allMatch(e -> e.getPatientId().equals("3")));
+        assertEquals(4003_000L, patient.get(0).getTimestamp());
+        assertEquals(7993_000L, patient.get(patient.size() - 1).getTimestamp());
+
+        List<AlertStore.Entry> saturation = store.findByCondition(AlertCondition.LOW_SATURATION, 0, 100_000L);
+        assertEquals(50, saturation.size());
+        assertEquals("Low Saturation", saturation.get(0).getCondition());
+        assertEquals(AlertCondition.LOW_SATURATION, saturation.get(0).getConditionCode());
+
+        assertEquals(10, store.findInRange(12_000_000L, 12_010_000L).size());
+        assertTrue(store.findByPatient("unknown", 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testCountPerHour() {
+        AlertStore store = new AlertStore();
+        for (int minute = 0; minute < 150; minute++) {
+            store.trigger(new SaturationAlert("1", AlertCondition.LOW_SATURATION, minute * 60_000L));
+            store.trigger(new HeartRateAlert("1", AlertCondition.LOW_HEART_RATE, minute * 60_000L));
+        }
+        assertArrayEquals(new long[]{60, 60, 30}, store.countByCondition(AlertCondition.LOW_SATURATION, 0, 3 * HOUR, HOUR));
+    }
+
+    @Test
+    void testLateAlertsAreReturnedInTimeOrder() {
+        AlertStore store = new AlertStore();
+        store.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, 3000));
+        store.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, 1000));
+        store.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, 2000));
+
+        List<Long> times = new ArrayList<>();
+        store.findByPatient("1", 0, 5000).forEach(e -> times.add(e.getTimestamp()));
+        assertEquals(List.of(1000L, 2000L, 3000L), times);
+        assertEquals(3, store.findByPatient("1", 0, 5000).get(0).getPriority());
+    }
+
+    @Test
+    void testRetentionEvictsOldestChunks() {
+        AlertStore store = new AlertStore(AlertStore.CHUNK_ROWS);
+        for (int i = 0; i < 3 * AlertStore.CHUNK_ROWS; i++) {
+            store.trigger(new Alert("1", "Custom", i));
+        }
+        assertTrue(store.size() >= AlertStore.CHUNK_ROWS && store.size() <= 2 * AlertStore.CHUNK_ROWS);
+        assertEquals(3L * AlertStore.CHUNK_ROWS, store.size() + store.getEvictedCount());
+        assertTrue(store.findInRange(0, AlertStore.CHUNK_ROWS).isEmpty(), "The oldest chunk is gone");
+        assertEquals("Custom", store.findInRange(0, Long.MAX_VALUE).get(0).getCondition());
+        assertNull(store.findInRange(0, Long.MAX_VALUE).get(0).getConditionCode());
+    }
+
+    @Test
+    void testJournalSurvivesRestart(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("alerts.journal");
+        try (AlertStore store = new AlertStore(1000, journal)) {
+            store.triggerBatch(List.of(
+                    new BloodPressureAlert("7", AlertCondition.CRITICAL_BLOOD_PRESSURE, 1000),
+                    new Alert("8", "Custom", 2000)));
+        }
+        try (AlertStore reopened = new AlertStore(1000, journal)) {
+            assertEquals(2, reopened.size());
+            AlertStore.Entry entry = reopened.findByCondition(AlertCondition.CRITICAL_BLOOD_PRESSURE, 0, 5000).get(0);
+            assertEquals("7", entry.getPatientId());
+            assertEquals(3, entry.getPriority());
+            reopened.trigger(new Alert("9", "Custom", 3000));
+        }
+        try (AlertStore again = new AlertStore(1000, journal)) {
+            assertEquals(3, again.size(), "The journal is appended to, not rewritten");
+        }
+    }
+
+    @Test
+    void testAnomalySignalIsStoredAndJournaled(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("alerts.journal");
+        try (AlertStore store = new AlertStore(1000, journal)) {
+            store.trigger(new AnomalyAlert("3", AlertCondition.BELOW_BASELINE, 1000, "HeartRate"));
+            store.trigger(new AnomalyAlert("3", AlertCondition.BELOW_BASELINE, 2000, "Saturation"));
+        }
+        try (AlertStore reopened = new AlertStore(1000, journal)) {
+            List<AlertStore.Entry> entries = reopened.findByCondition(AlertCondition.BELOW_BASELINE, 0, 5000);
+            assertEquals(2, entries.size());
+            assertEquals("HeartRate", entries.get(0).getSignal());
+            assertEquals("Below Patient Baseline: Saturation", entries.get(1).getCondition());
+            assertEquals(AlertCondition.BELOW_BASELINE, entries.get(1).getConditionCode());
+        }
+    }
+}
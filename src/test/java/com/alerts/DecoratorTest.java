@@ -107,4 +107,32 @@ class DecoratorTest {
         assertEquals("Stable (repeated x0)", decorated.getCondition());
     }
 
+    /**
+     * Tests that priority and repeat metadata can be carried on the alert itself.
+     */
+    @Test
+    void testInPlaceBoostAndRepeat() {
+        Alert alert = new ECGAlert("7", AlertCondition.ABNORMAL_ECG_PEAK, 1000L);
+        assertEquals(3, alert.getPriority());
+        assertEquals(-1, alert.getRepeatCount());
+
+        alert.boostPriority(1).markRepeated(4);
+        assertEquals(4, alert.getPriority());
+        assertEquals(4, alert.getRepeatCount());
+        assertEquals("Abnormal ECG Peak (repeated x4)", alert.getCondition());
+        assertEquals(AlertCondition.ABNORMAL_ECG_PEAK, alert.getConditionCode());
+
+        alert.boostPriority(10);
+        assertEquals(Alert.MAX_PRIORITY, alert.getPriority());
+    }
+
+    @Test
+    void testConditionCodeSurvivesDecoration() {
+        Alert base = new SaturationAlert("8", "Low Saturation", 1000L);
+        Alert decorated = new PriorityAlertDecorator(new RepeatedAlertDecorator(base, 2), 1);
+        assertEquals(AlertCondition.LOW_SATURATION, decorated.getConditionCode());
+        assertEquals(2, decorated.getRepeatCount());
+        assertEquals(4, decorated.getPriority());
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.alerts;
+
+import com.alerts.rules.RuleSet;
+import com.data_management.BloodPressureRecord;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests incremental early warning scores, escalation alerts and the ward ranking.
+ */
+class EarlyWarningScorerTest {
+
+    private static PatientRecord sample(int patientId, String type, String value, long time) {
+        return new PatientRecord(patientId, value, type, time);
+    }
+
+    @Test
+    void testSubScoresFollowNews2Bands() {
+        assertEquals(3, EarlyWarningScorer.score(0, 40));
+        assertEquals(1, EarlyWarningScorer.score(0, 95));
+        assertEquals(3, EarlyWarningScorer.score(0, 131));
+        assertEquals(2, EarlyWarningScorer.score(1, 93));
+        assertEquals(0, EarlyWarningScorer.score(1, 96));
+        assertEquals(2, EarlyWarningScorer.score(2, 95));
+        assertEquals(3, EarlyWarningScorer.score(2, 220));
+        assertEquals(2, EarlyWarningScorer.score(3, 22));
+        assertEquals(2, EarlyWarningScorer.score(4, 39.5));
+    }
+
+    @Test
+    void testAlertsOnEscalationOnly() {
+        EarlyWarningScorer scorer = new EarlyWarningScorer();
+        List<Alert> alerts = new ArrayList<>();
+
+        scorer.onSamples("1", Arrays.asList(
+                sample(1, "HeartRate", "100", 1),                          // 1
+                sample(1, "Saturation", "93%", 2),                         // 1 + 2 = 3
+                new BloodPressureRecord(1, 95, 60, 3, 0),                  // 3 + 2 = 5: medium
+                sample(1, "HeartRate", "135", 4),                          // 3 + 2 + 2 = 7: high
+                sample(1, "HeartRate", "80", 5),                           // 4: low
+                sample(1, "Saturation", "90", 6)), alerts::add);           // 3 + 2 = 5: medium again
+
+        assertEquals(Arrays.asList(AlertCondition.EARLY_WARNING_MEDIUM, AlertCondition.EARLY_WARNING_HIGH,
+                AlertCondition.EARLY_WARNING_MEDIUM),
+                alerts.stream().map(Alert::getConditionCode).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(3L, 4L, 6L), alerts.stream().map(Alert::getTimestamp).collect(Collectors.toList()));
+        assertEquals(4, alerts.get(1).getPriority());
+        assertEquals("earlywarning", alerts.get(1).getAlertType());
+        assertEquals(5, scorer.getScore("1").getScore());
+    }
+
+    @Test
+    void testRedParameterAlone() {
+        EarlyWarningScorer scorer = new EarlyWarningScorer();
+        List<Alert> alerts = new ArrayList<>();
+        scorer.onSamples("2", Arrays.asList(sample(2, "Saturation", "89", 1)), alerts::add);
+
+        assertEquals(1, alerts.size());
+        assertEquals(AlertCondition.EARLY_WARNING_RED_PARAMETER, alerts.get(0).getConditionCode());
+        assertEquals(EarlyWarningScorer.RiskLevel.RED_PARAMETER, scorer.getScore("2").getLevel());
+    }
+
+    @Test
+    void testWardRankingFollowsScores() {
+        EarlyWarningScorer scorer = new EarlyWarningScorer();
+        AlertTrigger ignore = alert -> { };
+        scorer.onSamples("1", Arrays.asList(sample(1, "HeartRate", "120", 1)), ignore);   // 2
+        scorer.onSamples("2", Arrays.asList(sample(2, "HeartRate", "70", 1)), ignore);    // 0
+        scorer.onSamples("3", Arrays.asList(sample(3, "Saturation", "91", 1)), ignore);   // 3
+
+        assertEquals(Arrays.asList("3", "1"), scorer.getHighestRisk(2).stream()
+                .map(EarlyWarningScorer.PatientScore::getPatientId).collect(Collectors.toList()));
+
+        scorer.onSamples("2", Arrays.asList(sample(2, "HeartRate", "35", 2)), ignore);    // 3, ties with 3
+        scorer.onSamples("3", Arrays.asList(sample(3, "Saturation", "97", 2)), ignore);   // 0
+        assertEquals(Arrays.asList("2", "1", "3"), scorer.getHighestRisk(10).stream()
+                .map(EarlyWarningScorer.PatientScore::getPatientId).collect(Collectors.toList()));
+
+        scorer.resetPatient("2");
+        assertEquals(2, scorer.getHighestRisk(10).size());
+        assertNull(scorer.getScore("2"));
+    }
+
+    @Test
+    void testAddedToAlertServiceBesideRules() {
+        DataStorage storage = new DataStorage();
+        long now = System.currentTimeMillis();
+        storage.addPatientData(4, "135", "HeartRate", now);
+        storage.addPatientData(4, "90%", "Saturation", now);
+        List<Alert> alerts = new ArrayList<>();
+        EarlyWarningScorer scorer = new EarlyWarningScorer();
+
+        new AlertService(RuleSet.builtIn(), alerts::add).addStrategy(scorer)
+                .evaluate(storage.getPatient(4));
+
+        assertTrue(alerts.stream().anyMatch(a -> a.getConditionCode() == AlertCondition.HIGH_HEART_RATE));
+        assertTrue(alerts.stream().anyMatch(a -> a.getConditionCode() == AlertCondition.EARLY_WARNING_MEDIUM));
+        assertEquals(6, scorer.getScore("4").getScore());
+    }
+}
@@ -0,0 +1,125 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the ward-wide tick evaluates every patient once per period, in parallel.
+ */
+class EvaluationSchedulerTest {
+
+    @Test
+    void testEveryPatientOncePerPeriod() {
+        DataStorage storage = new DataStorage();
+        for (int id = 1; id <= 1000; id++) {
+            storage.addPatientData(id, "80", "HeartRate", 1000L);
+        }
+
+        Map<Integer, AtomicInteger> calls = new ConcurrentHashMap<>();
+        Map<String, Boolean> threads = new ConcurrentHashMap<>();
+        EvaluationScheduler scheduler = new EvaluationScheduler(storage, patient -> {
+            calls.computeIfAbsent(patient.getPatientId(), k -> new AtomicInteger()).incrementAndGet();
+            threads.put(Thread.currentThread().getName(), true);
+        }, 20_000, 10, 4);
+
+        scheduler.runSlot(3);
+        assertEquals(100, calls.size(), "One slot holds a tenth of the patients");
+        assertTrue(calls.keySet().stream().allMatch(id -> scheduler.slotOf(id) == 3));
+
+        scheduler.runAll();
+        assertEquals(1000, calls.size());
+        assertTrue(calls.values().stream().allMatch(c -> c.get() >= 1 && c.get() <= 2));
+        assertEquals(1100, scheduler.getEvaluatedCount());
+        assertEquals(11, scheduler.getTickMillis().getCount());
+        scheduler.stop();
+    }
+
+    @Test
+    void testFailingPatientDoesNotStopTick() {
+        DataStorage storage = new DataStorage();
+        for (int id = 0; id < 10; id++) {
+            storage.addPatientData(id, "80", "HeartRate", 1000L);
+        }
+        EvaluationScheduler scheduler = new EvaluationScheduler(storage, patient -> {
+            if (patient.getPatientId() == 5) throw new IllegalStateException("boom");
+        }, 1000, 1, 2);
+
+        scheduler.runSlot(0);
+        assertEquals(9, scheduler.getEvaluatedCount());
+        assertEquals(1, scheduler.getFailureCount());
+        scheduler.stop();
+    }
+
+    @Test
+    void testUrgentPatientsFirstAndAtEveryTick() {
+        DataStorage storage = new DataStorage();
+        for (int id = 1; id <= 20; id++) {
+            storage.addPatientData(id, "80", "HeartRate", 1000L);
+        }
+        ActiveAlertTracker tracker = new ActiveAlertTracker(alert -> { }, 60_000, () -> 0L);
+        tracker.trigger(new HeartRateAlert("4", AlertCondition.HIGH_HEART_RATE, 1000L));
+        tracker.trigger(new ECGAlert("7", AlertCondition.ABNORMAL_ECG_PEAK, 1000L));
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        EvaluationScheduler scheduler = new EvaluationScheduler(storage, patient -> order.add(patient.getPatientId()),
+                20_000, 10, 1);
+        scheduler.setPatientPriorities(tracker::priorityOf, EvaluationScheduler.DEFAULT_URGENT_PRIORITY);
+
+        scheduler.runSlot(0);
+        assertEquals(7, order.get(0), "Urgent patient is evaluated before the slot");
+        assertEquals(3, order.size(), "Patient 7 plus patients 10 and 20 of slot 0");
+
+        order.clear();
+        scheduler.runAll();
+        assertEquals(10, order.stream().filter(id -> id == 7).count(), "Urgent patient is evaluated at every tick");
+        assertEquals(1, order.stream().filter(id -> id == 4).count(), "Low priority alerts do not make a patient urgent");
+        assertEquals(11, scheduler.getUrgentEvaluatedCount());
+        scheduler.stop();
+    }
+
+    @Test
+    void testCriticalBloodPressureMakesPatientUrgent() {
+        DataStorage storage = new DataStorage();
+        for (int id = 1; id <= 20; id++) {
+            storage.addPatientData(id, "80", "HeartRate", 1000L);
+        }
+        ActiveAlertTracker tracker = new ActiveAlertTracker(alert -> { }, 60_000, () -> 0L);
+        tracker.trigger(new BloodPressureAlert("5", AlertCondition.CRITICAL_BLOOD_PRESSURE, 1000L));
+        tracker.trigger(new BloodPressureAlert("6", AlertCondition.FALLING_DIASTOLIC_BP_TREND, 1000L));
+        tracker.trigger(new SaturationAlert("8", AlertCondition.LOW_SATURATION, 1000L));
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        EvaluationScheduler scheduler = new EvaluationScheduler(storage, patient -> order.add(patient.getPatientId()),
+                20_000, 10, 1);
+        scheduler.setPatientPriorities(tracker::priorityOf, EvaluationScheduler.DEFAULT_URGENT_PRIORITY);
+
+        scheduler.runAll();
+        assertEquals(10, order.stream().filter(id -> id == 5).count(), "Critical blood pressure is urgent");
+        assertEquals(10, order.stream().filter(id -> id == 8).count(), "Low saturation is urgent");
+        assertEquals(1, order.stream().filter(id -> id == 6).count(), "A blood pressure trend is not urgent");
+        scheduler.stop();
+    }
+
+    @Test
+    void testPeriodicTickRuns() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, "80", "HeartRate", 1000L);
+        AtomicInteger calls = new AtomicInteger();
+        EvaluationScheduler scheduler = new EvaluationScheduler(storage, (Patient p) -> calls.incrementAndGet(),
+                100, 2, 1);
+        scheduler.start();
+        Thread.sleep(500);
+        scheduler.stop();
+        assertTrue(calls.get() >= 2, "Patient should be evaluated several times, was " + calls.get());
+        assertTrue(scheduler.report().startsWith("evaluation: ticks="));
+    }
+}
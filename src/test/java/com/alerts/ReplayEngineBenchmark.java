@@ -0,0 +1,54 @@
+package com.alerts;
+
+import com.alerts.rules.RuleSet;
+import com.data_management.DataStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many recorded samples per second the {@link ReplayEngine} streams
+ * through storage and the built-in rules; the target is millions per second.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile && java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ReplayEngineBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayEngineBenchmark {
+
+    private static final int PATIENTS = 200;
+    private static final int SAMPLES_PER_SIGNAL = 1000;
+    private static final int SAMPLES = PATIENTS * SAMPLES_PER_SIGNAL * 4;
+
+    private DataStorage recorded;
+    private ReplayEngine engine;
+
+    @Setup
+    public void setUp() {
+        recorded = new DataStorage();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int patient = 1; patient <= PATIENTS; patient++) {
+            for (int i = 0; i < SAMPLES_PER_SIGNAL; i++) {
+                long t = 1714376789051L + i * 1000L;
+                recorded.addPatientData(patient, Double.toString(90 + random.nextInt(10)), "Saturation", t);
+                recorded.addPatientData(patient, Double.toString(50 + random.nextInt(80)), "HeartRate", t);
+                recorded.addPatientData(patient, Double.toString(random.nextDouble()), "ECG", t);
+                recorded.addBloodPressure(patient, 90 + random.nextInt(90), 60 + random.nextInt(60), t);
+            }
+        }
+        engine = new ReplayEngine(RuleSet::builtIn);
+    }
+
+    /** One operation replays {@value #SAMPLES} samples of {@value #PATIENTS} patients. */
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int replay() {
+        return engine.replay(recorded).getAlerts().size();
+    }
+}
@@ -0,0 +1,100 @@
+package com.alerts;
+
+import com.alerts.rules.RuleSet;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests back-testing rules on recorded data with a virtual clock.
+ */
+class ReplayEngineTest {
+
+    /** 2024-04-29, long outside the 10 minute window of the wall clock. */
+    private static final long RECORDED = 1714376789051L;
+
+    @Test
+    void testVirtualClockMakesHistoricalDataEvaluable() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, "97", "Saturation", RECORDED);
+        storage.addPatientData(1, "89", "Saturation", RECORDED + 5000);
+
+        List<Alert> live = new ArrayList<>();
+        new AlertService(RuleSet.builtIn(), live::add).evaluate(storage.getPatient(1));
+        assertTrue(live.isEmpty());
+
+        List<Alert> replayed = new ArrayList<>();
+        VirtualClock clock = new VirtualClock(RECORDED + 5000);
+        new AlertService(RuleSet.builtIn(), replayed::add).setClock(clock).evaluate(storage.getPatient(1));
+        assertEquals(2, replayed.size());
+
+        clock.advanceTo(RECORDED); // never goes backwards
+        assertEquals(RECORDED + 5000, clock.getAsLong());
+    }
+
+    @Test
+    void testScreenCountsValuesOutsideBandPerPatient() {
+        DataStorage storage = new DataStorage();
+        for (int i = 0; i < 100; i++) {
+            storage.addPatientData(1, i % 25 == 0 ? "130" : "80", "HeartRate", RECORDED + i * 1000L);
+            storage.addPatientData(2, "75", "HeartRate", RECORDED + i * 1000L);
+            storage.addPatientData(3, "150/" + (i == 50 ? 50 : 80), "BloodPressure", RECORDED + i * 1000L);
+        }
+
+        assertEquals(Map.of(1, 4), ReplayEngine.screen(storage, "HeartRate", 50, 120));
+        assertEquals(Map.of(3, 1), ReplayEngine.screen(storage, "BloodPressure.diastolic", 60, 120));
+        assertEquals(Map.of(3, 100), ReplayEngine.screen(storage, "bloodpressure.systolic", 90, 140));
+        assertTrue(ReplayEngine.screen(storage, "Saturation", 92, 100).isEmpty());
+    }
+
+    @Test
+    void testReplayRaisesAlertsAtRecordedTimes() {
+        DataStorage recorded = new DataStorage();
+        recorded.addPatientData(2, "99", "Saturation", RECORDED + 1000);
+        recorded.addPatientData(2, "97", "Saturation", RECORDED); // out of order on purpose
+        recorded.addPatientData(2, "90", "Saturation", RECORDED + 2000);
+        recorded.addPatientData(3, "40", "HeartRate", RECORDED + 500);
+
+        ReplayEngine.Result result = new ReplayEngine(RuleSet::builtIn, 2, 0).replay(recorded);
+
+        assertEquals(4, result.getSampleCount());
+        assertEquals(2, result.getPatientCount());
+        assertEquals(3, result.getStorage().getRecords(2, 0, Long.MAX_VALUE).size());
+        List<Alert> alerts = result.getAlerts();
+        assertEquals(3, alerts.size());
+        assertEquals("3", alerts.get(0).getPatientId());
+        assertEquals(RECORDED + 500, alerts.get(0).getTimestamp());
+        assertTrue(alerts.stream().skip(1).allMatch(a -> a.getTimestamp() == RECORDED + 2000));
+    }
+
+    @Test
+    void testReplayIsDeterministicAcrossThreadCounts() throws IOException {
+        DataStorage recorded = new DataStorage();
+        Random random = new Random(42);
+        for (int patient = 1; patient <= 50; patient++) {
+            for (int i = 0; i < 400; i++) {
+                long t = RECORDED + i * 1000L;
+                recorded.addPatientData(patient, Double.toString(88 + random.nextInt(12)), "Saturation", t);
+                recorded.addPatientData(patient, Double.toString(40 + random.nextInt(100)), "HeartRate", t);
+                recorded.addBloodPressure(patient, 85 + random.nextInt(100), 55 + random.nextInt(70), t);
+            }
+        }
+
+        StringBuilder single = new StringBuilder();
+        ReplayEngine.Result first = new ReplayEngine(RuleSet::builtIn, 1, 5000).replay(recorded);
+        first.writeAlerts(single);
+        StringBuilder parallel = new StringBuilder();
+        new ReplayEngine(RuleSet::builtIn, 4, 5000).replay(recorded).writeAlerts(parallel);
+
+        assertEquals(60_000, first.getSampleCount());
+        assertFalse(first.getAlerts().isEmpty());
+        assertEquals(single.toString(), parallel.toString());
+    }
+}
@@ -0,0 +1,251 @@
+package com.alerts.dispatch;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertTrigger;
+import com.alerts.BloodPressureAlert;
+import com.alerts.ECGAlert;
+import com.alerts.HeartRateAlert;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests asynchronous, batched, priority-ordered alert delivery with per-sink queues.
+ */
+class AlertDispatcherTest {
+
+    @Test
+    void testSlowSinkDoesNotBlockOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Alert> fast = new CopyOnWriteArrayList<>();
+        AlertTrigger slow = alert -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        AlertDispatcher dispatcher = new AlertDispatcher(16, 4)
+                .addSink("fast", fast::add, OverflowPolicy.BLOCK)
+                .addSink("slow", slow, OverflowPolicy.DROP_NEWEST);
+        dispatcher.start();
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, i));
+        }
+        waitFor(() -> fast.size() == 100);
+        assertEquals(100, dispatcher.getDeliveredCount("fast"));
+        assertTrue(dispatcher.getDroppedCount("slow") > 0, "Full slow queue drops non-critical alerts");
+
+        release.countDown();
+        dispatcher.stop();
+        assertEquals(100, dispatcher.getDeliveredCount("slow") + dispatcher.getDroppedCount("slow"));
+        assertEquals(0, dispatcher.getQueueDepth("slow"));
+        assertEquals(100, dispatcher.getLagMicros("fast").getCount());
+    }
+
+    @Test
+    void testCriticalAlertsAreNeverDropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertTrigger blocked = alert -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(alert);
+        };
+
+        AlertDispatcher dispatcher = new AlertDispatcher(2, 1)
+                .addSink("pager", blocked, OverflowPolicy.DROP_OLDEST);
+        dispatcher.start();
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, i));
+        }
+        release.countDown();
+        dispatcher.stop();
+
+        assertEquals(50, received.size());
+        assertEquals(0, dispatcher.getDroppedCount("pager"));
+    }
+
+    @Test
+    void testDeliversInBatches() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        AlertTrigger sink = new AlertTrigger() {
+            @Override
+            public void trigger(Alert alert) {
+                batchSizes.add(1);
+            }
+
+            @Override
+            public void triggerBatch(List<Alert> alerts) {
+                batchSizes.add(alerts.size());
+            }
+        };
+
+        AlertDispatcher dispatcher = new AlertDispatcher(1024, 64).addSink("batch", sink, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 200; i++) {
+            dispatcher.trigger(new HeartRateAlert("1", AlertCondition.LOW_HEART_RATE, i));
+        }
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(200, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(n -> n <= 64));
+        assertTrue(batchSizes.size() < 200, "Queued alerts are delivered together");
+    }
+
+    @Test
+    void testHigherPriorityOvertakesQueuedRoutineAlerts() {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(1024, 64).addSink("ordered", received::add, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, i));
+        }
+        dispatcher.trigger(new ECGAlert("2", AlertCondition.ABNORMAL_ECG_PEAK, 10));
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(11, received.size());
+        assertEquals("2", received.get(0).getPatientId(), "The critical alert is delivered first");
+    }
+
+    @Test
+    void testRoutineAlertPastItsBudgetIsNotStarved() {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(1024, 64)
+                .setLatencyBudget(1, 0)
+                .setLatencyBudget(3, 60_000)
+                .addSink("ordered", received::add, OverflowPolicy.BLOCK);
+        dispatcher.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, 0));
+        dispatcher.trigger(new ECGAlert("2", AlertCondition.ABNORMAL_ECG_PEAK, 0));
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals("1", received.get(0).getPatientId(), "Earliest deadline first");
+        assertEquals(1, dispatcher.getBudgetMissCount("ordered", 1));
+        assertEquals(0, dispatcher.getBudgetMissCount("ordered", 3));
+    }
+
+    @Test
+    void testDropOldestEvictsLowestPriorityFirst() {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(2, 8).addSink("small", received::add, OverflowPolicy.DROP_OLDEST);
+        dispatcher.trigger(new BloodPressureAlert("1", AlertCondition.RISING_SYSTOLIC_BP_TREND, 0));
+        dispatcher.trigger(new HeartRateAlert("2", AlertCondition.HIGH_HEART_RATE, 1));
+        dispatcher.trigger(new BloodPressureAlert("3", AlertCondition.RISING_SYSTOLIC_BP_TREND, 2));
+        dispatcher.trigger(new HeartRateAlert("4", AlertCondition.LOW_HEART_RATE, 3));
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(2, dispatcher.getDroppedCount("small"));
+        assertEquals(List.of("1", "3"), received.stream().map(Alert::getPatientId).collect(Collectors.toList()),
+                "The heart rate alerts have the lowest priority");
+    }
+
+    @Test
+    void testCriticalBloodPressureSurvivesDropOldestAndGoesFirst() {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(2, 8).addSink("small", received::add, OverflowPolicy.DROP_OLDEST);
+        dispatcher.trigger(new BloodPressureAlert("1", AlertCondition.CRITICAL_BLOOD_PRESSURE, 0));
+        dispatcher.trigger(new BloodPressureAlert("2", AlertCondition.HYPOTENSIVE_HYPOXEMIA, 1));
+        for (int i = 0; i < 10; i++) {
+            dispatcher.trigger(new BloodPressureAlert("3", AlertCondition.RISING_SYSTOLIC_BP_TREND, 2 + i));
+        }
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(8, dispatcher.getDroppedCount("small"), "Only the trend alerts compete for capacity");
+        assertEquals(4, received.size());
+        assertEquals(List.of("1", "2"), received.subList(0, 2).stream().map(Alert::getPatientId)
+                .collect(Collectors.toList()), "Critical blood pressure alerts overtake the trends");
+    }
+
+    @Test
+    void testCriticalAlertWakesIdleSinkPromptly() throws Exception {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher().addSink("pager", received::add, OverflowPolicy.DROP_OLDEST);
+        dispatcher.start();
+        Thread.sleep(50); // let the delivery thread go idle
+        dispatcher.trigger(new BloodPressureAlert("1", AlertCondition.CRITICAL_BLOOD_PRESSURE, 0));
+        waitFor(() -> received.size() == 1);
+        dispatcher.stop();
+        assertEquals(0, dispatcher.getQueueDepth("pager"));
+    }
+
+    @Test
+    void testStopReleasesBlockedProducers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        AlertTrigger stuck = alert -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AlertDispatcher dispatcher = new AlertDispatcher(1, 1).addSink("stuck", stuck, OverflowPolicy.BLOCK);
+        dispatcher.start();
+        dispatcher.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, 0));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        dispatcher.trigger(new HeartRateAlert("2", AlertCondition.HIGH_HEART_RATE, 0));
+
+        Thread producer = new Thread(() ->
+                dispatcher.trigger(new HeartRateAlert("3", AlertCondition.HIGH_HEART_RATE, 0)));
+        producer.start();
+        waitFor(() -> producer.getState() == Thread.State.WAITING);
+
+        Thread stopper = new Thread(dispatcher::stop);
+        stopper.start();
+        producer.join(1000);
+        assertFalse(producer.isAlive(), "stop() releases a producer blocked on a full sink");
+
+        release.countDown();
+        stopper.join();
+        dispatcher.trigger(new HeartRateAlert("4", AlertCondition.HIGH_HEART_RATE, 0));
+        dispatcher.trigger(new BloodPressureAlert("5", AlertCondition.CRITICAL_BLOOD_PRESSURE, 0));
+        assertEquals(2, dispatcher.getDeliveredCount("stuck"));
+        assertEquals(3, dispatcher.getDroppedCount("stuck"), "Alerts after stop() are dropped");
+        assertEquals(0, dispatcher.getQueueDepth("stuck"));
+    }
+
+    @Test
+    void testSampleToDeliveryLatencyPerPriority() {
+        List<Alert> received = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher().addSink("console", received::add, OverflowPolicy.BLOCK);
+        long sampleTime = System.currentTimeMillis() - 1500;
+        dispatcher.trigger(new ECGAlert("1", AlertCondition.ABNORMAL_ECG_PEAK, sampleTime));
+        dispatcher.trigger(new HeartRateAlert("1", AlertCondition.HIGH_HEART_RATE, sampleTime));
+        dispatcher.trigger(new HeartRateAlert("2", AlertCondition.HIGH_HEART_RATE, sampleTime));
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(1, dispatcher.getDeliveryLatencyMillis("console", 3).getCount());
+        assertEquals(2, dispatcher.getDeliveryLatencyMillis("console", 1).getCount());
+        assertEquals(0, dispatcher.getDeliveryLatencyMillis("console", 5).getCount());
+        assertTrue(dispatcher.getDeliveryLatencyMillis("console", 3).getMax() >= 1500);
+        assertTrue(dispatcher.report().contains("priority 3: budget=500ms"));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.getDeliveryLatencyMillis("console", 6));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean(), "Timed out waiting for delivery");
+    }
+}
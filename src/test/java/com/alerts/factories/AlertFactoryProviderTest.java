@@ -0,0 +1,34 @@
+package com.alerts.factories;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.BloodPressureAlert;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that factories are shared and create alerts for condition codes.
+ */
+class AlertFactoryProviderTest {
+
+    @Test
+    void testFactoriesAreCached() {
+        assertSame(AlertFactoryProvider.getFactory("ecg"), AlertFactoryProvider.getFactory(" ECG "));
+        assertSame(AlertFactoryProvider.getFactory("bloodpressure"),
+                AlertFactoryProvider.getFactory(AlertCondition.HYPOTENSIVE_HYPOXEMIA));
+        assertThrows(IllegalArgumentException.class, () -> AlertFactoryProvider.getFactory("unknown"));
+    }
+
+    @Test
+    void testCreateAlertFromConditionCode() {
+        AlertFactory factory = AlertFactoryProvider.getFactory(AlertCondition.RISING_SYSTOLIC_BP_TREND);
+        Alert alert = factory.createAlert("3", AlertCondition.RISING_SYSTOLIC_BP_TREND, 500L);
+
+        assertTrue(alert instanceof BloodPressureAlert);
+        assertEquals("Rising Systolic BP Trend", alert.getCondition());
+        assertSame(AlertCondition.RISING_SYSTOLIC_BP_TREND.getLabel(), alert.getCondition());
+        assertEquals(AlertCondition.RISING_SYSTOLIC_BP_TREND, alert.getConditionCode());
+        assertEquals(2, alert.getPriority());
+    }
+}
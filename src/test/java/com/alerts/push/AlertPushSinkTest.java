@@ -0,0 +1,145 @@
+package com.alerts.push;
+
+import com.alerts.AlertCondition;
+import com.alerts.ECGAlert;
+import com.alerts.HeartRateAlert;
+import com.alerts.SaturationAlert;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests subscriber filtering, coalescing and slow client handling of the push sinks.
+ */
+class AlertPushSinkTest {
+
+    /** A subscriber that records frames and can pretend to be busy. */
+    private static final class RecordingSubscriber extends AlertPushSink.Subscriber {
+        final List<String> frames = new ArrayList<>();
+        boolean busy = false;
+
+        @Override
+        protected boolean isBusy() {
+            return busy;
+        }
+
+        @Override
+        protected void send(String frame) {
+            frames.add(frame);
+        }
+    }
+
+    /** A sink whose flusher effectively never runs, so tests flush by hand. */
+    private static final class ManualSink extends AlertPushSink {
+        ManualSink(int maxPending) {
+            this(id -> id <= 10 ? "ICU" : "Cardio", maxPending);
+        }
+
+        ManualSink(IntFunction<String> wardOf, int maxPending) {
+            super(wardOf, Long.MAX_VALUE / 2, maxPending);
+        }
+
+        void subscribe(AlertPushSink.Subscriber subscriber, String command) {
+            addSubscriber(subscriber);
+            onCommand(subscriber, command);
+        }
+    }
+
+    @Test
+    void testFiltersAreAppliedPerSubscriber() {
+        ManualSink sink = new ManualSink(100);
+        RecordingSubscriber all = new RecordingSubscriber();
+        RecordingSubscriber icu = new RecordingSubscriber();
+        RecordingSubscriber urgent = new RecordingSubscriber();
+        RecordingSubscriber patients = new RecordingSubscriber();
+        sink.subscribe(all, "subscribe");
+        sink.subscribe(icu, "subscribe ward=icu");
+        sink.subscribe(urgent, "subscribe priority=3");
+        sink.subscribe(patients, "subscribe patients=12,20");
+
+        sink.trigger(new HeartRateAlert("5", AlertCondition.HIGH_HEART_RATE, 1));
+        sink.trigger(new ECGAlert("12", AlertCondition.ABNORMAL_ECG_PEAK, 2));
+        sink.flush();
+        sink.close();
+
+        assertEquals(List.of("5,1,1,High Heart Rate\n12,2,3,Abnormal ECG Peak\n"), all.frames);
+        assertEquals(List.of("5,1,1,High Heart Rate\n"), icu.frames);
+        assertEquals(List.of("12,2,3,Abnormal ECG Peak\n"), urgent.frames);
+        assertEquals(List.of("12,2,3,Abnormal ECG Peak\n"), patients.frames);
+        assertEquals(4, sink.getFramesSent());
+        assertEquals(5, sink.getLinesSent());
+    }
+
+    @Test
+    void testBusySubscriberCoalescesAndDropsOldest() {
+        ManualSink sink = new ManualSink(2);
+        RecordingSubscriber slow = new RecordingSubscriber();
+        sink.subscribe(slow, "subscribe");
+        slow.busy = true;
+
+        for (int t = 1; t <= 3; t++) {
+            sink.trigger(new HeartRateAlert("1", AlertCondition.LOW_HEART_RATE, t));
+            sink.flush();
+        }
+        assertTrue(slow.frames.isEmpty());
+
+        slow.busy = false;
+        sink.flush();
+        sink.close();
+        assertEquals(List.of("1,2,1,Low Heart Rate\n1,3,1,Low Heart Rate\n"), slow.frames);
+        assertEquals(1, sink.getDroppedCount());
+    }
+
+    @Test
+    void testWardSubscriptionNeedsWardMapping() {
+        ManualSink sink = new ManualSink(null, 100);
+        RecordingSubscriber icu = new RecordingSubscriber();
+        RecordingSubscriber urgent = new RecordingSubscriber();
+        sink.subscribe(icu, "subscribe ward=ICU priority=3");
+        sink.subscribe(urgent, "subscribe priority=3");
+
+        assertFalse(sink.hasWardMapping());
+        assertSame(SubscriberFilter.ALL, icu.getFilter(), "The ward subscription is rejected");
+        assertEquals("subscribe priority=3", urgent.getFilter().toString());
+        sink.close();
+    }
+
+    @Test
+    void testParseSubscription() {
+        assertThrows(IllegalArgumentException.class, () -> SubscriberFilter.parse("subscribe colour=red"));
+        assertThrows(IllegalArgumentException.class, () -> SubscriberFilter.parse("unsubscribe"));
+        assertEquals("subscribe ward=ICU patients=3,7 priority=2",
+                SubscriberFilter.parse("subscribe priority=2 patients=7,3 ward=ICU").toString());
+    }
+
+    @Test
+    void testTcpClientReceivesSubscribedAlerts() throws Exception {
+        TcpAlertSink sink = new TcpAlertSink(0, null, 5, 100);
+        try (Socket socket = new Socket("localhost", sink.getPort());
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out.println("subscribe patients=7");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sink.getSubscriberCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100); // let the subscription arrive
+
+            sink.trigger(new SaturationAlert("3", AlertCondition.LOW_SATURATION, 1));
+            sink.trigger(new SaturationAlert("7", AlertCondition.LOW_SATURATION, 2));
+            assertEquals("7,2,3,Low Saturation", in.readLine());
+        } finally {
+            sink.close();
+        }
+    }
+}
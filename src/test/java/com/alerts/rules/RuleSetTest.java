@@ -0,0 +1,128 @@
+package com.alerts.rules;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests parsing of rule files and single-pass evaluation of compiled rule sets.
+ */
+class RuleSetTest {
+
+    private static PatientRecord record(String value, String type, long timestamp) {
+        return new PatientRecord(1, value, type, timestamp);
+    }
+
+    private static List<AlertCondition> evaluate(RuleSet rules, PatientRecord... records) {
+        List<Alert> alerts = new ArrayList<>();
+        rules.evaluate("1", Arrays.asList(records), alerts::add);
+        return alerts.stream().map(Alert::getConditionCode).collect(Collectors.toList());
+    }
+
+    @Test
+    void testParseAllRuleKinds() throws Exception {
+        String text = "# comment\n"
+                + "\n"
+                + "threshold HIGH_HEART_RATE HeartRate > 120\n"
+                + "trend RISING_SYSTOLIC_BP_TREND BloodPressure.systolic rising 10 3\n"
+                + "rate RAPID_SATURATION_DROP Saturation falling 5 10m\n"
+                + "cross HYPOTENSIVE_HYPOXEMIA BloodPressure.systolic < 90 Saturation < 92 600s\n"
+                + "ecgpeak ABNORMAL_ECG_PEAK ECG\n";
+        List<Rule> rules = RuleParser.parse(new StringReader(text));
+
+        assertEquals(5, rules.size());
+        assertEquals(AlertCondition.HIGH_HEART_RATE, rules.get(0).getCondition());
+        assertEquals("BloodPressure.systolic", rules.get(1).getSignals().get(0).toString());
+        assertEquals(2, rules.get(3).getSignals().size());
+        assertEquals(600_000, RuleParser.duration("10m"));
+    }
+
+    @Test
+    void testParseErrorsNameTheLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RuleParser.parse(new StringReader("threshold HIGH_HEART_RATE HeartRate > 120\nfoo BAR\n")));
+        assertTrue(e.getMessage().startsWith("Line 2"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleParser.parse(new StringReader("threshold NOT_A_CONDITION HeartRate > 1\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleParser.parse(new StringReader("threshold HIGH_HEART_RATE HeartRate > \n")));
+    }
+
+    @Test
+    void testBuiltInRulesInOnePass() {
+        RuleSet rules = RuleSet.builtIn();
+        List<AlertCondition> raised = evaluate(rules,
+                record("100/70", "BloodPressure", 1000),
+                record("97%", "Saturation", 1500),
+                record("115/75", "BloodPressure", 2000),
+                record("150", "HeartRate", 2500),
+                record("85/50", "BloodPressure", 3000),
+                record("89%", "Saturation", 3500));
+
+        assertEquals(Arrays.asList(
+                AlertCondition.HIGH_HEART_RATE,
+                AlertCondition.CRITICAL_BLOOD_PRESSURE,
+                AlertCondition.LOW_SATURATION,
+                AlertCondition.RAPID_SATURATION_DROP,
+                AlertCondition.HYPOTENSIVE_HYPOXEMIA), raised);
+    }
+
+    @Test
+    void testConditionRaisedOncePerSample() {
+        RuleSet rules = RuleSet.builtIn().forRecordTypes("BloodPressure");
+        // Systolic and diastolic both critical: a single alert
+        assertEquals(List.of(AlertCondition.CRITICAL_BLOOD_PRESSURE),
+                evaluate(rules, record("190/130", "bloodpressure", 1000)));
+        assertTrue(rules.getRules().stream().noneMatch(r -> r.getCondition() == AlertCondition.HYPOTENSIVE_HYPOXEMIA));
+    }
+
+    @Test
+    void testStateIsKeptBetweenBatchesAndReset() {
+        RuleSet rules = RuleSet.builtIn().forRecordTypes("BloodPressure");
+        evaluate(rules, record("100/70", "BloodPressure", 1000), record("115/75", "BloodPressure", 2000));
+        assertEquals(List.of(AlertCondition.RISING_SYSTOLIC_BP_TREND),
+                evaluate(rules, record("130/80", "BloodPressure", 3000)));
+
+        rules.resetPatient("1");
+        assertTrue(evaluate(rules, record("145/85", "BloodPressure", 4000)).isEmpty());
+    }
+
+    @Test
+    void testSingleValueIsNotABloodPressure() {
+        RuleSet rules = RuleSet.builtIn().forRecordTypes("BloodPressure");
+        assertTrue(evaluate(rules, record("200", "BloodPressure", 1000)).isEmpty(),
+                "A lone value is not read as systolic, as before the rules");
+        evaluate(rules, record("100/70", "BloodPressure", 2000), record("115/75", "BloodPressure", 3000));
+        assertEquals(List.of(AlertCondition.RISING_SYSTOLIC_BP_TREND),
+                evaluate(rules, record("60", "BloodPressure", 4000), record("130/80", "BloodPressure", 5000)),
+                "A skipped value does not break a trend");
+        rules.resetPatient("1");
+        assertEquals(List.of(AlertCondition.CRITICAL_BLOOD_PRESSURE),
+                evaluate(rules, record("180.5/80", "BloodPressure", 6000)), "Decimal components are read");
+    }
+
+    @Test
+    void testUnparsableValuesAreSkipped() {
+        RuleSet rules = RuleSet.builtIn();
+        assertTrue(evaluate(rules,
+                record("abc", "HeartRate", 1000),
+                record("120/80/60", "BloodPressure", 1000),
+                record("", "Saturation", 1000),
+                record("5", "Cholesterol", 1000)).isEmpty());
+    }
+
+    @Test
+    void testConditionsFitTheRaisedBitmask() {
+        assertTrue(AlertCondition.values().length <= Long.SIZE,
+                "RuleSet dedups conditions per sample in a long; use a wider set before adding more");
+    }
+}
@@ -0,0 +1,115 @@
+package com.alerts.strategies;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AnomalyAlert;
+import com.data_management.BloodPressureRecord;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests anomaly detection against each patient's own baseline.
+ */
+class AnomalyDetectionStrategyTest {
+
+    private static final long START = 1714376789051L;
+
+    private static List<PatientRecord> heartRates(int patientId, double mean, int count, Random random) {
+        List<PatientRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double value = mean + random.nextGaussian() * 2;
+            records.add(new PatientRecord(patientId, Double.toString(value), "HeartRate", START + i * 1000L));
+        }
+        return records;
+    }
+
+    private static PatientRecord heartRate(int patientId, double value, long time) {
+        return new PatientRecord(patientId, Double.toString(value), "HeartRate", time);
+    }
+
+    @Test
+    void testSpikeFromOwnBaseline() {
+        AnomalyDetectionStrategy strategy = new AnomalyDetectionStrategy();
+        List<Alert> alerts = new ArrayList<>();
+        Random random = new Random(1);
+        strategy.onSamples("1", heartRates(1, 60, 600, random), alerts::add);
+        strategy.onSamples("2", heartRates(2, 100, 600, random), alerts::add);
+        assertTrue(alerts.isEmpty());
+
+        // 100 is far above patient 1's norm but ordinary for patient 2
+        strategy.onSamples("1", Collections.singletonList(heartRate(1, 100, START + 600_000)), alerts::add);
+        strategy.onSamples("2", Collections.singletonList(heartRate(2, 100, START + 600_000)), alerts::add);
+
+        assertEquals(1, alerts.size());
+        assertEquals("1", alerts.get(0).getPatientId());
+        assertEquals(AlertCondition.ABOVE_BASELINE, alerts.get(0).getConditionCode());
+        assertEquals("Above Patient Baseline: HeartRate", alerts.get(0).getCondition());
+        assertEquals("HeartRate", ((AnomalyAlert) alerts.get(0)).getSignal());
+        assertEquals(60, strategy.getBaseline("1", "heartrate").getBaseline(START), 1);
+    }
+
+    @Test
+    void testLastingSmallShiftIsReportedAsDrift() {
+        AnomalyDetectionStrategy strategy = new AnomalyDetectionStrategy();
+        List<Alert> alerts = new ArrayList<>();
+        Random random = new Random(2);
+        strategy.onSamples("1", heartRates(1, 70, 600, random), alerts::add);
+        assertTrue(alerts.isEmpty());
+
+        // Two standard deviations lower: no single sample is a spike, but the sum grows
+        List<PatientRecord> shifted = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            shifted.add(heartRate(1, 66 + random.nextGaussian() * 0.5, START + (600 + i) * 1000L));
+        }
+        strategy.onSamples("1", shifted, alerts::add);
+
+        assertFalse(alerts.isEmpty());
+        assertEquals(AlertCondition.FALLING_FROM_BASELINE, alerts.get(0).getConditionCode());
+    }
+
+    @Test
+    void testBloodPressureComponentsHaveSeparateBaselines() {
+        AnomalyDetectionStrategy strategy = new AnomalyDetectionStrategy();
+        List<Alert> alerts = new ArrayList<>();
+        Random random = new Random(3);
+        List<PatientRecord> readings = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            readings.add(new BloodPressureRecord(5, 120 + random.nextGaussian() * 3, 80 + random.nextGaussian() * 3,
+                    START + i * 60_000L, 0));
+        }
+        readings.add(new BloodPressureRecord(5, 121, 55, START + 300 * 60_000L, 0));
+        strategy.onSamples("5", readings, alerts::add);
+
+        assertEquals(1, alerts.size());
+        assertEquals("Below Patient Baseline: BloodPressure.diastolic", alerts.get(0).getCondition());
+    }
+
+    @Test
+    void testDailyRhythmIsLearned() {
+        AnomalyDetectionStrategy strategy = new AnomalyDetectionStrategy(
+                Collections.singletonList("HeartRate"), 0.01, 5.0, 0.5, 10.0, 24);
+        List<Alert> alerts = new ArrayList<>();
+        Random random = new Random(4);
+        long day = 24 * 60 * 60 * 1000L;
+        long start = (START / day) * day;
+        List<PatientRecord> samples = new ArrayList<>();
+        for (long t = start; t < start + 14 * day; t += 60_000) {
+            boolean night = (t - start) % day < day / 3;
+            samples.add(heartRate(1, (night ? 55 : 75) + random.nextGaussian() * 2, t));
+        }
+        strategy.onSamples("1", samples, alerts::add);
+
+        PatientBaseline baseline = strategy.getBaseline("1", "HeartRate");
+        assertEquals(55, baseline.getBaseline(start + 14 * day + day / 6), 3);
+        assertEquals(75, baseline.getBaseline(start + 14 * day + day / 2), 3);
+        // Once the rhythm is learned, waking up is no longer a deviation
+        assertTrue(alerts.stream().noneMatch(a -> a.getTimestamp() > start + 7 * day), alerts.toString());
+    }
+}
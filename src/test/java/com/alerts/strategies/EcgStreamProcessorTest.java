@@ -0,0 +1,76 @@
+package com.alerts.strategies;
+
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Feeds a synthetic 250 Hz ECG into the streaming processor and checks
+ * beat detection, R-R analytics and abnormal peak detection.
+ */
+class EcgStreamProcessorTest {
+
+    private static final long SAMPLE_MILLIS = 4; // 250 Hz
+
+    @Test
+    void testBeatsHeartRateAndVariability() {
+        EcgStreamProcessor processor = new EcgStreamProcessor();
+        int abnormal = 0;
+
+        // R-R alternates between 780 and 820 ms: mean 800 ms (75 bpm), successive difference 40 ms
+        long t = 0;
+        long nextBeat = 400;
+        int beat = 0;
+        while (t < 60_000) {
+            double value = 0.0;
+            long offset = t - nextBeat;
+            if (offset == -SAMPLE_MILLIS || offset == SAMPLE_MILLIS) value = 0.3;
+            if (offset == 0) value = 1.0;
+            if (offset > SAMPLE_MILLIS) {
+                nextBeat += (beat++ % 2 == 0) ? 780 : 820;
+            }
+            if (processor.onSample(t, value)) abnormal++;
+            t += SAMPLE_MILLIS;
+        }
+
+        assertTrue(processor.getBeatCount() >= 70, "Expected about 75 beats, got " + processor.getBeatCount());
+        assertEquals(75.0, processor.getHeartRateBpm(), 2.0);
+        assertEquals(40.0, processor.getRmssdMillis(), 2.0);
+        assertTrue(abnormal <= 1, "Normal R waves must not be reported as abnormal peaks");
+
+        // A spike well above the usual beat height is abnormal
+        assertTrue(processor.onSample(t, 2.0));
+        assertFalse(processor.onSample(t + SAMPLE_MILLIS, 2.1), "One alert per excursion");
+    }
+
+    @Test
+    void testSpikeAfterFewSamples() {
+        EcgStreamProcessor processor = new EcgStreamProcessor();
+        assertFalse(processor.onSample(0, 0.5));
+        assertFalse(processor.onSample(10_000, 0.6));
+        assertFalse(processor.onSample(20_000, 0.5));
+        assertFalse(processor.onSample(30_000, 0.6));
+        assertTrue(processor.onSample(50_000, 1.2));
+    }
+
+    @Test
+    void testStrategyExposesPatientProcessor() {
+        ECGStrategy strategy = new ECGStrategy();
+        List<PatientRecord> samples = new ArrayList<>();
+        for (long t = 0; t < 20_000; t += SAMPLE_MILLIS) {
+            samples.add(new PatientRecord(1, t % 800 == 400 ? "1.0" : "0.0", "ECG", t));
+        }
+        strategy.onSamples("1", samples, alert -> { });
+
+        EcgStreamProcessor processor = strategy.getProcessor("1");
+        assertTrue(processor.getBeatCount() >= 20, "Beats seen by the rule, got " + processor.getBeatCount());
+        assertEquals(75.0, processor.getHeartRateBpm(), 2.0);
+        assertSame(processor, strategy.getProcessor("1"));
+        strategy.resetPatient("1");
+        assertEquals(0, strategy.getProcessor("1").getBeatCount());
+    }
+}
@@ -0,0 +1,78 @@
+package com.alerts.strategies;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rapid-drop detection over one evaluation window of 1 Hz saturation
+ * readings: the previous nested i/j loop (parsing inside the inner loop) against
+ * the monotonic-deque {@link SlidingWindowMax}.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile && java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main SaturationDropBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaturationDropBenchmark {
+
+    /** Window length in minutes; at 1 Hz this is 60, 600 or 3600 readings. */
+    @Param({"1", "10", "60"})
+    public int windowMinutes;
+
+    private List<String> values;
+    private long[] timestamps;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int count = windowMinutes * 60;
+        values = new ArrayList<>(count);
+        timestamps = new long[count];
+        int saturation = 97;
+        for (int i = 0; i < count; i++) {
+            saturation = Math.min(100, Math.max(90, saturation + random.nextInt(3) - 1));
+            values.add(saturation + ".0%");
+            timestamps[i] = i * 1000L;
+        }
+    }
+
+    @Benchmark
+    public void nestedLoop(Blackhole bh) {
+        int alerts = 0;
+        for (int i = 0; i < values.size(); i++) {
+            double val = parsePercentage(values.get(i));
+            for (int j = i + 1; j < values.size(); j++) {
+                double next = parsePercentage(values.get(j));
+                if (val - next >= 5) alerts++;
+            }
+        }
+        bh.consume(alerts);
+    }
+
+    @Benchmark
+    public void monotonicDeque(Blackhole bh) {
+        SlidingWindowMax window = new SlidingWindowMax();
+        long windowMillis = windowMinutes * 60_000L;
+        int alerts = 0;
+        for (int i = 0; i < values.size(); i++) {
+            double val = parsePercentage(values.get(i));
+            window.evictBefore(timestamps[i] - windowMillis);
+            if (window.max() - val >= 5) alerts++;
+            window.add(timestamps[i], val);
+        }
+        bh.consume(alerts);
+    }
+
+    private static double parsePercentage(String input) {
+        return Double.parseDouble(input.replace("%", "").trim());
+    }
+}
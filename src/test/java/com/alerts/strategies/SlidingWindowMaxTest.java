@@ -0,0 +1,50 @@
+package com.alerts.strategies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the monotonic-deque window maximum against a brute force scan.
+ */
+class SlidingWindowMaxTest {
+
+    @Test
+    void testMaxMatchesBruteForce() {
+        Random random = new Random(7);
+        int count = 2_000;
+        long window = 60_000;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+
+        SlidingWindowMax max = new SlidingWindowMax(4);
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = i * 1000L + random.nextInt(500);
+            values[i] = 90 + random.nextInt(11);
+
+            max.evictBefore(timestamps[i] - window);
+            max.add(timestamps[i], values[i]);
+
+            double expected = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j <= i; j++) {
+                if (timestamps[j] >= timestamps[i] - window) {
+                    expected = Math.max(expected, values[j]);
+                }
+            }
+            assertEquals(expected, max.max(), 0.0, "Wrong maximum at reading " + i);
+        }
+    }
+
+    @Test
+    void testEmptyWindow() {
+        SlidingWindowMax max = new SlidingWindowMax();
+        assertTrue(max.isEmpty());
+        assertEquals(Double.NEGATIVE_INFINITY, max.max());
+
+        max.add(1000, 98);
+        max.evictBefore(2000);
+        assertTrue(max.isEmpty());
+    }
+}
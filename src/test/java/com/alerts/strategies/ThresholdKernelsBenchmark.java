@@ -0,0 +1,115 @@
+package com.alerts.strategies;
+
+import com.data_management.PatientRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares heart rate threshold checks (below 50 or above 120) three ways: parsing
+ * each {@link PatientRecord} as the rules used to, plain loops over primitive columns
+ * and the {@link ThresholdKernels}, on two workloads: a ward-wide scan of the last
+ * 10 minutes of 500 patients, and a replay of one long recorded column that visits
+ * every breach.
+ * <p>
+ * The Vector API path needs the Java 17 classes in front of the Java 11 ones and the
+ * incubator module, which the fork adds. Run with:
+ * {@code mvn test-compile && java -cp target/test-classes:target/classes/META-INF/versions/17:target/classes:<test classpath> org.openjdk.jmh.Main ThresholdKernelsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ThresholdKernelsBenchmark {
+
+    private static final int PATIENTS = 500;
+    private static final int WINDOW = 600;
+    private static final int REPLAY = 1_000_000;
+
+    private List<List<PatientRecord>> wardRecords;
+    private double[][] wardColumns;
+    private double[] replayColumn;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        wardRecords = new ArrayList<>(PATIENTS);
+        wardColumns = new double[PATIENTS][WINDOW];
+        for (int p = 0; p < PATIENTS; p++) {
+            List<PatientRecord> records = new ArrayList<>(WINDOW);
+            for (int i = 0; i < WINDOW; i++) {
+                double heartRate = heartRate(random);
+                wardColumns[p][i] = heartRate;
+                records.add(new PatientRecord(p, Double.toString(heartRate), "HeartRate", i * 1000L));
+            }
+            wardRecords.add(records);
+        }
+        replayColumn = new double[REPLAY];
+        for (int i = 0; i < REPLAY; i++) {
+            replayColumn[i] = heartRate(random);
+        }
+        if (!ThresholdKernels.isVectorized()) {
+            System.err.println("Vector API not in use; see the class comment for the classpath");
+        }
+    }
+
+    /** Mostly normal rates with a rare breach. */
+    private static double heartRate(Random random) {
+        return random.nextInt(1000) == 0 ? 130 : 60 + random.nextDouble() * 50;
+    }
+
+    @Benchmark
+    public int wardScanRecords() {
+        int breaches = 0;
+        for (List<PatientRecord> records : wardRecords) {
+            for (PatientRecord record : records) {
+                double value = Double.parseDouble(record.getMeasurementValue());
+                if (value < 50 || value > 120) breaches++;
+            }
+        }
+        return breaches;
+    }
+
+    @Benchmark
+    public int wardScanScalar() {
+        int breaches = 0;
+        for (double[] column : wardColumns) {
+            breaches += ScalarThresholdKernels.countOutside(column, 0, WINDOW, 50, 120);
+        }
+        return breaches;
+    }
+
+    @Benchmark
+    public int wardScanKernels() {
+        int breaches = 0;
+        for (double[] column : wardColumns) {
+            breaches += ThresholdKernels.countOutside(column, 0, WINDOW, 50, 120);
+        }
+        return breaches;
+    }
+
+    @Benchmark
+    public int replayScalar() {
+        int breaches = 0;
+        for (int i = ScalarThresholdKernels.firstOutside(replayColumn, 0, REPLAY, 50, 120); i >= 0;
+             i = ScalarThresholdKernels.firstOutside(replayColumn, i + 1, REPLAY, 50, 120)) {
+            breaches++;
+        }
+        return breaches;
+    }
+
+    @Benchmark
+    public int replayKernels() {
+        int breaches = 0;
+        for (int i = ThresholdKernels.firstOutside(replayColumn, 0, REPLAY, 50, 120); i >= 0;
+             i = ThresholdKernels.firstOutside(replayColumn, i + 1, REPLAY, 50, 120)) {
+            breaches++;
+        }
+        return breaches;
+    }
+}
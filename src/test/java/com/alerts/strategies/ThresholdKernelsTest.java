@@ -0,0 +1,67 @@
+package com.alerts.strategies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests the bulk threshold kernels against a plain loop.
+ */
+class ThresholdKernelsTest {
+
+    @Test
+    void testMatchesPlainLoopOnRandomWindows() {
+        Random random = new Random(7);
+        double[] heartRates = new double[1000];
+        for (int i = 0; i < heartRates.length; i++) {
+            heartRates[i] = 45 + random.nextDouble() * 80;
+        }
+        for (int trial = 0; trial < 200; trial++) {
+            int from = random.nextInt(heartRates.length);
+            int to = from + random.nextInt(heartRates.length - from + 1);
+            int count = 0;
+            int first = -1;
+            for (int i = from; i < to; i++) {
+                if (heartRates[i] < 50 || heartRates[i] > 120) {
+                    if (first < 0) first = i;
+                    count++;
+                }
+            }
+            assertEquals(count, ThresholdKernels.countOutside(heartRates, from, to, 50, 120));
+            assertEquals(first, ThresholdKernels.firstOutside(heartRates, from, to, 50, 120));
+        }
+    }
+
+    @Test
+    void testOneSidedLimitsAndNaN() {
+        double[] saturation = new double[100];
+        Arrays.fill(saturation, 97);
+        saturation[40] = Double.NaN;
+        saturation[70] = 91;
+        saturation[99] = 89;
+
+        assertEquals(2, ThresholdKernels.countOutside(saturation, 0, 100, 92, Double.POSITIVE_INFINITY));
+        assertEquals(70, ThresholdKernels.firstOutside(saturation, 0, 100, 92, Double.POSITIVE_INFINITY));
+        assertEquals(99, ThresholdKernels.firstOutside(saturation, 71, 100, 92, Double.POSITIVE_INFINITY));
+        assertEquals(-1, ThresholdKernels.firstOutside(saturation, 0, 70, 92, Double.POSITIVE_INFINITY));
+        assertEquals(0, ThresholdKernels.countOutside(saturation, 5, 5, 92, 100));
+    }
+
+    @Test
+    void testVectorKernelsRunWhenExpected() {
+        // Set by the build's Vector API test run, which loads the Java 17 classes first
+        assumeTrue(Boolean.getBoolean("thresholdKernels.expectVectorized"));
+        assertTrue(ThresholdKernels.isVectorized(), "The Java 17 kernels with the Vector API module are loaded");
+    }
+
+    @Test
+    void testRejectsInvalidRange() {
+        double[] values = new double[10];
+        assertThrows(IndexOutOfBoundsException.class, () -> ThresholdKernels.countOutside(values, 0, 11, 0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> ThresholdKernels.firstOutside(values, 5, 4, 0, 1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.alerts.strategies;
+
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the time-aligned join and the linear merge of sorted streams.
+ */
+class TimeAlignedJoinTest {
+
+    @Test
+    void testAlignmentWithinTolerance() {
+        TimeAlignedJoin join = new TimeAlignedJoin(2, 60_000);
+
+        assertFalse(join.offer(0, 0, 85), "The other stream has no value yet");
+        assertTrue(join.offer(1, 30_000, 89));
+        assertEquals(85, join.valueOf(0));
+        assertFalse(join.offer(1, 90_000, 88), "Stream 0 is now older than the tolerance");
+        assertTrue(join.offer(0, 100_000, 80));
+
+        // Late and unparsable values are ignored
+        assertFalse(join.offer(0, 50_000, 120));
+        assertFalse(join.offer(0, 110_000, Double.NaN));
+        assertEquals(80, join.valueOf(0));
+        assertEquals(100_000, join.timeOf(0));
+
+        join.reset();
+        assertTrue(Double.isNaN(join.valueOf(1)));
+    }
+
+    @Test
+    void testMergeByTime() {
+        List<PatientRecord> bp = Arrays.asList(
+                new PatientRecord(1, "120/80", "BloodPressure", 10),
+                new PatientRecord(1, "121/80", "BloodPressure", 40));
+        List<PatientRecord> sat = Arrays.asList(
+                new PatientRecord(1, "97%", "Saturation", 30),
+                new PatientRecord(1, "96%", "Saturation", 20),
+                new PatientRecord(1, "95%", "Saturation", 50));
+
+        List<Long> times = TimeAlignedJoin.mergeByTime(Arrays.asList(bp, sat)).stream()
+                .map(PatientRecord::getTimestamp)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(10L, 20L, 30L, 40L, 50L), times);
+    }
+}
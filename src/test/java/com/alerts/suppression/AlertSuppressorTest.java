@@ -0,0 +1,132 @@
+package com.alerts.suppression;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AnomalyAlert;
+import com.alerts.SaturationAlert;
+import com.alerts.decorators.PriorityAlertDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that repeated alerts are collapsed per patient and condition.
+ */
+class AlertSuppressorTest {
+
+    private static final long MINUTE = 60_000;
+
+    private static Alert lowSat(String patientId, long timestamp) {
+        return new SaturationAlert(patientId, AlertCondition.LOW_SATURATION, timestamp);
+    }
+
+    @Test
+    void testRepeatsAreCollapsedIntoSummary() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 60 * MINUTE);
+
+        for (int i = 0; i < 30; i++) {
+            suppressor.trigger(lowSat("1", i * 20_000L));
+        }
+        assertEquals(1, out.size(), "Only the first alert passes while the condition repeats");
+        assertEquals("Low Saturation", out.get(0).getCondition());
+        assertEquals(29, suppressor.getSuppressedCount());
+
+        // Window closes 10 minutes after the last repeat: one summary with the count
+        suppressor.advanceTo(29 * 20_000L + 10 * MINUTE);
+        assertEquals(2, out.size());
+        assertEquals(30, out.get(1).getRepeatCount());
+        assertEquals("Low Saturation (repeated x30)", out.get(1).getCondition());
+        assertEquals(0, suppressor.getActiveCount());
+
+        // A new occurrence after the window starts a new episode
+        suppressor.trigger(lowSat("1", 40 * MINUTE));
+        assertEquals(3, out.size());
+        assertEquals(-1, out.get(2).getRepeatCount());
+    }
+
+    @Test
+    void testKeysArePatientAndCondition() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 60 * MINUTE);
+
+        suppressor.trigger(lowSat("1", 0));
+        suppressor.trigger(lowSat("2", 1000));
+        suppressor.trigger(new SaturationAlert("1", AlertCondition.RAPID_SATURATION_DROP, 2000));
+        suppressor.trigger(lowSat("1", 3000));
+
+        assertEquals(3, out.size());
+        assertEquals(1, suppressor.getSuppressedCount());
+    }
+
+    @Test
+    void testAnomaliesOfDifferentSignalsAreSuppressedSeparately() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 60 * MINUTE);
+
+        for (long t = 0; t < 5 * MINUTE; t += MINUTE) {
+            suppressor.trigger(new AnomalyAlert("1", AlertCondition.ABOVE_BASELINE, t, "HeartRate"));
+        }
+        suppressor.trigger(new AnomalyAlert("1", AlertCondition.ABOVE_BASELINE, 5 * MINUTE, "Saturation"));
+        suppressor.trigger(new AnomalyAlert("1", AlertCondition.ABOVE_BASELINE, 6 * MINUTE, "Saturation"));
+        assertEquals(2, out.size(), "The first anomaly of each signal is forwarded");
+        assertEquals("Above Patient Baseline: Saturation", out.get(1).getCondition());
+        assertEquals(2, suppressor.getActiveCount());
+
+        suppressor.advanceTo(30 * MINUTE);
+        assertEquals(4, out.size());
+        assertEquals(Set.of("Above Patient Baseline: HeartRate (repeated x5)",
+                        "Above Patient Baseline: Saturation (repeated x2)"),
+                Set.of(out.get(2).getCondition(), out.get(3).getCondition()), "Each signal is summarised with its own count");
+    }
+
+    @Test
+    void testPersistentConditionEscalates() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 30 * MINUTE);
+
+        for (long t = 0; t <= 30 * MINUTE; t += MINUTE) {
+            suppressor.trigger(lowSat("1", t));
+        }
+        assertEquals(2, out.size());
+        Alert escalated = out.get(1);
+        assertEquals(31, escalated.getRepeatCount());
+        assertEquals(4, escalated.getPriority(), "Escalated alerts are one priority higher");
+    }
+
+    @Test
+    void testDecoratedAlertKeepsRepeatCountAndBoost() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 30 * MINUTE);
+
+        for (long t = 0; t <= 30 * MINUTE; t += MINUTE) {
+            suppressor.trigger(new PriorityAlertDecorator(lowSat("1", t), 1));
+        }
+        suppressor.trigger(new PriorityAlertDecorator(lowSat("1", 31 * MINUTE), 1));
+        suppressor.advanceTo(50 * MINUTE);
+
+        assertEquals(3, out.size());
+        Alert escalated = out.get(1);
+        assertEquals(31, escalated.getRepeatCount());
+        assertEquals("Low Saturation (repeated x31)", escalated.getCondition());
+        assertEquals(5, escalated.getPriority(), "The escalation boost reaches the wrapped alert");
+        Alert summary = out.get(2);
+        assertEquals(32, summary.getRepeatCount());
+        assertEquals(4, summary.getPriority());
+    }
+
+    @Test
+    void testPerConditionWindows() {
+        List<Alert> out = new ArrayList<>();
+        AlertSuppressor suppressor = new AlertSuppressor(out::add, 10 * MINUTE, 60 * MINUTE);
+        suppressor.configure(AlertCondition.LOW_SATURATION, 0, 0);
+
+        suppressor.trigger(lowSat("1", 0));
+        suppressor.trigger(lowSat("1", 1000));
+        assertEquals(2, out.size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.alerts.suppression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the timer-wheel backed expiring map.
+ */
+class ExpiringMapTest {
+
+    @Test
+    void testEntriesExpireAtDeadline() {
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(8, 100);
+        List<String> expired = new ArrayList<>();
+
+        map.advance(0, null);
+        map.put("a", 1, 250);
+        map.put("b", 2, 5_000); // more than one revolution ahead
+        map.put("c", 3, 300);
+
+        map.advance(249, (k, v) -> expired.add(k));
+        assertTrue(expired.isEmpty());
+
+        map.advance(300, (k, v) -> expired.add(k));
+        assertEquals(List.of("a", "c"), expired.stream().sorted().collect(Collectors.toList()));
+        assertEquals(1, map.size());
+
+        // Several revolutions later the far entry is found due
+        map.advance(5_000, (k, v) -> expired.add(k));
+        assertEquals(3, expired.size());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void testRescheduleAndRemove() {
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(8, 100);
+        map.put("a", 1, 100);
+        map.put("b", 2, 100);
+        assertTrue(map.reschedule("a", 1_000));
+        assertEquals(2, map.remove("b"));
+        assertFalse(map.reschedule("b", 1_000));
+
+        map.advance(500, null);
+        assertEquals(1, map.get("a"));
+        assertEquals(1_000, map.getDeadline("a"));
+
+        map.advance(1_000, null);
+        assertNull(map.get("a"));
+        assertEquals(Long.MIN_VALUE, map.getDeadline("a"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.cardio_generator;
+
+import com.alerts.VirtualClock;
+import com.cardio_generator.generators.*;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many generated samples per second the {@link SimulationScheduler}
+ * sustains for {@value #PATIENTS} patients with the simulator's five generators;
+ * real time needs about 3 samples per patient per second.
+ * <p>
+ * Run with:
+ * {@code mvn test-compile && java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main SimulationSchedulerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationSchedulerBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final long TICK_MILLIS = SimulationScheduler.DEFAULT_TICK_MILLIS;
+
+    private final LongAdder output = new LongAdder();
+    private VirtualClock clock;
+    private SimulationScheduler scheduler;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        OutputStrategy counting = (patientId, timestamp, label, data) -> output.increment();
+        clock = new VirtualClock(0);
+        scheduler = new SimulationScheduler(counting, TICK_MILLIS, SimulationScheduler.DEFAULT_WHEEL_SIZE,
+                Runtime.getRuntime().availableProcessors(), clock);
+        ECGDataGenerator ecg = new ECGDataGenerator(PATIENTS);
+        BloodSaturationDataGenerator saturation = new BloodSaturationDataGenerator(PATIENTS);
+        BloodPressureDataGenerator pressure = new BloodPressureDataGenerator(PATIENTS);
+        BloodLevelsDataGenerator levels = new BloodLevelsDataGenerator(PATIENTS);
+        HeartRateDataGenerator heartRate = new HeartRateDataGenerator(PATIENTS);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int id = 1; id <= PATIENTS; id++) {
+            scheduler.schedule(id, ecg, 1000, random.nextLong(1000));
+            scheduler.schedule(id, saturation, 1000, random.nextLong(1000));
+            scheduler.schedule(id, pressure, 60_000, random.nextLong(60_000));
+            scheduler.schedule(id, levels, 120_000, random.nextLong(120_000));
+            scheduler.schedule(id, heartRate, 1000, random.nextLong(1000));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    /** One operation is one tick of simulated time; the samples it produced are reported. */
+    @Benchmark
+    public long tick(SampleCounters counters) {
+        now += TICK_MILLIS;
+        clock.advanceTo(now);
+        long before = scheduler.getSampleCount();
+        scheduler.runDue(now);
+        long produced = scheduler.getSampleCount() - before;
+        counters.samples += produced;
+        return produced;
+    }
+
+    /** Counts samples per iteration so JMH reports samples per second next to ticks. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SampleCounters {
+        public long samples;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            samples = 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.cardio_generator;
+
+import com.alerts.VirtualClock;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the timer wheel that drives the data generators.
+ */
+class SimulationSchedulerTest {
+
+    /** Records the time of each run, per patient. */
+    private static final class RecordingGenerator implements PatientDataGenerator {
+        final List<String> runs = Collections.synchronizedList(new ArrayList<>());
+        final VirtualClock clock;
+
+        RecordingGenerator(VirtualClock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void generate(int patientId, OutputStrategy outputStrategy) {
+            runs.add(patientId + "@" + clock.getAsLong());
+        }
+    }
+
+    @Test
+    void testTasksKeepTheirPhase() {
+        VirtualClock clock = new VirtualClock(0);
+        SimulationScheduler scheduler = new SimulationScheduler((id, t, label, data) -> { }, 10, 16, 2, clock);
+        RecordingGenerator generator = new RecordingGenerator(clock);
+        scheduler.schedule(1, generator, 1000, 250);
+        scheduler.schedule(2, generator, 1000, 700);
+
+        for (long t = 10; t <= 3000; t += 10) {
+            clock.advanceTo(t);
+            scheduler.runDue(t);
+        }
+        scheduler.stop();
+
+        assertEquals(List.of("1@250", "2@700", "1@1250", "2@1700", "1@2250", "2@2700"), generator.runs);
+        assertEquals(6, scheduler.getSampleCount());
+        assertEquals(2.0, scheduler.getTargetRate(), 1e-9);
+        assertEquals(2.0, scheduler.getAchievedRate(), 1e-9);
+    }
+
+    @Test
+    void testPeriodsLongerThanOneTurn() {
+        VirtualClock clock = new VirtualClock(0);
+        // One turn of the wheel is 160 ms, the period a minute
+        SimulationScheduler scheduler = new SimulationScheduler((id, t, label, data) -> { }, 10, 16, 1, clock);
+        RecordingGenerator generator = new RecordingGenerator(clock);
+        scheduler.schedule(1, generator, 60_000, 30_000);
+
+        for (long t = 10; t <= 150_000; t += 10) {
+            clock.advanceTo(t);
+            scheduler.runDue(t);
+        }
+        scheduler.stop();
+
+        assertEquals(List.of("1@30000", "1@90000", "1@150000"), generator.runs);
+    }
+
+    @Test
+    void testMissedRunsAreSkippedNotBunched() {
+        VirtualClock clock = new VirtualClock(0);
+        SimulationScheduler scheduler = new SimulationScheduler((id, t, label, data) -> { }, 10, 16, 1, clock);
+        RecordingGenerator generator = new RecordingGenerator(clock);
+        scheduler.schedule(1, generator, 1000, 100);
+
+        clock.advanceTo(100);
+        scheduler.runDue(100);
+        // A stall of several seconds
+        clock.advanceTo(4500);
+        scheduler.runDue(4500);
+        clock.advanceTo(5100);
+        scheduler.runDue(5100);
+        scheduler.stop();
+
+        assertEquals(List.of("1@100", "1@4500", "1@5100"), generator.runs);
+        assertEquals(3, scheduler.getMissedCount());
+        assertTrue(scheduler.getAchievedRate() < scheduler.getTargetRate());
+    }
+
+    @Test
+    void testRunsEveryPatientOnTheWorkerPool() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler((id, t, label, data) -> { });
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        for (int id = 1; id <= 2000; id++) {
+            scheduler.schedule(id, (patientId, out) -> seen.add(patientId), 1000, id % 500);
+        }
+        scheduler.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (seen.size() < 2000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        scheduler.stop();
+
+        assertEquals(2000, scheduler.getTaskCount());
+        assertEquals(2000, seen.stream().distinct().count());
+        assertEquals(0, scheduler.getFailureCount());
+    }
+}
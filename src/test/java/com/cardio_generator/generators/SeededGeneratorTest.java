@@ -0,0 +1,66 @@
+package com.cardio_generator.generators;
+
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that seeded generators reproduce each patient's values.
+ */
+class SeededGeneratorTest {
+
+    private static final int PATIENTS = 20;
+
+    private static List<PatientDataGenerator> generators(long seed) {
+        List<PatientDataGenerator> generators = new ArrayList<>();
+        generators.add(new ECGDataGenerator(PATIENTS, seed));
+        generators.add(new BloodSaturationDataGenerator(PATIENTS, seed));
+        generators.add(new BloodPressureDataGenerator(PATIENTS, seed));
+        generators.add(new BloodLevelsDataGenerator(PATIENTS, seed));
+        generators.add(new HeartRateDataGenerator(PATIENTS, seed));
+        generators.add(new AlertGenerator(PATIENTS, seed));
+        return generators;
+    }
+
+    /** Runs every generator for the patients in the given order and returns the values of one patient. */
+    private static List<String> valuesOf(int patientId, long seed, List<Integer> order) {
+        List<String> values = new ArrayList<>();
+        OutputStrategy recorder = (id, timestamp, label, data) -> {
+            if (id == patientId) values.add(label + "=" + data);
+        };
+        List<PatientDataGenerator> generators = generators(seed);
+        for (int round = 0; round < 50; round++) {
+            for (int id : order) {
+                for (PatientDataGenerator generator : generators) {
+                    generator.generate(id, recorder);
+                }
+            }
+        }
+        return values;
+    }
+
+    @Test
+    void testSameSeedReproducesValuesWhateverTheOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int id = 1; id <= PATIENTS; id++) order.add(id);
+        List<String> first = valuesOf(7, 42, order);
+
+        Collections.reverse(order);
+        assertEquals(first, valuesOf(7, 42, order));
+        assertNotEquals(first, valuesOf(7, 43, order));
+    }
+
+    @Test
+    void testPatientsAndGeneratorsHaveSeparateStreams() {
+        List<Integer> order = new ArrayList<>();
+        for (int id = 1; id <= PATIENTS; id++) order.add(id);
+        assertNotEquals(valuesOf(1, 42, order), valuesOf(2, 42, order));
+        assertNotEquals(PatientRandoms.split(42, "HeartRate", 1)[1].nextLong(),
+                PatientRandoms.split(42, "Saturation", 1)[1].nextLong());
+    }
+}
@@ -0,0 +1,154 @@
+package com.cardio_generator.outputs;
+
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import com.data_management.SegmentManifest;
+import com.data_management.metrics.IngestMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the buffered, group-flushed file output.
+ */
+class FileOutputStrategyTest {
+
+    @Test
+    void testLinesFromManyThreadsAreWrittenOnClose(@TempDir Path dir) throws Exception {
+        FileOutputStrategy output = new FileOutputStrategy(dir.toString(), 60_000, Integer.MAX_VALUE,
+                FsyncPolicy.ON_CLOSE);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int patientId = t + 1;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    output.output(patientId, 1714376789051L + i, i % 2 == 0 ? "HeartRate" : "Saturation",
+                            i % 2 == 0 ? "72.0" : "97.0%");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        output.close();
+        output.output(9, 0, "HeartRate", "80.0"); // discarded after close
+
+        List<String> heartRates = Files.readAllLines(dir.resolve("HeartRate.txt"));
+        assertEquals(2000, heartRates.size());
+        assertEquals(2000, Files.readAllLines(dir.resolve("Saturation.txt")).size());
+        assertTrue(heartRates.contains("Patient ID: 3, Timestamp: 1714376789051, Label: HeartRate, Data: 72.0"));
+
+        // The files are still readable by the file reader
+        DataStorage storage = new DataStorage();
+        new FileDataReader(dir.toString()).readData(storage);
+        assertEquals(4, storage.getAllPatients().size());
+        assertEquals(1000, storage.getRecords(3, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testSizeThresholdFlushesWithoutWaiting(@TempDir Path dir) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(dir.toString(), 60_000, 1000, FsyncPolicy.NONE);
+        for (int i = 0; i < 10; i++) {
+            output.output(1, i, "ECG", "0.5");
+        }
+        assertFalse(Files.exists(dir.resolve("ECG.txt")));
+
+        for (int i = 10; i < 30; i++) {
+            output.output(1, i, "ECG", "0.5");
+        }
+        assertTrue(Files.readAllLines(dir.resolve("ECG.txt")).size() >= 20);
+        output.close();
+        assertEquals(30, Files.readAllLines(dir.resolve("ECG.txt")).size());
+    }
+
+    @Test
+    void testPeriodicFlushAppendsToExistingFile(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("Cholesterol.txt"),
+                List.of("Patient ID: 1, Timestamp: 1, Label: Cholesterol, Data: 180.0"));
+        FileOutputStrategy output = new FileOutputStrategy(dir.toString(), 10, Integer.MAX_VALUE,
+                FsyncPolicy.EVERY_FLUSH);
+        output.output(2, 2, "Cholesterol", "190.0");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.readAllLines(dir.resolve("Cholesterol.txt")).size() < 2
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("Patient ID: 1, Timestamp: 1, Label: Cholesterol, Data: 180.0",
+                "Patient ID: 2, Timestamp: 2, Label: Cholesterol, Data: 190.0"),
+                Files.readAllLines(dir.resolve("Cholesterol.txt")));
+        output.close();
+    }
+
+    @Test
+    void testHourlySegmentsAreCompressedAndReadByWindow(@TempDir Path dir) throws IOException {
+        long hour = 3_600_000L;
+        long start = 1792231200000L; // 2026-10-17T10:00Z
+        FileOutputStrategy output = new FileOutputStrategy(dir.toString(), 60_000, 100, FsyncPolicy.NONE,
+                SegmentRotation.parse("1h"));
+        for (long t = start; t < start + 3 * hour; t += 60_000) {
+            output.output(1, t, "HeartRate", "72.0");
+            output.output(2, t, "HeartRate", "80.0");
+        }
+        output.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("HeartRate-2026-10-17T10.txt.gz", "HeartRate-2026-10-17T11.txt.gz",
+                            "HeartRate-2026-10-17T12.txt.gz", SegmentManifest.FILE_NAME),
+                    files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+        SegmentManifest manifest = SegmentManifest.load(dir);
+        SegmentManifest.Segment second = manifest.get("HeartRate-2026-10-17T11.txt.gz");
+        assertEquals(start + hour, second.getFirstTimestamp());
+        assertEquals(start + 2 * hour - 60_000, second.getLastTimestamp());
+        assertEquals(120, second.getLines());
+
+        // A window within the second hour opens only its segment
+        IngestMetrics metrics = new IngestMetrics();
+        DataStorage storage = new DataStorage();
+        new FileDataReader(dir.toString(), metrics).readData(storage, start + hour + 10 * 60_000,
+                start + hour + 20 * 60_000 - 1);
+        assertEquals(1, metrics.source("file").getBatchMicros().getCount());
+        assertEquals(10, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+
+        DataStorage everything = new DataStorage();
+        new FileDataReader(dir.toString()).readData(everything);
+        assertEquals(180, everything.getRecords(2, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testSizeRotationNumbersSegmentsOfTheSameHour(@TempDir Path dir) throws IOException {
+        long start = 1792231200000L;
+        FileOutputStrategy output = new FileOutputStrategy(dir.toString(), 60_000, 1, FsyncPolicy.ON_CLOSE,
+                SegmentRotation.of(1000, 0));
+        for (int i = 0; i < 40; i++) {
+            output.output(1, start + i, "ECG", "0.5");
+        }
+        output.close();
+
+        List<SegmentManifest.Segment> segments = SegmentManifest.load(dir).getSegments();
+        assertTrue(segments.size() > 1);
+        assertEquals("ECG-2026-10-17T10.txt", segments.get(0).getFile());
+        assertEquals("ECG-2026-10-17T10-1.txt", segments.get(1).getFile());
+        assertEquals(40, segments.stream().mapToLong(SegmentManifest.Segment::getLines).sum());
+        assertTrue(Files.exists(dir.resolve("ECG-2026-10-17T10-1.txt.gz")));
+    }
+
+    @Test
+    void testParseRotation() {
+        SegmentRotation rotation = SegmentRotation.parse("15m,256MB");
+        assertEquals(15 * 60_000L, rotation.getPeriodMillis());
+        assertEquals(256L << 20, rotation.getMaxBytes());
+        assertFalse(SegmentRotation.parse("0s").isEnabled());
+        assertThrows(IllegalArgumentException.class, () -> SegmentRotation.parse("hourly"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.data_management;
 
+import com.data_management.metrics.IngestMetrics;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -62,4 +64,26 @@ class FileDataReaderTest {
         // Assert: Corrupted line should not result in any patient being stored
         assertEquals(0, storage.getAllPatients().size(), "Expected no patients to be stored after reading corrupted line");
     }
+
+    /**
+     * Tests that a blood pressure half with an unreadable value is rejected once
+     * and not stored.
+     */
+    @Test
+    void testBadBloodPressureHalfIsCountedOnce(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("SystolicPressure.txt");
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(path.toFile()))) {
+            out.println("Patient ID: 1, Timestamp: 1714376789051, Label: SystolicPressure, Data: 120");
+            out.println("Patient ID: 1, Timestamp: 1714376789052, Label: SystolicPressure, Data: n/a");
+        }
+
+        DataStorage storage = new DataStorage();
+        IngestMetrics metrics = new IngestMetrics();
+        new FileDataReader(dir.toString(), metrics).readData(storage);
+
+        assertEquals(1, metrics.source("file").totals().getAccepted());
+        assertEquals(1, metrics.source("file").totals().getRejected());
+        assertEquals(1, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+    }
 }
@@ -2,6 +2,7 @@ package com.data_management;
 
 import org.junit.jupiter.api.Test;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,4 +30,49 @@ class PatientTest {
 
         assertTrue(records.isEmpty(), "Expected no records in this time range");
     }
+
+    @Test
+    void testPerSignalQueries() {
+        Patient patient = new Patient(3);
+        patient.addRecord("80", "HeartRate", 1000);
+        patient.addRecord("5.1", "Cholesterol", 1500);
+        patient.addRecord("82", "HeartRate", 2000);
+        patient.addRecord("84", "HeartRate", 3000);
+
+        assertEquals(3, patient.getRecordCount("heartrate"), "Types are matched case-insensitively");
+        assertEquals(0, patient.getRecordCount("ECG"));
+        List<PatientRecord> newer = patient.getRecordsFrom("HeartRate", 1);
+        assertEquals(2, newer.size());
+        assertEquals("82", newer.get(0).getMeasurementValue());
+
+        List<PatientRecord> window = patient.getRecords("HeartRate", 1500, 3000);
+        assertEquals(2, window.size());
+        assertEquals(2000, window.get(0).getTimestamp());
+    }
+
+    @Test
+    void testDifferentSpellingsShareOneSeries() {
+        Patient patient = new Patient(5);
+        patient.addRecord("80", "HeartRate", 1000);
+        patient.addRecord("82", "heartrate", 2000);
+        patient.addRecord("90", "HEARTRATE", 1500);
+
+        assertEquals(3, patient.getRecordCount("HeartRate"));
+        assertEquals(List.of("80", "82", "90"), patient.getRecords("heartRate", 0, 5000).stream()
+                .map(PatientRecord::getMeasurementValue).collect(Collectors.toList()));
+        assertEquals(2000, patient.getLatestTimestamp("Heartrate"));
+        assertEquals("HEARTRATE", patient.getRecordsFrom("heartrate", 2).get(0).getRecordType(),
+                "Records keep their own spelling");
+    }
+
+    @Test
+    void testPerSignalRangeWithLateSample() {
+        Patient patient = new Patient(4);
+        patient.addRecord("80", "HeartRate", 3000);
+        patient.addRecord("82", "HeartRate", 1000);
+        patient.addRecord("84", "HeartRate", 2000);
+
+        assertEquals(2, patient.getRecords("HeartRate", 1500, 3000).size());
+        assertEquals(3000, patient.getLatestTimestamp("HeartRate"));
+    }
 }
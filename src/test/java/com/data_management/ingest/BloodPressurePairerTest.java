@@ -0,0 +1,77 @@
+package com.data_management.ingest;
+
+import com.alerts.Alert;
+import com.alerts.rules.RuleSet;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pairing of systolic and diastolic samples into blood pressure readings.
+ */
+class BloodPressurePairerTest {
+
+    @Test
+    void testPairsHalvesInEitherOrder() {
+        List<double[]> pairs = new ArrayList<>();
+        BloodPressurePairer pairer = new BloodPressurePairer(
+                (id, systolic, diastolic, ts) -> pairs.add(new double[]{id, systolic, diastolic, ts}));
+
+        assertTrue(pairer.offer(1, "SystolicPressure", 120, 1000));
+        assertTrue(pairer.offer(1, "DiastolicPressure", 80, 1001));
+        assertTrue(pairer.offer(2, "DiastolicPressure", 70, 2000));
+        assertTrue(pairer.offer(2, "SystolicPressure", 110, 2000));
+        assertFalse(pairer.offer(1, "HeartRate", 70, 1000));
+
+        assertEquals(2, pairs.size());
+        assertArrayEquals(new double[]{1, 120, 80, 1001}, pairs.get(0));
+        assertArrayEquals(new double[]{2, 110, 70, 2000}, pairs.get(1));
+        assertEquals(2, pairer.getPairedCount());
+        assertEquals(0, pairer.getPendingCount());
+    }
+
+    @Test
+    void testCountsUnmatchedHalves() {
+        List<double[]> pairs = new ArrayList<>();
+        BloodPressurePairer pairer = new BloodPressurePairer(
+                (id, systolic, diastolic, ts) -> pairs.add(new double[]{systolic, diastolic}), 4, 1000);
+
+        pairer.offer(1, "SystolicPressure", 120, 1000);
+        pairer.offer(1, "SystolicPressure", 125, 2000);   // replaces the first systolic
+        pairer.offer(1, "DiastolicPressure", 80, 5000);   // too late for the second one
+        pairer.offer(5, "DiastolicPressure", 75, 5000);   // shares slot 1, evicts patient 1
+        pairer.offer(5, "SystolicPressure", 118, 5500);
+
+        assertEquals(1, pairs.size());
+        assertArrayEquals(new double[]{118, 75}, pairs.get(0));
+        assertEquals(2, pairer.getUnmatchedSystolicCount());
+        assertEquals(1, pairer.getUnmatchedDiastolicCount());
+        assertEquals(0, pairer.getPendingCount());
+    }
+
+    @Test
+    void testPipelinePairsAndRulesReadPrimitivePairs() {
+        DataStorage storage = new DataStorage();
+        IngestPipeline pipeline = new IngestPipeline(storage, 2, WaitStrategy.YIELD);
+        pipeline.start();
+        pipeline.publish("3|SystolicPressure|190.0|1716632543000");
+        pipeline.publish("3|DiastolicPressure|85.0|1716632543001");
+        pipeline.publish("4|SystolicPressure|120.0|1716632543000");
+        pipeline.stop();
+
+        assertEquals(1, pipeline.getPairedBloodPressureCount());
+        List<PatientRecord> bp = storage.getRecords(3, "BloodPressure", 0, Long.MAX_VALUE);
+        assertEquals(1, bp.size());
+        assertEquals("190/85", bp.get(0).getMeasurementValue());
+
+        List<Alert> alerts = new ArrayList<>();
+        RuleSet.builtIn().evaluate("3", bp, alerts::add);
+        assertEquals(1, alerts.size());
+        assertEquals("Critical Blood Pressure", alerts.get(0).getCondition());
+    }
+}
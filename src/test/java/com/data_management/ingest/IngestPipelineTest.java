@@ -0,0 +1,70 @@
+package com.data_management.ingest;
+
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the staged ingestion pipeline end to end, without a network connection.
+ */
+class IngestPipelineTest {
+
+    @Test
+    void testMessagesAreDecodedStoredAndNotified() {
+        DataStorage storage = new DataStorage();
+        AtomicInteger notified = new AtomicInteger();
+        IngestPipeline pipeline = new IngestPipeline(storage, 2, 8, WaitStrategy.YIELD,
+                (id, label, value, ts) -> notified.incrementAndGet());
+        pipeline.start();
+
+        // More messages than slots, so every ring wraps around several times
+        for (int i = 0; i < 100; i++) {
+            pipeline.publish((i % 4 + 1) + "|HeartRate|" + (60 + i) + ".5|" + (1716632543000L + i));
+        }
+        pipeline.stop();
+
+        assertEquals(4, storage.getAllPatients().size());
+        assertEquals(100, notified.get());
+
+        List<PatientRecord> records = storage.getRecords(1, 1716632543000L, 1716632543000L);
+        assertEquals(1, records.size());
+        assertEquals("60.5", records.get(0).getMeasurementValue());
+        assertEquals("HeartRate", records.get(0).getRecordType());
+        double[] value = new double[1];
+        assertEquals(1, records.get(0).getComponents(value), "The decoded value is stored as a primitive");
+        assertEquals(60.5, value[0]);
+    }
+
+    @Test
+    void testInvalidMessagesAreSkipped() {
+        DataStorage storage = new DataStorage();
+        IngestPipeline pipeline = new IngestPipeline(storage, 1, WaitStrategy.PARK);
+        pipeline.start();
+
+        pipeline.publish("bad|format|only");
+        pipeline.publish("abc|heartRate|notANumber|badTimestamp");
+        pipeline.publish("7|ECG|0.25|1716632543000");
+        pipeline.stop();
+
+        assertEquals(1, storage.getAllPatients().size());
+        assertNotNull(storage.getPatient(7));
+    }
+
+    @Test
+    void testDecoderMatchesJdkParsing() {
+        SampleDecoder decoder = new SampleDecoder();
+        SampleEvent event = new SampleEvent();
+
+        String[] values = {"98.6", "-0.125", "97", "0.1234567890123", "1.7976931348623157E308"};
+        for (String value : values) {
+            assertTrue(decoder.decode("1|Saturation|" + value + "|42", event));
+            assertEquals(Double.parseDouble(value), event.value, 0.0);
+        }
+        assertFalse(decoder.decode("1|Saturation|97|42|extra", event));
+    }
+}
@@ -0,0 +1,60 @@
+package com.data_management.metrics;
+
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the ingestion counters and the log-linear latency histogram.
+ */
+class IngestMetricsTest {
+
+    @Test
+    void testHistogramPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5_000, histogram.getPercentile(50), 5_000 * 0.04);
+        assertEquals(9_900, histogram.getPercentile(99), 9_900 * 0.04);
+        assertEquals(5_000.5, histogram.getMean(), 0.001);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    void testFileReaderCountsAcceptedRejectedLateAndDuplicate(@TempDir Path dir) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(dir.resolve("HeartRate.txt").toFile()))) {
+            out.println("Patient ID: 1, Timestamp: 1000, Label: HeartRate, Data: 70");
+            out.println("Patient ID: 1, Timestamp: 2000, Label: HeartRate, Data: 71");
+            out.println("Patient ID: 1, Timestamp: 2000, Label: HeartRate, Data: 71"); // duplicate
+            out.println("Patient ID: 1, Timestamp: 1500, Label: HeartRate, Data: 72"); // late
+            out.println("Invalid Line");
+        }
+
+        IngestMetrics metrics = new IngestMetrics();
+        new FileDataReader(dir.toString(), metrics).readData(new DataStorage());
+
+        SourceMetrics file = metrics.source("file");
+        SignalCounters heartRate = file.counters("HeartRate");
+        assertEquals(4, heartRate.getAccepted());
+        assertEquals(1, heartRate.getDuplicate());
+        assertEquals(1, heartRate.getLate());
+        assertEquals(1, file.counters(SourceMetrics.UNPARSED).getRejected());
+        assertEquals(4, file.getStoreLatencyMillis().getCount());
+        assertEquals(1, file.getBatchMicros().getCount());
+    }
+}